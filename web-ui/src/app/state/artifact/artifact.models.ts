@@ -26,6 +26,7 @@ export interface CreateOrUpdateModel {
 export interface ArtifactFile {
   fileId: string;
   fileName: string;
+  size?: number;
 }
 
 export interface Model {
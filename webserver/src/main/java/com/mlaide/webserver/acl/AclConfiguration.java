@@ -23,7 +23,6 @@ import org.springframework.security.acls.domain.PermissionFactory;
 import org.springframework.security.acls.jdbc.LookupStrategy;
 import org.springframework.security.acls.model.AclCache;
 import org.springframework.security.acls.model.AclService;
-import org.springframework.security.acls.model.MutableAclService;
 import org.springframework.security.acls.model.PermissionGrantingStrategy;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
@@ -51,7 +50,7 @@ public class AclConfiguration {
     }
 
     @Bean
-    public MutableAclService aclService(LookupStrategy lookupStrategy, AclCache aclCache, AclRepository aclRepository) {
+    public BulkMutableAclService aclService(LookupStrategy lookupStrategy, AclCache aclCache, AclRepository aclRepository) {
         return new MongoDBMutableAclService(aclRepository, lookupStrategy, aclCache);
     }
 
@@ -0,0 +1,14 @@
+package com.mlaide.webserver.acl;
+
+import org.springframework.security.acls.model.MutableAclService;
+import org.springframework.security.acls.model.ObjectIdentity;
+
+import java.util.Collection;
+
+public interface BulkMutableAclService extends MutableAclService {
+    /**
+     * Creates the ACLs of new domain objects that inherit the entries of the parent ACL. All ACLs are written with
+     * one bulk insert; in contrast to {@link #createAcl} it is not checked whether the ACLs exist already.
+     */
+    void createInheritingAcls(ObjectIdentity parentIdentity, Collection<ObjectIdentity> objectIdentities);
+}
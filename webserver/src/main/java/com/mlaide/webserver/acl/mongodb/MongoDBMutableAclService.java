@@ -15,6 +15,7 @@
  */
 package com.mlaide.webserver.acl.mongodb;
 
+import com.mlaide.webserver.acl.BulkMutableAclService;
 import com.mlaide.webserver.acl.mongodb.entity.DomainObjectPermission;
 import com.mlaide.webserver.acl.mongodb.entity.MongoAcl;
 import com.mlaide.webserver.acl.mongodb.entity.MongoSid;
@@ -40,9 +41,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.Assert;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Provides a base MongoDB implementation of {@link MutableAclService}.
  * <p>
@@ -56,7 +60,7 @@ import java.util.UUID;
  * @author Roman Vottner
  * @since 4.3
  */
-public class MongoDBMutableAclService extends MongoDBAclService implements MutableAclService {
+public class MongoDBMutableAclService extends MongoDBAclService implements BulkMutableAclService {
     private static final Logger LOGGER = LoggerFactory.getLogger(MongoDBMutableAclService.class);
 
     private final AclCache aclCache;
@@ -97,6 +101,25 @@ public class MongoDBMutableAclService extends MongoDBAclService implements Mutab
         return (MutableAcl) acl;
     }
 
+    @Override
+    public void createInheritingAcls(ObjectIdentity parentIdentity, Collection<ObjectIdentity> objectIdentities) {
+        Assert.notNull(parentIdentity, "Parent Object Identity required");
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        PrincipalSid sid = new PrincipalSid(auth);
+
+        List<MongoAcl> mongoAcls = objectIdentities.stream()
+                .map(objectIdentity -> new MongoAcl(objectIdentity.getIdentifier(),
+                        objectIdentity.getType(),
+                        UUID.randomUUID().toString(),
+                        new MongoSid(sid.getPrincipal()),
+                        parentIdentity.getIdentifier(),
+                        true))
+                .collect(toList());
+
+        aclRepository.insert(mongoAcls);
+    }
+
     @Override
     public void deleteAcl(ObjectIdentity objectIdentity, boolean deleteChildren) throws ChildrenExistException {
         Assert.notNull(objectIdentity, "Object Identity required");
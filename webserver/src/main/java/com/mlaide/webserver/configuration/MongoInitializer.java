@@ -1,65 +1,252 @@
 package com.mlaide.webserver.configuration;
 
+import com.mlaide.webserver.repository.ArtifactFingerprint;
+import com.mlaide.webserver.repository.ChangeStamp;
+import com.mlaide.webserver.repository.CounterRepository;
+import com.mlaide.webserver.repository.LineageRepository;
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.ExperimentEntity;
+import com.mlaide.webserver.repository.entity.FileRefEntity;
+import com.mlaide.webserver.repository.entity.LineageEdgeEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Projections;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.data.mongodb.core.query.Update.update;
 
 @Component
 public class MongoInitializer implements InitializingBean {
+    private static final int BATCH_SIZE = 1000;
+    private static final String RUNS_WITH_SIMPLIFIED_ARTIFACT_REFS = "runsWithSimplifiedArtifactRefs";
     private final Logger LOGGER = LoggerFactory.getLogger(MongoInitializer.class);
 
     private final MongoTemplate mongoTemplate;
+    private final CounterRepository counterRepository;
+    private final LineageRepository lineageRepository;
 
-    public MongoInitializer(MongoTemplate mongoTemplate) {
+    public MongoInitializer(MongoTemplate mongoTemplate,
+                            CounterRepository counterRepository,
+                            LineageRepository lineageRepository) {
         this.mongoTemplate = mongoTemplate;
+        this.counterRepository = counterRepository;
+        this.lineageRepository = lineageRepository;
     }
 
     @Override
     public void afterPropertiesSet() {
-        createMongoViews();
+        createLineageEdges();
+        createArtifactFingerprints();
+        createFileIds();
+        createChangeSequences(RunEntity.class);
+        createChangeSequences(ArtifactEntity.class);
+        createChangeSequences(ExperimentEntity.class);
+        createWildcardIndexes();
     }
 
-    private void createMongoViews() {
-        LOGGER.info("Creating mongo view");
+    private void createWildcardIndexes() {
+        // Parameters and metrics are maps with arbitrary keys. Wildcard indexes (MongoDB 4.2+) allow to filter runs
+        //  by any parameter or metric without an index per key. Creating an existing index is a no-op.
+        LOGGER.info("Creating wildcard indexes for run parameters and metrics");
 
-        boolean viewExists = mongoTemplate.collectionExists("runsWithSimplifiedArtifactRefs");
-        if (!viewExists) {
-            mongoTemplate.getDb().createView(
-                    "runsWithSimplifiedArtifactRefs",
-                    "runs",
-                    runsWithSimplifiedArtifactRefsViewDefinition());
+        mongoTemplate.getCollection("runs").createIndex(new Document("parameters.$**", 1));
+        mongoTemplate.getCollection("runs").createIndex(new Document("metrics.$**", 1));
+    }
+
+    private void createLineageEdges() {
+        // The edges replace the view that the lineage was looked up on before
+        if (mongoTemplate.collectionExists(RUNS_WITH_SIMPLIFIED_ARTIFACT_REFS)) {
+            LOGGER.info("Dropping view {}", RUNS_WITH_SIMPLIFIED_ARTIFACT_REFS);
+            mongoTemplate.dropCollection(RUNS_WITH_SIMPLIFIED_ARTIFACT_REFS);
+        }
+
+        // The lineage edges are maintained on every write of a run or an artifact and the run is flagged with the
+        //  version of its edges. Only runs without the current version - written before the edges were introduced,
+        //  or by nodes of an older version during a rolling update - get their edges here, once in batches.
+        Query query = query(where("lineageVersion").ne(LineageEdgeEntity.VERSION));
+        query.fields().include("projectKey").include("key").include("artifacts").include("usedArtifacts");
+        if (!mongoTemplate.exists(query, RunEntity.class)) {
+            return;
+        }
+
+        LOGGER.info("Creating lineage edges of existing runs");
+
+        List<RunEntity> batch = new ArrayList<>(BATCH_SIZE);
+        try (CloseableIterator<RunEntity> runs = mongoTemplate.stream(query, RunEntity.class)) {
+            while (runs.hasNext()) {
+                batch.add(runs.next());
+
+                if (batch.size() == BATCH_SIZE) {
+                    addLineageEdges(batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            addLineageEdges(batch);
+        }
+    }
+
+    private void addLineageEdges(List<RunEntity> runs) {
+        lineageRepository.addEdgesOfRuns(runs);
+
+        // Flagged after the edges have been written; an interrupted backfill is continued on the next startup
+        List<ObjectId> ids = runs.stream().map(RunEntity::getId).collect(toList());
+        mongoTemplate.updateMulti(
+                query(where("_id").in(ids)), update("lineageVersion", LineageEdgeEntity.VERSION), RunEntity.class);
+    }
+
+    private void createArtifactFingerprints() {
+        // The fingerprint is set on every save of an artifact. Artifacts that have been written before the
+        //  fingerprint was introduced are updated once in batches.
+        Query query = query(where("fingerprint").exists(false));
+        query.fields().include("files.fileName").include("files.hash");
+        if (!mongoTemplate.exists(query, ArtifactEntity.class)) {
+            return;
+        }
+
+        LOGGER.info("Creating fingerprints of existing artifacts");
+
+        BulkOperations bulk = null;
+        int count = 0;
+        try (CloseableIterator<ArtifactEntity> artifacts = mongoTemplate.stream(query, ArtifactEntity.class)) {
+            while (artifacts.hasNext()) {
+                ArtifactEntity artifact = artifacts.next();
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArtifactEntity.class);
+                }
+
+                bulk.updateOne(query(where("_id").is(artifact.getId())),
+                        update("fingerprint", ArtifactFingerprint.ofFiles(artifact.getFiles())));
+
+                if (++count % BATCH_SIZE == 0) {
+                    bulk.execute();
+                    bulk = null;
+                }
+            }
+        }
+
+        if (bulk != null) {
+            bulk.execute();
         }
     }
 
-    private List<Document> runsWithSimplifiedArtifactRefsViewDefinition() {
-        return singletonList(new Document("$project",
-            new Document("key", 1)
-                .append("projectKey", 1)
-                .append("artifactVersions",
-                    new Document("$map",
-                        new Document("input", "$artifacts")
-                            .append("as", "artifact")
-                            .append("in",
-                                new Document(
-                                    "$concat",
-                                    asList("$$artifact.name", " ",
-                                    new Document("$toString", "$$artifact.version"))))))
-                .append("usedArtifactVersions",
-                    new Document("$map",
-                        new Document("input", "$usedArtifacts")
-                            .append("as", "artifact")
-                            .append("in",
-                                new Document(
-                                    "$concat",
-                                    asList("$$artifact.name", " ",
-                                    new Document("$toString", "$$artifact.version"))))))));
+    private void createFileIds() {
+        // Every file ref gets its own id when it is added. Files that have been added before were identified by the
+        //  object version id; they keep it as id, unless another file of the artifact has the same content (and hence
+        //  the same blob) - those get a new id.
+        Query query = query(where("files").elemMatch(where("fileId").exists(false)));
+        query.fields().include("files");
+        if (!mongoTemplate.exists(query, ArtifactEntity.class)) {
+            return;
+        }
+
+        LOGGER.info("Creating file ids of existing artifacts");
+
+        BulkOperations bulk = null;
+        int count = 0;
+        try (CloseableIterator<ArtifactEntity> artifacts = mongoTemplate.stream(query, ArtifactEntity.class)) {
+            while (artifacts.hasNext()) {
+                ArtifactEntity artifact = artifacts.next();
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArtifactEntity.class);
+                }
+
+                Set<String> fileIds = new HashSet<>();
+                for (FileRefEntity file : artifact.getFiles()) {
+                    if (file.getFileId() == null) {
+                        file.setFileId(fileIds.contains(file.getS3ObjectVersionId())
+                                ? new ObjectId().toHexString()
+                                : file.getS3ObjectVersionId());
+                    }
+                    fileIds.add(file.getFileId());
+                }
+
+                bulk.updateOne(query(where("_id").is(artifact.getId())), update("files", artifact.getFiles()));
+
+                if (++count % BATCH_SIZE == 0) {
+                    bulk.execute();
+                    bulk = null;
+                }
+            }
+        }
+
+        if (bulk != null) {
+            bulk.execute();
+        }
+    }
+
+    private void createChangeSequences(Class<?> entityClass) {
+        // The change sequence is set on every write. Documents that have been written before the incremental sync
+        //  was introduced get one once in batches, so that a client that starts with the token "0" gets them as well.
+        String collectionName = mongoTemplate.getCollectionName(entityClass);
+        Document withoutChangeSequence = new Document("changeSequence", new Document("$exists", false));
+        if (mongoTemplate.getCollection(collectionName).find(withoutChangeSequence).first() == null) {
+            return;
+        }
+
+        LOGGER.info("Creating change sequences of existing {}", collectionName);
+
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        try (MongoCursor<Document> documents = mongoTemplate.getCollection(collectionName)
+                .find(withoutChangeSequence)
+                .projection(Projections.include("projectKey"))
+                .iterator()) {
+            while (documents.hasNext()) {
+                batch.add(documents.next());
+
+                if (batch.size() == BATCH_SIZE) {
+                    stampChangeSequences(collectionName, batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            stampChangeSequences(collectionName, batch);
+        }
+    }
+
+    private void stampChangeSequences(String collectionName, List<Document> documents) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+        List<ChangeStamp> changeStamps = new ArrayList<>();
+
+        Map<String, List<Document>> documentsByProject = documents.stream()
+                .collect(groupingBy(document -> document.getString("projectKey"), LinkedHashMap::new, toList()));
+        documentsByProject.forEach((projectKey, documentsOfProject) -> {
+            ChangeStamp changeStamp = counterRepository.reserveChangeSequences(projectKey, documentsOfProject.size());
+            changeStamps.add(changeStamp);
+
+            int changeSequence = changeStamp.getSequence();
+            for (Document document : documentsOfProject) {
+                // A document that has been written in the meantime has got its own change sequence
+                bulk.updateOne(query(where("_id").is(document.get("_id")).and("changeSequence").exists(false)),
+                        update("changeSequence", changeSequence++));
+            }
+        });
+
+        bulk.execute();
+        changeStamps.forEach(changeStamp -> counterRepository.releaseChangeSequences(changeStamp, collectionName));
     }
 }
@@ -0,0 +1,15 @@
+package com.mlaide.webserver.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "mlaide.sync")
+public class SyncProperties {
+    /** The max number of changes that are returned per request */
+    private int pageSize;
+}
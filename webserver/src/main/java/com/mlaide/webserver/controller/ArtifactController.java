@@ -2,10 +2,13 @@ package com.mlaide.webserver.controller;
 
 import com.mlaide.webserver.model.*;
 import com.mlaide.webserver.service.ArtifactService;
+import com.mlaide.webserver.service.ArtifactZip;
 import com.mlaide.webserver.validation.ValidationRegEx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -13,12 +16,18 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @Validated
@@ -26,34 +35,57 @@ import java.util.stream.Collectors;
 public class ArtifactController {
     private final Logger logger = LoggerFactory.getLogger(ArtifactController.class);
     private final ArtifactService artifactService;
+    private final NdjsonSupport ndjsonSupport;
 
     @Autowired
-    public ArtifactController(ArtifactService artifactService) {
+    public ArtifactController(ArtifactService artifactService, NdjsonSupport ndjsonSupport) {
         this.artifactService = artifactService;
+        this.ndjsonSupport = ndjsonSupport;
     }
 
     @GetMapping
     public ResponseEntity<ItemList<Artifact>> getArtifacts(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
             @RequestParam(value = "isModel", defaultValue = "false") boolean isModel,
-            @RequestParam(name = "runKeys", required = false) List<Integer> runKeys) {
+            @RequestParam(name = "runKeys", required = false) List<Integer> runKeys,
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "fields", required = false) List<String> fields) {
         logger.info("get artifacts; isModel={}", isModel);
 
         ItemList<Artifact> artifacts;
-        if (runKeys != null) {
+        if (since != null) {
+            logger.info("Filter artifacts that changed since sync token");
+
+            artifacts = artifactService.getArtifactsChangedSince(projectKey, since, fields);
+        } else if (runKeys != null) {
             String listOfRunKeys = runKeys.stream().map(Object::toString).collect(Collectors.joining(", "));
             logger.info("Filter artifacts by run keys: {}", listOfRunKeys);
 
-            artifacts = artifactService.getArtifactsByRunKeys(projectKey, runKeys);
+            artifacts = artifactService.getArtifactsByRunKeys(projectKey, runKeys, fields);
         } else if (isModel) {
-            artifacts = artifactService.getModels(projectKey);
+            artifacts = artifactService.getModels(projectKey, fields);
         } else {
-            artifacts = artifactService.getArtifacts(projectKey);
+            artifacts = artifactService.getArtifacts(projectKey, fields);
         }
 
         return ResponseEntity.ok(artifacts);
     }
 
+    @GetMapping(produces = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamArtifacts(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @RequestParam(value = "isModel", defaultValue = "false") boolean isModel,
+            @RequestParam(name = "runKeys", required = false) List<Integer> runKeys,
+            @RequestParam(name = "fields", required = false) List<String> fields) {
+        logger.info("stream artifacts; isModel={}", isModel);
+
+        Stream<Artifact> artifacts = artifactService.streamArtifacts(projectKey, runKeys, isModel, fields);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonSupport.APPLICATION_NDJSON_VALUE))
+                .body(ndjsonSupport.stream(artifacts));
+    }
+
     @PostMapping
     public ResponseEntity<Artifact> postArtifact(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
@@ -94,22 +126,44 @@ public class ArtifactController {
         return ResponseEntity.ok(artifact);
     }
 
+    @GetMapping(path = "{artifactName}/{artifactVersion}/downstream")
+    public ResponseEntity<ItemList<DownstreamRun>> getDownstreamRuns(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @PathVariable("artifactName") @NotBlank String artifactName,
+            @PathVariable("artifactVersion") @NotNull Integer artifactVersion,
+            @RequestParam(name = "maxDepth", required = false) @Positive @Max(100) Integer maxDepth,
+            @RequestParam(name = "pageSize", required = false) @Positive @Max(1000) Integer pageSize,
+            @RequestParam(name = "pageToken", required = false) String pageToken) {
+        logger.info("get downstream runs of artifact");
+
+        ItemList<DownstreamRun> runs = artifactService.getDownstreamRuns(
+                projectKey, artifactName, artifactVersion, maxDepth, pageSize, pageToken);
+
+        return ResponseEntity.ok(runs);
+    }
+
     @GetMapping(path = "{artifactName}/{artifactVersion}/files", produces = "application/zip")
     public ResponseEntity<StreamingResponseBody> downloadArtifactAsZip(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
             @PathVariable("artifactName") @NotBlank String artifactName,
-            @PathVariable("artifactVersion") @NotNull Integer artifactVersion) {
+            @PathVariable("artifactVersion") @NotNull Integer artifactVersion,
+            @RequestParam(name = "compression", required = false) ZipCompression compression) {
 
         String outputFileName = ("artifact_" + artifactName + "_" + artifactVersion + ".zip")
                 .replaceAll("[^a-zA-Z0-9.\\-]", "_");
 
-        StreamingResponseBody streamingResponseBody =
-                outputStream -> artifactService.downloadArtifact(projectKey, artifactName, artifactVersion, outputStream);
+        ZipCompression zipCompression = compression == null ? ZipCompression.AUTO : compression;
+        ArtifactZip zip = artifactService.getArtifactZip(projectKey, artifactName, artifactVersion, zipCompression);
 
-        return ResponseEntity
+        ResponseEntity.BodyBuilder response = ResponseEntity
                 .ok()
-                .header("Content-Disposition", "attachment; filename=\"" + outputFileName + "\"")
-                .body(streamingResponseBody);
+                .header("Content-Disposition", "attachment; filename=\"" + outputFileName + "\"");
+        if (zip.getContentLength() != null) {
+            // Cached ZIPs are served with their length, so clients can show the progress of the download
+            response.contentLength(zip.getContentLength());
+        }
+
+        return response.body(zip::writeTo);
     }
 
     @GetMapping(path = "{artifactName}/{artifactVersion}/files/{fileId}", produces = "application/octet-stream")
@@ -151,7 +205,52 @@ public class ArtifactController {
                 artifactVersion,
                 file.getInputStream(),
                 file.getOriginalFilename(),
-                fileHash);
+                fileHash,
+                file.getSize());
+
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Uploads the content of a file as raw request body. Unlike {@link #postFile} the request is not buffered in a
+     * temporary file; the bytes are passed on to the object storage while they are received.
+     */
+    @PostMapping(path = "{artifactName}/{artifactVersion}/files", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> postFileContent(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @PathVariable("artifactName") @NotBlank String artifactName,
+            @PathVariable("artifactVersion") @NotNull Integer artifactVersion,
+            @RequestParam("file-hash") @NotNull String fileHash,
+            @RequestParam("file-name") @NotBlank String fileName,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream content) throws IOException {
+        logger.info("post artifact file content");
+
+        artifactService.uploadArtifactFile(
+                projectKey,
+                artifactName,
+                artifactVersion,
+                content,
+                fileName,
+                fileHash,
+                contentLength == null ? -1 : contentLength);
+
+        // The content is not read if the file or its blob exists already. The client sends it anyway and fails with a
+        //  broken pipe if the connection is closed before, so the rest of the content is discarded.
+        content.transferTo(OutputStream.nullOutputStream());
+
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping(path = "{artifactName}/{artifactVersion}/file-refs")
+    public ResponseEntity<Void> postFileRefs(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @PathVariable("artifactName") @NotBlank String artifactName,
+            @PathVariable("artifactVersion") @NotNull Integer artifactVersion,
+            @RequestBody @NotNull @Size(max = 10000) List<FileHash> fileHashes) {
+        logger.info("post artifact file refs");
+
+        artifactService.addArtifactFiles(projectKey, artifactName, artifactVersion, fileHashes);
 
         return ResponseEntity.noContent().build();
     }
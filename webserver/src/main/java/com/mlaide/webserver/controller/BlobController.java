@@ -0,0 +1,41 @@
+package com.mlaide.webserver.controller;
+
+import com.mlaide.webserver.model.ItemList;
+import com.mlaide.webserver.service.BlobService;
+import com.mlaide.webserver.validation.ValidationRegEx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@Validated
+@RequestMapping(path = "/api/v1/projects/{projectKey}/blobs")
+public class BlobController {
+    private final Logger logger = LoggerFactory.getLogger(BlobController.class);
+    private final BlobService blobService;
+
+    @Autowired
+    public BlobController(BlobService blobService) {
+        this.blobService = blobService;
+    }
+
+    @PostMapping(path = "find-existing")
+    public ResponseEntity<ItemList<String>> findExistingBlobs(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @RequestBody @NotNull @Size(max = 10000) List<String> hashes) {
+        logger.info("find existing blobs");
+
+        List<String> existingHashes = new ArrayList<>(blobService.findExistingBlobs(projectKey, hashes));
+
+        return ResponseEntity.ok(new ItemList<>(existingHashes));
+    }
+}
@@ -7,14 +7,18 @@ import com.mlaide.webserver.validation.ValidationRegEx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.json.JsonMergePatch;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
+import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @Validated
@@ -23,18 +27,42 @@ public class ExperimentController {
     private final Logger logger = LoggerFactory.getLogger(ExperimentController.class);
     private final ExperimentService experimentService;
     private final PatchSupport patchSupport;
+    private final NdjsonSupport ndjsonSupport;
 
     @Autowired
-    public ExperimentController(ExperimentService experimentService, PatchSupport patchSupport) {
+    public ExperimentController(ExperimentService experimentService,
+                                PatchSupport patchSupport,
+                                NdjsonSupport ndjsonSupport) {
         this.experimentService = experimentService;
         this.patchSupport = patchSupport;
+        this.ndjsonSupport = ndjsonSupport;
     }
 
     @GetMapping
     public ResponseEntity<ItemList<Experiment>> getExperiments(
-            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey) {
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "fields", required = false) List<String> fields) {
         logger.info("get experiments");
-        return ResponseEntity.ok(experimentService.getExperiments(projectKey));
+
+        if (since != null) {
+            return ResponseEntity.ok(experimentService.getExperimentsChangedSince(projectKey, since, fields));
+        }
+
+        return ResponseEntity.ok(experimentService.getExperiments(projectKey, fields));
+    }
+
+    @GetMapping(produces = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamExperiments(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @RequestParam(name = "fields", required = false) List<String> fields) {
+        logger.info("stream experiments");
+
+        Stream<Experiment> experiments = experimentService.streamExperiments(projectKey, fields);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonSupport.APPLICATION_NDJSON_VALUE))
+                .body(ndjsonSupport.stream(experiments));
     }
 
     @GetMapping(path = "{experimentKey}")
@@ -0,0 +1,15 @@
+package com.mlaide.webserver.controller;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.stream.Stream;
+
+public interface NdjsonSupport {
+    String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    /**
+     * Creates a response body that writes every item of the stream as a single line of JSON. The items are
+     * serialized one by one as they are read from the stream; the stream is closed when the body is written.
+     */
+    <T> StreamingResponseBody stream(Stream<T> items);
+}
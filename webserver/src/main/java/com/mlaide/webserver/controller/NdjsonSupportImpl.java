@@ -0,0 +1,44 @@
+package com.mlaide.webserver.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Component
+public class NdjsonSupportImpl implements NdjsonSupport {
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public NdjsonSupportImpl(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public <T> StreamingResponseBody stream(Stream<T> items) {
+        // The generator buffers the output; flushing after every item would send tiny chunks to the client
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        return outputStream -> {
+            try (items) {
+                // The generator must not be closed because this would close the output stream of the response
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+                generator.setRootValueSeparator(null);
+
+                Iterator<T> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+
+                generator.flush();
+            }
+        };
+    }
+}
@@ -3,10 +3,7 @@ package com.mlaide.webserver.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mlaide.webserver.model.Experiment;
 import com.mlaide.webserver.model.ExperimentPatch;
-import com.mlaide.webserver.model.Run;
-import com.mlaide.webserver.model.RunPatch;
 import com.mlaide.webserver.service.mapper.ExperimentMapper;
-import com.mlaide.webserver.service.mapper.RunMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -19,32 +16,17 @@ import java.util.Set;
 
 @Component
 public class PatchSupportImpl implements PatchSupport {
-    private final RunMapper runMapper;
     private final ExperimentMapper experimentMapper;
     private final ObjectMapper objectMapper;
     private final Validator validator;
 
     @Autowired
-    public PatchSupportImpl(RunMapper runMapper, ExperimentMapper experimentMapper, ObjectMapper objectMapper, Validator validator) {
-        this.runMapper = runMapper;
+    public PatchSupportImpl(ExperimentMapper experimentMapper, ObjectMapper objectMapper, Validator validator) {
         this.experimentMapper = experimentMapper;
         this.objectMapper = objectMapper;
         this.validator = validator;
     }
 
-    @Override
-    public void patch(Run target, JsonMergePatch diff) {
-        // Map the Run to an RunPatch. On this object we can apply the new values
-        RunPatch baseRun = runMapper.mapRunToRunPatch(target);
-
-        // Apply new values to existing object
-        RunPatch patchedRun = mergePatch(diff, baseRun, RunPatch.class);
-
-        runMapper.updateRun(target, patchedRun);
-
-        validateTarget(target);
-    }
-
     @Override
     public void patch(Experiment target, JsonMergePatch diff) {
         // Map the Model to an ModelPatch. On this object we can apply the new values
@@ -4,17 +4,21 @@ import com.mlaide.webserver.validation.ValidationRegEx;
 import com.mlaide.webserver.model.ItemList;
 import com.mlaide.webserver.model.Project;
 import com.mlaide.webserver.model.ProjectMember;
+import com.mlaide.webserver.service.ProjectEventService;
 import com.mlaide.webserver.service.ProjectService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
 import java.util.List;
 
 @RestController
@@ -23,10 +27,12 @@ import java.util.List;
 public class ProjectController {
     private final Logger logger = LoggerFactory.getLogger(ProjectController.class);
     private final ProjectService projectService;
+    private final ProjectEventService projectEventService;
 
     @Autowired
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, ProjectEventService projectEventService) {
         this.projectService = projectService;
+        this.projectEventService = projectEventService;
     }
 
     @GetMapping
@@ -35,6 +41,15 @@ public class ProjectController {
         return ResponseEntity.ok(projectService.getProjects());
     }
 
+    @GetMapping(path = "/{projectKey}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getProjectEvents(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @RequestParam(name = "experimentKey", required = false) String experimentKey,
+            @RequestParam(name = "runKeys", required = false) List<@Positive Integer> runKeys) {
+        logger.info("subscribe to project events");
+        return projectEventService.subscribe(projectKey, experimentKey, runKeys);
+    }
+
     @GetMapping(path = "/{projectKey}")
     public ResponseEntity<Project> getProject(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey) {
@@ -6,15 +6,20 @@ import com.mlaide.webserver.validation.ValidationRegEx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.json.JsonMergePatch;
 import javax.validation.Valid;
 import javax.validation.constraints.*;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @Validated
@@ -22,43 +27,97 @@ import java.util.Map;
 public class RunController {
     private final Logger logger = LoggerFactory.getLogger(RunController.class);
     private final RunService runService;
-    private final PatchSupport patchSupport;
+    private final MetricService metricService;
+    private final NdjsonSupport ndjsonSupport;
 
     @Autowired
     public RunController(ExperimentService experimentService,
                          RunService runService,
-                         PatchSupport patchSupport) {
+                         MetricService metricService,
+                         NdjsonSupport ndjsonSupport) {
         this.runService = runService;
-        this.patchSupport = patchSupport;
+        this.metricService = metricService;
+        this.ndjsonSupport = ndjsonSupport;
     }
 
     @GetMapping
     public ResponseEntity<ItemList<Run>> getRuns(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
             @RequestParam(name = "runKeys", required = false) List<@Positive Integer> runKeys,
-            @RequestParam(name = "experimentKey", required = false) String experimentKey) {
+            @RequestParam(name = "experimentKey", required = false) String experimentKey,
+            @RequestParam(name = "filter", required = false) String filter,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "direction", required = false) Sort.Direction direction,
+            @RequestParam(name = "pageSize", required = false) @Positive @Max(1000) Integer pageSize,
+            @RequestParam(name = "pageToken", required = false) String pageToken,
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "fields", required = false) List<String> fields) {
+
+        if (since != null) {
+            logger.info("get runs changed since sync token");
+            return ResponseEntity.ok(runService.getRunsChangedSince(projectKey, since, fields));
+        }
 
-        var runList = getRunsInternal(projectKey, runKeys, experimentKey);
+        var runList = getRunsInternal(
+                projectKey, runKeys, experimentKey, filter, sort, direction, pageSize, pageToken, fields);
 
         return ResponseEntity.ok(runList);
     }
 
-    private ItemList<Run> getRunsInternal(
-            String projectKey, List<Integer> runKeys, String experimentKey) {
+    @GetMapping(produces = NdjsonSupport.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRuns(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @RequestParam(name = "runKeys", required = false) List<@Positive Integer> runKeys,
+            @RequestParam(name = "experimentKey", required = false) String experimentKey,
+            @RequestParam(name = "filter", required = false) String filter,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "direction", required = false) Sort.Direction direction,
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "fields", required = false) List<String> fields) {
+        // A stream has no place for the sync token of the next request
+        if (since != null) {
+            throw new InvalidInputException("Changed runs can not be streamed; request them as application/json.");
+        }
+
+        logger.info("stream runs");
+
+        Stream<Run> runs = runService.streamRuns(projectKey, runKeys, experimentKey, filter, sort, direction, fields);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonSupport.APPLICATION_NDJSON_VALUE))
+                .body(ndjsonSupport.stream(runs));
+    }
+
+    private ItemList<Run> getRunsInternal(String projectKey,
+                                          List<Integer> runKeys,
+                                          String experimentKey,
+                                          String filter,
+                                          String sort,
+                                          Sort.Direction direction,
+                                          Integer pageSize,
+                                          String pageToken,
+                                          List<String> fields) {
 
         if (runKeys != null) {
             logger.info("get runs for keys: {}", runKeys.stream().map(Object::toString));
-            return runService.getRunsByKeys(projectKey, runKeys);
+            return runService.getRunsByKeys(projectKey, runKeys, fields);
+        }
+
+        // Lists are only paginated if the client asks for it; otherwise all runs are returned as before
+        if (filter != null || sort != null || direction != null || pageSize != null || pageToken != null) {
+            logger.info("get page of runs");
+            return runService.getRunPage(
+                    projectKey, experimentKey, filter, sort, direction, pageSize, pageToken, fields);
         }
 
         if (experimentKey != null) {
             String escapedExperimentKey = experimentKey.replaceAll("[^0-9A-Za-z-]", "_");
             logger.info("get runs for experimentKey: {}", escapedExperimentKey);
-            return runService.getRunsOfExperiment(projectKey, experimentKey);
+            return runService.getRunsOfExperiment(projectKey, experimentKey, fields);
         }
 
         logger.info("get runs");
-        return runService.getRuns(projectKey);
+        return runService.getRuns(projectKey, fields);
     }
 
     @PostMapping
@@ -71,6 +130,29 @@ public class RunController {
         return ResponseEntity.ok(addedRun);
     }
 
+    @PostMapping(path = "/batch")
+    public ResponseEntity<ItemList<Run>> postRuns(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @Valid @RequestBody RunBatch batch) {
+        logger.info("post runs");
+
+        List<Run> addedRuns = runService.addRuns(projectKey, batch);
+        return ResponseEntity.ok(new ItemList<>(addedRuns));
+    }
+
+    @GetMapping(path = "/comparison")
+    public ResponseEntity<RunComparison> getRunComparison(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @RequestParam(name = "runKeys") @NotEmpty @Size(max = 1000) List<@Positive Integer> runKeys,
+            @RequestParam(name = "metrics", required = false) List<String> metricKeys,
+            @RequestParam(name = "parameters", required = false) List<String> parameterKeys) {
+        logger.info("compare runs");
+
+        RunComparison comparison = runService.compareRuns(projectKey, runKeys, metricKeys, parameterKeys);
+
+        return ResponseEntity.ok(comparison);
+    }
+
     @GetMapping(path = "/git-diff")
     public ResponseEntity<GitDiff> getRunsDiff(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
@@ -109,17 +191,10 @@ public class RunController {
     public ResponseEntity<Void> patchRun(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
             @PathVariable("runKey") @NotNull Integer runKey,
-            @RequestBody JsonMergePatch runDiff) {
+            @RequestBody Map<String, Object> runDiff) {
         logger.info("patch run");
 
-        // Get the already existing run
-        Run run = runService.getRun(projectKey, runKey);
-
-        // Patch the run with new values
-        patchSupport.patch(run, runDiff);
-
-        // Persist the updated object
-        runService.updateRun(projectKey, run);
+        runService.patchRun(projectKey, runKey, runDiff);
 
         return ResponseEntity.noContent().build();
     }
@@ -131,17 +206,7 @@ public class RunController {
              @RequestBody Map<String, Object> parametersToMerge) {
         logger.info("patch run parameters");
 
-        // Get the already existing run
-        Run run = runService.getRun(projectKey, runKey);
-
-        Map<String, Object> runParameters = run.getParameters();
-        if (runParameters == null) {
-            run.setParameters(parametersToMerge);
-        } else {
-            runParameters.putAll(parametersToMerge);
-        }
-
-        runService.updateRun(projectKey, run);
+        runService.mergeParameters(projectKey, runKey, parametersToMerge);
 
         return ResponseEntity.noContent().build();
     }
@@ -153,21 +218,52 @@ public class RunController {
             @RequestBody Map<String, Object> metricsToMerge) {
         logger.info("patch run metrics");
 
-        // Get the already existing run
-        Run run = runService.getRun(projectKey, runKey);
+        runService.mergeMetrics(projectKey, runKey, metricsToMerge);
 
-        Map<String, Object> runMetrics = run.getMetrics();
-        if (runMetrics == null) {
-            run.setMetrics(metricsToMerge);
-        } else {
-            runMetrics.putAll(metricsToMerge);
-        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping(path = "{runKey}/metrics/{metricName}/points")
+    public ResponseEntity<Void> postMetricPoints(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @PathVariable("runKey") @NotNull Integer runKey,
+            @PathVariable("metricName") @NotBlank String metricName,
+            @RequestBody List<MetricPoint> points) {
+        logger.info("post metric points");
 
-        runService.updateRun(projectKey, run);
+        metricService.appendMetricPoints(projectKey, runKey, metricName, points);
 
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping(path = "metrics", consumes = "application/x-ndjson")
+    public ResponseEntity<Void> postMetricPointsOfRuns(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            InputStream ndjson) throws IOException {
+        logger.info("post metric points of runs");
+
+        metricService.ingestMetricPoints(projectKey, ndjson);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping(path = "{runKey}/metrics/{metricName}/points")
+    public ResponseEntity<ItemList<MetricPoint>> getMetricPoints(
+            @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
+            @PathVariable("runKey") @NotNull Integer runKey,
+            @PathVariable("metricName") @NotBlank String metricName,
+            @RequestParam(name = "fromStep", required = false) Long fromStep,
+            @RequestParam(name = "toStep", required = false) Long toStep,
+            @RequestParam(name = "maxPoints", required = false) @Positive Integer maxPoints,
+            @RequestParam(name = "sampling", required = false) MetricSampling sampling) {
+        logger.info("get metric points");
+
+        ItemList<MetricPoint> points = metricService.getMetricPoints(
+                projectKey, runKey, metricName, fromStep, toStep, maxPoints, sampling);
+
+        return ResponseEntity.ok(points);
+    }
+
     @PutMapping(path = "{runKey}/artifacts/{artifactName}/{artifactVersion}")
     public ResponseEntity<Void> attachArtifact(
             @PathVariable("projectKey") @Pattern(regexp = ValidationRegEx.PROJECT_KEY) String projectKey,
@@ -10,4 +10,5 @@ import lombok.*;
 public class ArtifactFile {
     private String fileId;
     private String fileName;
+    private Long size;
 }
@@ -0,0 +1,22 @@
+package com.mlaide.webserver.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A run that has directly or indirectly used an artifact, e.g. a run that has to be repeated if the artifact turns
+ * out to be corrupt.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class DownstreamRun {
+    private Integer key;
+    /** 1 if the run has used the artifact itself, 2 if it has used an output of such a run and so on */
+    private Integer depth;
+    /** The artifacts that the run has produced; only name, version, type and the stage of models are returned */
+    private List<Artifact> artifacts;
+}
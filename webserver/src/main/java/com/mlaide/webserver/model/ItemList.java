@@ -1,6 +1,5 @@
 package com.mlaide.webserver.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -10,7 +9,17 @@ import java.util.List;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class ItemList<TItem> {
     private List<TItem> items;
+    private String nextPageToken;
+    private String syncToken;
+
+    public ItemList(List<TItem> items) {
+        this.items = items;
+    }
+
+    public ItemList(List<TItem> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
 }
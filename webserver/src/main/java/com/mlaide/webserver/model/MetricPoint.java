@@ -0,0 +1,16 @@
+package com.mlaide.webserver.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class MetricPoint {
+    private Long step;
+    private OffsetDateTime timestamp;
+    private Double value;
+}
@@ -0,0 +1,6 @@
+package com.mlaide.webserver.model;
+
+public enum MetricSampling {
+    LTTB,
+    MIN_MAX
+}
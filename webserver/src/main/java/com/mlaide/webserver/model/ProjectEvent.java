@@ -0,0 +1,32 @@
+package com.mlaide.webserver.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A change of a run that is pushed to the clients that listen to the events of a project. Only the properties
+ * that belong to the {@link #type} of the event are set.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectEvent {
+    private ProjectEventType type;
+    private String projectKey;
+    private Integer runKey;
+    /** The experiments of a created run */
+    private List<String> experimentKeys;
+    private RunStatus status;
+    private Map<String, Object> metrics;
+    private String metricName;
+    private List<MetricPoint> points;
+    private ArtifactRef artifact;
+}
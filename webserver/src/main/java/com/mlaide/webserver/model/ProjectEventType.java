@@ -0,0 +1,9 @@
+package com.mlaide.webserver.model;
+
+public enum ProjectEventType {
+    RUN_CREATED,
+    RUN_UPDATED,
+    METRICS_UPDATED,
+    METRIC_POINTS_APPENDED,
+    ARTIFACT_ATTACHED
+}
@@ -0,0 +1,27 @@
+package com.mlaide.webserver.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The runs that are created at once. Either {@code runs} or {@code template} and {@code parameterGrid} are set.
+ * The grid is expanded to one run for every combination of its values; each of these runs is a copy of the template
+ * whose parameters are merged with the combination.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class RunBatch {
+    @Valid
+    @Size(max = 1000)
+    private List<Run> runs;
+    @Valid
+    private Run template;
+    private Map<String, List<Object>> parameterGrid;
+}
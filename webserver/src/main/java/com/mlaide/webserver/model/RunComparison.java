@@ -0,0 +1,23 @@
+package com.mlaide.webserver.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the parameters and metrics of several runs. Every list of values is aligned with {@link #runKeys};
+ * a run that does not contain a parameter or metric has the value {@code null} at its position.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class RunComparison {
+    /** The keys of the compared runs in the order in which they were requested */
+    private List<Integer> runKeys;
+    /** Only the parameters whose values differ between the runs */
+    private Map<String, List<Object>> parameters;
+    private Map<String, List<Object>> metrics;
+}
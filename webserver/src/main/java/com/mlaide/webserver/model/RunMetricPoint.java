@@ -0,0 +1,22 @@
+package com.mlaide.webserver.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A metric point that also references the run and the metric it belongs to. Used for bulk ingestion of metrics
+ * of several runs in one request.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class RunMetricPoint {
+    private String metricName;
+    private Integer runKey;
+    private Long step;
+    private OffsetDateTime timestamp;
+    private Double value;
+}
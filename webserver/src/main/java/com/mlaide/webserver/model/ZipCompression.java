@@ -0,0 +1,8 @@
+package com.mlaide.webserver.model;
+
+public enum ZipCompression {
+    /** Files are stored if they are of a type that is already compressed, all other files are deflated */
+    AUTO,
+    DEFLATED,
+    STORED
+}
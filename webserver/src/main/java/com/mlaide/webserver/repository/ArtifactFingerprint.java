@@ -0,0 +1,93 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.FileRefEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Computes the fingerprint of the files of an artifact version. The fingerprint is a SHA-256 hash over the sorted
+ * pairs of file name and file hash. Names and hashes are compared case-insensitively, so both are lower-cased first.
+ * Two versions have the same fingerprint if they contain the same files with the same content, regardless of the
+ * order of the files. A version without files has the fingerprint of an empty list.
+ *
+ * <p>Files whose names only differ in case have the same fingerprint, so it must not identify anything that contains
+ * the names; see {@link #ofContent(List)} for that.
+ */
+public final class ArtifactFingerprint {
+    private ArtifactFingerprint() {
+    }
+
+    public static String ofFiles(Collection<FileRefEntity> files) {
+        if (files == null) {
+            return of(null);
+        }
+
+        return of(files.stream()
+                .map(file -> new SimpleImmutableEntry<>(file.getFileName(), file.getHash()))
+                .collect(toList()));
+    }
+
+    /**
+     * @param fileHashes pairs of file name and file hash; {@code null} is the same as an empty list
+     */
+    public static String of(Collection<? extends Map.Entry<String, String>> fileHashes) {
+        List<String> pairs = new ArrayList<>();
+        if (fileHashes != null) {
+            for (Map.Entry<String, String> fileHash : fileHashes) {
+                // The separators can not be part of a file name or a hex encoded hash
+                pairs.add(normalize(fileHash.getKey()) + '\0' + normalize(fileHash.getValue()) + '\n');
+            }
+        }
+        pairs.sort(Comparator.naturalOrder());
+
+        return sha256Of(pairs);
+    }
+
+    /**
+     * Computes the fingerprint of the exact content of a ZIP of the files: the names are case-sensitive, and the
+     * order and the sizes of the files are included as well. Only the hashes are lower-cased, as they are hex encoded.
+     */
+    public static String ofContent(List<FileRefEntity> files) {
+        List<String> entries = new ArrayList<>();
+        for (FileRefEntity file : files) {
+            entries.add(file.getFileName() + '\0' + file.getSize() + '\0' + normalize(file.getHash()) + '\n');
+        }
+
+        return sha256Of(entries);
+    }
+
+    private static String sha256Of(List<String> values) {
+        MessageDigest digest = sha256();
+        values.forEach(value -> digest.update(value.getBytes(StandardCharsets.UTF_8)));
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (byte b : digest.digest()) {
+            fingerprint.append(String.format("%02x", b));
+        }
+
+        return fingerprint.toString();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
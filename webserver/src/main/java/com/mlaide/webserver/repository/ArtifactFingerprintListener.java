@@ -0,0 +1,21 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stamps every artifact that is saved or inserted with the {@link ArtifactFingerprint fingerprint} of its files.
+ * Partial updates of the files do not pass this listener; they have to set the fingerprint themselves.
+ */
+@Component
+public class ArtifactFingerprintListener extends AbstractMongoEventListener<Object> {
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        if (event.getSource() instanceof ArtifactEntity) {
+            ArtifactEntity artifact = (ArtifactEntity) event.getSource();
+            artifact.setFingerprint(ArtifactFingerprint.ofFiles(artifact.getFiles()));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.mlaide.webserver.repository;
 
 import com.mlaide.webserver.model.Stage;
 import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -9,7 +10,9 @@ import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ArtifactRepository extends MongoRepository<ArtifactEntity, ObjectId>, ExtendedArtifactQueries {
@@ -19,14 +22,14 @@ public interface ArtifactRepository extends MongoRepository<ArtifactEntity, Obje
             "or hasPermission(filterObject, 'OWNER')")
     List<ArtifactEntity> findAll();
 
-    @PostFilter("hasPermission(filterObject, 'VIEWER') " +
-            "or hasPermission(filterObject, 'CONTRIBUTOR') " +
-            "or hasPermission(filterObject, 'OWNER')")
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
     List<ArtifactEntity> findAllByProjectKey(String projectKey, Sort sort);
 
-    @PostFilter("hasPermission(filterObject, 'VIEWER') " +
-            "or hasPermission(filterObject, 'CONTRIBUTOR') " +
-            "or hasPermission(filterObject, 'OWNER')")
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
     List<ArtifactEntity> findAllByProjectKeyAndRunsKeyIn(String projectKey, List<Integer> runKeys, Sort sort);
 
     @Override
@@ -48,5 +51,50 @@ public interface ArtifactRepository extends MongoRepository<ArtifactEntity, Obje
 
     List<ArtifactEntity> findAllByProjectKeyAndModelNotNull(String projectKey, Sort by);
 
-    List<ArtifactEntity> findAllByProjectKeyAndNameOrderByVersionDesc(String projectKey, String artifactName);
+    ArtifactEntity findFirstByProjectKeyAndNameAndFingerprintOrderByVersionDesc(String projectKey,
+                                                                             String artifactName,
+                                                                             String fingerprint);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<ArtifactEntity> findArtifacts(String projectKey,
+                                       Collection<Integer> runKeys,
+                                       boolean modelsOnly,
+                                       Sort sort,
+                                       Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    Stream<ArtifactEntity> streamArtifacts(String projectKey,
+                                           Collection<Integer> runKeys,
+                                           boolean modelsOnly,
+                                           Sort sort,
+                                           Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<ArtifactEntity> findArtifactsChangedSince(String projectKey,
+                                                   int changeSequence,
+                                                   int limit,
+                                                   Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<ArtifactVersions> findArtifactVersions(String projectKey, Collection<ArtifactRefEntity> artifacts);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<ArtifactEntity> findArtifactsByRefs(String projectKey,
+                                             Collection<ArtifactRefEntity> artifacts,
+                                             Collection<String> fields);
 }
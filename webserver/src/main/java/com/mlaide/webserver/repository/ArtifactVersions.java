@@ -0,0 +1,18 @@
+package com.mlaide.webserver.repository;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArtifactVersions {
+    @Id
+    private String name;
+    private Integer latestVersion;
+    private List<Integer> versions;
+}
@@ -0,0 +1,34 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.BlobEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface BlobRepository {
+    /**
+     * Returns those of the given hashes for which a blob exists in the project.
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    Set<String> findExistingHashes(String projectKey, Collection<String> hashes);
+
+    /**
+     * Increments the reference count of a blob.
+     *
+     * @return the blob or {@code null} if no blob with the hash exists
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    BlobEntity addReference(String projectKey, String hash);
+
+    /**
+     * Registers a blob that has been uploaded with one reference. If the same content has been registered
+     * concurrently, the existing blob is referenced instead and returned.
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    BlobEntity addBlob(String projectKey, String hash, String key, String objectVersionId, long size);
+}
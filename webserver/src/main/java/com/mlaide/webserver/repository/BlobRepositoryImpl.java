@@ -0,0 +1,62 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.BlobEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Repository
+public class BlobRepositoryImpl implements BlobRepository {
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BlobRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Set<String> findExistingHashes(String projectKey, Collection<String> hashes) {
+        Query query = query(where("projectKey").is(projectKey).and("hash").in(hashes));
+        query.fields().include("hash");
+
+        Set<String> existingHashes = new HashSet<>();
+        for (BlobEntity blob : mongoTemplate.find(query, BlobEntity.class)) {
+            existingHashes.add(blob.getHash());
+        }
+
+        return existingHashes;
+    }
+
+    @Override
+    public BlobEntity addReference(String projectKey, String hash) {
+        return mongoTemplate.findAndModify(
+                query(where("projectKey").is(projectKey).and("hash").is(hash)),
+                new Update().inc("referenceCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                BlobEntity.class);
+    }
+
+    @Override
+    public BlobEntity addBlob(String projectKey, String hash, String key, String objectVersionId, long size) {
+        // The unique index on project and hash ensures that concurrent uploads of the same content end up in one blob
+        return mongoTemplate.findAndModify(
+                query(where("projectKey").is(projectKey).and("hash").is(hash)),
+                new Update()
+                        .inc("referenceCount", 1)
+                        .setOnInsert("key", key)
+                        .setOnInsert("objectVersionId", objectVersionId)
+                        .setOnInsert("size", size),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                BlobEntity.class);
+    }
+}
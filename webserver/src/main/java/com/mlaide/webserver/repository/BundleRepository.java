@@ -0,0 +1,30 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.model.ZipCompression;
+import com.mlaide.webserver.repository.entity.BundleEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+public interface BundleRepository {
+    /**
+     * @return the bundle or {@code null} if no bundle has been built for these files yet
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    BundleEntity findBundle(String projectKey, String fingerprint, ZipCompression compression);
+
+    /**
+     * Registers a bundle that has been uploaded. If a bundle of the same files has been registered concurrently, the
+     * existing bundle is kept and returned. Viewers may register bundles, because bundles are built when the files
+     * are downloaded and only contain files that the user is allowed to read.
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    BundleEntity addBundle(String projectKey,
+                           String fingerprint,
+                           ZipCompression compression,
+                           String key,
+                           String objectVersionId,
+                           long size);
+}
@@ -0,0 +1,52 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.model.ZipCompression;
+import com.mlaide.webserver.repository.entity.BundleEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Repository
+public class BundleRepositoryImpl implements BundleRepository {
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public BundleRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public BundleEntity findBundle(String projectKey, String fingerprint, ZipCompression compression) {
+        return mongoTemplate.findOne(bundleQuery(projectKey, fingerprint, compression), BundleEntity.class);
+    }
+
+    @Override
+    public BundleEntity addBundle(String projectKey,
+                                  String fingerprint,
+                                  ZipCompression compression,
+                                  String key,
+                                  String objectVersionId,
+                                  long size) {
+        // The unique index ensures that bundles which are built concurrently end up in one document
+        return mongoTemplate.findAndModify(
+                bundleQuery(projectKey, fingerprint, compression),
+                new Update()
+                        .setOnInsert("key", key)
+                        .setOnInsert("objectVersionId", objectVersionId)
+                        .setOnInsert("size", size),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                BundleEntity.class);
+    }
+
+    private Query bundleQuery(String projectKey, String fingerprint, ZipCompression compression) {
+        return query(where("projectKey").is(projectKey)
+                .and("fingerprint").is(fingerprint)
+                .and("compression").is(compression));
+    }
+}
@@ -0,0 +1,59 @@
+package com.mlaide.webserver.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Queries and writes of the incremental sync.
+ *
+ * <p>The change sequence is reserved before the document is written. A writer that holds a higher value can therefore
+ * finish before a writer that holds a lower one; a client that syncs in between would get a token that skips the lower
+ * value. So every reserved value stays pending until its document is written, and changes are only returned up to the
+ * first pending value; see {@link CounterRepositoryImpl}.
+ */
+final class ChangeQueries {
+    private ChangeQueries() {
+    }
+
+    /**
+     * @param changeSequence only documents with a higher change sequence are returned
+     * @param limit the max number of documents
+     */
+    static Query writtenChangesSince(CounterRepository counterRepository,
+                                     String projectKey,
+                                     int changeSequence,
+                                     int limit) {
+        // The pending reservations must be read before the documents; a reservation that is released in between has
+        //  been written before the documents are read
+        int writtenChangeSequence = counterRepository.getWrittenChangeSequence(projectKey);
+
+        return query(where("projectKey").is(projectKey)
+                .and("changeSequence").gt(changeSequence).lte(writtenChangeSequence))
+                .with(Sort.by("changeSequence"))
+                .limit(limit);
+    }
+
+    /**
+     * Releases the reserved change sequences of documents that have been written. Within a transaction the documents
+     * are not visible before the commit, so they are released after the transaction has completed. If it is rolled
+     * back there is nothing to sync and the reservation is released all the same.
+     */
+    static void releaseAfterWrite(CounterRepository counterRepository, ChangeStamp changeStamp, String collectionName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counterRepository.releaseChangeSequences(changeStamp, collectionName);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                counterRepository.releaseChangeSequences(changeStamp, collectionName);
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ChangeTrackedEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stamps every {@link ChangeTrackedEntity} that is saved or inserted with the next value of the change sequence
+ * of its project and releases the value once the entity has been written. Partial updates do not pass this listener;
+ * they have to set and release the change sequence themselves.
+ *
+ * <p>A write that fails is not released; its value holds back the incremental sync until the reservation expires.
+ */
+@Component
+public class ChangeSequenceListener extends AbstractMongoEventListener<Object> {
+    private final CounterRepository counterRepository;
+
+    @Autowired
+    public ChangeSequenceListener(CounterRepository counterRepository) {
+        this.counterRepository = counterRepository;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        if (event.getSource() instanceof ChangeTrackedEntity) {
+            ChangeTrackedEntity entity = (ChangeTrackedEntity) event.getSource();
+            ChangeStamp changeStamp = counterRepository.getNextChangeSequence(entity.getProjectKey());
+            entity.setChangeSequence(changeStamp.getSequence());
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        if (event.getSource() instanceof ChangeTrackedEntity) {
+            ChangeTrackedEntity entity = (ChangeTrackedEntity) event.getSource();
+            ChangeStamp changeStamp = new ChangeStamp(entity.getProjectKey(), entity.getChangeSequence(), 1);
+            ChangeQueries.releaseAfterWrite(counterRepository, changeStamp, event.getCollectionName());
+        }
+    }
+}
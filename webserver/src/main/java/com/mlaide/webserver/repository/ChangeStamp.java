@@ -0,0 +1,18 @@
+package com.mlaide.webserver.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A range of values of the change sequence of a project that has been reserved for documents that are about to be
+ * written. The range is pending until it is released after the write; the incremental sync does not return changes
+ * beyond the first pending value. See {@link CounterRepositoryImpl}.
+ */
+@Getter
+@AllArgsConstructor
+public class ChangeStamp {
+    private final String projectKey;
+    /** The first value of the range */
+    private final int sequence;
+    private final int count;
+}
@@ -1,5 +1,45 @@
 package com.mlaide.webserver.repository;
 
 public interface CounterRepository {
+    /**
+     * Returns the next value of a sequence. Depending on the configured block size the values are either
+     * contiguous or unique and increasing per node with gaps between them; see {@link CounterRepositoryImpl}.
+     */
     int getNextSequenceValue(String sequenceName);
+
+    /**
+     * Reserves a contiguous range of values of a sequence with one increment in the database, regardless of the
+     * block size.
+     *
+     * @return the first value of the range
+     */
+    int reserveSequenceValues(String sequenceName, int count);
+
+    /**
+     * Reserves the next value of the change sequence of a project. Every write of a run, an artifact or an
+     * experiment is stamped with a new value of this sequence. The value stays pending until it is
+     * {@link #releaseChangeSequences(ChangeStamp, String) released} after the write.
+     */
+    ChangeStamp getNextChangeSequence(String projectKey);
+
+    /**
+     * Reserves a contiguous range of values of the change sequence of a project. The range stays pending until it is
+     * {@link #releaseChangeSequences(ChangeStamp, String) released} after the write.
+     */
+    ChangeStamp reserveChangeSequences(String projectKey, int count);
+
+    /**
+     * Releases a reserved range of the change sequence once the documents that have been stamped with it are
+     * written. If the reservation has expired in the meantime, clients may have synced past the range already; the
+     * documents are stamped with new values then, so they are synced nevertheless.
+     *
+     * @param collectionName the collection of the stamped documents
+     */
+    void releaseChangeSequences(ChangeStamp changeStamp, String collectionName);
+
+    /**
+     * Returns the highest value of the change sequence of a project up to which all changes have been written,
+     * i.e. the value before the first pending reservation.
+     */
+    int getWrittenChangeSequence(String projectKey);
 }
@@ -1,49 +1,225 @@
 package com.mlaide.webserver.repository;
 
 import com.mlaide.webserver.repository.entity.CounterEntity;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 
+/**
+ * Hands out the values of the sequences that are stored in the counters collection.
+ *
+ * <p>With a block size of 1 every value is incremented in the database, so the values are contiguous. With a larger
+ * block size every node reserves a block of values with one increment and hands them out from memory. The values are
+ * still unique and increasing on each node, but they have gaps: values of concurrent nodes interleave, and the rest of
+ * a block is lost when the node is stopped. The change sequence is always incremented in the database, because the
+ * incremental sync relies on its values being ordered across all nodes.
+ *
+ * <p>The values of the change sequence are reserved before the documents are written, so a writer that holds a higher
+ * value can finish before a writer that holds a lower one. Every reserved range is therefore recorded as pending in
+ * the counter - within the same update as the increment - and removed once its documents are written. The incremental
+ * sync only returns changes up to the first pending value. A reservation whose write has failed or whose node has
+ * stopped would hold back the sync forever, so it expires after the reservation timeout. A write that completes after
+ * its reservation has expired notices this when it releases the range and stamps its documents with new values.
+ *
+ * <p>The increments never join the transaction of the caller. A rollback would undo the increment in the database, but
+ * not the block that this node holds in memory, so the values of the block would be handed out twice. Values that are
+ * reserved by a transaction that is rolled back are lost like the rest of a block.
+ */
 @Repository
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public class CounterRepositoryImpl implements CounterRepository {
     private final MongoOperations mongoOperations;
+    private final int blockSize;
+    private final Duration reservationTimeout;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
 
     @Autowired
-    public CounterRepositoryImpl(MongoTemplate mongoOperations) {
+    public CounterRepositoryImpl(MongoTemplate mongoOperations,
+                                 @Value("${mlaide.counter.block-size}") int blockSize,
+                                 @Value("${mlaide.counter.reservation-timeout}") Duration reservationTimeout) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("block size must be at least 1");
+        }
+
         this.mongoOperations = mongoOperations;
+        this.blockSize = blockSize;
+        this.reservationTimeout = reservationTimeout;
     }
 
     @Override
     public int getNextSequenceValue(String sequenceName) {
+        if (blockSize == 1) {
+            return reserve(sequenceName, 1);
+        }
+
+        Block block = blocks.computeIfAbsent(sequenceName, Block::new);
+        return block.next();
+    }
+
+    @Override
+    public int reserveSequenceValues(String sequenceName, int count) {
+        return reserve(sequenceName, count) - count + 1;
+    }
+
+    @Override
+    public ChangeStamp getNextChangeSequence(String projectKey) {
+        return reserveChanges(projectKey, 1);
+    }
+
+    @Override
+    public ChangeStamp reserveChangeSequences(String projectKey, int count) {
+        return reserveChanges(projectKey, count);
+    }
+
+    @Override
+    public void releaseChangeSequences(ChangeStamp changeStamp, String collectionName) {
+        while (!release(changeStamp)) {
+            // The reservation has expired, so a sync may have passed it. The documents that still carry the expired
+            //  values get new ones; documents that have been written again in the meantime carry newer values anyway.
+            ChangeStamp newChangeStamp = reserveChanges(changeStamp.getProjectKey(), changeStamp.getCount());
+            int first = changeStamp.getSequence();
+            int offset = newChangeStamp.getSequence() - first;
+            Query query = new Query(where("projectKey").is(changeStamp.getProjectKey())
+                    .and("changeSequence").gte(first).lt(first + changeStamp.getCount()));
+            AggregationOperation restamp = context -> new Document("$set",
+                    new Document("changeSequence", new Document("$add", asList("$changeSequence", offset))));
+
+            mongoOperations.updateMulti(query, AggregationUpdate.from(List.of(restamp)), collectionName);
+            changeStamp = newChangeStamp;
+        }
+    }
+
+    @Override
+    public int getWrittenChangeSequence(String projectKey) {
+        // The expired reservations are removed within the same update as the pending ones are read. This way a
+        //  reservation either holds back the sync or its release fails; see releaseChangeSequences.
+        AggregationOperation removeExpired = context -> new Document("$set",
+                new Document("pendingChanges", unexpired("$pendingChanges")));
+        CounterEntity counterEntity = mongoOperations.findAndModify(
+                new Query(where("_id").is(changeSequenceName(projectKey))),
+                AggregationUpdate.from(List.of(removeExpired)),
+                options().returnNew(true),
+                CounterEntity.class);
+
+        if (counterEntity == null) {
+            return 0;
+        }
+
+        return counterEntity.getPendingChanges().stream()
+                .mapToInt(pendingChanges -> pendingChanges.getFirst() - 1)
+                .min()
+                .orElse(counterEntity.getSequenceValue());
+    }
+
+    /**
+     * Increments the sequence by the given count and returns the last value of the reserved range.
+     */
+    private int reserve(String sequenceName, int count) {
+        return increment(sequenceName, new Update().inc("sequenceValue", count)).getSequenceValue();
+    }
+
+    private ChangeStamp reserveChanges(String projectKey, int count) {
+        // The range depends on the current value of the counter, so the pending range is added with an update
+        //  pipeline in which every expression sees the document before the update
+        Document sequenceValue = new Document("$ifNull", asList("$sequenceValue", 0));
+        Document pendingChanges = new Document("first", new Document("$add", asList(sequenceValue, 1)))
+                .append("last", new Document("$add", asList(sequenceValue, count)))
+                .append("reservedAt", "$$NOW");
+        AggregationOperation reserve = context -> new Document("$set",
+                new Document("sequenceValue", new Document("$add", asList(sequenceValue, count)))
+                        .append("pendingChanges", new Document("$concatArrays",
+                                asList(unexpired("$pendingChanges"), List.of(pendingChanges)))));
+
+        CounterEntity counterEntity = increment(changeSequenceName(projectKey), AggregationUpdate.from(List.of(reserve)));
+
+        return new ChangeStamp(projectKey, counterEntity.getSequenceValue() - count + 1, count);
+    }
+
+    private boolean release(ChangeStamp changeStamp) {
+        Query query = new Query(where("_id").is(changeSequenceName(changeStamp.getProjectKey())));
+        Update update = new Update().pull("pendingChanges", new Document("first", changeStamp.getSequence()));
+
+        return mongoOperations.updateFirst(query, update, CounterEntity.class).getModifiedCount() > 0;
+    }
+
+    private Document unexpired(String pendingChanges) {
+        Document expiredBefore = new Document("$subtract", asList("$$NOW", reservationTimeout.toMillis()));
+
+        return new Document("$filter", new Document("input", new Document("$ifNull", asList(pendingChanges, emptyList())))
+                .append("cond", new Document("$gt", asList("$$this.reservedAt", expiredBefore))));
+    }
+
+    private String changeSequenceName(String projectKey) {
+        return projectKey + ".changes";
+    }
+
+    private CounterEntity increment(String sequenceName, UpdateDefinition update) {
         Query query = new Query(
                 where("_id").is(sequenceName)
         );
-        UpdateDefinition update = new Update().inc("sequenceValue", 1);
-        FindAndModifyOptions options = options().returnNew(true);
-        CounterEntity counterEntity = mongoOperations.findAndModify(query, update, options, CounterEntity.class);
+        FindAndModifyOptions options = options().returnNew(true).upsert(true);
 
-        if (counterEntity == null) {
-            return initSequence(sequenceName);
+        return mongoOperations.findAndModify(query, update, options, CounterEntity.class);
+    }
+
+    /**
+     * The values of a sequence that have been reserved by this node. The values are taken with a compare-and-set on
+     * {@code next}; only the thread that finds the block exhausted takes the lock to reserve the next one.
+     */
+    private class Block {
+        private final String sequenceName;
+        private final AtomicInteger next = new AtomicInteger(1);
+        private volatile int last = 0;
+
+        Block(String sequenceName) {
+            this.sequenceName = sequenceName;
         }
 
-        return counterEntity.getSequenceValue();
-    }
+        int next() {
+            while (true) {
+                int value = next.get();
+                if (value <= last) {
+                    if (next.compareAndSet(value, value + 1)) {
+                        return value;
+                    }
+                } else {
+                    refill(value);
+                }
+            }
+        }
 
-    private int initSequence(String sequenceName) {
-        CounterEntity counterEntity = new CounterEntity();
-        counterEntity.setId(sequenceName);
-        counterEntity.setSequenceValue(1);
-        mongoOperations.insert(counterEntity);
+        private synchronized void refill(int exhaustedAt) {
+            // Another thread has refilled the block while this one was waiting for the lock
+            if (next.get() != exhaustedAt || exhaustedAt <= last) {
+                return;
+            }
 
-        return 1;
+            int newLast = reserve(sequenceName, blockSize);
+            // A reader that sees the new start before the new end simply waits for the lock and retries
+            next.set(newLast - blockSize + 1);
+            last = newLast;
+        }
     }
 }
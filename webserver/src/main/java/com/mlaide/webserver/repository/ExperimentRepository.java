@@ -4,17 +4,18 @@ import com.mlaide.webserver.repository.entity.ExperimentEntity;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.security.access.prepost.PostAuthorize;
-import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExperimentRepository extends MongoRepository<ExperimentEntity, ObjectId>, ExtendedExperimentQueries {
-    @PostFilter("hasPermission(filterObject, 'VIEWER') " +
-            "or hasPermission(filterObject, 'CONTRIBUTOR') " +
-            "or hasPermission(filterObject, 'OWNER')")
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
     List<ExperimentEntity> findAllByProjectKey(String projectKey);
 
     @Override
@@ -26,4 +27,25 @@ public interface ExperimentRepository extends MongoRepository<ExperimentEntity,
             "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
             "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
     ExperimentEntity findOneByProjectKeyAndKey(String projectKey, String key);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<ExperimentEntity> findExperiments(String projectKey, Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    Stream<ExperimentEntity> streamExperiments(String projectKey, Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<ExperimentEntity> findExperimentsChangedSince(String projectKey,
+                                                       int changeSequence,
+                                                       int limit,
+                                                       Collection<String> fields);
 }
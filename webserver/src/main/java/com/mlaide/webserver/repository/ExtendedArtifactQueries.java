@@ -1,9 +1,63 @@
 package com.mlaide.webserver.repository;
 
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
 import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExtendedArtifactQueries {
-    boolean checkAllArtifactsExist(String projectKey, List<ArtifactRefEntity> artifacts);
+    /**
+     * Looks up all referenced artifacts at once. For every referenced name that exists the latest version is
+     * returned. The versions contain only those of the given versioned refs that exist; the other versions of an
+     * artifact are not loaded.
+     */
+    List<ArtifactVersions> findArtifactVersions(String projectKey, Collection<ArtifactRefEntity> artifacts);
+
+    /**
+     * Finds the artifacts with the given names and versions. Refs without a version and refs of artifacts that do not
+     * exist are ignored.
+     *
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<ArtifactEntity> findArtifactsByRefs(String projectKey,
+                                             Collection<ArtifactRefEntity> artifacts,
+                                             Collection<String> fields);
+
+    /**
+     * Finds the artifacts of a project and loads only the given fields.
+     *
+     * @param runKeys if not {@code null} only artifacts that belong to one of these runs are returned
+     * @param modelsOnly if true only artifacts that are registered as model are returned
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<ArtifactEntity> findArtifacts(String projectKey,
+                                       Collection<Integer> runKeys,
+                                       boolean modelsOnly,
+                                       Sort sort,
+                                       Collection<String> fields);
+
+    /**
+     * Works like {@link #findArtifacts} but reads the artifacts lazily from a database cursor. The returned stream
+     * must be closed to release the cursor.
+     */
+    Stream<ArtifactEntity> streamArtifacts(String projectKey,
+                                           Collection<Integer> runKeys,
+                                           boolean modelsOnly,
+                                           Sort sort,
+                                           Collection<String> fields);
+
+    /**
+     * Finds the artifacts of a project that have been written after the given value of the change sequence, as far as
+     * all changes have been written; see {@link ChangeQueries}. The artifacts are sorted by their change sequence.
+     *
+     * @param limit the max number of artifacts
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<ArtifactEntity> findArtifactsChangedSince(String projectKey,
+                                                   int changeSequence,
+                                                   int limit,
+                                                   Collection<String> fields);
 }
@@ -2,56 +2,134 @@ package com.mlaide.webserver.repository;
 
 import com.mlaide.webserver.repository.entity.ArtifactEntity;
 import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
-import lombok.Getter;
-import lombok.Setter;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static com.mlaide.webserver.repository.Projections.includeFields;
 import static java.util.stream.Collectors.toList;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.data.util.StreamUtils.createStreamFromIterator;
 
 @Component
 public class ExtendedArtifactQueriesImpl implements ExtendedArtifactQueries {
     private final MongoTemplate mongoTemplate;
+    private final CounterRepository counterRepository;
 
-    public ExtendedArtifactQueriesImpl(MongoTemplate mongoTemplate) {
+    public ExtendedArtifactQueriesImpl(MongoTemplate mongoTemplate, CounterRepository counterRepository) {
         this.mongoTemplate = mongoTemplate;
+        this.counterRepository = counterRepository;
     }
 
     @Override
-    public boolean checkAllArtifactsExist(String projectKey, List<ArtifactRefEntity> artifacts) {
-        var namedVersions = artifacts.stream()
-                .map(a -> a.getName() + ":" + a.getVersion())
+    public List<ArtifactVersions> findArtifactVersions(String projectKey, Collection<ArtifactRefEntity> artifacts) {
+        List<String> unversionedNames = artifacts.stream()
+                .filter(a -> a.getVersion() == null)
+                .map(ArtifactRefEntity::getName)
                 .distinct()
                 .collect(toList());
 
-        var castVersionToString = project("name", "version", "projectKey")
-                .andExpression("substr(version, 0, -1)")
-                .as("versionStr");
-        var projectionStage = project("name", "versionStr", "projectKey")
-                .andExpression("concat(name,':',versionStr)")
-                .as("versionedName");
-        var matchStage = match(
-                where("projectKey").is(projectKey)
-                .and("versionedName").in(namedVersions)
-        );
-        var limitStage = limit(namedVersions.size());
-
-        var aggregation = newAggregation(castVersionToString, projectionStage, matchStage, limitStage);
-        var result =
-                mongoTemplate.aggregate(aggregation, ArtifactEntity.class, VersionedArtifact.class);
-        long count = result.getMappedResults().size();
-
-        return count == namedVersions.size();
+        List<ArtifactRefEntity> versionedRefs = artifacts.stream()
+                .filter(a -> a.getVersion() != null)
+                .collect(toList());
+
+        // Every branch is a lookup on the index {projectKey, name, version}
+        List<Criteria> branches = new ArrayList<>();
+        if (!unversionedNames.isEmpty()) {
+            branches.add(where("name").in(unversionedNames));
+        }
+        versionedRefs.forEach(a -> branches.add(where("name").is(a.getName()).and("version").is(a.getVersion())));
+
+        // Only the requested versions are collected; the history of unversioned names is never accumulated. Missing
+        //  values ($$REMOVE) are skipped by $addToSet.
+        List<Document> isRequestedVersion = versionedRefs.stream()
+                .map(a -> new Document("$and", List.of(
+                        new Document("$eq", List.of("$name", a.getName())),
+                        new Document("$eq", List.of("$version", a.getVersion())))))
+                .collect(toList());
+        Document requestedVersion = new Document("$cond", List.of(
+                new Document("$or", isRequestedVersion), "$version", "$$REMOVE"));
+
+        var matchStage = match(where("projectKey").is(projectKey).orOperator(branches.toArray(new Criteria[0])));
+        var sortStage = sort(Sort.by(Sort.Order.asc("projectKey"), Sort.Order.asc("name"), Sort.Order.desc("version")));
+        AggregationOperation groupStage = context -> new Document("$group", new Document("_id", "$name")
+                .append("latestVersion", new Document("$first", "$version"))
+                .append("versions", new Document("$addToSet", requestedVersion)));
+
+        var aggregation = newAggregation(matchStage, sortStage, groupStage);
+
+        return mongoTemplate.aggregate(aggregation, ArtifactEntity.class, ArtifactVersions.class).getMappedResults();
     }
 
-    @Getter
-    @Setter
-    private static class VersionedArtifact {
-        private String projectKey;
-        private String versionedName;
+    @Override
+    public List<ArtifactEntity> findArtifactsByRefs(String projectKey,
+                                                    Collection<ArtifactRefEntity> artifacts,
+                                                    Collection<String> fields) {
+        Criteria[] branches = artifacts.stream()
+                .filter(a -> a.getVersion() != null)
+                .map(a -> where("name").is(a.getName()).and("version").is(a.getVersion()))
+                .toArray(Criteria[]::new);
+        if (branches.length == 0) {
+            return new ArrayList<>();
+        }
+
+        Query query = query(where("projectKey").is(projectKey).orOperator(branches));
+
+        return mongoTemplate.find(includeFields(query, fields), ArtifactEntity.class);
+    }
+
+    @Override
+    public List<ArtifactEntity> findArtifacts(String projectKey,
+                                              Collection<Integer> runKeys,
+                                              boolean modelsOnly,
+                                              Sort sort,
+                                              Collection<String> fields) {
+        Query query = artifactsQuery(projectKey, runKeys, modelsOnly).with(sort);
+
+        return mongoTemplate.find(includeFields(query, fields), ArtifactEntity.class);
+    }
+
+    @Override
+    public Stream<ArtifactEntity> streamArtifacts(String projectKey,
+                                                  Collection<Integer> runKeys,
+                                                  boolean modelsOnly,
+                                                  Sort sort,
+                                                  Collection<String> fields) {
+        Query query = artifactsQuery(projectKey, runKeys, modelsOnly).with(sort);
+
+        return createStreamFromIterator(mongoTemplate.stream(includeFields(query, fields), ArtifactEntity.class));
+    }
+
+    @Override
+    public List<ArtifactEntity> findArtifactsChangedSince(String projectKey,
+                                                          int changeSequence,
+                                                          int limit,
+                                                          Collection<String> fields) {
+        Query query = ChangeQueries.writtenChangesSince(counterRepository, projectKey, changeSequence, limit);
+
+        return mongoTemplate.find(includeFields(query, fields), ArtifactEntity.class);
+    }
+
+    private Query artifactsQuery(String projectKey, Collection<Integer> runKeys, boolean modelsOnly) {
+        Criteria criteria = where("projectKey").is(projectKey);
+        if (runKeys != null) {
+            criteria.and("runs.key").in(runKeys);
+        }
+        if (modelsOnly) {
+            criteria.and("model").ne(null);
+        }
+
+        return query(criteria);
     }
 }
@@ -1,7 +1,36 @@
 package com.mlaide.webserver.repository;
 
+import com.mlaide.webserver.repository.entity.ExperimentEntity;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExtendedExperimentQueries {
     boolean checkAllExperimentsExist(String projectKey, List<String> experimentKeys);
+
+    /**
+     * Finds the experiments of a project and loads only the given fields.
+     *
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<ExperimentEntity> findExperiments(String projectKey, Collection<String> fields);
+
+    /**
+     * Works like {@link #findExperiments} but reads the experiments lazily from a database cursor. The returned
+     * stream must be closed to release the cursor.
+     */
+    Stream<ExperimentEntity> streamExperiments(String projectKey, Collection<String> fields);
+
+    /**
+     * Finds the experiments of a project that have been written after the given value of the change sequence, as far as
+     * all changes have been written; see {@link ChangeQueries}. The experiments are sorted by their change sequence.
+     *
+     * @param limit the max number of experiments
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<ExperimentEntity> findExperimentsChangedSince(String projectKey,
+                                                       int changeSequence,
+                                                       int limit,
+                                                       Collection<String> fields);
 }
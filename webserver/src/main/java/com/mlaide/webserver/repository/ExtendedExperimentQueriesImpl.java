@@ -5,17 +5,23 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static com.mlaide.webserver.repository.Projections.includeFields;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.util.StreamUtils.createStreamFromIterator;
 
 @Component
 public class ExtendedExperimentQueriesImpl implements ExtendedExperimentQueries {
     private final MongoTemplate mongoTemplate;
+    private final CounterRepository counterRepository;
 
-    public ExtendedExperimentQueriesImpl(MongoTemplate mongoTemplate) {
+    public ExtendedExperimentQueriesImpl(MongoTemplate mongoTemplate, CounterRepository counterRepository) {
         this.mongoTemplate = mongoTemplate;
+        this.counterRepository = counterRepository;
     }
 
     @Override
@@ -30,4 +36,28 @@ public class ExtendedExperimentQueriesImpl implements ExtendedExperimentQueries
 
         return count == experimentKeys.size();
     }
+
+    @Override
+    public List<ExperimentEntity> findExperiments(String projectKey, Collection<String> fields) {
+        Query query = new Query(where("projectKey").is(projectKey));
+
+        return mongoTemplate.find(includeFields(query, fields), ExperimentEntity.class);
+    }
+
+    @Override
+    public Stream<ExperimentEntity> streamExperiments(String projectKey, Collection<String> fields) {
+        Query query = new Query(where("projectKey").is(projectKey));
+
+        return createStreamFromIterator(mongoTemplate.stream(includeFields(query, fields), ExperimentEntity.class));
+    }
+
+    @Override
+    public List<ExperimentEntity> findExperimentsChangedSince(String projectKey,
+                                                              int changeSequence,
+                                                              int limit,
+                                                              Collection<String> fields) {
+        Query query = ChangeQueries.writtenChangesSince(counterRepository, projectKey, changeSequence, limit);
+
+        return mongoTemplate.find(includeFields(query, fields), ExperimentEntity.class);
+    }
 }
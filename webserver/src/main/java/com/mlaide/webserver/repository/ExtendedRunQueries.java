@@ -1,15 +1,139 @@
 package com.mlaide.webserver.repository;
 
-import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
 import com.mlaide.webserver.repository.entity.ExperimentRefEntity;
 import com.mlaide.webserver.repository.entity.RunEntity;
+import org.springframework.data.domain.Sort;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface ExtendedRunQueries {
-    Collection<Integer> findAllPredecessorRunKeys(String projectKey, Collection<ArtifactRefEntity> usedArtifacts);
-
     void assignExperimentRefs(String projectKey,
                               Collection<Integer> runKeys,
                               Collection<ExperimentRefEntity> experimentRefsToAssign);
+
+    /**
+     * Merges the specified metrics into the metrics of the run. Metrics with a {@code null} value are removed.
+     * The update is only applied if the run is in status RUNNING.
+     *
+     * @return true if the run exists and is in status RUNNING; otherwise false
+     */
+    boolean mergeMetricsOfRunningRun(String projectKey, Integer runKey, Map<String, Object> metrics);
+
+    /**
+     * Merges the specified parameters into the parameters of the run. Parameters with a {@code null} value are
+     * removed. The update is only applied if the run is in status RUNNING.
+     *
+     * @return true if the run exists and is in status RUNNING; otherwise false
+     */
+    boolean mergeParametersOfRunningRun(String projectKey, Integer runKey, Map<String, Object> parameters);
+
+    /**
+     * Sets the fields of the run that are contained in {@code changes} without reading the run before. Fields with a
+     * {@code null} value are removed. Map values are merged into the map field of the run entry by entry; entries
+     * with a {@code null} value are removed. The update is only applied if the run is in status RUNNING.
+     *
+     * @return true if the run exists and is in status RUNNING; otherwise false
+     */
+    boolean patchRunningRun(String projectKey, Integer runKey, Map<String, Object> changes);
+
+    /**
+     * Inserts new runs of a project with one bulk write. The runs get ids and contiguous values of the change
+     * sequence of the project.
+     *
+     * @throws javax.validation.ConstraintViolationException if any run is invalid; no run is inserted then
+     */
+    void insertRuns(String projectKey, List<RunEntity> runs);
+
+    /**
+     * @return true if the run exists; otherwise false
+     */
+    boolean updateNote(String projectKey, Integer runKey, String note);
+
+    /**
+     * Finds one page of runs with keyset pagination. The runs are sorted by {@code sortField} and by their key
+     * as tie breaker (both in the given direction). The page starts after the run that is identified by
+     * {@code lastSortValue} and {@code lastKey}; if {@code lastKey} is {@code null} the first page is returned.
+     *
+     * @param experimentKey if not {@code null} only runs of this experiment are returned
+     * @param sortField "key", "createdAt" or the path of a metric ("metrics.&lt;name&gt;")
+     * @param limit the max number of runs that are returned
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<RunEntity> findRunPage(String projectKey,
+                                String experimentKey,
+                                String sortField,
+                                Sort.Direction direction,
+                                Object lastSortValue,
+                                Integer lastKey,
+                                int limit,
+                                Collection<String> fields);
+
+    /**
+     * Works like {@link #findRunPage} but returns only runs that fulfill all conditions. The conditions are
+     * evaluated by MongoDB and can use the wildcard indexes on the parameters and metrics of the runs.
+     */
+    List<RunEntity> findRunPageMatchingAll(String projectKey,
+                                           String experimentKey,
+                                           List<RunFilterCondition> conditions,
+                                           String sortField,
+                                           Sort.Direction direction,
+                                           Object lastSortValue,
+                                           Integer lastKey,
+                                           int limit,
+                                           Collection<String> fields);
+
+    /**
+     * Finds the runs of a project and loads only the given fields.
+     *
+     * @param runKeys if not {@code null} only runs with these keys are returned
+     * @param experimentKey if not {@code null} only runs of this experiment are returned
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<RunEntity> findRuns(String projectKey,
+                             Collection<Integer> runKeys,
+                             String experimentKey,
+                             Collection<String> fields);
+
+    /**
+     * Works like {@link #findRuns} but reads the runs lazily from a database cursor. The returned stream must be
+     * closed to release the cursor.
+     *
+     * @param conditions only runs that match all conditions are returned
+     * @param sortField the runs are sorted like the pages of {@link #findRunPageMatchingAll}; {@code null} means
+     *                  that the runs are returned in any order
+     * @param direction the sort direction; only used if a sort field is given
+     */
+    Stream<RunEntity> streamRuns(String projectKey,
+                                 Collection<Integer> runKeys,
+                                 String experimentKey,
+                                 List<RunFilterCondition> conditions,
+                                 String sortField,
+                                 Sort.Direction direction,
+                                 Collection<String> fields);
+
+    /**
+     * Finds the runs of a project that have been written after the given value of the change sequence, as far as
+     * all changes have been written; see {@link ChangeQueries}. The runs are sorted by their change sequence.
+     *
+     * @param limit the max number of runs
+     * @param fields the fields that are loaded; {@code null} means all fields
+     */
+    List<RunEntity> findRunsChangedSince(String projectKey,
+                                         int changeSequence,
+                                         int limit,
+                                         Collection<String> fields);
+
+    /**
+     * Groups the parameters and the metrics of the specified runs by their keys with a single aggregation.
+     *
+     * @param metricKeys if not {@code null} only these metrics are returned
+     * @param parameterKeys if not {@code null} only these parameters are returned
+     */
+    RunComparisonResult compareRuns(String projectKey,
+                                    Collection<Integer> runKeys,
+                                    Collection<String> metricKeys,
+                                    Collection<String> parameterKeys);
 }
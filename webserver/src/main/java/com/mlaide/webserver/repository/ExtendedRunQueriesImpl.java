@@ -1,21 +1,40 @@
 package com.mlaide.webserver.repository;
 
-import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import com.mlaide.webserver.model.RunStatus;
 import com.mlaide.webserver.repository.entity.ExperimentRefEntity;
+import com.mlaide.webserver.repository.entity.LineageEdgeEntity;
 import com.mlaide.webserver.repository.entity.RunEntity;
-import lombok.Getter;
-import lombok.Setter;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ObjectOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
-import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
 import org.springframework.stereotype.Component;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.mlaide.webserver.repository.Projections.includeFields;
 import static java.util.stream.Collectors.toList;
+import static org.springframework.data.util.StreamUtils.createStreamFromIterator;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
@@ -23,75 +42,18 @@ import static org.springframework.data.mongodb.core.query.Query.query;
 @Component
 public class ExtendedRunQueriesImpl implements ExtendedRunQueries {
     private final MongoTemplate mongoTemplate;
+    private final CounterRepository counterRepository;
+    private final LineageRepository lineageRepository;
+    private final Validator validator;
 
-    public ExtendedRunQueriesImpl(MongoTemplate mongoTemplate) {
+    public ExtendedRunQueriesImpl(MongoTemplate mongoTemplate,
+                                  CounterRepository counterRepository,
+                                  LineageRepository lineageRepository,
+                                  Validator validator) {
         this.mongoTemplate = mongoTemplate;
-    }
-
-    @Override
-    public Collection<Integer> findAllPredecessorRunKeys(String projectKey, Collection<ArtifactRefEntity> usedArtifacts) {
-        // To find all predecessors we have to start from `usedArtifacts` and than do a graph lookup.
-        // All runs are connected through the properties `artifacts` (= output) and `usedArtifacts` (= input).
-
-        // To compare artifacts refs we have to respect the name and the version of an artifact.
-        // For easier comparison we map the reference to a concatenated string.
-        var versionedArtifacts = usedArtifacts.stream()
-                .map(a -> a.getName() + " " + a.getVersion())
-                .distinct()
-                .collect(toList());
-
-        // Filter for the input artifacts (of the current project)
-        var filter = match(
-                where("projectKey").is(projectKey)
-                .and("artifactVersions").in(versionedArtifacts)
-        );
-        // Now define the graph lookup:
-        // Start form the used artifacts and connect them from output to input (from left to right) until we got
-        //  all artifacts.
-        var graphLookup = graphLookup("runsWithSimplifiedArtifactRefs")
-                .startWith("usedArtifactVersions")
-                .connectFrom("usedArtifactVersions")
-                .connectTo("artifactVersions")
-                .restrict(where("projectKey").is(projectKey))
-                .as("predecessors");
-        // The result of a graph lookup is not in the form that we need; so we have to do an unwind and replaceRoot.
-        var unwindPredecessors = unwind("predecessors", false);
-        var replaceRootWithPredecessors = replaceRoot("predecessors");
-
-        // Now define an aggregation for all the steps. But we have to consider that the graph lookup does not return
-        //  the runs, from where we starter our lookup. So we have to run two aggregations:
-        //  1. Get the runs that have `usedArtifacts` as direct output
-        //  2. Get all other runs that are predecessors of the starting runs
-        var aggregationForDirectPredecessors = newAggregation(filter);
-        var aggregationForOtherPredecessors = newAggregation(
-                filter,
-                graphLookup,
-                unwindPredecessors,
-                replaceRootWithPredecessors);
-
-        List<Predecessor> directPredecessors =
-                mongoTemplate.aggregate(
-                        aggregationForDirectPredecessors,
-                        "runsWithSimplifiedArtifactRefs",
-                        Predecessor.class)
-                .getMappedResults();
-        List<Predecessor> otherPredecessors =
-                mongoTemplate.aggregate(
-                        aggregationForOtherPredecessors,
-                        "runsWithSimplifiedArtifactRefs",
-                        Predecessor.class)
-                .getMappedResults();
-
-        var allPredecessors = new ArrayList<Predecessor>();
-        allPredecessors.addAll(directPredecessors);
-        allPredecessors.addAll(otherPredecessors);
-
-        // Create a distinct list of the results because it could be possible that some runs are contained
-        //  multiple times (in complex graphs).
-        return allPredecessors.stream()
-                .map(Predecessor::getKey)
-                .distinct()
-                .collect(toList());
+        this.counterRepository = counterRepository;
+        this.lineageRepository = lineageRepository;
+        this.validator = validator;
     }
 
     @Override
@@ -99,13 +61,403 @@ public class ExtendedRunQueriesImpl implements ExtendedRunQueries {
                                      Collection<Integer> runIds,
                                      Collection<ExperimentRefEntity> experimentRefsToAssign) {
         Query query = query(where("key").in(runIds).and("projectKey").is(projectKey));
-        UpdateDefinition update = new Update().addToSet("experimentRefs").each(experimentRefsToAssign);
+        Update update = new Update().addToSet("experimentRefs").each(experimentRefsToAssign);
+
+        updateWithChangeSequence(projectKey, query, update, true);
+    }
+
+    @Override
+    public boolean mergeMetricsOfRunningRun(String projectKey, Integer runKey, Map<String, Object> metrics) {
+        return updateRunningRun(projectKey, runKey, mergeIntoMap("metrics", metrics));
+    }
+
+    @Override
+    public boolean mergeParametersOfRunningRun(String projectKey, Integer runKey, Map<String, Object> parameters) {
+        return updateRunningRun(projectKey, runKey, mergeIntoMap("parameters", parameters));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean patchRunningRun(String projectKey, Integer runKey, Map<String, Object> changes) {
+        Update update = new Update();
+        changes.forEach((field, value) -> {
+            // Maps are merged entry by entry, so that concurrent merges into other entries are not lost
+            if (value instanceof Map) {
+                ((Map<String, Object>) value).forEach((key, entry) -> setOrUnset(update, field + "." + key, entry));
+            } else {
+                setOrUnset(update, field, value);
+            }
+        });
+
+        return updateRunningRun(projectKey, runKey, update);
+    }
+
+    @Override
+    public void insertRuns(String projectKey, List<RunEntity> runs) {
+        if (runs.isEmpty()) {
+            return;
+        }
+        if (runs.stream().anyMatch(run -> !projectKey.equals(run.getProjectKey()))) {
+            throw new IllegalArgumentException("all runs must belong to project " + projectKey);
+        }
+
+        // MongoTemplate.insert would pass every run through the ChangeSequenceListener, which costs one increment
+        //  of the counter per run, and through the LineageListener. Instead the documents are written directly and
+        //  the work of the listeners is done here: the runs are validated like the ValidatingMongoEventListener
+        //  does, the whole range of change sequences is reserved at once and the lineage edges are added in bulk.
+        Set<ConstraintViolation<RunEntity>> violations = new HashSet<>();
+        for (RunEntity run : runs) {
+            violations.addAll(validator.validate(run));
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        ChangeStamp changeStamp = counterRepository.reserveChangeSequences(projectKey, runs.size());
+        int changeSequence = changeStamp.getSequence();
+        List<Document> documents = new ArrayList<>(runs.size());
+        for (RunEntity run : runs) {
+            run.setId(new ObjectId());
+            run.setChangeSequence(changeSequence++);
+            run.setLineageVersion(LineageEdgeEntity.VERSION);
+
+            Document document = new Document();
+            mongoTemplate.getConverter().write(run, document);
+            documents.add(document);
+        }
+
+        String collectionName = mongoTemplate.getCollectionName(RunEntity.class);
+        mongoTemplate.getCollection(collectionName).insertMany(documents);
+        ChangeQueries.releaseAfterWrite(counterRepository, changeStamp, collectionName);
+        lineageRepository.addEdgesOfRuns(runs);
+    }
+
+    @Override
+    public boolean updateNote(String projectKey, Integer runKey, String note) {
+        Query query = query(runCriteria(projectKey, runKey));
+        Update update = new Update();
+        setOrUnset(update, "note", note);
+
+        UpdateResult result = updateWithChangeSequence(projectKey, query, update, false);
+
+        return result.getMatchedCount() > 0;
+    }
+
+    @Override
+    public List<RunEntity> findRunPage(String projectKey,
+                                       String experimentKey,
+                                       String sortField,
+                                       Sort.Direction direction,
+                                       Object lastSortValue,
+                                       Integer lastKey,
+                                       int limit,
+                                       Collection<String> fields) {
+        return findRunPageMatchingAll(projectKey, experimentKey, Collections.emptyList(), sortField, direction,
+                lastSortValue, lastKey, limit, fields);
+    }
+
+    @Override
+    public List<RunEntity> findRunPageMatchingAll(String projectKey,
+                                                  String experimentKey,
+                                                  List<RunFilterCondition> conditions,
+                                                  String sortField,
+                                                  Sort.Direction direction,
+                                                  Object lastSortValue,
+                                                  Integer lastKey,
+                                                  int limit,
+                                                  Collection<String> fields) {
+        // A field can be part of several conditions (e.g. a range); so every condition needs its own criteria
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(where("projectKey").is(projectKey));
+        if (experimentKey != null) {
+            criteria.add(where("experimentRefs.experimentKey").is(experimentKey));
+        }
+        conditions.forEach(condition -> criteria.add(toCriteria(condition)));
+
+        if (sortField.startsWith("metrics.")) {
+            return findRunPageSortedByMetric(criteria, sortField, direction, lastSortValue, lastKey, limit, fields);
+        }
+
+        if (lastKey != null) {
+            criteria.add(afterLastRun(sortField, direction, lastSortValue, lastKey));
+        }
+
+        // The sort matches the compound indexes of the runs collection; the query can stop reading as soon as
+        //  the limit is reached instead of sorting all runs of the project in memory.
+        Sort sort = "key".equals(sortField)
+                ? Sort.by(direction, "key")
+                : Sort.by(direction, sortField).and(Sort.by(direction, "key"));
+        Query query = query(allOf(criteria)).with(sort).limit(limit);
+
+        return mongoTemplate.find(includeFields(query, fields), RunEntity.class);
+    }
+
+    /**
+     * Metrics can have any name, so there is no index to sort by them. The runs with a numeric value are sorted in
+     * an aggregation that may use the disk once the sort exceeds the memory limit of MongoDB. All other runs (the
+     * metric is missing or not a number) follow as a tail that is sorted by key only. Restricting the first part to
+     * numbers keeps the $gt and $lt comparisons of the continuation within one BSON type.
+     */
+    private List<RunEntity> findRunPageSortedByMetric(List<Criteria> criteria,
+                                                      String sortField,
+                                                      Sort.Direction direction,
+                                                      Object lastSortValue,
+                                                      Integer lastKey,
+                                                      int limit,
+                                                      Collection<String> fields) {
+        boolean ascending = direction.isAscending();
+        Criteria afterLastKey = ascending ? where("key").gt(lastKey) : where("key").lt(lastKey);
+        List<RunEntity> runs = new ArrayList<>();
+
+        // A page token without a sort value points into the tail
+        boolean continuesInTail = lastKey != null && lastSortValue == null;
+        if (!continuesInTail) {
+            List<Criteria> numericCriteria = new ArrayList<>(criteria);
+            if (lastKey != null) {
+                Criteria sameValue = where(sortField).is(lastSortValue).andOperator(afterLastKey);
+                numericCriteria.add(ascending
+                        ? new Criteria().orOperator(where(sortField).gt(lastSortValue), sameValue)
+                        : new Criteria().orOperator(where(sortField).lt(lastSortValue), sameValue));
+            }
+
+            Aggregation aggregation = numericMetricAggregation(numericCriteria, sortField, direction, limit, fields);
+            String collectionName = mongoTemplate.getCollectionName(RunEntity.class);
+            runs.addAll(mongoTemplate.aggregate(aggregation, collectionName, RunEntity.class).getMappedResults());
+            if (runs.size() >= limit) {
+                return runs;
+            }
+        }
+
+        List<Criteria> tailCriteria = new ArrayList<>(criteria);
+        if (continuesInTail) {
+            tailCriteria.add(afterLastKey);
+        }
+        Query query = nonNumericMetricQuery(tailCriteria, sortField, direction).limit(limit - runs.size());
+        runs.addAll(mongoTemplate.find(includeFields(query, fields), RunEntity.class));
+
+        return runs;
+    }
+
+    private Aggregation numericMetricAggregation(List<Criteria> criteria,
+                                                 String sortField,
+                                                 Sort.Direction direction,
+                                                 Integer limit,
+                                                 Collection<String> fields) {
+        List<Criteria> numericCriteria = new ArrayList<>(criteria);
+        numericCriteria.add(where(sortField).type(JsonSchemaObject.Type.NUMBER));
+
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(match(allOf(numericCriteria)));
+        operations.add(sort(Sort.by(direction, sortField).and(Sort.by(direction, "key"))));
+        if (limit != null) {
+            operations.add(limit(limit));
+        }
+        if (fields != null) {
+            Document projection = new Document();
+            fields.forEach(field -> projection.append(field, 1));
+            operations.add(context -> new Document("$project", projection));
+        }
+
+        return newAggregation(operations).withOptions(newAggregationOptions().allowDiskUse(true).build());
+    }
+
+    private Query nonNumericMetricQuery(List<Criteria> criteria, String sortField, Sort.Direction direction) {
+        List<Criteria> nonNumericCriteria = new ArrayList<>(criteria);
+        nonNumericCriteria.add(where(sortField).not().type(JsonSchemaObject.Type.NUMBER));
+
+        return query(allOf(nonNumericCriteria)).with(Sort.by(direction, "key"));
+    }
+
+    @Override
+    public List<RunEntity> findRuns(String projectKey,
+                                    Collection<Integer> runKeys,
+                                    String experimentKey,
+                                    Collection<String> fields) {
+        return mongoTemplate.find(includeFields(runsQuery(projectKey, runKeys, experimentKey), fields), RunEntity.class);
+    }
+
+    @Override
+    public Stream<RunEntity> streamRuns(String projectKey,
+                                        Collection<Integer> runKeys,
+                                        String experimentKey,
+                                        List<RunFilterCondition> conditions,
+                                        String sortField,
+                                        Sort.Direction direction,
+                                        Collection<String> fields) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(runsCriteria(projectKey, runKeys, experimentKey));
+        conditions.forEach(condition -> criteria.add(toCriteria(condition)));
+
+        if (sortField == null) {
+            return stream(query(allOf(criteria)), fields);
+        }
+
+        if (sortField.startsWith("metrics.")) {
+            // Same order as the pages: the runs with a numeric value first, then all other runs by key
+            Aggregation aggregation = numericMetricAggregation(criteria, sortField, direction, null, fields);
+            String collectionName = mongoTemplate.getCollectionName(RunEntity.class);
+            Stream<RunEntity> numeric = createStreamFromIterator(
+                    mongoTemplate.aggregateStream(aggregation, collectionName, RunEntity.class));
+            try {
+                return Stream.concat(numeric, stream(nonNumericMetricQuery(criteria, sortField, direction), fields));
+            } catch (RuntimeException e) {
+                numeric.close();
+                throw e;
+            }
+        }
+
+        Sort sort = "key".equals(sortField)
+                ? Sort.by(direction, "key")
+                : Sort.by(direction, sortField).and(Sort.by(direction, "key"));
+        return stream(query(allOf(criteria)).with(sort), fields);
+    }
+
+    private Stream<RunEntity> stream(Query query, Collection<String> fields) {
+        return createStreamFromIterator(mongoTemplate.stream(includeFields(query, fields), RunEntity.class));
+    }
+
+    @Override
+    public List<RunEntity> findRunsChangedSince(String projectKey,
+                                                int changeSequence,
+                                                int limit,
+                                                Collection<String> fields) {
+        Query query = ChangeQueries.writtenChangesSince(counterRepository, projectKey, changeSequence, limit);
+
+        return mongoTemplate.find(includeFields(query, fields), RunEntity.class);
+    }
+
+    private Query runsQuery(String projectKey, Collection<Integer> runKeys, String experimentKey) {
+        return query(runsCriteria(projectKey, runKeys, experimentKey));
+    }
+
+    private Criteria runsCriteria(String projectKey, Collection<Integer> runKeys, String experimentKey) {
+        Criteria criteria = where("projectKey").is(projectKey);
+        if (runKeys != null) {
+            criteria.and("key").in(runKeys);
+        }
+        if (experimentKey != null) {
+            criteria.and("experimentRefs.experimentKey").is(experimentKey);
+        }
+
+        return criteria;
+    }
+
+    @Override
+    public RunComparisonResult compareRuns(String projectKey,
+                                           Collection<Integer> runKeys,
+                                           Collection<String> metricKeys,
+                                           Collection<String> parameterKeys) {
+        // The parameters and the metrics are grouped in separate facets of the same aggregation. Every facet
+        //  turns the map into key-value pairs and collects the values of all runs per key.
+        var aggregation = newAggregation(
+                match(where("projectKey").is(projectKey).and("key").in(runKeys)),
+                facet(groupMapValuesByKey("parameters", parameterKeys)).as("parameters")
+                        .and(groupMapValuesByKey("metrics", metricKeys)).as("metrics")
+                        .and(project("key").andExclude("_id")).as("runs"));
+
+        return mongoTemplate
+                .aggregate(aggregation, RunEntity.class, RunComparisonResult.class)
+                .getUniqueMappedResult();
+    }
+
+    private AggregationOperation[] groupMapValuesByKey(String mapField, Collection<String> keys) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(project("key").and(ObjectOperators.valueOf(mapField).toArray()).as("entries"));
+        operations.add(unwind("entries"));
+        if (keys != null) {
+            operations.add(match(where("entries.k").in(keys)));
+        }
+        // Both arrays are pushed in the same order, so the run key and the value at the same index belong together
+        operations.add(group("entries.k")
+                .push("key").as("runKeys")
+                .push("entries.v").as("values")
+                .addToSet("entries.v").as("distinctValues"));
+        operations.add(project("runKeys", "values")
+                .and(ArrayOperators.Size.lengthOfArray("distinctValues")).as("distinctValueCount"));
+
+        return operations.toArray(new AggregationOperation[0]);
+    }
+
+    private Criteria toCriteria(RunFilterCondition condition) {
+        Criteria criteria = where(condition.getField());
+
+        switch (condition.getOperator()) {
+            case EQ: return criteria.is(condition.getValue());
+            case NE: return criteria.ne(condition.getValue());
+            case LT: return criteria.lt(condition.getValue());
+            case LTE: return criteria.lte(condition.getValue());
+            case GT: return criteria.gt(condition.getValue());
+            case GTE: return criteria.gte(condition.getValue());
+            default: throw new IllegalArgumentException("Unknown operator " + condition.getOperator());
+        }
+    }
+
+    private Criteria afterLastRun(String sortField, Sort.Direction direction, Object lastSortValue, Integer lastKey) {
+        boolean ascending = direction.isAscending();
+        Criteria afterLastKey = ascending ? where("key").gt(lastKey) : where("key").lt(lastKey);
+
+        if ("key".equals(sortField)) {
+            return afterLastKey;
+        }
+
+        // MongoDB sorts missing values (and null) before all other values. Comparisons with $gt and $lt never
+        //  match missing values, so they need to be considered separately.
+        if (lastSortValue == null) {
+            Criteria sameValue = where(sortField).is(null).andOperator(afterLastKey);
+            return ascending
+                    ? new Criteria().orOperator(sameValue, where(sortField).ne(null))
+                    : sameValue;
+        }
+
+        Criteria sameValue = where(sortField).is(lastSortValue).andOperator(afterLastKey);
+        return ascending
+                ? new Criteria().orOperator(where(sortField).gt(lastSortValue), sameValue)
+                : new Criteria().orOperator(where(sortField).lt(lastSortValue), sameValue, where(sortField).is(null));
+    }
+
+    private Criteria allOf(List<Criteria> criteria) {
+        return criteria.size() == 1 ? criteria.get(0) : new Criteria().andOperator(criteria.toArray(new Criteria[0]));
+    }
+
+    private boolean updateRunningRun(String projectKey, Integer runKey, Update update) {
+        // The status is part of the query. This way the check and the update are executed atomically and
+        //  concurrent writers can not modify a run that has been completed in the meantime.
+        Query query = query(runCriteria(projectKey, runKey).and("status").is(RunStatus.RUNNING.toString()));
+
+        UpdateResult result = updateWithChangeSequence(projectKey, query, update, false);
+
+        return result.getMatchedCount() > 0;
+    }
+
+    private UpdateResult updateWithChangeSequence(String projectKey, Query query, Update update, boolean multi) {
+        // Partial updates bypass the ChangeSequenceListener; so the sequence must be set and released here
+        ChangeStamp changeStamp = counterRepository.getNextChangeSequence(projectKey);
+        update.set("changeSequence", changeStamp.getSequence());
+
+        UpdateResult result = multi
+                ? mongoTemplate.updateMulti(query, update, RunEntity.class)
+                : mongoTemplate.updateFirst(query, update, RunEntity.class);
+        ChangeQueries.releaseAfterWrite(counterRepository, changeStamp, mongoTemplate.getCollectionName(RunEntity.class));
+
+        return result;
+    }
+
+    private Update mergeIntoMap(String mapField, Map<String, Object> values) {
+        Update update = new Update();
+        values.forEach((key, value) -> setOrUnset(update, mapField + "." + key, value));
+
+        return update;
+    }
 
-        mongoTemplate.updateMulti(query, update, RunEntity.class);
+    private void setOrUnset(Update update, String field, Object value) {
+        if (value == null) {
+            update.unset(field);
+        } else {
+            update.set(field, value);
+        }
     }
 
-    @Getter @Setter
-    private static class Predecessor {
-        private Integer key;
+    private Criteria runCriteria(String projectKey, Integer runKey) {
+        return where("projectKey").is(projectKey).and("key").is(runKey);
     }
 }
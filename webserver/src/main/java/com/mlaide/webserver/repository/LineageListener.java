@@ -0,0 +1,45 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.LineageEdgeEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the lineage edges up to date whenever a run or an artifact is saved or inserted. Partial updates and bulk
+ * inserts do not pass this listener; they have to add the edges themselves.
+ *
+ * <p>Runs are flagged with the {@link LineageEdgeEntity#VERSION version} of their edges as part of the same write, so
+ * that only runs of older nodes are backfilled on startup.
+ */
+@Component
+public class LineageListener extends AbstractMongoEventListener<Object> {
+    private final LineageRepository lineageRepository;
+
+    @Autowired
+    public LineageListener(LineageRepository lineageRepository) {
+        this.lineageRepository = lineageRepository;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+        if (event.getSource() instanceof RunEntity) {
+            ((RunEntity) event.getSource()).setLineageVersion(LineageEdgeEntity.VERSION);
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        if (event.getSource() instanceof RunEntity) {
+            lineageRepository.addEdgesOfRuns(List.of((RunEntity) event.getSource()));
+        } else if (event.getSource() instanceof ArtifactEntity) {
+            lineageRepository.addEdgesOfArtifact((ArtifactEntity) event.getSource());
+        }
+    }
+}
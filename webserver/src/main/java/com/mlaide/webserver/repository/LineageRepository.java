@@ -0,0 +1,65 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LineageRepository {
+    /**
+     * Adds the edges between the runs and the artifacts they have used or produced. Existing edges are kept, so the
+     * edges of a run can be added again whenever the run is saved.
+     */
+    void addEdgesOfRuns(Collection<RunEntity> runs);
+
+    /**
+     * Adds the edges between an artifact and the runs that have produced it.
+     */
+    void addEdgesOfArtifact(ArtifactEntity artifact);
+
+    /**
+     * Removes all edges of the given runs, e.g. when the runs are deleted again right after they have been created.
+     */
+    void removeEdgesOfRuns(String projectKey, Collection<Integer> runKeys);
+
+    /**
+     * Removes the edges between an artifact and the runs that have produced it, e.g. when the artifact is deleted again
+     * right after it has been created.
+     */
+    void removeEdgesOfArtifact(ArtifactEntity artifact);
+
+    /**
+     * Finds the keys of all runs that have directly or indirectly produced the given artifacts: the runs that have
+     * produced the artifacts, the runs that have produced the inputs of these runs and so on.
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    Collection<Integer> findAllPredecessorRunKeys(String projectKey, Collection<ArtifactRefEntity> artifacts);
+
+    /**
+     * Finds the runs that have directly or indirectly used the given artifact: the runs that have used the artifact,
+     * the runs that have used an output of these runs and so on. Every run is returned only once with its smallest
+     * depth. The runs are sorted by depth and key.
+     *
+     * <p>The graph is only traversed as far as required for the requested runs, so the cost of a page depends on
+     * its depth and not on the size of the whole graph.
+     *
+     * @param maxDepth runs with a greater depth are not returned
+     * @param afterDepth if not {@code null} only runs after this depth and {@code afterRunKey} are returned
+     * @param afterRunKey the key of the last run of the previous page
+     * @param limit the maximum number of returned runs
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<LineageSuccessor> findSuccessors(String projectKey,
+                                          ArtifactRefEntity artifact,
+                                          int maxDepth,
+                                          Integer afterDepth,
+                                          Integer afterRunKey,
+                                          int limit);
+}
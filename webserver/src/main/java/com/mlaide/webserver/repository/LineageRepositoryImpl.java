@@ -0,0 +1,272 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import com.mlaide.webserver.repository.entity.LineageEdgeEntity;
+import com.mlaide.webserver.repository.entity.LineageEdgeEntity.Type;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import com.mlaide.webserver.repository.entity.RunRefEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stores the lineage graph as a collection of edges and traverses it level by level. Every level costs one indexed
+ * query for the producers (or consumers) of the current artifacts and one for the inputs (or outputs) of the found
+ * runs.
+ *
+ * <p>The inputs of a run are fixed when the run is created, so they are kept in a bounded LRU cache. The producers
+ * of an artifact are not cached: further runs can be attached to an artifact later on, possibly on another node.
+ */
+@Repository
+public class LineageRepositoryImpl implements LineageRepository {
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, List<ArtifactRefEntity>> inputsOfRuns;
+
+    @Autowired
+    public LineageRepositoryImpl(MongoTemplate mongoTemplate, @Value("${mlaide.lineage.cache-size}") int cacheSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.inputsOfRuns = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<ArtifactRefEntity>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public void addEdgesOfRuns(Collection<RunEntity> runs) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LineageEdgeEntity.class);
+        int count = 0;
+
+        for (RunEntity run : runs) {
+            inputsOfRuns.remove(cacheKey(run.getProjectKey(), run.getKey()));
+
+            for (ArtifactRefEntity artifact : nullToEmpty(run.getUsedArtifacts())) {
+                upsertEdge(bulk, run.getProjectKey(), Type.INPUT, run.getKey(), artifact.getName(), artifact.getVersion());
+                count++;
+            }
+            for (ArtifactRefEntity artifact : nullToEmpty(run.getArtifacts())) {
+                upsertEdge(bulk, run.getProjectKey(), Type.OUTPUT, run.getKey(), artifact.getName(), artifact.getVersion());
+                count++;
+            }
+        }
+
+        if (count > 0) {
+            bulk.execute();
+        }
+    }
+
+    @Override
+    public void addEdgesOfArtifact(ArtifactEntity artifact) {
+        if (artifact.getRuns() == null || artifact.getRuns().isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LineageEdgeEntity.class);
+        for (RunRefEntity run : artifact.getRuns()) {
+            upsertEdge(bulk, artifact.getProjectKey(), Type.OUTPUT, run.getKey(), artifact.getName(), artifact.getVersion());
+        }
+
+        bulk.execute();
+    }
+
+    @Override
+    public void removeEdgesOfRuns(String projectKey, Collection<Integer> runKeys) {
+        runKeys.forEach(runKey -> inputsOfRuns.remove(cacheKey(projectKey, runKey)));
+
+        mongoTemplate.remove(query(where("projectKey").is(projectKey).and("runKey").in(runKeys)),
+                LineageEdgeEntity.class);
+    }
+
+    @Override
+    public void removeEdgesOfArtifact(ArtifactEntity artifact) {
+        // Only the producers of the artifact are derived from it; these are not cached
+        mongoTemplate.remove(query(where("projectKey").is(artifact.getProjectKey())
+                .and("type").is(Type.OUTPUT)
+                .and("artifactName").is(artifact.getName())
+                .and("artifactVersion").is(artifact.getVersion())), LineageEdgeEntity.class);
+    }
+
+    @Override
+    public Collection<Integer> findAllPredecessorRunKeys(String projectKey, Collection<ArtifactRefEntity> artifacts) {
+        Set<Integer> runKeys = new LinkedHashSet<>();
+        Set<List<Object>> visitedArtifacts = new HashSet<>();
+        List<ArtifactRefEntity> frontier = new ArrayList<>();
+        for (ArtifactRefEntity artifact : artifacts) {
+            if (visitedArtifacts.add(List.of(artifact.getName(), artifact.getVersion()))) {
+                frontier.add(artifact);
+            }
+        }
+
+        while (!frontier.isEmpty()) {
+            List<Integer> newRunKeys = new ArrayList<>();
+            for (Integer runKey : findEdgeRunKeys(projectKey, Type.OUTPUT, frontier)) {
+                if (runKeys.add(runKey)) {
+                    newRunKeys.add(runKey);
+                }
+            }
+
+            frontier = new ArrayList<>();
+            for (List<ArtifactRefEntity> inputs : findInputsOfRuns(projectKey, newRunKeys).values()) {
+                for (ArtifactRefEntity input : inputs) {
+                    if (visitedArtifacts.add(List.of(input.getName(), input.getVersion()))) {
+                        frontier.add(input);
+                    }
+                }
+            }
+        }
+
+        return runKeys;
+    }
+
+    @Override
+    public List<LineageSuccessor> findSuccessors(String projectKey,
+                                                 ArtifactRefEntity artifact,
+                                                 int maxDepth,
+                                                 Integer afterDepth,
+                                                 Integer afterRunKey,
+                                                 int limit) {
+        List<LineageSuccessor> successors = new ArrayList<>();
+        Set<Integer> visitedRuns = new HashSet<>();
+        Set<List<Object>> visitedArtifacts = new HashSet<>();
+        visitedArtifacts.add(List.of(artifact.getName(), artifact.getVersion()));
+        List<ArtifactRefEntity> frontier = List.of(artifact);
+
+        // Breadth first, so every run is found with its smallest depth and the levels are in the order of the pages
+        for (int depth = 1; depth <= maxDepth && !frontier.isEmpty() && successors.size() < limit; depth++) {
+            List<Integer> newRunKeys = new ArrayList<>();
+            for (Integer runKey : findEdgeRunKeys(projectKey, Type.INPUT, frontier)) {
+                if (visitedRuns.add(runKey)) {
+                    newRunKeys.add(runKey);
+                }
+            }
+            Collections.sort(newRunKeys);
+
+            Map<Integer, List<ArtifactRefEntity>> outputs = findEdgeArtifacts(projectKey, Type.OUTPUT, newRunKeys);
+
+            frontier = new ArrayList<>();
+            for (Integer runKey : newRunKeys) {
+                List<ArtifactRefEntity> runOutputs = outputs.get(runKey);
+                if (successors.size() < limit && isAfter(depth, runKey, afterDepth, afterRunKey)) {
+                    successors.add(new LineageSuccessor(runKey, depth, runOutputs));
+                }
+
+                for (ArtifactRefEntity output : runOutputs) {
+                    if (visitedArtifacts.add(List.of(output.getName(), output.getVersion()))) {
+                        frontier.add(output);
+                    }
+                }
+            }
+        }
+
+        return successors;
+    }
+
+    private static boolean isAfter(int depth, Integer runKey, Integer afterDepth, Integer afterRunKey) {
+        if (afterDepth == null) {
+            return true;
+        }
+
+        return depth > afterDepth || (depth == afterDepth && runKey > afterRunKey);
+    }
+
+    private Set<Integer> findEdgeRunKeys(String projectKey, Type type, List<ArtifactRefEntity> artifacts) {
+        Criteria[] artifactCriteria = artifacts.stream()
+                .map(a -> where("artifactName").is(a.getName()).and("artifactVersion").is(a.getVersion()))
+                .toArray(Criteria[]::new);
+        Query query = query(where("projectKey").is(projectKey).and("type").is(type)
+                .orOperator(artifactCriteria));
+        query.fields().include("runKey");
+
+        Set<Integer> runKeys = new LinkedHashSet<>();
+        for (LineageEdgeEntity edge : mongoTemplate.find(query, LineageEdgeEntity.class)) {
+            runKeys.add(edge.getRunKey());
+        }
+
+        return runKeys;
+    }
+
+    private Map<Integer, List<ArtifactRefEntity>> findInputsOfRuns(String projectKey, List<Integer> runKeys) {
+        Map<Integer, List<ArtifactRefEntity>> inputs = new HashMap<>();
+        List<Integer> missingRunKeys = new ArrayList<>();
+        for (Integer runKey : runKeys) {
+            List<ArtifactRefEntity> cached = inputsOfRuns.get(cacheKey(projectKey, runKey));
+            if (cached != null) {
+                inputs.put(runKey, cached);
+            } else {
+                missingRunKeys.add(runKey);
+            }
+        }
+
+        if (missingRunKeys.isEmpty()) {
+            return inputs;
+        }
+
+        Map<Integer, List<ArtifactRefEntity>> loaded = findEdgeArtifacts(projectKey, Type.INPUT, missingRunKeys);
+
+        // Runs without inputs are cached as well; otherwise they would be queried in every traversal
+        loaded.forEach((runKey, runInputs) -> inputsOfRuns.put(cacheKey(projectKey, runKey), runInputs));
+        inputs.putAll(loaded);
+
+        return inputs;
+    }
+
+    private Map<Integer, List<ArtifactRefEntity>> findEdgeArtifacts(String projectKey, Type type, List<Integer> runKeys) {
+        Map<Integer, List<ArtifactRefEntity>> artifacts = new HashMap<>();
+        if (runKeys.isEmpty()) {
+            return artifacts;
+        }
+        runKeys.forEach(runKey -> artifacts.put(runKey, new ArrayList<>()));
+
+        Query query = query(where("projectKey").is(projectKey).and("type").is(type).and("runKey").in(runKeys));
+        for (LineageEdgeEntity edge : mongoTemplate.find(query, LineageEdgeEntity.class)) {
+            artifacts.get(edge.getRunKey()).add(new ArtifactRefEntity(edge.getArtifactName(), edge.getArtifactVersion()));
+        }
+
+        return artifacts;
+    }
+
+    private void upsertEdge(BulkOperations bulk,
+                            String projectKey,
+                            Type type,
+                            Integer runKey,
+                            String artifactName,
+                            Integer artifactVersion) {
+        Query query = query(where("projectKey").is(projectKey)
+                .and("type").is(type)
+                .and("artifactName").is(artifactName)
+                .and("artifactVersion").is(artifactVersion)
+                .and("runKey").is(runKey));
+
+        // The fields of the query are copied into a new edge; existing edges stay unchanged
+        bulk.upsert(query, new Update().setOnInsert("runKey", runKey));
+    }
+
+    private static String cacheKey(String projectKey, Integer runKey) {
+        return projectKey + "/" + runKey;
+    }
+
+    private static <T> Collection<T> nullToEmpty(Collection<T> collection) {
+        return collection == null ? Collections.emptyList() : collection;
+    }
+}
@@ -0,0 +1,23 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A run that has directly or indirectly used an artifact. The depth is 1 for runs that have used the artifact
+ * itself, 2 for runs that have used an output of these runs and so on.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineageSuccessor {
+    private Integer runKey;
+    private int depth;
+    private List<ArtifactRefEntity> outputs;
+}
@@ -0,0 +1,52 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface MetricBucketRepository {
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    void appendMetricPoints(String projectKey, Integer runKey, String metricName, Collection<MetricPointEntity> points);
+
+    /**
+     * Appends points of several metrics of one run with a single bulk write.
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    void appendMetricPoints(String projectKey,
+                            Integer runKey,
+                            Map<String, ? extends Collection<MetricPointEntity>> pointsByMetricName);
+
+    /**
+     * Streams all points of a metric ordered by step. The stream must be closed after usage because it holds an
+     * open database cursor.
+     *
+     * @param fromStep the lowest step (inclusive) that should be returned; {@code null} means no lower limit
+     * @param toStep the highest step (inclusive) that should be returned; {@code null} means no upper limit
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    Stream<MetricPointEntity> streamMetricPoints(String projectKey,
+                                                 Integer runKey,
+                                                 String metricName,
+                                                 Long fromStep,
+                                                 Long toStep);
+
+    /**
+     * Determines the number of points and the lowest and highest step of a metric within the given step range
+     * without transferring the points. Returns {@code null} if no point exists in this range.
+     */
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    MetricSeriesStatistics getMetricSeriesStatistics(String projectKey,
+                                                     Integer runKey,
+                                                     String metricName,
+                                                     Long fromStep,
+                                                     Long toStep);
+}
@@ -0,0 +1,160 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.MetricBucketEntity;
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Repository
+public class MetricBucketRepositoryImpl implements MetricBucketRepository {
+    private final MongoTemplate mongoTemplate;
+    private final int bucketSize;
+
+    @Autowired
+    public MetricBucketRepositoryImpl(MongoTemplate mongoTemplate,
+                                      @Value("${mlaide.metrics.bucket-size}") int bucketSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.bucketSize = bucketSize;
+    }
+
+    @Override
+    public void appendMetricPoints(String projectKey,
+                                   Integer runKey,
+                                   String metricName,
+                                   Collection<MetricPointEntity> points) {
+        appendMetricPoints(projectKey, runKey, Map.of(metricName, points));
+    }
+
+    @Override
+    public void appendMetricPoints(String projectKey,
+                                   Integer runKey,
+                                   Map<String, ? extends Collection<MetricPointEntity>> pointsByMetricName) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MetricBucketEntity.class);
+        boolean hasOperations = false;
+
+        for (var metric: pointsByMetricName.entrySet()) {
+            // Every bucket covers a fixed range of steps. Group the points by the bucket they belong to so that we
+            // need only one upsert per bucket - usually all points of a request end up in one or two buckets.
+            Map<Long, List<MetricPointEntity>> pointsByBucket = metric.getValue().stream()
+                    .collect(groupingBy(p -> firstStepOfBucket(p.getStep()), TreeMap::new, toList()));
+
+            for (var bucket: pointsByBucket.entrySet()) {
+                long firstStep = bucket.getKey();
+                List<MetricPointEntity> bucketPoints = bucket.getValue();
+                long lastStep = bucketPoints.stream().mapToLong(MetricPointEntity::getStep).max().orElse(firstStep);
+
+                Query query = query(bucketCriteria(projectKey, runKey, metric.getKey()).and("firstStep").is(firstStep));
+                Update update = new Update()
+                        .push("points").each(bucketPoints.toArray())
+                        .inc("count", bucketPoints.size())
+                        .max("lastStep", lastStep);
+
+                bulkOperations.upsert(query, update);
+                hasOperations = true;
+            }
+        }
+
+        if (hasOperations) {
+            bulkOperations.execute();
+        }
+    }
+
+    @Override
+    public Stream<MetricPointEntity> streamMetricPoints(String projectKey,
+                                                        Integer runKey,
+                                                        String metricName,
+                                                        Long fromStep,
+                                                        Long toStep) {
+        Query query = query(bucketsInStepRange(projectKey, runKey, metricName, fromStep, toStep)).with(Sort.by(Sort.Direction.ASC, "firstStep"));
+        CloseableIterator<MetricBucketEntity> buckets = mongoTemplate.stream(query, MetricBucketEntity.class);
+
+        // Points are appended to a bucket in the order they arrive; sorting is only required within a bucket
+        return StreamUtils.createStreamFromIterator(buckets)
+                .flatMap(bucket -> bucket.getPoints().stream().sorted(comparing(MetricPointEntity::getStep)))
+                .filter(point -> (fromStep == null || point.getStep() >= fromStep)
+                        && (toStep == null || point.getStep() <= toStep));
+    }
+
+    @Override
+    public MetricSeriesStatistics getMetricSeriesStatistics(String projectKey,
+                                                            Integer runKey,
+                                                            String metricName,
+                                                            Long fromStep,
+                                                            Long toStep) {
+        Criteria pointCriteria = new Criteria();
+        if (fromStep != null && toStep != null) {
+            pointCriteria = where("points.step").gte(fromStep).lte(toStep);
+        } else if (fromStep != null) {
+            pointCriteria = where("points.step").gte(fromStep);
+        } else if (toStep != null) {
+            pointCriteria = where("points.step").lte(toStep);
+        }
+
+        Aggregation aggregation = newAggregation(
+                match(bucketsInStepRange(projectKey, runKey, metricName, fromStep, toStep)),
+                unwind("points"),
+                match(pointCriteria),
+                group()
+                        .count().as("count")
+                        .min("points.step").as("minStep")
+                        .max("points.step").as("maxStep"));
+
+        return mongoTemplate
+                .aggregate(aggregation, MetricBucketEntity.class, MetricSeriesStatistics.class)
+                .getUniqueMappedResult();
+    }
+
+    private Criteria bucketsInStepRange(String projectKey,
+                                        Integer runKey,
+                                        String metricName,
+                                        Long fromStep,
+                                        Long toStep) {
+        // Do not rely on the bucket size to find the buckets of the requested range. The bucket size is
+        // configurable and buckets that have been written with another bucket size must still be found.
+        Criteria criteria = bucketCriteria(projectKey, runKey, metricName);
+        if (toStep != null) {
+            criteria.and("firstStep").lte(toStep);
+        }
+        if (fromStep != null) {
+            criteria.and("lastStep").gte(fromStep);
+        }
+
+        return criteria;
+    }
+
+    private Criteria bucketCriteria(String projectKey, Integer runKey, String metricName) {
+        return where("projectKey").is(projectKey)
+                .and("runKey").is(runKey)
+                .and("metricName").is(metricName);
+    }
+
+    private long firstStepOfBucket(long step) {
+        return step - Math.floorMod(step, bucketSize);
+    }
+}
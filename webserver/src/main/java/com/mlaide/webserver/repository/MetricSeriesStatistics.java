@@ -0,0 +1,14 @@
+package com.mlaide.webserver.repository;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class MetricSeriesStatistics {
+    private long count;
+    private long maxStep;
+    private long minStep;
+}
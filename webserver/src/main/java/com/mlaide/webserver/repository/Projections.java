@@ -0,0 +1,22 @@
+package com.mlaide.webserver.repository;
+
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+
+final class Projections {
+    private Projections() {
+    }
+
+    /**
+     * Restricts the query to the given fields. If {@code fields} is {@code null} all fields are returned.
+     * The fields must already be validated by the caller because they are passed to MongoDB as they are.
+     */
+    static Query includeFields(Query query, Collection<String> fields) {
+        if (fields != null) {
+            fields.forEach(field -> query.fields().include(field));
+        }
+
+        return query;
+    }
+}
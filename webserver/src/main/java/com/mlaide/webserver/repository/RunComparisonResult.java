@@ -0,0 +1,40 @@
+package com.mlaide.webserver.repository;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+
+import java.util.List;
+
+/**
+ * The parameters and metrics of several runs grouped by their keys.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class RunComparisonResult {
+    private List<KeyedValues> metrics;
+    private List<KeyedValues> parameters;
+    private List<RunKey> runs;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class KeyedValues {
+        /** The number of different values of this key */
+        private int distinctValueCount;
+        /** The key of the parameter or metric */
+        @Id private String key;
+        /** The keys of the runs that contain this parameter or metric; aligned with {@link #values} */
+        private List<Integer> runKeys;
+        private List<Object> values;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class RunKey {
+        private Integer key;
+    }
+}
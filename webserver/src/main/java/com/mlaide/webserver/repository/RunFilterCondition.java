@@ -0,0 +1,29 @@
+package com.mlaide.webserver.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A comparison of a parameter or metric of a run with a constant value, e.g. {@code metrics.accuracy > 0.9}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RunFilterCondition {
+    /** The path of the parameter or metric, e.g. "parameters.lr" or "metrics.accuracy" */
+    private String field;
+    private Operator operator;
+    private Object value;
+
+    public enum Operator {
+        EQ,
+        NE,
+        LT,
+        LTE,
+        GT,
+        GTE
+    }
+}
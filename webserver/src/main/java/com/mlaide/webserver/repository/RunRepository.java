@@ -2,14 +2,18 @@ package com.mlaide.webserver.repository;
 
 import com.mlaide.webserver.repository.entity.RunEntity;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RunRepository extends MongoRepository<RunEntity, ObjectId>, ExtendedRunQueries {
@@ -19,19 +23,21 @@ public interface RunRepository extends MongoRepository<RunEntity, ObjectId>, Ext
             "or hasPermission(filterObject, 'OWNER')")
     List<RunEntity> findAll();
 
-    @PostFilter("hasPermission(filterObject, 'VIEWER') " +
-            "or hasPermission(filterObject, 'CONTRIBUTOR') " +
-            "or hasPermission(filterObject, 'OWNER')")
+    // The ACL of a run inherits all entries from the ACL of its project. Therefore, project scoped queries are
+    //  authorized once with the project instead of evaluating the ACL of every returned run.
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
     List<RunEntity> findAllByProjectKey(String projectKey);
 
-    @PostFilter("hasPermission(filterObject, 'VIEWER') " +
-            "or hasPermission(filterObject, 'CONTRIBUTOR') " +
-            "or hasPermission(filterObject, 'OWNER')")
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
     List<RunEntity> findAllByProjectKeyAndKeyIn(String projectKey, List<Integer> keys);
 
-    @PostFilter("hasPermission(filterObject, 'VIEWER') " +
-            "or hasPermission(filterObject, 'CONTRIBUTOR') " +
-            "or hasPermission(filterObject, 'OWNER')")
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
     List<RunEntity> findAllByProjectKeyAndExperimentRefsExperimentKeyIn(String projectKey, String experimentKey);
 
     @Override
@@ -49,4 +55,95 @@ public interface RunRepository extends MongoRepository<RunEntity, ObjectId>, Ext
             "or hasPermission(returnObject, 'CONTRIBUTOR') " +
             "or hasPermission(returnObject, 'OWNER')")
     RunEntity findOneByProjectKeyAndKey(String projectKey, Integer key);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    boolean mergeMetricsOfRunningRun(String projectKey, Integer runKey, Map<String, Object> metrics);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    boolean mergeParametersOfRunningRun(String projectKey, Integer runKey, Map<String, Object> parameters);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    boolean patchRunningRun(String projectKey, Integer runKey, Map<String, Object> changes);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    void insertRuns(String projectKey, List<RunEntity> runs);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    boolean updateNote(String projectKey, Integer runKey, String note);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<RunEntity> findRunPage(String projectKey,
+                                String experimentKey,
+                                String sortField,
+                                Sort.Direction direction,
+                                Object lastSortValue,
+                                Integer lastKey,
+                                int limit,
+                                Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<RunEntity> findRunPageMatchingAll(String projectKey,
+                                           String experimentKey,
+                                           List<RunFilterCondition> conditions,
+                                           String sortField,
+                                           Sort.Direction direction,
+                                           Object lastSortValue,
+                                           Integer lastKey,
+                                           int limit,
+                                           Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<RunEntity> findRuns(String projectKey,
+                             Collection<Integer> runKeys,
+                             String experimentKey,
+                             Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    Stream<RunEntity> streamRuns(String projectKey,
+                                 Collection<Integer> runKeys,
+                                 String experimentKey,
+                                 List<RunFilterCondition> conditions,
+                                 String sortField,
+                                 Sort.Direction direction,
+                                 Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    List<RunEntity> findRunsChangedSince(String projectKey,
+                                         int changeSequence,
+                                         int limit,
+                                         Collection<String> fields);
+
+    @Override
+    @PreAuthorize("hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'VIEWER') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'CONTRIBUTOR') " +
+            "or hasPermission(#projectKey, 'com.mlaide.webserver.repository.entity.ProjectEntity', 'OWNER')")
+    RunComparisonResult compareRuns(String projectKey,
+                                    Collection<Integer> runKeys,
+                                    Collection<String> metricKeys,
+                                    Collection<String> parameterKeys);
 }
@@ -18,10 +18,15 @@ import java.util.Map;
 @CompoundIndex(name = "name_version",
         def = "{'projectKey': 1, 'type': 1, 'name': 1, 'version': -1}",
         unique = true)
+@CompoundIndex(name = "name_latest_version", def = "{'projectKey': 1, 'name': 1, 'version': -1}")
+@CompoundIndex(name = "fingerprint", def = "{'projectKey': 1, 'name': 1, 'fingerprint': 1, 'version': -1}")
+@CompoundIndex(name = "changeSequence", def = "{'projectKey': 1, 'changeSequence': 1}")
 @Getter
 @Setter
 @NoArgsConstructor
-public class ArtifactEntity {
+public class ArtifactEntity implements ChangeTrackedEntity {
+    private Integer changeSequence;
+
     @PastOrPresent
     @NotNull
     private OffsetDateTime createdAt;
@@ -31,6 +36,11 @@ public class ArtifactEntity {
 
     private List<FileRefEntity> files;
 
+    /**
+     * Identifies the content of the files; see {@link com.mlaide.webserver.repository.ArtifactFingerprint}
+     */
+    private String fingerprint;
+
     @Id
     private ObjectId id;
 
@@ -0,0 +1,32 @@
+package com.mlaide.webserver.repository.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A file content that is stored once per project in the object storage, regardless of how many artifact files refer
+ * to it. The blob is identified by the hash of its content, which has been verified when the content was uploaded.
+ */
+@Document(collection = "blobs")
+@CompoundIndex(name = "hash", def = "{'projectKey': 1, 'hash': 1}", unique = true)
+@Getter
+@Setter
+@NoArgsConstructor
+public class BlobEntity {
+    @Id
+    private ObjectId id;
+    private String projectKey;
+    private String hash;
+    /** The key of the object in the bucket of the project */
+    private String key;
+    private String objectVersionId;
+    /** The number of bytes of the content */
+    private Long size;
+    /** The number of artifact files that refer to the blob */
+    private long referenceCount;
+}
@@ -0,0 +1,34 @@
+package com.mlaide.webserver.repository.entity;
+
+import com.mlaide.webserver.model.ZipCompression;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A ZIP of all files of an artifact that is stored in the object storage, so that it is not built again on every
+ * download. The bundle is identified by the fingerprint of its content, so it is not used anymore once files are
+ * added to the artifact.
+ */
+@Document(collection = "bundles")
+@CompoundIndex(name = "fingerprint", def = "{'projectKey': 1, 'fingerprint': 1, 'compression': 1}", unique = true)
+@Getter
+@Setter
+@NoArgsConstructor
+public class BundleEntity {
+    @Id
+    private ObjectId id;
+    private String projectKey;
+    /** See {@link com.mlaide.webserver.repository.ArtifactFingerprint#ofContent(java.util.List)} */
+    private String fingerprint;
+    private ZipCompression compression;
+    /** The key of the object in the bucket of the project */
+    private String key;
+    private String objectVersionId;
+    /** The number of bytes of the ZIP */
+    private long size;
+}
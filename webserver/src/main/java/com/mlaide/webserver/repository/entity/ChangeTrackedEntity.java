@@ -0,0 +1,11 @@
+package com.mlaide.webserver.repository.entity;
+
+/**
+ * An entity that is stamped with the change sequence of its project on every write. Clients can use the
+ * sequence to fetch only the entities that have changed since their last request.
+ */
+public interface ChangeTrackedEntity {
+    String getProjectKey();
+    Integer getChangeSequence();
+    void setChangeSequence(Integer changeSequence);
+}
@@ -6,6 +6,9 @@ import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+
 @Document(collection = "counters")
 @Getter
 @Setter
@@ -14,4 +17,16 @@ public class CounterEntity {
     @Id
     private String id;
     private int sequenceValue;
+    /** The ranges of a change sequence that have been reserved, but whose documents have not been written yet */
+    private List<PendingChanges> pendingChanges;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class PendingChanges {
+        private int first;
+        private int last;
+        /** The time of the database at which the range was reserved */
+        private OffsetDateTime reservedAt;
+    }
 }
@@ -19,13 +19,15 @@ import java.time.OffsetDateTime;
 import java.util.List;
 
 @CompoundIndexes({
-    @CompoundIndex(name = "key", def = "{'projectKey' : 1, 'key' : 1}", unique = true)
+    @CompoundIndex(name = "key", def = "{'projectKey' : 1, 'key' : 1}", unique = true),
+    @CompoundIndex(name = "changeSequence", def = "{'projectKey' : 1, 'changeSequence' : 1}")
 })
 @Document(collection = "experiments")
 @Getter
 @Setter
 @NoArgsConstructor
-public class ExperimentEntity {
+public class ExperimentEntity implements ChangeTrackedEntity {
+    private Integer changeSequence;
     @PastOrPresent
     @NotNull
     private OffsetDateTime createdAt;
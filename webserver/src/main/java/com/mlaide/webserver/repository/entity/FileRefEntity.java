@@ -10,12 +10,20 @@ import javax.validation.constraints.NotBlank;
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @Builder
 public class FileRefEntity {
+    /**
+     * Identifies the file within its artifact. Files with the same content share the blob, so the object version id
+     * can't be used for that.
+     */
+    private String fileId;
     @NotBlank
     private String fileName;
     @NotBlank
     private String hash;
     @NotBlank
     private String internalFileName;
+    /** The version of the blob in the object storage */
     @NotBlank
     private String s3ObjectVersionId;
+    /** The number of bytes of the file; files that have been uploaded before it was recorded have no size */
+    private Long size;
 }
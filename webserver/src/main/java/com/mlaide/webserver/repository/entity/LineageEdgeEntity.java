@@ -0,0 +1,45 @@
+package com.mlaide.webserver.repository.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * An edge of the lineage graph between a run and an artifact version. An {@link Type#INPUT INPUT} edge means that
+ * the run has used the artifact; an {@link Type#OUTPUT OUTPUT} edge means that the run has produced it. The edges are
+ * derived from the artifact refs of runs and artifacts whenever these are saved.
+ */
+@Document(collection = "lineageEdges")
+@CompoundIndex(name = "edge",
+        def = "{'projectKey': 1, 'type': 1, 'artifactName': 1, 'artifactVersion': 1, 'runKey': 1}",
+        unique = true)
+@CompoundIndex(name = "run", def = "{'projectKey': 1, 'type': 1, 'runKey': 1}")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineageEdgeEntity {
+    /**
+     * The version of the edges that are derived from a run. Runs are flagged with it when their edges are written;
+     * runs with another version get their edges on startup.
+     */
+    public static final int VERSION = 1;
+
+    @Id
+    private ObjectId id;
+    private String projectKey;
+    private Type type;
+    private Integer runKey;
+    private String artifactName;
+    private Integer artifactVersion;
+
+    public enum Type {
+        INPUT,
+        OUTPUT
+    }
+}
@@ -0,0 +1,51 @@
+package com.mlaide.webserver.repository.entity;
+
+import com.mlaide.webserver.validation.ValidationRegEx;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import java.util.List;
+
+/**
+ * A bucket holds the points of one metric of one run for a fixed range of steps. The range starts at
+ * {@code firstStep}; {@code lastStep} is the highest step that has been appended to the bucket so far.
+ */
+@Document(collection = "metricBuckets")
+@CompoundIndex(name = "run_metric_step",
+        def = "{'projectKey': 1, 'runKey': 1, 'metricName': 1, 'firstStep': 1}",
+        unique = true)
+@Getter
+@Setter
+@NoArgsConstructor
+public class MetricBucketEntity {
+    private int count;
+
+    @NotNull
+    private Long firstStep;
+
+    @Id
+    private ObjectId id;
+
+    @NotNull
+    private Long lastStep;
+
+    @NotBlank
+    private String metricName;
+
+    private List<MetricPointEntity> points;
+
+    @Pattern(regexp = ValidationRegEx.PROJECT_KEY)
+    @NotBlank
+    private String projectKey;
+
+    @NotNull
+    private Integer runKey;
+}
@@ -0,0 +1,19 @@
+package com.mlaide.webserver.repository.entity;
+
+import lombok.*;
+
+import javax.validation.constraints.NotNull;
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricPointEntity {
+    @NotNull
+    private Long step;
+    private OffsetDateTime timestamp;
+    @NotNull
+    private Double value;
+}
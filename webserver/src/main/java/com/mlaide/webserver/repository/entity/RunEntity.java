@@ -14,14 +14,21 @@ import java.util.List;
 import java.util.Map;
 
 @CompoundIndex(name = "key", def = "{'projectKey' : 1, 'key' : -1}", unique = true)
+@CompoundIndex(name = "createdAt_key", def = "{'projectKey' : 1, 'createdAt' : -1, 'key' : -1}")
+@CompoundIndex(name = "experimentKey_key", def = "{'projectKey' : 1, 'experimentRefs.experimentKey' : 1, 'key' : -1}")
+@CompoundIndex(name = "experimentKey_createdAt_key",
+        def = "{'projectKey' : 1, 'experimentRefs.experimentKey' : 1, 'createdAt' : -1, 'key' : -1}")
+@CompoundIndex(name = "changeSequence", def = "{'projectKey' : 1, 'changeSequence' : 1}")
+@CompoundIndex(name = "lineageVersion", def = "{'lineageVersion' : 1}")
 @Document(collection = "runs")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class RunEntity {
+public class RunEntity implements ChangeTrackedEntity {
     private List<ArtifactRefEntity> artifacts;
+    private Integer changeSequence;
     @PastOrPresent
     @NotNull
     private OffsetDateTime createdAt;
@@ -35,6 +42,8 @@ public class RunEntity {
     @Id private ObjectId id;
     @NotNull
     private Integer key;
+    /** The {@link LineageEdgeEntity#VERSION version} of the lineage edges that have been written for the run. */
+    private Integer lineageVersion;
     private Map<String, Object> metrics;
     @NotBlank
     private String name;
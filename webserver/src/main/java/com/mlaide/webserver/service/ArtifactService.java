@@ -9,7 +9,9 @@ import com.mlaide.webserver.model.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ArtifactService {
     Artifact addArtifact(String projectKey, Artifact artifact, Integer runKey);
@@ -19,19 +21,54 @@ public interface ArtifactService {
                             Integer artifactVersion,
                             InputStream inputStream,
                             String filename,
-                            String fileHash)
+                            String fileHash,
+                            long contentLength)
             throws IOException;
 
+    /**
+     * Adds files to an artifact whose content is already stored in the project, so that they do not have to be
+     * uploaded again. Files that the artifact already contains with the same hash are ignored.
+     *
+     * @throws NotFoundException if the content of one of the files is not stored
+     */
+    void addArtifactFiles(String projectKey, String artifactName, Integer artifactVersion, List<FileHash> fileHashes);
+
     void createOrUpdateModel(String projectKey,
                              String artifactName,
                              int artifactVersion,
                              CreateOrUpdateModel model);
 
-    ItemList<Artifact> getArtifacts(String projectKey);
+    /**
+     * The list methods accept the fields that should be returned. If {@code fields} is {@code null} or empty
+     * all fields are returned; otherwise only the requested fields and the name and version are loaded.
+     */
+    ItemList<Artifact> getArtifacts(String projectKey, Collection<String> fields);
+
+    ItemList<Artifact> getModels(String projectKey, Collection<String> fields);
+
+    ItemList<Artifact> getArtifactsByRunKeys(String projectKey, List<Integer> runKeys, Collection<String> fields);
 
-    ItemList<Artifact> getModels(String projectKey);
+    /**
+     * Returns the artifacts of a project that have changed since the sync token was issued. The result contains the
+     * {@link ItemList#getSyncToken() syncToken} for the next request. Changes are only returned as far as all
+     * changes have been written, so a client never gets a token that skips a change that is still being written. If more changes are
+     * waiting than fit into one result, it also contains a {@link ItemList#getNextPageToken() nextPageToken} that
+     * is passed as {@code since} right away.
+     *
+     * @param since the sync token of the previous request or "0" to get all artifacts
+     */
+    ItemList<Artifact> getArtifactsChangedSince(String projectKey, String since, Collection<String> fields);
 
-    ItemList<Artifact> getArtifactsByRunKeys(String projectKey, List<Integer> runKeys);
+    /**
+     * Returns the artifacts of a project one by one as they are read from the database. The stream must be closed.
+     *
+     * @param runKeys if not {@code null} only artifacts of these runs are returned
+     * @param modelsOnly if true only artifacts that are registered as model are returned
+     */
+    Stream<Artifact> streamArtifacts(String projectKey,
+                                     List<Integer> runKeys,
+                                     boolean modelsOnly,
+                                     Collection<String> fields);
 
     Artifact getLatestArtifact(String projectKey, String artifactName, Stage stage);
 
@@ -39,11 +76,31 @@ public interface ArtifactService {
 
     ArtifactFile getFileInfo(String projectKey, String artifactName, Integer artifactVersion, String fileId);
 
-    void downloadArtifact(String projectKey, String artifactName, Integer artifactVersion, OutputStream outputStream)
-            throws IOException;
+    /**
+     * Returns the ZIP of all files of an artifact. Once the runs of the artifact have finished, the ZIP is stored in
+     * the object storage after the first download; later downloads do not have to build it again.
+     */
+    ArtifactZip getArtifactZip(String projectKey,
+                               String artifactName,
+                               Integer artifactVersion,
+                               ZipCompression compression);
 
     void downloadFile(String projectKey, String artifactName, Integer artifactVersion, String fileId, OutputStream outputStream)
             throws IOException;
 
+    /**
+     * Returns the runs that have directly or indirectly used an artifact together with the artifacts they have
+     * produced. The runs are sorted by their depth and key.
+     *
+     * @param maxDepth the maximum depth of the returned runs or {@code null} for the default
+     * @param pageToken the token of the previous page or {@code null} for the first page
+     */
+    ItemList<DownstreamRun> getDownstreamRuns(String projectKey,
+                                              String artifactName,
+                                              Integer artifactVersion,
+                                              Integer maxDepth,
+                                              Integer pageSize,
+                                              String pageToken);
+
     Artifact getArtifactByFileHashes(String projectKey, String artifactName, List<FileHash> fileHashes);
 }
@@ -0,0 +1,33 @@
+package com.mlaide.webserver.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A ZIP of all files of an artifact that is ready to be downloaded.
+ */
+public class ArtifactZip {
+    private final Long contentLength;
+    private final ContentWriter contentWriter;
+
+    public ArtifactZip(Long contentLength, ContentWriter contentWriter) {
+        this.contentLength = contentLength;
+        this.contentWriter = contentWriter;
+    }
+
+    /**
+     * The number of bytes of the ZIP or {@code null} if the ZIP is built while it is downloaded.
+     */
+    public Long getContentLength() {
+        return contentLength;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        contentWriter.writeTo(outputStream);
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mlaide.webserver.service;
+
+import com.mlaide.webserver.repository.entity.BlobEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Stores file contents once per project, addressed by their hash. Every artifact file that refers to a blob adds a
+ * reference to it. Hashes are compared case-insensitively.
+ */
+public interface BlobService {
+    /**
+     * Returns those of the given hashes whose content is already stored in the project. Clients only have to upload
+     * the files with the other hashes.
+     */
+    Set<String> findExistingBlobs(String projectKey, Collection<String> hashes);
+
+    /**
+     * Stores the content with the given hash and adds a reference to it. The content is only uploaded if no blob
+     * with this hash exists yet; otherwise the input stream is not read. The hash and the length of an uploaded
+     * content are verified on the server, so the hash of a blob can be trusted.
+     *
+     * @param contentLength the number of bytes of the content or a negative value if it is unknown
+     * @throws InvalidInputException if the content does not match the hash or the length
+     */
+    BlobEntity storeBlob(String projectKey, String hash, InputStream inputStream, long contentLength)
+            throws IOException;
+
+    /**
+     * Adds a reference to the existing blob with the given hash.
+     *
+     * @throws NotFoundException if no blob with this hash exists
+     */
+    BlobEntity referenceBlob(String projectKey, String hash);
+}
@@ -0,0 +1,26 @@
+package com.mlaide.webserver.service;
+
+import com.mlaide.webserver.model.ZipCompression;
+import com.mlaide.webserver.repository.entity.BundleEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Caches the ZIPs of artifacts in the object storage. The bundles are identified by the fingerprint of the files of
+ * the artifact, so a bundle is never used for other files than it contains.
+ */
+public interface BundleService {
+    /**
+     * @return the bundle or {@code null} if it has not been built yet
+     */
+    BundleEntity findBundle(String projectKey, String fingerprint, ZipCompression compression);
+
+    /**
+     * Builds the bundle in the background and stores it in the object storage. Nothing happens if the bundle is
+     * already being built. The security context of the caller is used to build the bundle.
+     */
+    void buildBundle(String projectKey, String fingerprint, ZipCompression compression, ArtifactZip.ContentWriter content);
+
+    void downloadBundle(String projectKey, BundleEntity bundle, OutputStream outputStream) throws IOException;
+}
@@ -3,11 +3,29 @@ package com.mlaide.webserver.service;
 import com.mlaide.webserver.model.Experiment;
 import com.mlaide.webserver.model.ItemList;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExperimentService {
     boolean checkAllExperimentsExist(String projectKey, List<String> experimentKeys);
-    ItemList<Experiment> getExperiments(String projectKey);
+    ItemList<Experiment> getExperiments(String projectKey, Collection<String> fields);
+
+    /**
+     * Returns the experiments of a project that have changed since the sync token was issued. The result contains the
+     * {@link ItemList#getSyncToken() syncToken} for the next request. Changes are only returned as far as all
+     * changes have been written, so a client never gets a token that skips a change that is still being written. If more changes are
+     * waiting than fit into one result, it also contains a {@link ItemList#getNextPageToken() nextPageToken} that
+     * is passed as {@code since} right away.
+     *
+     * @param since the sync token of the previous request or "0" to get all experiments
+     */
+    ItemList<Experiment> getExperimentsChangedSince(String projectKey, String since, Collection<String> fields);
+
+    /**
+     * Returns the experiments of a project one by one as they are read from the database. The stream must be closed.
+     */
+    Stream<Experiment> streamExperiments(String projectKey, Collection<String> fields);
     Experiment getExperiment(String projectKey, String experimentKey);
     Experiment addExperiment(String projectKey, Experiment experiment);
     void updateExperiment(String projectKey, Experiment experiment);
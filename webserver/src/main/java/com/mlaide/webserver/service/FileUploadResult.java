@@ -3,10 +3,14 @@ package com.mlaide.webserver.service;
 public class FileUploadResult {
     private final String hash;
     private final String objectVersionId;
+    private final String contentHash;
+    private final long size;
 
-    public FileUploadResult(String hash, String objectVersionId) {
+    public FileUploadResult(String hash, String objectVersionId, String contentHash, long size) {
         this.hash = hash;
         this.objectVersionId = objectVersionId;
+        this.contentHash = contentHash;
+        this.size = size;
     }
 
     public String getHash() {
@@ -16,4 +20,18 @@ public class FileUploadResult {
     public String getObjectVersionId() {
         return objectVersionId;
     }
+
+    /**
+     * The hex encoded hash of the content that has been computed while uploading it.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * The number of bytes of the content.
+     */
+    public long getSize() {
+        return size;
+    }
 }
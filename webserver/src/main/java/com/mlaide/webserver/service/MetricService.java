@@ -0,0 +1,27 @@
+package com.mlaide.webserver.service;
+
+import com.mlaide.webserver.model.ItemList;
+import com.mlaide.webserver.model.MetricPoint;
+import com.mlaide.webserver.model.MetricSampling;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+public interface MetricService {
+    void appendMetricPoints(String projectKey, Integer runKey, String metricName, List<MetricPoint> points);
+    long ingestMetricPoints(String projectKey, InputStream ndjson) throws IOException;
+    ItemList<MetricPoint> getMetricPoints(String projectKey, Integer runKey, String metricName, Long fromStep, Long toStep);
+
+    /**
+     * Returns the points of a metric within the given step range. If the range contains more than
+     * {@code maxPoints} points, the series is downsampled on the server using the given sampling method.
+     */
+    ItemList<MetricPoint> getMetricPoints(String projectKey,
+                                          Integer runKey,
+                                          String metricName,
+                                          Long fromStep,
+                                          Long toStep,
+                                          Integer maxPoints,
+                                          MetricSampling sampling);
+}
@@ -9,6 +9,11 @@ import java.util.Map;
 public interface PermissionService {
     void grantPermissionBasedOnProject(String projectKey, Serializable objectId, Class<?> objectType);
 
+    /**
+     * Works like {@link #grantPermissionBasedOnProject(String, Serializable, Class)} for many new objects at once.
+     */
+    void grantPermissionsBasedOnProject(String projectKey, Collection<? extends Serializable> objectIds, Class<?> objectType);
+
     void grantPermissionToNewProject(String projectKey, MlAidePermission permission);
 
     void grantPermissionsToExistingProject(String projectKey, Map<String, MlAidePermission> permissions);
@@ -0,0 +1,17 @@
+package com.mlaide.webserver.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+public interface ProjectEventService {
+    /**
+     * Subscribes to the events of a project. The events are sent to the client as server-sent events after the
+     * change has been committed. Every client has a bounded buffer; a client that can not keep up with the events
+     * is disconnected and has to reconnect.
+     *
+     * @param experimentKey if not {@code null} only events of runs of this experiment are sent
+     * @param runKeys if not {@code null} only events of these runs are sent
+     */
+    SseEmitter subscribe(String projectKey, String experimentKey, List<Integer> runKeys);
+}
@@ -2,18 +2,107 @@ package com.mlaide.webserver.service;
 
 import com.mlaide.webserver.model.GitDiff;
 import com.mlaide.webserver.model.Run;
+import com.mlaide.webserver.model.RunBatch;
+import com.mlaide.webserver.model.RunComparison;
 import com.mlaide.webserver.model.ItemList;
 import org.eclipse.jgit.diff.DiffEntry;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface RunService {
-    ItemList<Run> getRuns(String projectKey);
-    ItemList<Run> getRunsByKeys(String projectKey, List<Integer> runKeys);
-    ItemList<Run> getRunsOfExperiment(String projectKey, String experimentKey);
+    /**
+     * The list methods accept the fields that should be returned. If {@code fields} is {@code null} or empty
+     * all fields are returned; otherwise only the requested fields and the key of the runs are loaded.
+     */
+    ItemList<Run> getRuns(String projectKey, Collection<String> fields);
+    ItemList<Run> getRunsByKeys(String projectKey, List<Integer> runKeys, Collection<String> fields);
+    ItemList<Run> getRunsOfExperiment(String projectKey, String experimentKey, Collection<String> fields);
+
+    /**
+     * Returns the runs of a project that have changed since the sync token was issued. The result contains the
+     * {@link ItemList#getSyncToken() syncToken} for the next request. Changes are only returned as far as all
+     * changes have been written, so a client never gets a token that skips a change that is still being written. If more changes are
+     * waiting than fit into one result, it also contains a {@link ItemList#getNextPageToken() nextPageToken} that
+     * is passed as {@code since} right away.
+     *
+     * @param since the sync token of the previous request or "0" to get all runs
+     */
+    ItemList<Run> getRunsChangedSince(String projectKey, String since, Collection<String> fields);
+
+    /**
+     * Returns the runs of a project one by one as they are read from the database. The stream must be closed.
+     * The filter and the sort order work like in {@link #getRunPage}, but the runs are not paginated.
+     *
+     * @param runKeys if not {@code null} only runs with these keys are returned
+     * @param experimentKey if not {@code null} only runs of this experiment are returned
+     * @param filter if not {@code null} only runs that match this expression are returned
+     * @param sort the sort field; if neither sort nor direction is given the runs are returned in any order
+     * @param direction the sort direction; default is descending
+     */
+    Stream<Run> streamRuns(String projectKey,
+                           List<Integer> runKeys,
+                           String experimentKey,
+                           String filter,
+                           String sort,
+                           Sort.Direction direction,
+                           Collection<String> fields);
+
+    /**
+     * Returns one page of the runs of a project. The next page can be requested with the
+     * {@link ItemList#getNextPageToken() nextPageToken} of the result; it is {@code null} on the last page.
+     *
+     * @param experimentKey if not {@code null} only runs of this experiment are returned
+     * @param filter if not {@code null} only runs that match this expression are returned, e.g.
+     *               {@code params.lr < 0.01 and metrics.accuracy >= 0.9}
+     * @param sort "key" (default), "createdAt" or "metrics.&lt;name&gt;"; runs without a numeric value of the metric
+     *             follow the sorted runs in the order of their keys
+     * @param direction the sort direction; default is descending
+     * @param pageSize the max number of runs of the page
+     * @param pageToken the token of the previous page or {@code null} for the first page
+     * @param fields the fields that are returned; {@code null} means all fields
+     */
+    ItemList<Run> getRunPage(String projectKey,
+                             String experimentKey,
+                             String filter,
+                             String sort,
+                             Sort.Direction direction,
+                             Integer pageSize,
+                             String pageToken,
+                             Collection<String> fields);
+    /**
+     * Compares the parameters and the metrics of the specified runs. The runs keep the order of {@code runKeys};
+     * runs that do not exist and duplicate keys are ignored.
+     *
+     * @param metricKeys if not {@code null} only these metrics are compared
+     * @param parameterKeys if not {@code null} only these parameters are compared
+     */
+    RunComparison compareRuns(String projectKey,
+                              List<Integer> runKeys,
+                              List<String> metricKeys,
+                              List<String> parameterKeys);
     Run addRun(String projectKey, Run run);
+
+    /**
+     * Creates all runs of the batch at once. The keys are allocated with one counter operation, the refs of all runs
+     * are validated together and the runs and their ACLs are written with bulk inserts.
+     */
+    List<Run> addRuns(String projectKey, RunBatch batch);
     Run getRun(String projectKey, Integer runKey);
-    void updateRun(String projectKey, Run run);
+
+    /**
+     * Applies a JSON merge patch to a running run with one conditional update; the run is not read before. Only the
+     * name, the note, the status, the parameters and the metrics can be patched. The parameters and the metrics are
+     * merged entry by entry, so concurrent merges of other entries are kept.
+     *
+     * @throws InvalidInputException if the patch contains any other field or an invalid value
+     */
+    void patchRun(String projectKey, Integer runKey, Map<String, Object> patch);
+    void mergeMetrics(String projectKey, Integer runKey, Map<String, Object> metrics);
+    void mergeParameters(String projectKey, Integer runKey, Map<String, Object> parameters);
     String createOrUpdateNote(String projectKey, Integer runKey, String note);
     Run attachArtifactToRun(String projectKey, Integer runKey, String artifactEntityName, Integer artifactVersion);
     void attachArtifactToRunAndViceVersa(String projectKey, Integer runKey, String artifactEntityName, Integer artifactVersion);
@@ -2,13 +2,43 @@ package com.mlaide.webserver.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 public interface StorageService {
     FileUploadResult upload(String bucketName, String keyName, InputStream inputStream) throws IOException;
 
+    /**
+     * Works like {@link #upload(String, String, InputStream)} but uses the length of the content to choose the
+     * size of the parts in which the content is uploaded. The content is verified while it is uploaded.
+     *
+     * @param contentLength the number of bytes of the content or a negative value if it is unknown
+     * @param expectedHash the hex encoded hash of the content or {@code null} if it should not be verified
+     * @throws InvalidInputException if the content does not match the expected hash or length; nothing is stored
+     */
+    FileUploadResult upload(String bucketName,
+                            String keyName,
+                            InputStream inputStream,
+                            long contentLength,
+                            String expectedHash) throws IOException;
+
     InputStream download(String bucketName, String keyName);
 
     InputStream download(String bucketName, String keyName, String versionId);
 
+    /**
+     * Downloads several objects and passes them to the consumer one after another in the given order. While the
+     * consumer reads an object, the next objects are already downloaded in the background. The streams are closed
+     * after the consumer has returned.
+     */
+    void download(String bucketName, List<String> keyNames, ObjectConsumer consumer) throws IOException;
+
     void createBucket(String bucketName);
+
+    @FunctionalInterface
+    interface ObjectConsumer {
+        /**
+         * @param index the index of the key of the object in the list of keys
+         */
+        void accept(int index, InputStream content) throws IOException;
+    }
 }
@@ -5,5 +5,10 @@ import com.mlaide.webserver.model.ArtifactRef;
 import java.util.List;
 
 public interface ValidationService {
-    boolean checkAllArtifactsExist(String projectKey, List<ArtifactRef> artifactRefs);
+    /**
+     * Checks that all artifact refs exist. Refs without a version are set to the latest version of the artifact.
+     *
+     * @return true if every ref exists
+     */
+    boolean resolveArtifactRefs(String projectKey, List<ArtifactRef> artifactRefs);
 }
@@ -0,0 +1,111 @@
+package com.mlaide.webserver.service.downsampling;
+
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Downsampling with the Largest-Triangle-Three-Buckets algorithm (Sveinn Steinarsson, 2013). The first and the
+ * last point are always kept. The points in between are split into buckets of equal step width; from every bucket
+ * the point that forms the largest triangle with the previously selected point and the average of the next bucket
+ * is selected.
+ *
+ * <p>The selection of a bucket depends on the average of the following bucket. Therefore, only the points of the
+ * two most recent buckets are held in memory.</p>
+ */
+public class LttbDownsampler implements MetricDownsampler {
+    private final StepBuckets buckets;
+    private final List<MetricPointEntity> result = new ArrayList<>();
+
+    private MetricPointEntity selectedPoint;
+    private List<MetricPointEntity> previousBucket;
+    private List<MetricPointEntity> currentBucket = new ArrayList<>();
+    private int currentBucketIndex;
+
+    public LttbDownsampler(int maxPoints, long minStep, long maxStep) {
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("LTTB requires at least 3 points");
+        }
+
+        this.buckets = new StepBuckets(minStep, maxStep, maxPoints - 2);
+    }
+
+    @Override
+    public void add(MetricPointEntity point) {
+        if (selectedPoint == null) {
+            selectedPoint = point;
+            result.add(point);
+            return;
+        }
+
+        int bucketIndex = buckets.indexOf(point.getStep());
+        if (!currentBucket.isEmpty() && bucketIndex != currentBucketIndex) {
+            // The current bucket is complete; now we know the average of the bucket that follows the previous one
+            if (previousBucket != null) {
+                selectFrom(previousBucket, average(currentBucket));
+            }
+            previousBucket = currentBucket;
+            currentBucket = new ArrayList<>();
+        }
+
+        currentBucketIndex = bucketIndex;
+        currentBucket.add(point);
+    }
+
+    @Override
+    public List<MetricPointEntity> getResult() {
+        if (currentBucket.isEmpty()) {
+            return result;
+        }
+
+        // The last point always belongs to the result; it is the reference point for the remaining buckets
+        MetricPointEntity lastPoint = currentBucket.remove(currentBucket.size() - 1);
+        double[] lastPointCoordinates = { lastPoint.getStep(), lastPoint.getValue() };
+
+        if (previousBucket != null) {
+            selectFrom(previousBucket, currentBucket.isEmpty() ? lastPointCoordinates : average(currentBucket));
+            previousBucket = null;
+        }
+        if (!currentBucket.isEmpty()) {
+            selectFrom(currentBucket, lastPointCoordinates);
+            currentBucket = new ArrayList<>();
+        }
+
+        result.add(lastPoint);
+
+        return result;
+    }
+
+    private void selectFrom(List<MetricPointEntity> bucket, double[] nextBucketAverage) {
+        double ax = selectedPoint.getStep();
+        double ay = selectedPoint.getValue();
+        double cx = nextBucketAverage[0];
+        double cy = nextBucketAverage[1];
+
+        MetricPointEntity maxAreaPoint = null;
+        double maxArea = -1;
+        for (MetricPointEntity point: bucket) {
+            // Twice the area of the triangle; the factor does not matter for the comparison
+            double area = Math.abs((ax - cx) * (point.getValue() - ay) - (ax - point.getStep()) * (cy - ay));
+            if (area > maxArea) {
+                maxArea = area;
+                maxAreaPoint = point;
+            }
+        }
+
+        selectedPoint = maxAreaPoint;
+        result.add(maxAreaPoint);
+    }
+
+    private double[] average(List<MetricPointEntity> bucket) {
+        double x = 0;
+        double y = 0;
+        for (MetricPointEntity point: bucket) {
+            x += point.getStep();
+            y += point.getValue();
+        }
+
+        return new double[] { x / bucket.size(), y / bucket.size() };
+    }
+}
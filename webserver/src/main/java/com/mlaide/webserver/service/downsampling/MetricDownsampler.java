@@ -0,0 +1,16 @@
+package com.mlaide.webserver.service.downsampling;
+
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+
+import java.util.List;
+
+/**
+ * Reduces a series of metric points to a fixed number of points. The points must be passed in ascending order of
+ * their steps. Implementations keep only a bounded number of points in memory, so the series can be streamed
+ * directly from the database.
+ */
+public interface MetricDownsampler {
+    void add(MetricPointEntity point);
+
+    List<MetricPointEntity> getResult();
+}
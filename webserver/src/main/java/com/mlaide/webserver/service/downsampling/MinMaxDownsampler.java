@@ -0,0 +1,70 @@
+package com.mlaide.webserver.service.downsampling;
+
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the series into buckets of equal step width and keeps the point with the lowest and the point with the
+ * highest value of every bucket. Spikes are therefore always visible in the result. Only the minimum and maximum
+ * of the current bucket are held in memory.
+ */
+public class MinMaxDownsampler implements MetricDownsampler {
+    private final StepBuckets buckets;
+    private final List<MetricPointEntity> result = new ArrayList<>();
+
+    private MetricPointEntity min;
+    private MetricPointEntity max;
+    private int currentBucketIndex;
+
+    public MinMaxDownsampler(int maxPoints, long minStep, long maxStep) {
+        if (maxPoints < 2) {
+            throw new IllegalArgumentException("min/max bucketing requires at least 2 points");
+        }
+
+        this.buckets = new StepBuckets(minStep, maxStep, maxPoints / 2);
+    }
+
+    @Override
+    public void add(MetricPointEntity point) {
+        int bucketIndex = buckets.indexOf(point.getStep());
+
+        if (min != null && bucketIndex != currentBucketIndex) {
+            completeBucket();
+        }
+
+        currentBucketIndex = bucketIndex;
+        if (min == null || point.getValue() < min.getValue()) {
+            min = point;
+        }
+        if (max == null || point.getValue() > max.getValue()) {
+            max = point;
+        }
+    }
+
+    @Override
+    public List<MetricPointEntity> getResult() {
+        if (min != null) {
+            completeBucket();
+        }
+
+        return result;
+    }
+
+    private void completeBucket() {
+        // Keep the order of the steps within the result
+        if (min == max) {
+            result.add(min);
+        } else if (min.getStep() <= max.getStep()) {
+            result.add(min);
+            result.add(max);
+        } else {
+            result.add(max);
+            result.add(min);
+        }
+
+        min = null;
+        max = null;
+    }
+}
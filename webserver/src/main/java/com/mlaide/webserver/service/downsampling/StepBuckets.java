@@ -0,0 +1,22 @@
+package com.mlaide.webserver.service.downsampling;
+
+/**
+ * Splits the step range [minStep, maxStep] into a fixed number of buckets of equal width.
+ */
+class StepBuckets {
+    private final long minStep;
+    private final int bucketCount;
+    private final double bucketWidth;
+
+    StepBuckets(long minStep, long maxStep, int bucketCount) {
+        this.minStep = minStep;
+        this.bucketCount = bucketCount;
+        this.bucketWidth = (double) (maxStep - minStep + 1) / bucketCount;
+    }
+
+    int indexOf(long step) {
+        int index = (int) ((step - minStep) / bucketWidth);
+
+        return Math.max(0, Math.min(bucketCount - 1, index));
+    }
+}
@@ -2,89 +2,201 @@ package com.mlaide.webserver.service.impl;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
-import com.amazonaws.util.StringInputStream;
 import com.mlaide.webserver.service.FileUploadResult;
+import com.mlaide.webserver.service.InvalidInputException;
 import com.mlaide.webserver.service.StorageService;
+import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Uploads files as multipart uploads. The parts of a file are uploaded in parallel: while some parts are in flight
+ * the next part is read from the input stream. At most {@code upload-concurrency} parts of an upload are in flight.
+ * The parts are buffered in memory until they are uploaded; all uploads share a buffer of {@code upload-buffer-size}
+ * bytes. A part is only read once there is room for it in the buffer. A part that is larger than the whole buffer
+ * waits until the buffer is empty and takes all of it.
+ *
+ * <p>S3 allows at most 10,000 parts per upload. If the length of the content is known, the part size is chosen so
+ * that the content fits into these parts. Otherwise the part size is doubled every 1,000 parts.
+ *
+ * <p>The hash and the size of the content are computed while the parts are read, so the content is read only once.
+ * If the content does not match the expected hash or length, the upload is aborted before it is completed.
+ *
+ * <p>When several objects are downloaded, up to {@code download-prefetch} objects are requested ahead of the one
+ * that is currently read, so that the latency of the requests overlaps. Objects are buffered in memory while they
+ * wait; all downloads share a buffer of {@code download-buffer-size} bytes. Objects that do not fit into the buffer
+ * are only opened once it is their turn, so that they do not hold a connection of the client while they wait.
+ */
 @Service
 public class AmazonS3StorageService implements StorageService {
+    static final int MAX_PARTS = 10_000;
+    static final int MAX_PART_SIZE = 512 * 1024 * 1024;
+    private static final int PARTS_PER_PART_SIZE = 1_000;
+    private static final int MEGABYTE = 1024 * 1024;
+
     private final Logger logger = LoggerFactory.getLogger(AmazonS3StorageService.class);
+    private final ExecutorService uploader = Executors.newCachedThreadPool(new CustomizableThreadFactory("s3-upload-"));
+    private final ExecutorService downloader = Executors.newCachedThreadPool(new CustomizableThreadFactory("s3-download-"));
     private final AmazonS3 amazonS3;
     private final int bufferSize;
+    private final int uploadConcurrency;
+    private final int uploadBufferSize;
+    private final Semaphore uploadBuffer;
+    private final String hashAlgorithm;
+    private final int downloadPrefetch;
+    private final Semaphore downloadBuffer;
 
     @Autowired
     public AmazonS3StorageService(AmazonS3 amazonS3,
-                                  @Value("${mlaide.object-storage.chunk-size}") int bufferSize) {
+                                  @Value("${mlaide.object-storage.chunk-size}") int bufferSize,
+                                  @Value("${mlaide.object-storage.upload-concurrency}") int uploadConcurrency,
+                                  @Value("${mlaide.object-storage.upload-buffer-size}") int uploadBufferSize,
+                                  @Value("${mlaide.object-storage.hash-algorithm}") String hashAlgorithm,
+                                  @Value("${mlaide.object-storage.download-prefetch}") int downloadPrefetch,
+                                  @Value("${mlaide.object-storage.download-buffer-size}") int downloadBufferSize) {
         this.amazonS3 = amazonS3;
         this.bufferSize = bufferSize;
+        this.uploadConcurrency = uploadConcurrency;
+        this.uploadBufferSize = uploadBufferSize;
+        // Fair, so that a large part is not starved by smaller parts of other uploads
+        this.uploadBuffer = new Semaphore(uploadBufferSize, true);
+        this.hashAlgorithm = hashAlgorithm;
+        this.downloadPrefetch = downloadPrefetch;
+        this.downloadBuffer = new Semaphore(downloadBufferSize);
+
+        // Fail on startup instead of on the first upload
+        createMessageDigest();
     }
 
     @Override
     public FileUploadResult upload(String bucketName, String keyName, InputStream inputStream) throws IOException {
-        byte[] bytes = new byte[bufferSize];
+        return upload(bucketName, keyName, inputStream, -1, null);
+    }
+
+    @Override
+    public FileUploadResult upload(String bucketName,
+                                   String keyName,
+                                   InputStream inputStream,
+                                   long contentLength,
+                                   String expectedHash) throws IOException {
+        MessageDigest digest = createMessageDigest();
+        long size = 0;
+
         String uploadId = amazonS3
                 .initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, keyName))
                 .getUploadId();
 
-        int bytesRead;
-        int partNumber = 1;
-        List<UploadPartResult> results = new ArrayList<>();
-        bytesRead = inputStream.read(bytes);
-        while (bytesRead >= 0) {
-            UploadPartRequest part = new UploadPartRequest()
-                    .withBucketName(bucketName)
-                    .withKey(keyName)
-                    .withUploadId(uploadId)
-                    .withPartNumber(partNumber)
-                    .withInputStream(new ByteArrayInputStream(bytes, 0, bytesRead))
-                    .withPartSize(bytesRead);
+        List<Future<PartETag>> parts = new ArrayList<>();
+        try {
+            Semaphore partsInFlight = new Semaphore(uploadConcurrency);
+            int partNumber = 1;
+            while (true) {
+                int partSize = partSize(partNumber, contentLength);
+                int reservedBytes = Math.min(partSize, uploadBufferSize);
+                partsInFlight.acquire();
+                uploadBuffer.acquire(reservedBytes);
 
-            UploadPartResult uploadResult = amazonS3.uploadPart(part);
-            logger.debug("uploaded chunk #{}", partNumber);
+                // The permits are passed on to the upload of the part; they are released here if it is not submitted
+                boolean submitted = false;
+                try {
+                    throwIfAnyPartFailed(parts);
 
-            results.add(uploadResult);
-            bytesRead = inputStream.read(bytes);
-            partNumber++;
-        }
+                    byte[] bytes = new byte[partSize];
+                    int bytesRead = inputStream.readNBytes(bytes, 0, bytes.length);
+                    digest.update(bytes, 0, bytesRead);
+                    size += bytesRead;
+
+                    // An empty file is uploaded as one empty part; S3 client will fail if we do not specify any part
+                    if (bytesRead == 0 && partNumber > 1) {
+                        break;
+                    }
+
+                    UploadPartRequest part = new UploadPartRequest()
+                            .withBucketName(bucketName)
+                            .withKey(keyName)
+                            .withUploadId(uploadId)
+                            .withPartNumber(partNumber)
+                            .withInputStream(new ByteArrayInputStream(bytes, 0, bytesRead))
+                            .withPartSize(bytesRead);
+                    parts.add(uploader.submit(() -> {
+                        try {
+                            UploadPartResult uploadResult = amazonS3.uploadPart(part);
+                            logger.debug("uploaded chunk #{}", part.getPartNumber());
+                            return uploadResult.getPartETag();
+                        } finally {
+                            uploadBuffer.release(reservedBytes);
+                            partsInFlight.release();
+                        }
+                    }));
+                    submitted = true;
+
+                    if (bytesRead < bytes.length) {
+                        break;
+                    }
+                } finally {
+                    if (!submitted) {
+                        uploadBuffer.release(reservedBytes);
+                        partsInFlight.release();
+                    }
+                }
+                partNumber++;
+            }
+
+            String contentHash = Hex.encodeHexString(digest.digest());
+            if (expectedHash != null && !expectedHash.equalsIgnoreCase(contentHash)) {
+                throw new InvalidInputException("The file hash does not match the content of the file.");
+            }
+            if (contentLength >= 0 && contentLength != size) {
+                throw new InvalidInputException("The length of the file does not match the content of the file.");
+            }
+
+            List<PartETag> partETags = new ArrayList<>();
+            for (Future<PartETag> part : parts) {
+                partETags.add(part.get());
+            }
 
-        if (partNumber == 1) {
-            // Nothing was uploaded; seems that the file was empty; S3 client will fail
-            // if we do not specify any part => specify an empty part
-            UploadPartRequest part = new UploadPartRequest()
+            CompleteMultipartUploadRequest completeRequest = new CompleteMultipartUploadRequest()
                     .withBucketName(bucketName)
                     .withKey(keyName)
                     .withUploadId(uploadId)
-                    .withPartNumber(partNumber)
-                    .withInputStream(new StringInputStream(""))
-                    .withPartSize(0);
+                    .withPartETags(partETags);
 
-            UploadPartResult uploadResult = amazonS3.uploadPart(part);
-            logger.debug("uploaded empty chunk because input file stream was empty");
+            CompleteMultipartUploadResult uploadResult = amazonS3.completeMultipartUpload(completeRequest);
+            logger.info("uploaded file to S3 with versionId '{}'", uploadResult.getVersionId());
 
-            results.add(uploadResult);
+            return new FileUploadResult(uploadResult.getETag(), uploadResult.getVersionId(), contentHash, size);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(bucketName, keyName, uploadId, parts);
+            throw new IOException("Upload of file was interrupted", e);
+        } catch (ExecutionException e) {
+            abort(bucketName, keyName, uploadId, parts);
+            throw new IOException("Could not upload part of file", e.getCause());
+        } catch (IOException | RuntimeException e) {
+            abort(bucketName, keyName, uploadId, parts);
+            throw e;
         }
-
-        CompleteMultipartUploadRequest completeRequest = new CompleteMultipartUploadRequest()
-                .withBucketName(bucketName)
-                .withKey(keyName)
-                .withUploadId(uploadId)
-                .withPartETags(results);
-
-        CompleteMultipartUploadResult uploadResult = amazonS3.completeMultipartUpload(completeRequest);
-        logger.info("uploaded file to S3 with versionId '{}'", uploadResult.getVersionId());
-
-        return new FileUploadResult(uploadResult.getETag(), uploadResult.getVersionId());
     }
 
     @Override
@@ -98,6 +210,39 @@ public class AmazonS3StorageService implements StorageService {
         return amazonS3.getObject(getObjectRequest).getObjectContent();
     }
 
+    @Override
+    public void download(String bucketName, List<String> keyNames, ObjectConsumer consumer) throws IOException {
+        Deque<Future<PrefetchedObject>> objects = new ArrayDeque<>();
+        int nextKey = 0;
+        try {
+            for (int index = 0; index < keyNames.size(); index++) {
+                while (nextKey < keyNames.size() && nextKey <= index + downloadPrefetch) {
+                    String keyName = keyNames.get(nextKey++);
+                    objects.add(downloader.submit(() -> prefetch(bucketName, keyName)));
+                }
+
+                try (PrefetchedObject object = objects.remove().get()) {
+                    consumer.accept(index, object.open());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Download of files was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not download file", e.getCause());
+        } finally {
+            // Objects that have been requested but are not needed anymore, e.g. because the client has gone away. They
+            //  are not cancelled, because a running download would not release its buffer then.
+            for (Future<PrefetchedObject> object : objects) {
+                if (object.isDone()) {
+                    closeQuietly(object);
+                } else {
+                    downloader.execute(() -> closeQuietly(object));
+                }
+            }
+        }
+    }
+
     @Override
     public void createBucket(String bucketName) {
         Bucket bucket = amazonS3.createBucket(bucketName);
@@ -111,4 +256,124 @@ public class AmazonS3StorageService implements StorageService {
 
         logger.info("created new bucket '{}'", bucketName);
     }
+
+    @PreDestroy
+    public void shutdown() {
+        uploader.shutdownNow();
+        downloader.shutdownNow();
+    }
+
+    /**
+     * @param contentLength the length of the whole content or a negative value if it is unknown
+     */
+    int partSize(int partNumber, long contentLength) {
+        long partSize;
+        if (contentLength >= 0) {
+            // Rounded up to whole megabytes to keep the parts aligned
+            long minimumPartSize = (contentLength + MAX_PARTS - 1) / MAX_PARTS;
+            partSize = Math.max(bufferSize, (minimumPartSize + MEGABYTE - 1) / MEGABYTE * MEGABYTE);
+        } else {
+            int doublings = Math.min((partNumber - 1) / PARTS_PER_PART_SIZE, 30);
+            partSize = (long) bufferSize << doublings;
+        }
+
+        return (int) Math.min(partSize, MAX_PART_SIZE);
+    }
+
+    private PrefetchedObject prefetch(String bucketName, String keyName) throws IOException {
+        long contentLength = amazonS3.getObjectMetadata(bucketName, keyName).getContentLength();
+        if (contentLength > Integer.MAX_VALUE || !downloadBuffer.tryAcquire((int) contentLength)) {
+            // The object does not fit into the buffer; it is streamed once the consumer reads it
+            return new PrefetchedObject(bucketName, keyName);
+        }
+
+        try (S3ObjectInputStream content = amazonS3.getObject(bucketName, keyName).getObjectContent()) {
+            byte[] bytes = content.readNBytes((int) contentLength);
+            logger.debug("prefetched object with {} bytes", bytes.length);
+            return new PrefetchedObject(new ByteArrayInputStream(bytes), (int) contentLength);
+        } catch (IOException | RuntimeException e) {
+            downloadBuffer.release((int) contentLength);
+            throw e;
+        }
+    }
+
+    private void closeQuietly(Future<PrefetchedObject> object) {
+        try {
+            object.get().close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | IOException e) {
+            logger.debug("could not close prefetched object", e);
+        }
+    }
+
+    private MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(hashAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Hash algorithm " + hashAlgorithm + " is not supported", e);
+        }
+    }
+
+    private void throwIfAnyPartFailed(List<Future<PartETag>> parts) throws ExecutionException, InterruptedException {
+        for (Future<PartETag> part : parts) {
+            if (part.isDone()) {
+                part.get();
+            }
+        }
+    }
+
+    private void abort(String bucketName, String keyName, String uploadId, List<Future<PartETag>> parts) {
+        parts.forEach(part -> part.cancel(true));
+
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, keyName, uploadId));
+            logger.info("aborted incomplete upload of file to S3");
+        } catch (RuntimeException e) {
+            // The upload can still be removed by a lifecycle rule of the bucket
+            logger.error("Could not abort incomplete upload of file to S3", e);
+        }
+    }
+
+    /**
+     * An object that has been read into the download buffer, or the key of an object that is opened on its turn.
+     */
+    private class PrefetchedObject implements Closeable {
+        private final String bucketName;
+        private final String keyName;
+        private final int bufferedBytes;
+        private InputStream content;
+
+        PrefetchedObject(InputStream content, int bufferedBytes) {
+            this.bucketName = null;
+            this.keyName = null;
+            this.content = content;
+            this.bufferedBytes = bufferedBytes;
+        }
+
+        PrefetchedObject(String bucketName, String keyName) {
+            this.bucketName = bucketName;
+            this.keyName = keyName;
+            this.bufferedBytes = 0;
+        }
+
+        InputStream open() {
+            if (content == null) {
+                content = amazonS3.getObject(bucketName, keyName).getObjectContent();
+            }
+
+            return content;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (content != null) {
+                    content.close();
+                }
+            } finally {
+                downloadBuffer.release(bufferedBytes);
+            }
+        }
+    }
 }
@@ -1,11 +1,18 @@
 package com.mlaide.webserver.service.impl;
 
+import com.mlaide.webserver.configuration.properties.SyncProperties;
 import com.mlaide.webserver.model.*;
+import com.mlaide.webserver.repository.ArtifactFingerprint;
 import com.mlaide.webserver.repository.ArtifactRepository;
 import com.mlaide.webserver.repository.CounterRepository;
+import com.mlaide.webserver.repository.LineageRepository;
+import com.mlaide.webserver.repository.LineageSuccessor;
 import com.mlaide.webserver.repository.entity.*;
 import com.mlaide.webserver.service.*;
 import com.mlaide.webserver.service.mapper.ArtifactMapper;
+import com.mlaide.webserver.service.zip.ParallelZipWriter;
+import com.mlaide.webserver.service.zip.ParallelZipWriterFactory;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,46 +24,74 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.time.Clock;
 import java.time.OffsetDateTime;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
+import static java.util.stream.Collectors.toList;
 
 @Service
 public class ArtifactServiceImpl implements ArtifactService {
     private final Logger logger = LoggerFactory.getLogger(ArtifactServiceImpl.class);
     private static final String NAME = "name";
     private static final String VERSION = "version";
+    private static final SparseFieldset ARTIFACT_FIELDS = new SparseFieldset(
+            Set.of("createdAt", "createdBy", "files", "metadata", "model", NAME, "runs", "type", "updatedAt", VERSION),
+            Set.of("metadata"),
+            NAME, VERSION);
+    private static final Set<String> DOWNSTREAM_ARTIFACT_FIELDS = Set.of(NAME, VERSION, "type", "model.stage");
+    private static final String DEPTH = "depth";
+    private static final int DEFAULT_MAX_DEPTH = 10;
+    private static final int DEFAULT_PAGE_SIZE = 100;
 
     private final ArtifactMapper artifactMapper;
     private final ArtifactRepository artifactRepository;
     private final CounterRepository counterRepository;
+    private final LineageRepository lineageRepository;
     private final Clock clock;
     private final PermissionService permissionService;
     private final RunService runService;
+    private final BlobService blobService;
     private final StorageService storageService;
     private final UserService userService;
+    private final BundleService bundleService;
+    private final ParallelZipWriterFactory zipWriterFactory;
+    private final SyncProperties syncProperties;
 
     @Autowired
     public ArtifactServiceImpl(ArtifactMapper artifactMapper,
                                ArtifactRepository artifactRepository,
                                CounterRepository counterRepository,
+                               LineageRepository lineageRepository,
                                Clock clock,
                                PermissionService permissionService,
                                RunService runService,
+                               BlobService blobService,
                                StorageService storageService,
-                               UserService userService) {
+                               UserService userService,
+                               BundleService bundleService,
+                               ParallelZipWriterFactory zipWriterFactory,
+                               SyncProperties syncProperties) {
         this.artifactMapper = artifactMapper;
         this.artifactRepository = artifactRepository;
         this.counterRepository = counterRepository;
+        this.lineageRepository = lineageRepository;
         this.clock = clock;
         this.permissionService = permissionService;
         this.runService = runService;
+        this.blobService = blobService;
         this.storageService = storageService;
         this.userService = userService;
+        this.bundleService = bundleService;
+        this.zipWriterFactory = zipWriterFactory;
+        this.syncProperties = syncProperties;
     }
 
     @Override
@@ -80,38 +115,50 @@ public class ArtifactServiceImpl implements ArtifactService {
                                    Integer artifactVersion,
                                    InputStream inputStream,
                                    String filename,
-                                   String fileHash) throws IOException {
+                                   String fileHash,
+                                   long contentLength) throws IOException {
         ArtifactEntity artifact = artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifactName, artifactVersion);
         if (artifact == null) {
             throw new NotFoundException();
         }
 
-        String internalFileName = buildInternalFileName(filename, artifact);
-
-        List<FileRefEntity> files = artifact.getFiles();
-        if (files == null) {
-            files = new ArrayList<>();
-            artifact.setFiles(files);
+        if (hasFile(artifact, filename, fileHash)) {
+            // The same file with the same content (hash) already exists. We don't need to store it twice.
+            logger.info("artifact file is already present - ignoring re-uploaded file");
+            return;
         }
 
-        Optional<FileRefEntity> existingFile =
-                files.stream().filter(f -> f.getInternalFileName().equals(internalFileName)).findFirst();
+        BlobEntity blob = blobService.storeBlob(projectKey, fileHash, inputStream, contentLength);
+        addFileRef(artifact, filename, blob);
 
-        if (existingFile.isPresent() && fileHash.equalsIgnoreCase(existingFile.get().getHash())) {
-            // The same file with the same content (hash) already exists. We don't need to store it twice.
-            logger.info("artifact file is already present - ignoring re-uploaded file");
-        } else {
-            FileUploadResult uploadResult = storageService.upload(projectKey, internalFileName, inputStream);
+        artifactRepository.save(artifact);
+    }
+
+    @Override
+    public void addArtifactFiles(String projectKey,
+                                 String artifactName,
+                                 Integer artifactVersion,
+                                 List<FileHash> fileHashes) {
+        ArtifactEntity artifact = artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifactName, artifactVersion);
+        if (artifact == null) {
+            throw new NotFoundException();
+        }
+
+        boolean changed = false;
+        for (FileHash fileHash : fileHashes) {
+            if (fileHash.getFileName() == null || fileHash.getFileName().isBlank()) {
+                throw new InvalidInputException("The file name must not be empty.");
+            }
+            if (hasFile(artifact, fileHash.getFileName(), fileHash.getFileHash())) {
+                continue;
+            }
 
-            // Add new ref
-            FileRefEntity ref = FileRefEntity.builder()
-                    .internalFileName(internalFileName)
-                    .fileName(filename)
-                    .hash(fileHash)
-                    .s3ObjectVersionId(uploadResult.getObjectVersionId())
-                    .build();
-            files.add(ref);
+            BlobEntity blob = blobService.referenceBlob(projectKey, fileHash.getFileHash());
+            addFileRef(artifact, fileHash.getFileName(), blob);
+            changed = true;
+        }
 
+        if (changed) {
             artifactRepository.save(artifact);
         }
     }
@@ -161,10 +208,12 @@ public class ArtifactServiceImpl implements ArtifactService {
     }
 
     @Override
-    public ItemList<Artifact> getArtifacts(String projectKey) {
-        List<ArtifactEntity> artifactEntities = artifactRepository.findAllByProjectKey(
-                projectKey,
-                Sort.by(Sort.Direction.ASC, NAME, VERSION));
+    public ItemList<Artifact> getArtifacts(String projectKey, Collection<String> fields) {
+        Set<String> selectedFields = ARTIFACT_FIELDS.select(fields);
+        Sort sort = Sort.by(Sort.Direction.ASC, NAME, VERSION);
+        List<ArtifactEntity> artifactEntities = selectedFields == null
+                ? artifactRepository.findAllByProjectKey(projectKey, sort)
+                : artifactRepository.findArtifacts(projectKey, null, false, sort, selectedFields);
 
         List<Artifact> artifacts = artifactMapper.fromEntity(artifactEntities);
 
@@ -172,10 +221,12 @@ public class ArtifactServiceImpl implements ArtifactService {
     }
 
     @Override
-    public ItemList<Artifact> getModels(String projectKey) {
-        List<ArtifactEntity> artifactEntities = artifactRepository.findAllByProjectKeyAndModelNotNull(
-                projectKey,
-                Sort.by(Sort.Direction.ASC, NAME, VERSION));
+    public ItemList<Artifact> getModels(String projectKey, Collection<String> fields) {
+        Set<String> selectedFields = ARTIFACT_FIELDS.select(fields);
+        Sort sort = Sort.by(Sort.Direction.ASC, NAME, VERSION);
+        List<ArtifactEntity> artifactEntities = selectedFields == null
+                ? artifactRepository.findAllByProjectKeyAndModelNotNull(projectKey, sort)
+                : artifactRepository.findArtifacts(projectKey, null, true, sort, selectedFields);
 
         List<Artifact> artifacts = artifactMapper.fromEntity(artifactEntities);
 
@@ -183,17 +234,47 @@ public class ArtifactServiceImpl implements ArtifactService {
     }
 
     @Override
-    public ItemList<Artifact> getArtifactsByRunKeys(String projectKey, List<Integer> runKeys) {
-        List<ArtifactEntity> artifactEntities = artifactRepository.findAllByProjectKeyAndRunsKeyIn(
-                projectKey,
-                runKeys,
-                Sort.by(Sort.Direction.ASC, NAME, VERSION));
+    public ItemList<Artifact> getArtifactsByRunKeys(String projectKey, List<Integer> runKeys, Collection<String> fields) {
+        Set<String> selectedFields = ARTIFACT_FIELDS.select(fields);
+        Sort sort = Sort.by(Sort.Direction.ASC, NAME, VERSION);
+        List<ArtifactEntity> artifactEntities = selectedFields == null
+                ? artifactRepository.findAllByProjectKeyAndRunsKeyIn(projectKey, runKeys, sort)
+                : artifactRepository.findArtifacts(projectKey, runKeys, false, sort, selectedFields);
 
         List<Artifact> artifacts = artifactMapper.fromEntity(artifactEntities);
 
         return new ItemList<>(artifacts);
     }
 
+    @Override
+    public ItemList<Artifact> getArtifactsChangedSince(String projectKey, String since, Collection<String> fields) {
+        int changeSequence = ChangeToken.decode(since);
+
+        // The change sequence of the last artifact is required for the sync token
+        Set<String> selectedFields = ARTIFACT_FIELDS.select(fields);
+        if (selectedFields != null) {
+            selectedFields.add("changeSequence");
+        }
+
+        List<ArtifactEntity> artifactEntities = artifactRepository.findArtifactsChangedSince(
+                projectKey, changeSequence, syncProperties.getPageSize() + 1, selectedFields);
+
+        return ChangeToken.page(
+                artifactEntities, changeSequence, syncProperties.getPageSize(), artifactMapper::fromEntity);
+    }
+
+    @Override
+    public Stream<Artifact> streamArtifacts(String projectKey,
+                                            List<Integer> runKeys,
+                                            boolean modelsOnly,
+                                            Collection<String> fields) {
+        Sort sort = Sort.by(Sort.Direction.ASC, NAME, VERSION);
+
+        return artifactRepository
+                .streamArtifacts(projectKey, runKeys, modelsOnly, sort, ARTIFACT_FIELDS.select(fields))
+                .map(artifactMapper::fromEntity);
+    }
+
     @Override
     public Artifact getLatestArtifact(String projectKey, String artifactName, Stage stage) {
         ArtifactEntity artifactEntity;
@@ -222,41 +303,87 @@ public class ArtifactServiceImpl implements ArtifactService {
     }
 
     @Override
-    public Artifact getArtifactByFileHashes(String projectKey, String artifactName, List<FileHash> fileHashes) {
-        List<ArtifactEntity> artifacts = artifactRepository.findAllByProjectKeyAndNameOrderByVersionDesc(projectKey, artifactName);
+    public ItemList<DownstreamRun> getDownstreamRuns(String projectKey,
+                                                     String artifactName,
+                                                     Integer artifactVersion,
+                                                     Integer maxDepth,
+                                                     Integer pageSize,
+                                                     String pageToken) {
+        if (artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifactName, artifactVersion) == null) {
+            throw new NotFoundException();
+        }
 
-        for (ArtifactEntity artifact: artifacts) {
-            if ((artifact.getFiles() == null || artifact.getFiles().isEmpty())
-                    && (fileHashes == null || fileHashes.isEmpty())) {
-                return artifactMapper.fromEntity(artifact);
-            }
+        int depth = maxDepth == null ? DEFAULT_MAX_DEPTH : maxDepth;
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
 
-            if (artifact.getFiles() == null || fileHashes == null) {
-                continue;
-            }
-            if (artifact.getFiles().size() != fileHashes.size()) {
-                continue;
+        Integer afterDepth = null;
+        Integer afterRunKey = null;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            if (!DEPTH.equals(token.getSort()) || !(token.getValue() instanceof Integer)) {
+                throw new InvalidInputException("The page token is invalid.");
             }
 
-            boolean allFilesMatchHash = true;
-            for (int i = 0; i < artifact.getFiles().size() && allFilesMatchHash; i++) {
-                FileRefEntity file = artifact.getFiles().get(i);
+            afterDepth = (Integer) token.getValue();
+            afterRunKey = token.getKey();
+        }
 
-                Optional<FileHash> fileHash = fileHashes.stream()
-                        .filter(hash -> hash.getFileName() != null && hash.getFileName().equalsIgnoreCase(file.getFileName()))
-                        .findFirst();
+        // Request one more run than required to find out if there is a next page
+        List<LineageSuccessor> successors = lineageRepository.findSuccessors(projectKey,
+                new ArtifactRefEntity(artifactName, artifactVersion), depth, afterDepth, afterRunKey, size + 1);
 
-                if (fileHash.isEmpty() || !fileHash.get().getFileHash().equalsIgnoreCase(file.getHash())) {
-                    allFilesMatchHash = false;
-                }
+        String nextPageToken = null;
+        if (successors.size() > size) {
+            successors = successors.subList(0, size);
+
+            LineageSuccessor lastSuccessor = successors.get(size - 1);
+            nextPageToken = new PageToken(DEPTH, Sort.Direction.ASC, lastSuccessor.getRunKey(), lastSuccessor.getDepth())
+                    .encode();
+        }
+
+        // The outputs of all runs of the page are loaded with one query
+        List<ArtifactRefEntity> outputs = new ArrayList<>();
+        successors.forEach(successor -> outputs.addAll(successor.getOutputs()));
+        Map<List<Object>, ArtifactEntity> artifactsByRef = new HashMap<>();
+        if (!outputs.isEmpty()) {
+            for (ArtifactEntity artifact : artifactRepository.findArtifactsByRefs(projectKey, outputs, DOWNSTREAM_ARTIFACT_FIELDS)) {
+                artifactsByRef.put(List.of(artifact.getName(), artifact.getVersion()), artifact);
             }
+        }
 
-            if (allFilesMatchHash) {
-                return artifactMapper.fromEntity(artifact);
+        List<DownstreamRun> runs = new ArrayList<>();
+        for (LineageSuccessor successor : successors) {
+            List<Artifact> artifacts = new ArrayList<>();
+            for (ArtifactRefEntity output : successor.getOutputs()) {
+                ArtifactEntity artifact = artifactsByRef.get(List.of(output.getName(), output.getVersion()));
+                if (artifact != null) {
+                    artifacts.add(artifactMapper.fromEntity(artifact));
+                }
             }
+
+            DownstreamRun run = new DownstreamRun();
+            run.setKey(successor.getRunKey());
+            run.setDepth(successor.getDepth());
+            run.setArtifacts(artifacts);
+            runs.add(run);
         }
 
-        throw new NotFoundException();
+        return new ItemList<>(runs, nextPageToken);
+    }
+
+    @Override
+    public Artifact getArtifactByFileHashes(String projectKey, String artifactName, List<FileHash> fileHashes) {
+        String fingerprint = ArtifactFingerprint.of(fileHashes == null ? null : fileHashes.stream()
+                .map(fileHash -> new SimpleImmutableEntry<>(fileHash.getFileName(), fileHash.getFileHash()))
+                .collect(toList()));
+
+        ArtifactEntity artifact = artifactRepository.findFirstByProjectKeyAndNameAndFingerprintOrderByVersionDesc(
+                projectKey, artifactName, fingerprint);
+        if (artifact == null) {
+            throw new NotFoundException();
+        }
+
+        return artifactMapper.fromEntity(artifact);
     }
 
 
@@ -268,33 +395,68 @@ public class ArtifactServiceImpl implements ArtifactService {
     }
 
     @Override
-    public void downloadArtifact(String projectKey, String artifactName, Integer artifactVersion, OutputStream outputStream)
-            throws IOException {
+    public ArtifactZip getArtifactZip(String projectKey,
+                                      String artifactName,
+                                      Integer artifactVersion,
+                                      ZipCompression compression) {
         ArtifactEntity artifactEntity = artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifactName, artifactVersion);
         if (artifactEntity == null) {
             throw new NotFoundException(
                     "Could not find artifact " + artifactName + " in version " + artifactVersion + "for project " + projectKey);
         }
 
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
-            List<FileRefEntity> files = artifactEntity.getFiles();
-            for (FileRefEntity file: files) {
-                ZipEntry zipFile = new ZipEntry(file.getFileName());
-                zipOutputStream.putNextEntry(zipFile);
+        List<FileRefEntity> files = artifactEntity.getFiles() == null ? List.of() : artifactEntity.getFiles();
+        ArtifactZip.ContentWriter content = outputStream -> writeZip(projectKey, files, compression, outputStream);
+
+        // The ZIP of an artifact without files is empty, so it is not worth caching
+        if (files.isEmpty()) {
+            return new ArtifactZip(null, content);
+        }
+
+        // The fingerprint of the artifact ignores the case of the file names, but the ZIP contains them
+        String fingerprint = ArtifactFingerprint.ofContent(files);
+
+        BundleEntity bundle = bundleService.findBundle(projectKey, fingerprint, compression);
+        if (bundle != null) {
+            logger.info("serving cached ZIP of artifact");
+            return new ArtifactZip(bundle.getSize(), outputStream -> bundleService.downloadBundle(projectKey, bundle, outputStream));
+        }
+
+        // Files can be added as long as a run is running; a bundle would only be used until then
+        if (allRunsHaveFinished(projectKey, artifactEntity)) {
+            bundleService.buildBundle(projectKey, fingerprint, compression, content);
+        }
+
+        return new ArtifactZip(null, content);
+    }
 
-                transferFileToZip(projectKey, zipOutputStream, file);
+    private boolean allRunsHaveFinished(String projectKey, ArtifactEntity artifactEntity) {
+        List<RunRefEntity> runs = artifactEntity.getRuns() == null ? List.of() : artifactEntity.getRuns();
+        for (RunRefEntity runRef : runs) {
+            if (runService.getRun(projectKey, runRef.getKey()).getStatus() == RunStatus.RUNNING) {
+                return false;
             }
-        } catch (IOException e) {
-            logger.error("Error while creating ZIP for downloading artifact " + artifactName + " v" + artifactVersion + " for project " + projectKey, e);
-            throw e;
         }
+
+        return true;
     }
 
-    private void transferFileToZip(String projectKey, ZipOutputStream zipOutputStream, FileRefEntity file) throws IOException {
-        try (InputStream fileStream = storageService.download(projectKey, file.getInternalFileName())) {
-            fileStream.transferTo(zipOutputStream);
-        } catch (Exception e) {
-            logger.error("Error while transferring file " + file.getInternalFileName() + " to ZIP for download", e);
+    private void writeZip(String projectKey,
+                          List<FileRefEntity> files,
+                          ZipCompression compression,
+                          OutputStream outputStream) throws IOException {
+        List<String> internalFileNames = files.stream().map(FileRefEntity::getInternalFileName).collect(toList());
+
+        try (ParallelZipWriter zipWriter = zipWriterFactory.create(outputStream)) {
+            // The next files are downloaded while the current one is compressed
+            storageService.download(projectKey, internalFileNames, (index, fileStream) -> {
+                String fileName = files.get(index).getFileName();
+                zipWriter.writeEntry(fileName, fileStream, zipWriterFactory.shouldCompress(fileName, compression));
+            });
+
+            zipWriter.finish();
+        } catch (IOException e) {
+            logger.error("Error while creating ZIP of artifact for project " + projectKey, e);
             throw e;
         }
     }
@@ -304,7 +466,8 @@ public class ArtifactServiceImpl implements ArtifactService {
             throws IOException {
         FileRefEntity fileInfo = getFileInfoInternal(projectKey, artifactName, artifactVersion, fileId);
 
-        try (InputStream fileStream = storageService.download(projectKey, fileInfo.getInternalFileName(), fileId)) {
+        try (InputStream fileStream = storageService.download(
+                projectKey, fileInfo.getInternalFileName(), fileInfo.getS3ObjectVersionId())) {
             fileStream.transferTo(outputStream);
         } catch (Exception e) {
             logger.error(
@@ -314,8 +477,26 @@ public class ArtifactServiceImpl implements ArtifactService {
         }
     }
 
-    private String buildInternalFileName(String filename, ArtifactEntity artifact) {
-        return artifact.getType() + "/" + artifact.getName() + "/" + artifact.getVersion() + "/" + filename;
+    private boolean hasFile(ArtifactEntity artifact, String filename, String fileHash) {
+        return artifact.getFiles() != null && artifact.getFiles().stream()
+                .anyMatch(f -> filename.equals(f.getFileName()) && fileHash != null && fileHash.equalsIgnoreCase(f.getHash()));
+    }
+
+    private void addFileRef(ArtifactEntity artifact, String filename, BlobEntity blob) {
+        if (artifact.getFiles() == null) {
+            artifact.setFiles(new ArrayList<>());
+        }
+
+        // The content is stored as blob, so all files with the same content refer to the same object. The hash of the
+        //  blob has been verified on upload, so the file ref does not record the hash that the client has claimed.
+        artifact.getFiles().add(FileRefEntity.builder()
+                .fileId(new ObjectId().toHexString())
+                .internalFileName(blob.getKey())
+                .fileName(filename)
+                .hash(blob.getHash())
+                .s3ObjectVersionId(blob.getObjectVersionId())
+                .size(blob.getSize())
+                .build());
     }
 
     private ArtifactEntity addArtifact(String projectKey, ArtifactEntity artifactEntity, Integer runKey) {
@@ -361,6 +542,7 @@ public class ArtifactServiceImpl implements ArtifactService {
         } catch (Exception e) {
             logger.error("Failed to grant permission to newly created artifact", e);
             artifactRepository.deleteById(artifact.getId());
+            lineageRepository.removeEdgesOfArtifact(artifact);
             throw e;
         }
 
@@ -374,7 +556,7 @@ public class ArtifactServiceImpl implements ArtifactService {
         }
 
         Optional<FileRefEntity> file = artifactEntity.getFiles().stream()
-                .filter(f -> f.getS3ObjectVersionId().equalsIgnoreCase(fileId))
+                .filter(f -> fileId.equalsIgnoreCase(f.getFileId()))
                 .findFirst();
         if (file.isEmpty()) {
             throw new NotFoundException();
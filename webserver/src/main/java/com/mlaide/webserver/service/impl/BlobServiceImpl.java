@@ -0,0 +1,82 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.repository.BlobRepository;
+import com.mlaide.webserver.repository.entity.BlobEntity;
+import com.mlaide.webserver.service.BlobService;
+import com.mlaide.webserver.service.FileUploadResult;
+import com.mlaide.webserver.service.InvalidInputException;
+import com.mlaide.webserver.service.NotFoundException;
+import com.mlaide.webserver.service.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toSet;
+
+@Service
+public class BlobServiceImpl implements BlobService {
+    private static final String KEY_PREFIX = "blobs/";
+    private final Logger logger = LoggerFactory.getLogger(BlobServiceImpl.class);
+    private final BlobRepository blobRepository;
+    private final StorageService storageService;
+
+    @Autowired
+    public BlobServiceImpl(BlobRepository blobRepository, StorageService storageService) {
+        this.blobRepository = blobRepository;
+        this.storageService = storageService;
+    }
+
+    @Override
+    public Set<String> findExistingBlobs(String projectKey, Collection<String> hashes) {
+        Set<String> normalizedHashes = hashes.stream().map(BlobServiceImpl::normalize).collect(toSet());
+
+        // The client gets back the hashes the way it has sent them
+        Set<String> existingHashes = blobRepository.findExistingHashes(projectKey, normalizedHashes);
+        return hashes.stream().filter(hash -> existingHashes.contains(normalize(hash))).collect(toSet());
+    }
+
+    @Override
+    public BlobEntity storeBlob(String projectKey, String hash, InputStream inputStream, long contentLength)
+            throws IOException {
+        String normalizedHash = normalize(hash);
+
+        BlobEntity blob = blobRepository.addReference(projectKey, normalizedHash);
+        if (blob != null) {
+            logger.info("blob is already present - skipping upload");
+            return blob;
+        }
+
+        String key = KEY_PREFIX + normalizedHash;
+        // Fails before the blob is registered if the content does not match the hash
+        FileUploadResult uploadResult =
+                storageService.upload(projectKey, key, inputStream, contentLength, normalizedHash);
+
+        return blobRepository.addBlob(
+                projectKey, normalizedHash, key, uploadResult.getObjectVersionId(), uploadResult.getSize());
+    }
+
+    @Override
+    public BlobEntity referenceBlob(String projectKey, String hash) {
+        BlobEntity blob = blobRepository.addReference(projectKey, normalize(hash));
+        if (blob == null) {
+            throw new NotFoundException("There is no file with the hash " + hash + ".");
+        }
+
+        return blob;
+    }
+
+    private static String normalize(String hash) {
+        if (hash == null || hash.isBlank()) {
+            throw new InvalidInputException("The file hash must not be empty.");
+        }
+
+        return hash.trim().toLowerCase(Locale.ROOT);
+    }
+}
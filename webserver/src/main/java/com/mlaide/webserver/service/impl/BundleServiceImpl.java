@@ -0,0 +1,123 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.model.ZipCompression;
+import com.mlaide.webserver.repository.BundleRepository;
+import com.mlaide.webserver.repository.entity.BundleEntity;
+import com.mlaide.webserver.service.ArtifactZip;
+import com.mlaide.webserver.service.BundleService;
+import com.mlaide.webserver.service.FileUploadResult;
+import com.mlaide.webserver.service.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the bundles in the background. The ZIP is written into a pipe while it is uploaded, so a bundle is neither
+ * buffered in memory nor on disk. A bundle is only registered after it has been built completely.
+ */
+@Service
+public class BundleServiceImpl implements BundleService {
+    private static final String KEY_PREFIX = "bundles/";
+    private static final int PIPE_SIZE = 1024 * 1024;
+    private final Logger logger = LoggerFactory.getLogger(BundleServiceImpl.class);
+    private final Set<String> bundlesInProgress = ConcurrentHashMap.newKeySet();
+    private final ExecutorService builder = new DelegatingSecurityContextExecutorService(
+            Executors.newCachedThreadPool(new CustomizableThreadFactory("artifact-bundles-")));
+    private final BundleRepository bundleRepository;
+    private final StorageService storageService;
+
+    @Autowired
+    public BundleServiceImpl(BundleRepository bundleRepository, StorageService storageService) {
+        this.bundleRepository = bundleRepository;
+        this.storageService = storageService;
+    }
+
+    @Override
+    public BundleEntity findBundle(String projectKey, String fingerprint, ZipCompression compression) {
+        return bundleRepository.findBundle(projectKey, fingerprint, compression);
+    }
+
+    @Override
+    public void buildBundle(String projectKey,
+                            String fingerprint,
+                            ZipCompression compression,
+                            ArtifactZip.ContentWriter content) {
+        String key = KEY_PREFIX + fingerprint + "/" + compression.name().toLowerCase(Locale.ROOT) + ".zip";
+        String bundleId = projectKey + "/" + key;
+        if (!bundlesInProgress.add(bundleId)) {
+            return;
+        }
+
+        builder.execute(() -> {
+            try {
+                FileUploadResult uploadResult = upload(projectKey, key, content);
+                bundleRepository.addBundle(
+                        projectKey, fingerprint, compression, key, uploadResult.getObjectVersionId(), uploadResult.getSize());
+                logger.info("built bundle of artifact with {} bytes", uploadResult.getSize());
+            } catch (IOException | RuntimeException e) {
+                // The next download will try again
+                logger.error("Could not build bundle of artifact", e);
+            } finally {
+                bundlesInProgress.remove(bundleId);
+            }
+        });
+    }
+
+    @Override
+    public void downloadBundle(String projectKey, BundleEntity bundle, OutputStream outputStream) throws IOException {
+        try (InputStream bundleStream = storageService.download(projectKey, bundle.getKey(), bundle.getObjectVersionId())) {
+            bundleStream.transferTo(outputStream);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private FileUploadResult upload(String projectKey, String key, ArtifactZip.ContentWriter content)
+            throws IOException {
+        PipedInputStream bundleStream = new PipedInputStream(PIPE_SIZE);
+        PipedOutputStream pipe = new PipedOutputStream(bundleStream);
+        Future<?> writing = builder.submit(() -> {
+            try (pipe) {
+                content.writeTo(pipe);
+            }
+            return null;
+        });
+
+        try (bundleStream) {
+            FileUploadResult uploadResult = storageService.upload(projectKey, key, bundleStream, -1, null);
+
+            // An incomplete ZIP ends the pipe as well; it has been uploaded but must not be used
+            writing.get();
+
+            return uploadResult;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Building of bundle was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not write bundle", e.getCause());
+        } finally {
+            // Unblocks the writer if the upload has failed
+            writing.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.model.ItemList;
+import com.mlaide.webserver.repository.entity.ChangeTrackedEntity;
+import com.mlaide.webserver.service.InvalidInputException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Token of the incremental sync of a list. The token contains the change sequence of the last change that was
+ * returned to the client. It is passed to the client as an opaque string; "0" requests all entities.
+ */
+final class ChangeToken {
+    private ChangeToken() {
+    }
+
+    static int decode(String token) {
+        try {
+            int changeSequence = Integer.parseInt(token);
+            if (changeSequence < 0) {
+                throw new InvalidInputException("The sync token is invalid.");
+            }
+
+            return changeSequence;
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("The sync token is invalid.", e);
+        }
+    }
+
+    /**
+     * Creates the token for the next sync. The entities must be sorted by their change sequence.
+     *
+     * @param changeSequence the change sequence of the current token; it is kept if nothing has changed
+     */
+    static String after(List<? extends ChangeTrackedEntity> changedEntities, int changeSequence) {
+        if (changedEntities.isEmpty()) {
+            return Integer.toString(changeSequence);
+        }
+
+        return changedEntities.get(changedEntities.size() - 1).getChangeSequence().toString();
+    }
+
+    /**
+     * Creates one page of changes. The entities must be sorted by their change sequence; one more entity than the
+     * page size must be requested to find out if more changes are waiting. In that case the result contains a
+     * {@link ItemList#getNextPageToken() nextPageToken} that the client passes as the next sync token right away.
+     *
+     * @param changeSequence the change sequence of the current token
+     */
+    static <E extends ChangeTrackedEntity, T> ItemList<T> page(List<E> changedEntities,
+                                                               int changeSequence,
+                                                               int pageSize,
+                                                               Function<List<E>, List<T>> mapper) {
+        boolean hasMoreChanges = changedEntities.size() > pageSize;
+        List<E> page = hasMoreChanges ? changedEntities.subList(0, pageSize) : changedEntities;
+        String token = after(page, changeSequence);
+
+        ItemList<T> result = new ItemList<>(mapper.apply(page));
+        result.setSyncToken(token);
+        if (hasMoreChanges) {
+            result.setNextPageToken(token);
+        }
+
+        return result;
+    }
+}
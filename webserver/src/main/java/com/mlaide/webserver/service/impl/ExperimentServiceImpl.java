@@ -1,5 +1,6 @@
 package com.mlaide.webserver.service.impl;
 
+import com.mlaide.webserver.configuration.properties.SyncProperties;
 import com.mlaide.webserver.repository.CounterRepository;
 import com.mlaide.webserver.repository.ExperimentRepository;
 import com.mlaide.webserver.repository.entity.ExperimentEntity;
@@ -16,27 +17,37 @@ import org.springframework.stereotype.Service;
 
 import java.time.Clock;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class ExperimentServiceImpl implements ExperimentService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExperimentServiceImpl.class);
+    private static final SparseFieldset EXPERIMENT_FIELDS = new SparseFieldset(
+            Set.of("createdAt", "key", "name", "tags"),
+            Set.of(),
+            "key");
     private final ExperimentRepository experimentRepository;
     private final ExperimentMapper experimentMapper;
     private final PermissionService permissionService;
     private final Clock clock;
     private final CounterRepository counterRepository;
+    private final SyncProperties syncProperties;
 
     public ExperimentServiceImpl(ExperimentRepository experimentRepository,
                                  ExperimentMapper experimentMapper,
                                  PermissionService permissionService,
                                  Clock clock,
-                                 CounterRepository counterRepository) {
+                                 CounterRepository counterRepository,
+                                 SyncProperties syncProperties) {
         this.experimentRepository = experimentRepository;
         this.experimentMapper = experimentMapper;
         this.permissionService = permissionService;
         this.clock = clock;
         this.counterRepository = counterRepository;
+        this.syncProperties = syncProperties;
     }
 
     @Override
@@ -45,8 +56,11 @@ public class ExperimentServiceImpl implements ExperimentService {
     }
 
     @Override
-    public ItemList<Experiment> getExperiments(String projectKey) {
-        List<ExperimentEntity> experiments = experimentRepository.findAllByProjectKey(projectKey);
+    public ItemList<Experiment> getExperiments(String projectKey, Collection<String> fields) {
+        Set<String> selectedFields = EXPERIMENT_FIELDS.select(fields);
+        List<ExperimentEntity> experiments = selectedFields == null
+                ? experimentRepository.findAllByProjectKey(projectKey)
+                : experimentRepository.findExperiments(projectKey, selectedFields);
 
         ItemList<Experiment> result = new ItemList<>();
         result.setItems(experimentMapper.fromEntity(experiments));
@@ -54,6 +68,28 @@ public class ExperimentServiceImpl implements ExperimentService {
         return result;
     }
 
+    @Override
+    public ItemList<Experiment> getExperimentsChangedSince(String projectKey, String since, Collection<String> fields) {
+        int changeSequence = ChangeToken.decode(since);
+
+        // The change sequence of the last experiment is required for the sync token
+        Set<String> selectedFields = EXPERIMENT_FIELDS.select(fields);
+        if (selectedFields != null) {
+            selectedFields.add("changeSequence");
+        }
+
+        List<ExperimentEntity> experiments = experimentRepository.findExperimentsChangedSince(
+                projectKey, changeSequence, syncProperties.getPageSize() + 1, selectedFields);
+
+        return ChangeToken.page(experiments, changeSequence, syncProperties.getPageSize(), experimentMapper::fromEntity);
+    }
+
+    @Override
+    public Stream<Experiment> streamExperiments(String projectKey, Collection<String> fields) {
+        return experimentRepository.streamExperiments(projectKey, EXPERIMENT_FIELDS.select(fields))
+                .map(experimentMapper::fromEntity);
+    }
+
     @Override
     public Experiment getExperiment(String projectKey, String experimentKey) {
         ExperimentEntity experimentEntity = experimentRepository.findOneByProjectKeyAndKey(projectKey, experimentKey);
@@ -0,0 +1,264 @@
+package com.mlaide.webserver.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mlaide.webserver.model.ItemList;
+import com.mlaide.webserver.model.MetricPoint;
+import com.mlaide.webserver.model.MetricSampling;
+import com.mlaide.webserver.model.ProjectEvent;
+import com.mlaide.webserver.model.ProjectEventType;
+import com.mlaide.webserver.model.RunMetricPoint;
+import com.mlaide.webserver.model.RunStatus;
+import com.mlaide.webserver.repository.MetricBucketRepository;
+import com.mlaide.webserver.repository.MetricSeriesStatistics;
+import com.mlaide.webserver.repository.RunRepository;
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import com.mlaide.webserver.service.ConflictException;
+import com.mlaide.webserver.service.InvalidInputException;
+import com.mlaide.webserver.service.MetricService;
+import com.mlaide.webserver.service.NotFoundException;
+import com.mlaide.webserver.service.downsampling.LttbDownsampler;
+import com.mlaide.webserver.service.downsampling.MetricDownsampler;
+import com.mlaide.webserver.service.downsampling.MinMaxDownsampler;
+import com.mlaide.webserver.service.mapper.MetricMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+@Service
+public class MetricServiceImpl implements MetricService {
+    private final Logger logger = LoggerFactory.getLogger(MetricServiceImpl.class);
+
+    private final MetricBucketRepository metricBucketRepository;
+    private final RunRepository runRepository;
+    private final MetricMapper metricMapper;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final int ingestionBatchSize;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public MetricServiceImpl(MetricBucketRepository metricBucketRepository,
+                             RunRepository runRepository,
+                             MetricMapper metricMapper,
+                             ObjectMapper objectMapper,
+                             Clock clock,
+                             @Value("${mlaide.metrics.ingestion-batch-size}") int ingestionBatchSize,
+                             ApplicationEventPublisher eventPublisher) {
+        this.metricBucketRepository = metricBucketRepository;
+        this.runRepository = runRepository;
+        this.metricMapper = metricMapper;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.ingestionBatchSize = ingestionBatchSize;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void appendMetricPoints(String projectKey, Integer runKey, String metricName, List<MetricPoint> points) {
+        if (points == null || points.isEmpty()) {
+            return;
+        }
+
+        if (points.stream().anyMatch(p -> p.getStep() == null || p.getValue() == null)) {
+            throw new InvalidInputException("Every metric point must contain a step and a value.");
+        }
+
+        throwIfRunIsNotRunning(projectKey, runKey);
+
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<MetricPointEntity> pointEntities = metricMapper.toEntity(points);
+        pointEntities.stream()
+                .filter(p -> p.getTimestamp() == null)
+                .forEach(p -> p.setTimestamp(now));
+
+        metricBucketRepository.appendMetricPoints(projectKey, runKey, metricName, pointEntities);
+        logger.info("appended {} points to metric of run {}", pointEntities.size(), runKey);
+
+        publishMetricPointsAppended(projectKey, runKey, metricName, pointEntities);
+    }
+
+    @Override
+    public long ingestMetricPoints(String projectKey, InputStream ndjson) throws IOException {
+        // Points are collected per run and metric and written in batches. Every batch results in one bulk write
+        // per run, no matter how many points or metrics of this run the batch contains.
+        Map<Integer, Map<String, List<MetricPointEntity>>> pendingPoints = new HashMap<>();
+        Set<Integer> checkedRunKeys = new HashSet<>();
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        int pendingPointCount = 0;
+        long ingestedPointCount = 0;
+
+        // The body is parsed line by line; only the points of the current batch are held in memory
+        try (MappingIterator<RunMetricPoint> points = objectMapper.readerFor(RunMetricPoint.class).readValues(ndjson)) {
+            while (points.hasNextValue()) {
+                RunMetricPoint point = points.nextValue();
+                throwIfRunMetricPointIsInvalid(point);
+
+                if (checkedRunKeys.add(point.getRunKey())) {
+                    throwIfRunIsNotRunning(projectKey, point.getRunKey());
+                }
+
+                MetricPointEntity pointEntity = new MetricPointEntity(
+                        point.getStep(),
+                        point.getTimestamp() == null ? now : point.getTimestamp(),
+                        point.getValue());
+                pendingPoints
+                        .computeIfAbsent(point.getRunKey(), k -> new HashMap<>())
+                        .computeIfAbsent(point.getMetricName(), k -> new ArrayList<>())
+                        .add(pointEntity);
+                pendingPointCount++;
+
+                if (pendingPointCount >= ingestionBatchSize) {
+                    writePendingPoints(projectKey, pendingPoints);
+                    ingestedPointCount += pendingPointCount;
+                    pendingPointCount = 0;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidInputException("Could not parse metric point: " + e.getOriginalMessage(), e);
+        }
+
+        writePendingPoints(projectKey, pendingPoints);
+        ingestedPointCount += pendingPointCount;
+
+        logger.info("ingested {} metric points of {} runs", ingestedPointCount, checkedRunKeys.size());
+        return ingestedPointCount;
+    }
+
+    @Override
+    public ItemList<MetricPoint> getMetricPoints(String projectKey,
+                                                 Integer runKey,
+                                                 String metricName,
+                                                 Long fromStep,
+                                                 Long toStep) {
+        getRunEntity(projectKey, runKey);
+
+        List<MetricPointEntity> pointEntities;
+        try (Stream<MetricPointEntity> points =
+                     metricBucketRepository.streamMetricPoints(projectKey, runKey, metricName, fromStep, toStep)) {
+            pointEntities = points.collect(toList());
+        }
+
+        return new ItemList<>(metricMapper.fromEntity(pointEntities));
+    }
+
+    @Override
+    public ItemList<MetricPoint> getMetricPoints(String projectKey,
+                                                 Integer runKey,
+                                                 String metricName,
+                                                 Long fromStep,
+                                                 Long toStep,
+                                                 Integer maxPoints,
+                                                 MetricSampling sampling) {
+        if (maxPoints == null) {
+            return getMetricPoints(projectKey, runKey, metricName, fromStep, toStep);
+        }
+
+        MetricSampling samplingOrDefault = sampling == null ? MetricSampling.LTTB : sampling;
+        int minPoints = samplingOrDefault == MetricSampling.LTTB ? 3 : 2;
+        if (maxPoints < minPoints) {
+            throw new InvalidInputException("maxPoints must be at least " + minPoints + " for " + samplingOrDefault);
+        }
+
+        getRunEntity(projectKey, runKey);
+
+        // The statistics are computed in the database. They tell us whether downsampling is required at all and
+        // which step range has to be split into buckets before the first point is read.
+        MetricSeriesStatistics statistics =
+                metricBucketRepository.getMetricSeriesStatistics(projectKey, runKey, metricName, fromStep, toStep);
+        if (statistics == null) {
+            return new ItemList<>(new ArrayList<>());
+        }
+        if (statistics.getCount() <= maxPoints) {
+            return getMetricPoints(projectKey, runKey, metricName, fromStep, toStep);
+        }
+
+        MetricDownsampler downsampler = samplingOrDefault == MetricSampling.LTTB
+                ? new LttbDownsampler(maxPoints, statistics.getMinStep(), statistics.getMaxStep())
+                : new MinMaxDownsampler(maxPoints, statistics.getMinStep(), statistics.getMaxStep());
+
+        try (Stream<MetricPointEntity> points =
+                     metricBucketRepository.streamMetricPoints(projectKey, runKey, metricName, fromStep, toStep)) {
+            points.forEach(downsampler::add);
+        }
+
+        List<MetricPointEntity> pointEntities = downsampler.getResult();
+        logger.info("downsampled {} points of metric of run {} to {} points",
+                statistics.getCount(), runKey, pointEntities.size());
+
+        return new ItemList<>(metricMapper.fromEntity(pointEntities));
+    }
+
+    private void writePendingPoints(String projectKey, Map<Integer, Map<String, List<MetricPointEntity>>> pendingPoints) {
+        pendingPoints.forEach((runKey, pointsByMetricName) -> {
+            metricBucketRepository.appendMetricPoints(projectKey, runKey, pointsByMetricName);
+            pointsByMetricName.forEach((metricName, points) ->
+                    publishMetricPointsAppended(projectKey, runKey, metricName, points));
+        });
+        pendingPoints.clear();
+    }
+
+    private void publishMetricPointsAppended(String projectKey,
+                                             Integer runKey,
+                                             String metricName,
+                                             List<MetricPointEntity> points) {
+        eventPublisher.publishEvent(ProjectEvent.builder()
+                .type(ProjectEventType.METRIC_POINTS_APPENDED)
+                .projectKey(projectKey)
+                .runKey(runKey)
+                .metricName(metricName)
+                .points(metricMapper.fromEntity(points))
+                .build());
+    }
+
+    private void throwIfRunMetricPointIsInvalid(RunMetricPoint point) {
+        if (point == null
+                || point.getRunKey() == null
+                || point.getMetricName() == null
+                || point.getMetricName().isBlank()
+                || point.getStep() == null
+                || point.getValue() == null) {
+            throw new InvalidInputException("Every metric point must contain a runKey, a metricName, a step and a value.");
+        }
+    }
+
+    private void throwIfRunIsNotRunning(String projectKey, Integer runKey) {
+        RunEntity runEntity = getRunEntity(projectKey, runKey);
+
+        // Metrics can only be added if the run is in running state
+        RunStatus currentRunStatus = RunStatus.valueOf(runEntity.getStatus());
+        if (!currentRunStatus.equals(RunStatus.RUNNING)) {
+            throw new ConflictException("The run status is " + currentRunStatus
+                    + ". Only RUNNING runs can be modified.");
+        }
+    }
+
+    private RunEntity getRunEntity(String projectKey, Integer runKey) {
+        RunEntity runEntity = runRepository.findOneByProjectKeyAndKey(projectKey, runKey);
+
+        if (runEntity == null) {
+            throw new NotFoundException();
+        }
+
+        return runEntity;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mlaide.webserver.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mlaide.webserver.service.InvalidInputException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Continuation token of a keyset paginated list. The token contains the sort order of the list and the position
+ * of the last returned item, i.e. its sort value and its key. It is passed to the client as an opaque string.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+class PageToken {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String sort;
+    private Sort.Direction direction;
+    private Integer key;
+    private Object value;
+
+    String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create page token", e);
+        }
+    }
+
+    static PageToken decode(String token) {
+        try {
+            PageToken pageToken = objectMapper.readValue(Base64.getUrlDecoder().decode(token), PageToken.class);
+            if (pageToken.getSort() == null || pageToken.getDirection() == null || pageToken.getKey() == null) {
+                throw new InvalidInputException("The page token is invalid.");
+            }
+
+            return pageToken;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidInputException("The page token is invalid.", e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.model.ArtifactRef;
+import com.mlaide.webserver.model.Run;
+import com.mlaide.webserver.service.InvalidInputException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expands a parameter grid to runs. Every combination of the values of the grid becomes one run; the parameters of
+ * the run are the parameters of the template merged with the combination. The combinations are ordered like nested
+ * loops over the grid, with the last parameter changing fastest.
+ */
+class ParameterGrid {
+    private ParameterGrid() {
+    }
+
+    static List<Run> expand(Run template, Map<String, List<Object>> grid, int maxRuns) {
+        long size = 1;
+        for (Map.Entry<String, List<Object>> parameter : grid.entrySet()) {
+            if (parameter.getValue() == null || parameter.getValue().isEmpty()) {
+                throw new InvalidInputException("The parameter grid must contain values for " + parameter.getKey() + ".");
+            }
+
+            size *= parameter.getValue().size();
+            if (size > maxRuns) {
+                throw new InvalidInputException("The parameter grid must not expand to more than " + maxRuns + " runs.");
+            }
+        }
+
+        List<Map<String, Object>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<Object>> parameter : grid.entrySet()) {
+            List<Map<String, Object>> extended = new ArrayList<>(combinations.size() * parameter.getValue().size());
+            for (Map<String, Object> combination : combinations) {
+                for (Object value : parameter.getValue()) {
+                    Map<String, Object> next = new LinkedHashMap<>(combination);
+                    next.put(parameter.getKey(), value);
+                    extended.add(next);
+                }
+            }
+            combinations = extended;
+        }
+
+        List<Run> runs = new ArrayList<>(combinations.size());
+        for (Map<String, Object> combination : combinations) {
+            runs.add(copyOf(template, combination));
+        }
+
+        return runs;
+    }
+
+    private static Run copyOf(Run template, Map<String, Object> combination) {
+        Run run = new Run();
+        run.setExperimentRefs(template.getExperimentRefs());
+        run.setGit(template.getGit());
+        run.setName(template.getName());
+        run.setNote(template.getNote());
+        run.setStatus(template.getStatus());
+        run.setMetrics(template.getMetrics());
+
+        Map<String, Object> parameters = template.getParameters() == null
+                ? new HashMap<>()
+                : new HashMap<>(template.getParameters());
+        parameters.putAll(combination);
+        run.setParameters(parameters);
+
+        // Each run gets its own refs, because the versions of the refs are resolved per run
+        if (template.getUsedArtifacts() != null) {
+            List<ArtifactRef> usedArtifacts = new ArrayList<>();
+            for (ArtifactRef templateRef : template.getUsedArtifacts()) {
+                ArtifactRef ref = new ArtifactRef();
+                ref.setName(templateRef.getName());
+                ref.setVersion(templateRef.getVersion());
+                usedArtifacts.add(ref);
+            }
+            run.setUsedArtifacts(usedArtifacts);
+        }
+
+        return run;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mlaide.webserver.service.impl;
 
+import com.mlaide.webserver.acl.BulkMutableAclService;
 import com.mlaide.webserver.repository.entity.MlAidePermission;
 import com.mlaide.webserver.repository.entity.ProjectEntity;
 import com.mlaide.webserver.service.NotFoundException;
@@ -21,10 +22,10 @@ import java.util.*;
 @Service
 public class PermissionServiceImpl implements PermissionService {
     private final Logger logger = LoggerFactory.getLogger(PermissionServiceImpl.class);
-    private final MutableAclService aclService;
+    private final BulkMutableAclService aclService;
 
     @Autowired
-    public PermissionServiceImpl(MutableAclService aclService) {
+    public PermissionServiceImpl(BulkMutableAclService aclService) {
         this.aclService = aclService;
     }
 
@@ -43,6 +44,24 @@ public class PermissionServiceImpl implements PermissionService {
         logger.info("granted permissions for current user to {} ({})", objectType.getName(), objectId);
     }
 
+    @Override
+    public void grantPermissionsBasedOnProject(String projectKey,
+                                               Collection<? extends Serializable> objectIds,
+                                               Class<?> objectType) {
+        ObjectIdentity parentObjectIdentity = new ObjectIdentityImpl(ProjectEntity.class, projectKey);
+
+        // Fails if the project does not exist
+        readAclById(parentObjectIdentity);
+
+        List<ObjectIdentity> objectIdentities = new ArrayList<>(objectIds.size());
+        for (Serializable objectId : objectIds) {
+            objectIdentities.add(new ObjectIdentityImpl(objectType, objectId));
+        }
+        aclService.createInheritingAcls(parentObjectIdentity, objectIdentities);
+
+        logger.info("granted permissions for current user to {} objects of {}", objectIds.size(), objectType.getName());
+    }
+
     @Override
     public void grantPermissionToNewProject(String projectKey, MlAidePermission permission) {
         String principalName = SecurityContextHolder.getContext().getAuthentication().getName();
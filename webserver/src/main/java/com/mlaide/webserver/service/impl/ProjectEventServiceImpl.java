@@ -0,0 +1,192 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.model.ProjectEvent;
+import com.mlaide.webserver.model.ProjectEventType;
+import com.mlaide.webserver.repository.ProjectRepository;
+import com.mlaide.webserver.repository.RunRepository;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import com.mlaide.webserver.service.NotFoundException;
+import com.mlaide.webserver.service.ProjectEventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Broadcasts the events of all projects to the subscribed clients. The services publish {@link ProjectEvent}s as
+ * application events; they are forwarded after the transaction has been committed. Publishing only puts the event
+ * into the bounded buffers of the subscribers. The events are sent to the clients by a separate pool of threads,
+ * so a slow client never blocks the thread that has written the change.
+ */
+@Service
+public class ProjectEventServiceImpl implements ProjectEventService {
+    private final Logger logger = LoggerFactory.getLogger(ProjectEventServiceImpl.class);
+
+    private final Map<String, Set<Subscriber>> subscribersByProject = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newCachedThreadPool(new CustomizableThreadFactory("project-events-"));
+    private final ProjectRepository projectRepository;
+    private final RunRepository runRepository;
+    private final int bufferSize;
+    private final Duration timeout;
+
+    @Autowired
+    public ProjectEventServiceImpl(ProjectRepository projectRepository,
+                                   RunRepository runRepository,
+                                   @Value("${mlaide.events.buffer-size}") int bufferSize,
+                                   @Value("${mlaide.events.timeout}") Duration timeout) {
+        this.projectRepository = projectRepository;
+        this.runRepository = runRepository;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public SseEmitter subscribe(String projectKey, String experimentKey, List<Integer> runKeys) {
+        // Checks that the current user is allowed to see the project
+        if (projectRepository.findByKey(projectKey) == null) {
+            throw new NotFoundException();
+        }
+
+        Set<Integer> runKeysOfExperiment = null;
+        if (experimentKey != null) {
+            runKeysOfExperiment = ConcurrentHashMap.newKeySet();
+            for (RunEntity run : runRepository.findRuns(projectKey, null, experimentKey, Set.of("key"))) {
+                runKeysOfExperiment.add(run.getKey());
+            }
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(
+                projectKey, experimentKey, runKeysOfExperiment, runKeys == null ? null : Set.copyOf(runKeys), emitter);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribersByProject.computeIfAbsent(projectKey, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        logger.info("subscribed to events of project");
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(ProjectEvent event) {
+        Set<Subscriber> subscribers = subscribersByProject.get(event.getProjectKey());
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribersByProject.computeIfPresent(subscriber.projectKey, (k, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private class Subscriber {
+        private final String projectKey;
+        private final String experimentKey;
+        private final Set<Integer> runKeysOfExperiment;
+        private final Set<Integer> runKeys;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ProjectEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean(false);
+
+        Subscriber(String projectKey,
+                   String experimentKey,
+                   Set<Integer> runKeysOfExperiment,
+                   Set<Integer> runKeys,
+                   SseEmitter emitter) {
+            this.projectKey = projectKey;
+            this.experimentKey = experimentKey;
+            this.runKeysOfExperiment = runKeysOfExperiment;
+            this.runKeys = runKeys;
+            this.emitter = emitter;
+        }
+
+        void offer(ProjectEvent event) {
+            if (!matches(event)) {
+                return;
+            }
+
+            if (!buffer.offer(event)) {
+                // The client can not keep up; it has to reconnect and fetch the missed changes
+                logger.info("disconnecting slow subscriber of project events");
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+
+            scheduleSending();
+        }
+
+        private boolean matches(ProjectEvent event) {
+            if (experimentKey != null) {
+                // Runs that are created after the subscription are added to the experiment's runs. Runs that are
+                //  assigned to the experiment later on are not known to the subscriber.
+                if (event.getType() == ProjectEventType.RUN_CREATED
+                        && event.getExperimentKeys() != null
+                        && event.getExperimentKeys().contains(experimentKey)) {
+                    runKeysOfExperiment.add(event.getRunKey());
+                }
+
+                if (!runKeysOfExperiment.contains(event.getRunKey())) {
+                    return false;
+                }
+            }
+
+            return runKeys == null || runKeys.contains(event.getRunKey());
+        }
+
+        private void scheduleSending() {
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                ProjectEvent event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .name(event.getType().toString())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client has gone away or the emitter has already been completed
+                unsubscribe(this);
+                buffer.clear();
+            } finally {
+                sending.set(false);
+            }
+
+            // Events that were added while the flag was still set would be stuck otherwise
+            if (!buffer.isEmpty()) {
+                scheduleSending();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.repository.RunFilterCondition;
+import com.mlaide.webserver.repository.RunFilterCondition.Operator;
+import com.mlaide.webserver.service.InvalidInputException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses filter expressions for runs. An expression consists of one or more conditions that are combined with
+ * {@code and}. A condition compares a parameter or metric with a number, a quoted string, a boolean or null:
+ *
+ * <pre>
+ * params.lr &lt; 0.01 and metrics.accuracy &gt;= 0.9 and params.optimizer = 'adam'
+ * </pre>
+ *
+ * Supported operators are {@code =}, {@code !=}, {@code <}, {@code <=}, {@code >} and {@code >=}. Parameters can
+ * be addressed with {@code params.} or {@code parameters.}.
+ */
+class RunFilterParser {
+    private static final Pattern CONDITION = Pattern.compile(
+            "\\s*(params|parameters|metrics)\\.([^\\s<>=!.$]+)\\s*(<=|>=|!=|=|<|>)\\s*('[^']*'|\"[^\"]*\"|[^\\s'\"]+)\\s*");
+    private static final Pattern AND = Pattern.compile("and(?=\\s)", Pattern.CASE_INSENSITIVE);
+
+    private RunFilterParser() {
+    }
+
+    static List<RunFilterCondition> parse(String expression) {
+        List<RunFilterCondition> conditions = new ArrayList<>();
+        Matcher condition = CONDITION.matcher(expression);
+        Matcher and = AND.matcher(expression);
+        int position = 0;
+
+        while (true) {
+            condition.region(position, expression.length());
+            if (!condition.lookingAt()) {
+                throw new InvalidInputException("The filter is invalid at position " + position + ".");
+            }
+
+            String map = condition.group(1).equals("metrics") ? "metrics" : "parameters";
+            conditions.add(new RunFilterCondition(
+                    map + "." + condition.group(2),
+                    toOperator(condition.group(3)),
+                    toValue(condition.group(4))));
+            position = condition.end();
+
+            if (position == expression.length()) {
+                return conditions;
+            }
+
+            and.region(position, expression.length());
+            if (!and.lookingAt()) {
+                throw new InvalidInputException("Expected 'and' at position " + position + " of the filter.");
+            }
+            position = and.end();
+        }
+    }
+
+    private static Operator toOperator(String operator) {
+        switch (operator) {
+            case "=": return Operator.EQ;
+            case "!=": return Operator.NE;
+            case "<": return Operator.LT;
+            case "<=": return Operator.LTE;
+            case ">": return Operator.GT;
+            default: return Operator.GTE;
+        }
+    }
+
+    private static Object toValue(String value) {
+        if (value.startsWith("'") || value.startsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+
+        switch (value) {
+            case "true": return true;
+            case "false": return false;
+            case "null": return null;
+            default:
+        }
+
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("The value '" + value + "' of the filter must be a number, "
+                    + "a quoted string, true, false or null.", e);
+        }
+    }
+}
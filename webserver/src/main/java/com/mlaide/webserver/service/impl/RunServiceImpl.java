@@ -1,20 +1,28 @@
 package com.mlaide.webserver.service.impl;
 
+import com.mlaide.webserver.configuration.properties.SyncProperties;
 import com.mlaide.webserver.model.*;
 import com.mlaide.webserver.repository.ArtifactRepository;
 import com.mlaide.webserver.repository.CounterRepository;
+import com.mlaide.webserver.repository.LineageRepository;
+import com.mlaide.webserver.repository.RunComparisonResult;
+import com.mlaide.webserver.repository.RunFilterCondition;
 import com.mlaide.webserver.repository.RunRepository;
 import com.mlaide.webserver.repository.entity.ArtifactEntity;
 import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
 import com.mlaide.webserver.repository.entity.RunEntity;
 import com.mlaide.webserver.repository.entity.RunRefEntity;
+import com.mlaide.webserver.repository.entity.UserRef;
 import com.mlaide.webserver.service.*;
 import com.mlaide.webserver.service.git.GitDiffService;
 import com.mlaide.webserver.service.git.InvalidGitRepositoryException;
 import com.mlaide.webserver.service.mapper.RunMapper;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,11 +30,27 @@ import java.security.KeyPair;
 import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RunServiceImpl implements RunService {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final Set<String> PATCHABLE_RUN_FIELDS = Set.of("name", "note", "status", "parameters", "metrics");
+    private static final SparseFieldset RUN_FIELDS = new SparseFieldset(
+            Set.of("artifacts", "createdAt", "createdBy", "endTime", "experimentRefs", "git", "key", "metrics", "name",
+                    "note", "parameters", "startTime", "status", "usedArtifacts"),
+            Set.of("metrics", "parameters"),
+            "key");
+
     private final Logger logger = LoggerFactory.getLogger(RunServiceImpl.class);
 
     private final RunRepository runRepository;
@@ -40,6 +64,9 @@ public class RunServiceImpl implements RunService {
     private final Clock clock;
     private final GitDiffService gitDiffService;
     private final ArtifactRepository artifactRepository;
+    private final LineageRepository lineageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncProperties syncProperties;
 
     @Autowired
     public RunServiceImpl(RunRepository runRepository,
@@ -52,7 +79,10 @@ public class RunServiceImpl implements RunService {
                           ValidationService validationService,
                           Clock clock,
                           GitDiffService gitDiffService,
-                          ArtifactRepository artifactRepository) {
+                          ArtifactRepository artifactRepository,
+                          LineageRepository lineageRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          SyncProperties syncProperties) {
         this.runRepository = runRepository;
         this.runMapper = runMapper;
         this.permissionService = permissionService;
@@ -64,11 +94,17 @@ public class RunServiceImpl implements RunService {
         this.clock = clock;
         this.gitDiffService = gitDiffService;
         this.artifactRepository = artifactRepository;
+        this.lineageRepository = lineageRepository;
+        this.eventPublisher = eventPublisher;
+        this.syncProperties = syncProperties;
     }
 
     @Override
-    public ItemList<Run> getRuns(String projectKey) {
-        List<RunEntity> runs = runRepository.findAllByProjectKey(projectKey);
+    public ItemList<Run> getRuns(String projectKey, Collection<String> fields) {
+        Set<String> selectedFields = RUN_FIELDS.select(fields);
+        List<RunEntity> runs = selectedFields == null
+                ? runRepository.findAllByProjectKey(projectKey)
+                : runRepository.findRuns(projectKey, null, null, selectedFields);
 
         ItemList<Run> result = new ItemList<>();
         result.setItems(runMapper.fromEntity(runs));
@@ -77,8 +113,11 @@ public class RunServiceImpl implements RunService {
     }
 
     @Override
-    public ItemList<Run> getRunsByKeys(String projectKey, List<Integer> runKeys) {
-        List<RunEntity> runs = runRepository.findAllByProjectKeyAndKeyIn(projectKey, runKeys);
+    public ItemList<Run> getRunsByKeys(String projectKey, List<Integer> runKeys, Collection<String> fields) {
+        Set<String> selectedFields = RUN_FIELDS.select(fields);
+        List<RunEntity> runs = selectedFields == null
+                ? runRepository.findAllByProjectKeyAndKeyIn(projectKey, runKeys)
+                : runRepository.findRuns(projectKey, runKeys, null, selectedFields);
 
         ItemList<Run> result = new ItemList<>();
         result.setItems(runMapper.fromEntity(runs));
@@ -87,8 +126,11 @@ public class RunServiceImpl implements RunService {
     }
 
     @Override
-    public ItemList<Run> getRunsOfExperiment(String projectKey, String experimentKey) {
-        List<RunEntity> runs = runRepository.findAllByProjectKeyAndExperimentRefsExperimentKeyIn(projectKey, experimentKey);
+    public ItemList<Run> getRunsOfExperiment(String projectKey, String experimentKey, Collection<String> fields) {
+        Set<String> selectedFields = RUN_FIELDS.select(fields);
+        List<RunEntity> runs = selectedFields == null
+                ? runRepository.findAllByProjectKeyAndExperimentRefsExperimentKeyIn(projectKey, experimentKey)
+                : runRepository.findRuns(projectKey, null, experimentKey, selectedFields);
 
         ItemList<Run> result = new ItemList<>();
         result.setItems(runMapper.fromEntity(runs));
@@ -96,6 +138,129 @@ public class RunServiceImpl implements RunService {
         return result;
     }
 
+    @Override
+    public ItemList<Run> getRunsChangedSince(String projectKey, String since, Collection<String> fields) {
+        int changeSequence = ChangeToken.decode(since);
+
+        // The change sequence of the last run is required for the sync token
+        Set<String> selectedFields = RUN_FIELDS.select(fields);
+        if (selectedFields != null) {
+            selectedFields.add("changeSequence");
+        }
+
+        List<RunEntity> runs = runRepository.findRunsChangedSince(
+                projectKey, changeSequence, syncProperties.getPageSize() + 1, selectedFields);
+
+        return ChangeToken.page(runs, changeSequence, syncProperties.getPageSize(), runMapper::fromEntity);
+    }
+
+    @Override
+    public Stream<Run> streamRuns(String projectKey,
+                                  List<Integer> runKeys,
+                                  String experimentKey,
+                                  String filter,
+                                  String sort,
+                                  Sort.Direction direction,
+                                  Collection<String> fields) {
+        String sortField = null;
+        Sort.Direction sortDirection = null;
+        if (sort != null || direction != null) {
+            sortField = sort == null ? "key" : sort;
+            sortDirection = direction == null ? Sort.Direction.DESC : direction;
+            throwIfSortFieldIsInvalid(sortField);
+        }
+        List<RunFilterCondition> conditions = filter == null ? List.of() : RunFilterParser.parse(filter);
+
+        return runRepository.streamRuns(projectKey, runKeys, experimentKey, conditions, sortField, sortDirection,
+                RUN_FIELDS.select(fields))
+                .map(runMapper::fromEntity);
+    }
+
+    @Override
+    public ItemList<Run> getRunPage(String projectKey,
+                                    String experimentKey,
+                                    String filter,
+                                    String sort,
+                                    Sort.Direction direction,
+                                    Integer pageSize,
+                                    String pageToken,
+                                    Collection<String> fields) {
+        String sortField = sort == null ? "key" : sort;
+        Sort.Direction sortDirection = direction == null ? Sort.Direction.DESC : direction;
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : pageSize;
+        throwIfSortFieldIsInvalid(sortField);
+        List<RunFilterCondition> conditions = filter == null ? null : RunFilterParser.parse(filter);
+
+        // The sort value of the last run is required for the page token
+        Set<String> selectedFields = RUN_FIELDS.select(fields);
+        if (selectedFields != null) {
+            SparseFieldset.include(selectedFields, sortField);
+        }
+
+        Object lastSortValue = null;
+        Integer lastKey = null;
+        if (pageToken != null) {
+            PageToken token = PageToken.decode(pageToken);
+            if (!token.getSort().equals(sortField) || token.getDirection() != sortDirection) {
+                throw new InvalidInputException("The page token belongs to another sort order.");
+            }
+
+            lastKey = token.getKey();
+            lastSortValue = "createdAt".equals(sortField) && token.getValue() != null
+                    ? OffsetDateTime.parse(token.getValue().toString())
+                    : token.getValue();
+            if (sortField.startsWith("metrics.") && lastSortValue != null && !(lastSortValue instanceof Number)) {
+                throw new InvalidInputException("The page token is invalid.");
+            }
+        }
+
+        // Request one more run than required to find out if there is a next page
+        List<RunEntity> runs = conditions == null
+                ? runRepository.findRunPage(projectKey, experimentKey,
+                        sortField, sortDirection, lastSortValue, lastKey, size + 1, selectedFields)
+                : runRepository.findRunPageMatchingAll(projectKey, experimentKey, conditions,
+                        sortField, sortDirection, lastSortValue, lastKey, size + 1, selectedFields);
+
+        String nextPageToken = null;
+        if (runs.size() > size) {
+            runs = runs.subList(0, size);
+
+            RunEntity lastRun = runs.get(size - 1);
+            nextPageToken = new PageToken(sortField, sortDirection, lastRun.getKey(), sortValueOf(lastRun, sortField))
+                    .encode();
+        }
+
+        return new ItemList<>(runMapper.fromEntity(runs), nextPageToken);
+    }
+
+    @Override
+    public RunComparison compareRuns(String projectKey,
+                                     List<Integer> runKeys,
+                                     List<String> metricKeys,
+                                     List<String> parameterKeys) {
+        if (runKeys == null || runKeys.isEmpty()) {
+            throw new InvalidInputException("At least one run key must be specified.");
+        }
+
+        RunComparisonResult result = runRepository.compareRuns(projectKey, runKeys, metricKeys, parameterKeys);
+
+        // Keep the order of the requested run keys
+        Set<Integer> existingRunKeys = result.getRuns().stream()
+                .map(RunComparisonResult.RunKey::getKey)
+                .collect(Collectors.toSet());
+        List<Integer> comparedRunKeys = runKeys.stream()
+                .filter(existingRunKeys::contains)
+                .distinct()
+                .collect(Collectors.toList());
+
+        RunComparison comparison = new RunComparison();
+        comparison.setRunKeys(comparedRunKeys);
+        comparison.setParameters(alignValues(comparedRunKeys, result.getParameters(), true));
+        comparison.setMetrics(alignValues(comparedRunKeys, result.getMetrics(), false));
+
+        return comparison;
+    }
+
     @Override
     @Transactional
     public Run addRun(String projectKey, Run run) {
@@ -108,9 +273,8 @@ public class RunServiceImpl implements RunService {
             run.setName(randomGeneratorService.randomRunName());
         }
 
-        setLatestVersionOfArtifacts(projectKey, run.getUsedArtifacts());
-
         throwIfAnyExperimentRefDoesNotExist(projectKey, run.getExperimentRefs());
+        // Sets the latest version of artifact refs without version as well
         throwIfAnyArtifactDoesNotExist(projectKey, run.getUsedArtifacts());
 
         RunEntity runEntity = runMapper.toEntity(run);
@@ -133,27 +297,108 @@ public class RunServiceImpl implements RunService {
 
         runEntity = saveRun(runEntity);
 
+        eventPublisher.publishEvent(ProjectEvent.builder()
+                .type(ProjectEventType.RUN_CREATED)
+                .projectKey(projectKey)
+                .runKey(runKey)
+                .experimentKeys(run.getExperimentRefs().stream()
+                        .map(ExperimentRef::getExperimentKey)
+                        .collect(Collectors.toList()))
+                .status(run.getStatus())
+                .build());
+
         return runMapper.fromEntity(runEntity);
     }
 
-    private void setLatestVersionOfArtifacts(String projectKey, List<ArtifactRef> artifacts) {
-        if (artifacts == null || artifacts.isEmpty()) {
-            return;
+    @Override
+    @Transactional
+    public List<Run> addRuns(String projectKey, RunBatch batch) {
+        List<Run> runs = expandBatch(batch);
+        if (runs.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        for (Run run : runs) {
+            if (run.getExperimentRefs() == null || run.getExperimentRefs().isEmpty()) {
+                throw new InvalidInputException("Every run must reference at least one experiment.");
+            }
+            if (run.getStatus() == null) {
+                run.setStatus(RunStatus.RUNNING);
+            }
+            if (run.getName() == null || run.getName().isBlank()) {
+                run.setName(randomGeneratorService.randomRunName());
+            }
+        }
+
+        // The refs are validated once for all runs
+        throwIfAnyExperimentRefDoesNotExist(projectKey, runs.stream()
+                .flatMap(run -> run.getExperimentRefs().stream())
+                .collect(Collectors.toList()));
+        throwIfAnyArtifactDoesNotExist(projectKey, runs.stream()
+                .filter(run -> run.getUsedArtifacts() != null)
+                .flatMap(run -> run.getUsedArtifacts().stream())
+                .collect(Collectors.toList()));
+
+        List<RunEntity> runEntities = runMapper.toEntity(runs);
+
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        UserRef currentUser = userService.getCurrentUserRef();
+        int runKey = counterRepository.reserveSequenceValues(projectKey + ".run", runEntities.size());
+        for (RunEntity runEntity : runEntities) {
+            runEntity.setCreatedAt(now);
+            runEntity.setStartTime(now);
+            runEntity.setCreatedBy(currentUser);
+            runEntity.setProjectKey(projectKey);
+            runEntity.setKey(runKey++);
+        }
+
+        runRepository.insertRuns(projectKey, runEntities);
+        logger.info("Created {} new runs", runEntities.size());
+
+        List<ObjectId> ids = runEntities.stream().map(RunEntity::getId).collect(Collectors.toList());
+        try {
+            permissionService.grantPermissionsBasedOnProject(projectKey, ids, RunEntity.class);
+        } catch (Exception e) {
+            runRepository.deleteAll(runEntities);
+            lineageRepository.removeEdgesOfRuns(
+                    projectKey, runEntities.stream().map(RunEntity::getKey).collect(Collectors.toList()));
+            logger.info("Could not grant permissions on new runs. Deleted runs from database to avoid inconsistency.");
+            throw e;
         }
 
-        artifacts.forEach((artifact -> {
-            if (artifact.getVersion() == null) {
-                ArtifactEntity latestArtifact =
-                        this.artifactRepository.findFirstByProjectKeyAndNameOrderByVersionDesc(projectKey, artifact.getName());
+        for (int i = 0; i < runs.size(); i++) {
+            eventPublisher.publishEvent(ProjectEvent.builder()
+                    .type(ProjectEventType.RUN_CREATED)
+                    .projectKey(projectKey)
+                    .runKey(runEntities.get(i).getKey())
+                    .experimentKeys(runs.get(i).getExperimentRefs().stream()
+                            .map(ExperimentRef::getExperimentKey)
+                            .collect(Collectors.toList()))
+                    .status(runs.get(i).getStatus())
+                    .build());
+        }
 
-                if (latestArtifact == null) {
-                    throw new InvalidInputException(
-                            "One or more of the specified artifact refs are not valid or do not exist.");
-                }
+        return runMapper.fromEntity(runEntities);
+    }
 
-                artifact.setVersion(latestArtifact.getVersion());
+    private List<Run> expandBatch(RunBatch batch) {
+        boolean hasRuns = batch.getRuns() != null;
+        boolean hasGrid = batch.getTemplate() != null || batch.getParameterGrid() != null;
+        if (hasRuns == hasGrid) {
+            throw new InvalidInputException("Either runs or a template and a parameter grid must be specified.");
+        }
+
+        if (hasRuns) {
+            if (batch.getRuns().size() > MAX_BATCH_SIZE) {
+                throw new InvalidInputException("A batch must not contain more than " + MAX_BATCH_SIZE + " runs.");
             }
-        }));
+            return batch.getRuns();
+        }
+
+        if (batch.getTemplate() == null || batch.getParameterGrid() == null) {
+            throw new InvalidInputException("A parameter grid requires a template and vice versa.");
+        }
+        return ParameterGrid.expand(batch.getTemplate(), batch.getParameterGrid(), MAX_BATCH_SIZE);
     }
 
     @Override
@@ -168,48 +413,111 @@ public class RunServiceImpl implements RunService {
     }
 
     @Override
-    public void updateRun(String projectKey, Run run) {
-        RunEntity existingRunEntity = runRepository.findOneByProjectKeyAndKey(projectKey, run.getKey());
+    public void patchRun(String projectKey, Integer runKey, Map<String, Object> patch) {
+        Set<String> unpatchableFields = new TreeSet<>(patch.keySet());
+        unpatchableFields.removeAll(PATCHABLE_RUN_FIELDS);
+        if (!unpatchableFields.isEmpty()) {
+            throw new InvalidInputException("The fields " + unpatchableFields + " of a run can not be patched.");
+        }
 
-        if (existingRunEntity == null) {
-            throw new NotFoundException();
+        // Only the fields that are part of the patch are changed; a null value removes the field
+        Map<String, Object> changes = new HashMap<>();
+        if (patch.containsKey("name")) {
+            Object name = patch.get("name");
+            if (!(name instanceof String) || ((String) name).isBlank()) {
+                throw new InvalidInputException("run name must be not null or blank");
+            }
+            changes.put("name", name);
+        }
+        if (patch.containsKey("note")) {
+            Object note = patch.get("note");
+            if (note != null && !(note instanceof String)) {
+                throw new InvalidInputException("run note must be a string");
+            }
+            changes.put("note", note);
         }
 
-        // The run can only be changed if it is in running state
-        RunStatus currentRunStatus = RunStatus.valueOf(existingRunEntity.getStatus());
-        if (!currentRunStatus.equals(RunStatus.RUNNING)) {
-            throw new ConflictException("The run status is " + currentRunStatus
-                    + ". Only RUNNING runs can be modified.");
+        // The run can only be patched while it is running, so its status is RUNNING unless the patch changes it
+        RunStatus status = RunStatus.RUNNING;
+        if (patch.containsKey("status")) {
+            status = toRunStatus(patch.get("status"));
+            changes.put("status", status.toString());
+
+            // The endTime should be set if run is not running anymore
+            if (status != RunStatus.RUNNING) {
+                changes.put("endTime", OffsetDateTime.now(clock));
+            }
         }
 
-        RunEntity runEntity = runMapper.toEntity(run);
-        // Set the project id into the run to prevent the loss of linking the run to its project
-        runEntity.setProjectKey(projectKey);
-        runEntity.setId(existingRunEntity.getId());
+        for (String mapField : List.of("parameters", "metrics")) {
+            if (patch.containsKey(mapField)) {
+                changes.put(mapField, toMapPatch(mapField, patch.get(mapField)));
+            }
+        }
 
-        // The endTime should be set if run is not running anymore
-        if (run.getStatus() != RunStatus.RUNNING) {
-            runEntity.setEndTime(OffsetDateTime.now(clock));
+        if (changes.isEmpty()) {
+            throwIfRunWasNotUpdated(projectKey, runKey, false);
+            return;
         }
 
-        runRepository.save(runEntity);
-        logger.info("updated existing run");
+        boolean updated = runRepository.patchRunningRun(projectKey, runKey, changes);
+        throwIfRunWasNotUpdated(projectKey, runKey, updated);
+
+        eventPublisher.publishEvent(ProjectEvent.builder()
+                .type(ProjectEventType.RUN_UPDATED)
+                .projectKey(projectKey)
+                .runKey(runKey)
+                .status(status)
+                .build());
+
+        logger.info("patched existing run");
     }
 
     @Override
-    public String createOrUpdateNote(String projectKey, Integer runKey, String note) {
-        RunEntity existingRunEntity = runRepository.findOneByProjectKeyAndKey(projectKey, runKey);
+    public void mergeMetrics(String projectKey, Integer runKey, Map<String, Object> metrics) {
+        if (metrics.isEmpty()) {
+            throwIfRunWasNotUpdated(projectKey, runKey, false);
+            return;
+        }
+        throwIfAnyMapKeyIsInvalid(metrics);
 
-        if (existingRunEntity == null) {
-            throw new NotFoundException();
+        boolean updated = runRepository.mergeMetricsOfRunningRun(projectKey, runKey, metrics);
+        throwIfRunWasNotUpdated(projectKey, runKey, updated);
+
+        eventPublisher.publishEvent(ProjectEvent.builder()
+                .type(ProjectEventType.METRICS_UPDATED)
+                .projectKey(projectKey)
+                .runKey(runKey)
+                .metrics(metrics)
+                .build());
+
+        logger.info("merged metrics into existing run");
+    }
+
+    @Override
+    public void mergeParameters(String projectKey, Integer runKey, Map<String, Object> parameters) {
+        if (parameters.isEmpty()) {
+            throwIfRunWasNotUpdated(projectKey, runKey, false);
+            return;
         }
+        throwIfAnyMapKeyIsInvalid(parameters);
 
-        existingRunEntity.setNote(note);
+        boolean updated = runRepository.mergeParametersOfRunningRun(projectKey, runKey, parameters);
+        throwIfRunWasNotUpdated(projectKey, runKey, updated);
 
-        RunEntity savedEntity = runRepository.save(existingRunEntity);
+        logger.info("merged parameters into existing run");
+    }
+
+    @Override
+    public String createOrUpdateNote(String projectKey, Integer runKey, String note) {
+        boolean updated = runRepository.updateNote(projectKey, runKey, note);
+
+        if (!updated) {
+            throw new NotFoundException();
+        }
 
         logger.info("updated note in existing run");
-        return savedEntity.getNote();
+        return note;
     }
 
     @Override
@@ -233,6 +541,16 @@ public class RunServiceImpl implements RunService {
 
         runEntity = runRepository.save(runEntity);
 
+        ArtifactRef artifact = new ArtifactRef();
+        artifact.setName(artifactName);
+        artifact.setVersion(artifactVersion);
+        eventPublisher.publishEvent(ProjectEvent.builder()
+                .type(ProjectEventType.ARTIFACT_ATTACHED)
+                .projectKey(projectKey)
+                .runKey(runKey)
+                .artifact(artifact)
+                .build());
+
         return runMapper.fromEntity(runEntity);
     }
 
@@ -298,6 +616,7 @@ public class RunServiceImpl implements RunService {
             permissionService.grantPermissionBasedOnProject(runEntity.getProjectKey(), runEntity.getId(), RunEntity.class);
         } catch (Exception e) {
             runRepository.deleteById(runEntity.getId());
+            lineageRepository.removeEdgesOfRuns(runEntity.getProjectKey(), List.of(runEntity.getKey()));
             logger.info("Could not grant permissions on new run. Deleted run from database to avoid inconsistency.");
             throw e;
         }
@@ -305,6 +624,62 @@ public class RunServiceImpl implements RunService {
         return runEntity;
     }
 
+    private void throwIfRunWasNotUpdated(String projectKey, Integer runKey, boolean updated) {
+        if (updated) {
+            return;
+        }
+
+        // The conditional update did not match. Find out whether the run does not exist or whether it is not
+        // running anymore. This additional query is only necessary in the error case.
+        RunEntity existingRunEntity = runRepository.findOneByProjectKeyAndKey(projectKey, runKey);
+
+        if (existingRunEntity == null) {
+            throw new NotFoundException();
+        }
+
+        // The run can only be changed if it is in running state
+        RunStatus currentRunStatus = RunStatus.valueOf(existingRunEntity.getStatus());
+        if (!currentRunStatus.equals(RunStatus.RUNNING)) {
+            throw new ConflictException("The run status is " + currentRunStatus
+                    + ". Only RUNNING runs can be modified.");
+        }
+    }
+
+    private RunStatus toRunStatus(Object status) {
+        if (status == null) {
+            throw new InvalidInputException("run status must be not null");
+        }
+
+        try {
+            return RunStatus.valueOf(status.toString());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("run status " + status + " is unknown", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toMapPatch(String mapField, Object values) {
+        if (values == null) {
+            return null;
+        }
+        if (!(values instanceof Map)) {
+            throw new InvalidInputException("run " + mapField + " must be an object");
+        }
+
+        throwIfAnyMapKeyIsInvalid((Map<String, Object>) values);
+        return (Map<String, Object>) values;
+    }
+
+    private void throwIfAnyMapKeyIsInvalid(Map<String, Object> values) {
+        // Keys are used as part of the field path in the update; dots would address nested fields.
+        boolean anyKeyIsInvalid = values.keySet().stream()
+                .anyMatch(key -> key == null || key.isBlank() || key.contains(".") || key.startsWith("$"));
+
+        if (anyKeyIsInvalid) {
+            throw new InvalidInputException("Keys must not be blank and must not contain '.' or start with '$'.");
+        }
+    }
+
     private void throwIfAnyExperimentRefDoesNotExist(String projectKey, List<ExperimentRef> experimentRefs) {
         List<String> experimentKeys = experimentRefs.stream()
                 .map(ExperimentRef::getExperimentKey)
@@ -319,11 +694,66 @@ public class RunServiceImpl implements RunService {
     }
 
     private void throwIfAnyArtifactDoesNotExist(String projectKey, List<ArtifactRef> artifacts) {
-        boolean exist = validationService.checkAllArtifactsExist(projectKey, artifacts);
+        boolean exist = validationService.resolveArtifactRefs(projectKey, artifacts);
 
         if (!exist) {
             throw new InvalidInputException(
                     "One or more of the specified artifact refs are not valid or do not exist.");
         }
     }
+
+    private Map<String, List<Object>> alignValues(List<Integer> runKeys,
+                                                  List<RunComparisonResult.KeyedValues> valuesByKey,
+                                                  boolean onlyDifferingValues) {
+        Map<String, List<Object>> alignedValues = new TreeMap<>();
+
+        for (RunComparisonResult.KeyedValues keyedValues: valuesByKey) {
+            // A key that is missing in at least one run has different values as well
+            boolean isSameInAllRuns = keyedValues.getDistinctValueCount() == 1
+                    && keyedValues.getRunKeys().size() == runKeys.size();
+            if (onlyDifferingValues && isSameInAllRuns) {
+                continue;
+            }
+
+            Map<Integer, Object> valueByRunKey = new HashMap<>();
+            for (int i = 0; i < keyedValues.getRunKeys().size(); i++) {
+                valueByRunKey.put(keyedValues.getRunKeys().get(i), keyedValues.getValues().get(i));
+            }
+
+            alignedValues.put(keyedValues.getKey(), runKeys.stream().map(valueByRunKey::get).collect(Collectors.toList()));
+        }
+
+        return alignedValues;
+    }
+
+    private void throwIfSortFieldIsInvalid(String sortField) {
+        if (sortField.equals("key") || sortField.equals("createdAt")) {
+            return;
+        }
+
+        String metricsPrefix = "metrics.";
+        if (sortField.startsWith(metricsPrefix)) {
+            String metricName = sortField.substring(metricsPrefix.length());
+            if (!metricName.isBlank() && !metricName.contains(".") && !metricName.contains("$")) {
+                return;
+            }
+        }
+
+        throw new InvalidInputException("Runs can only be sorted by key, createdAt or metrics.<name>.");
+    }
+
+    private Object sortValueOf(RunEntity run, String sortField) {
+        if (sortField.equals("key")) {
+            return null;
+        }
+
+        if (sortField.equals("createdAt")) {
+            return run.getCreatedAt() == null ? null : run.getCreatedAt().toString();
+        }
+
+        // Only numeric metrics are sorted by value; all other runs follow sorted by key
+        String metricName = sortField.substring("metrics.".length());
+        Object value = run.getMetrics() == null ? null : run.getMetrics().get(metricName);
+        return value instanceof Number ? value : null;
+    }
 }
@@ -0,0 +1,79 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.service.InvalidInputException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Validates the fields that a client requested with the {@code fields} query parameter of a list endpoint. The
+ * names of the fields are the same in the API and in the database, so the result can be used as projection.
+ */
+class SparseFieldset {
+    private final Set<String> fields;
+    private final Set<String> mapFields;
+    private final Set<String> requiredFields;
+
+    /**
+     * @param fields the top level fields that can be requested
+     * @param mapFields the fields of type map whose entries can be requested separately (e.g. "metrics.acc")
+     * @param requiredFields the fields that are always returned
+     */
+    SparseFieldset(Set<String> fields, Set<String> mapFields, String... requiredFields) {
+        this.fields = fields;
+        this.mapFields = mapFields;
+        this.requiredFields = new LinkedHashSet<>(Arrays.asList(requiredFields));
+    }
+
+    /**
+     * @return the requested fields including the required fields or {@code null} if no fields were requested
+     */
+    Set<String> select(Collection<String> requestedFields) {
+        if (requestedFields == null || requestedFields.isEmpty()) {
+            return null;
+        }
+
+        Set<String> selectedFields = new LinkedHashSet<>(requiredFields);
+        for (String requestedField: requestedFields) {
+            String field = requestedField.trim();
+            if (!isValid(field)) {
+                throw new InvalidInputException("The field '" + field + "' can not be selected.");
+            }
+
+            include(selectedFields, field);
+        }
+
+        return selectedFields;
+    }
+
+    /**
+     * Adds a field to the selected fields. MongoDB rejects projections with colliding paths (e.g. "metrics" and
+     * "metrics.acc"); so an entry of a map is not added if the whole map is selected and selecting the whole map
+     * replaces its entries.
+     */
+    static void include(Set<String> selectedFields, String field) {
+        int separator = field.indexOf('.');
+        if (separator >= 0 && selectedFields.contains(field.substring(0, separator))) {
+            return;
+        }
+
+        selectedFields.removeIf(selectedField -> selectedField.startsWith(field + "."));
+        selectedFields.add(field);
+    }
+
+    private boolean isValid(String field) {
+        if (fields.contains(field)) {
+            return true;
+        }
+
+        int separator = field.indexOf('.');
+        if (separator < 0 || !mapFields.contains(field.substring(0, separator))) {
+            return false;
+        }
+
+        String mapKey = field.substring(separator + 1);
+        return !mapKey.isBlank() && !mapKey.contains(".") && !mapKey.contains("$");
+    }
+}
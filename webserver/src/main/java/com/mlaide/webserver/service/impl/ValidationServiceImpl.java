@@ -1,6 +1,7 @@
 package com.mlaide.webserver.service.impl;
 
 import com.mlaide.webserver.repository.ArtifactRepository;
+import com.mlaide.webserver.repository.ArtifactVersions;
 import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
 import com.mlaide.webserver.service.mapper.ArtifactMapper;
 import com.mlaide.webserver.model.ArtifactRef;
@@ -9,6 +10,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
 
 @Service
 public class ValidationServiceImpl implements ValidationService {
@@ -22,13 +27,30 @@ public class ValidationServiceImpl implements ValidationService {
     }
 
     @Override
-    public boolean checkAllArtifactsExist(String projectKey, List<ArtifactRef> artifactRefs) {
+    public boolean resolveArtifactRefs(String projectKey, List<ArtifactRef> artifactRefs) {
         if (artifactRefs == null || artifactRefs.isEmpty()) {
             return true;
         }
 
         List<ArtifactRefEntity> artifactRefEntities = artifactMapper.toRefEntity(artifactRefs);
 
-        return artifactRepository.checkAllArtifactsExist(projectKey, artifactRefEntities);
+        Map<String, ArtifactVersions> versionsByName = artifactRepository
+                .findArtifactVersions(projectKey, artifactRefEntities).stream()
+                .collect(toMap(ArtifactVersions::getName, Function.identity()));
+
+        for (ArtifactRef artifactRef : artifactRefs) {
+            ArtifactVersions versions = versionsByName.get(artifactRef.getName());
+            if (versions == null) {
+                return false;
+            }
+
+            if (artifactRef.getVersion() == null) {
+                artifactRef.setVersion(versions.getLatestVersion());
+            } else if (!versions.getVersions().contains(artifactRef.getVersion())) {
+                return false;
+            }
+        }
+
+        return true;
     }
 }
@@ -7,7 +7,6 @@ import com.mlaide.webserver.model.Artifact;
 import com.mlaide.webserver.model.ArtifactFile;
 import com.mlaide.webserver.model.ArtifactRef;
 import org.mapstruct.Mapper;
-import org.mapstruct.Mapping;
 
 import java.util.List;
 
@@ -19,7 +18,6 @@ public interface ArtifactMapper {
     ArtifactEntity toEntity(Artifact artifact);
     List<ArtifactEntity> toEntity(List<Artifact> artifacts);
 
-    @Mapping(source = "s3ObjectVersionId", target = "fileId")
     ArtifactFile fromEntity(FileRefEntity fileRefEntity);
 
     ArtifactRef fromRefEntity(ArtifactRefEntity artifactEntity);
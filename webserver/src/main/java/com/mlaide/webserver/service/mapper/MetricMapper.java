@@ -0,0 +1,16 @@
+package com.mlaide.webserver.service.mapper;
+
+import com.mlaide.webserver.model.MetricPoint;
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(uses = CommonDataTypeMapper.class, componentModel = "spring")
+public interface MetricMapper {
+    MetricPoint fromEntity(MetricPointEntity metricPointEntity);
+    List<MetricPoint> fromEntity(List<MetricPointEntity> metricPointEntities);
+
+    MetricPointEntity toEntity(MetricPoint metricPoint);
+    List<MetricPointEntity> toEntity(List<MetricPoint> metricPoints);
+}
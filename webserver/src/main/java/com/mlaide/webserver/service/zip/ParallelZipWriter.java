@@ -0,0 +1,425 @@
+package com.mlaide.webserver.service.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes a ZIP archive and compresses the entries on several threads. The content of an entry is split into blocks
+ * that are deflated independently and written in order, the way pigz does it. Every block uses the end of the
+ * previous block as dictionary, so the archive is hardly larger than one that is deflated on a single thread. At most
+ * {@code blocksInFlight} blocks are compressed at the same time, which bounds the memory of a writer.
+ *
+ * <p>The checksums and sizes are written in data descriptors after the content, so the content is read only once.
+ * Entries that should not be compressed are deflated with level 0, which only wraps the content in stored blocks.
+ * Archives with entries or offsets beyond the limits of ZIP are written in the ZIP64 format, like
+ * {@link java.util.zip.ZipOutputStream} does.
+ */
+public class ParallelZipWriter implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final ExecutorService compressor;
+    private final int blockSize;
+    private final int blocksInFlight;
+    private final int level;
+    private final long dosTime;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Deque<Part> parts = new ArrayDeque<>();
+    private long written;
+    private int pendingBlocks;
+    private boolean finished;
+
+    /**
+     * @param compressor the threads that deflate the blocks
+     * @param blockSize the number of bytes of the content that are deflated as one block
+     * @param blocksInFlight the maximum number of blocks that are compressed at the same time
+     * @param level the compression level of the entries that are compressed
+     * @param modificationTime the time that is recorded as modification time of the entries
+     */
+    public ParallelZipWriter(OutputStream out,
+                             ExecutorService compressor,
+                             int blockSize,
+                             int blocksInFlight,
+                             int level,
+                             LocalDateTime modificationTime) {
+        this.out = out;
+        this.compressor = compressor;
+        this.blockSize = blockSize;
+        this.blocksInFlight = blocksInFlight;
+        this.level = level;
+        this.dosTime = toDosTime(modificationTime);
+    }
+
+    /**
+     * Adds an entry with the given content to the archive. The content has been read completely when this method
+     * returns, but it might not have been written to the output stream yet.
+     *
+     * @param compress {@code false} if the content is stored as it is, e.g. because it is already compressed
+     */
+    public void writeEntry(String name, InputStream content, boolean compress) throws IOException {
+        if (finished) {
+            throw new IOException("ZIP archive has already been finished");
+        }
+
+        Entry entry = new Entry(name.getBytes(UTF_8));
+        entries.add(entry);
+        parts.add(Part.header(entry));
+
+        int blockLevel = compress ? level : Deflater.NO_COMPRESSION;
+        CRC32 crc = new CRC32();
+        byte[] previousBlock = null;
+        while (true) {
+            byte[] block = content.readNBytes(blockSize);
+            crc.update(block);
+            entry.size += block.length;
+
+            // If the content ends exactly at the end of a block, the last block is empty
+            boolean last = block.length < blockSize;
+            byte[] dictionary = blockLevel == Deflater.NO_COMPRESSION ? null : previousBlock;
+            addBlock(entry, compressor.submit(() -> deflate(block, dictionary, blockLevel, last)));
+            writeReadyParts();
+
+            if (last) {
+                break;
+            }
+            previousBlock = block;
+        }
+
+        entry.crc = crc.getValue();
+        parts.add(Part.dataDescriptor(entry));
+    }
+
+    /**
+     * Writes the remaining entries and the central directory without closing the output stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        while (!parts.isEmpty()) {
+            writePart(parts.remove());
+        }
+
+        writeCentralDirectory();
+        out.flush();
+    }
+
+    /**
+     * Closes the output stream. If the archive has not been finished, e.g. because an entry could not be read, the
+     * remaining blocks are discarded and the archive stays incomplete, so that the client does not mistake it for a
+     * complete one.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            parts.forEach(part -> {
+                if (part.block != null) {
+                    part.block.cancel(true);
+                }
+            });
+            parts.clear();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void addBlock(Entry entry, Future<byte[]> block) throws IOException {
+        parts.add(Part.block(entry, block));
+        pendingBlocks++;
+
+        while (pendingBlocks >= blocksInFlight) {
+            writePart(parts.remove());
+        }
+    }
+
+    private void writeReadyParts() throws IOException {
+        // Writes what is already compressed, so the client receives the archive while it is compressed
+        while (!parts.isEmpty() && (parts.peek().block == null || parts.peek().block.isDone())) {
+            writePart(parts.remove());
+        }
+    }
+
+    private void writePart(Part part) throws IOException {
+        switch (part.type) {
+            case HEADER:
+                part.entry.offset = written;
+                write(localHeader(part.entry));
+                break;
+            case BLOCK:
+                byte[] compressed = getBlock(part.block);
+                pendingBlocks--;
+                part.entry.compressedSize += compressed.length;
+                write(compressed);
+                break;
+            case DATA_DESCRIPTOR:
+                write(dataDescriptor(part.entry));
+                break;
+        }
+    }
+
+    private byte[] getBlock(Future<byte[]> block) throws IOException {
+        try {
+            return block.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            block.cancel(true);
+            throw new InterruptedIOException("Compression of ZIP archive was interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not compress entry of ZIP archive", e.getCause());
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        written += bytes.length;
+    }
+
+    private byte[] localHeader(Entry entry) {
+        // Checksum and sizes are not known yet; they follow in the data descriptor
+        ByteBuffer header = buffer(30 + entry.name.length);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) VERSION);
+        header.putShort((short) (FLAG_DATA_DESCRIPTOR | FLAG_UTF8));
+        header.putShort((short) METHOD_DEFLATED);
+        header.putInt((int) dosTime);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(0);
+        header.putShort((short) entry.name.length);
+        header.putShort((short) 0);
+        header.put(entry.name);
+
+        return header.array();
+    }
+
+    private byte[] dataDescriptor(Entry entry) {
+        if (entry.compressedSize >= ZIP64_MAGIC || entry.size >= ZIP64_MAGIC) {
+            return buffer(24)
+                    .putInt(DATA_DESCRIPTOR_SIGNATURE)
+                    .putInt((int) entry.crc)
+                    .putLong(entry.compressedSize)
+                    .putLong(entry.size)
+                    .array();
+        }
+
+        return buffer(16)
+                .putInt(DATA_DESCRIPTOR_SIGNATURE)
+                .putInt((int) entry.crc)
+                .putInt((int) entry.compressedSize)
+                .putInt((int) entry.size)
+                .array();
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long centralDirectoryOffset = written;
+        for (Entry entry : entries) {
+            write(centralHeader(entry));
+        }
+        long centralDirectorySize = written - centralDirectoryOffset;
+
+        boolean zip64 = entries.size() >= ZIP64_MAGIC_COUNT
+                || centralDirectoryOffset >= ZIP64_MAGIC
+                || centralDirectorySize >= ZIP64_MAGIC;
+        if (zip64) {
+            long zip64EndOffset = written;
+            write(buffer(56)
+                    .putInt(ZIP64_END_SIGNATURE)
+                    .putLong(44)
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) VERSION_ZIP64)
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(entries.size())
+                    .putLong(entries.size())
+                    .putLong(centralDirectorySize)
+                    .putLong(centralDirectoryOffset)
+                    .array());
+            write(buffer(20)
+                    .putInt(ZIP64_LOCATOR_SIGNATURE)
+                    .putInt(0)
+                    .putLong(zip64EndOffset)
+                    .putInt(1)
+                    .array());
+        }
+
+        int count = Math.min(entries.size(), ZIP64_MAGIC_COUNT);
+        write(buffer(22)
+                .putInt(END_SIGNATURE)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) count)
+                .putShort((short) count)
+                .putInt((int) Math.min(centralDirectorySize, ZIP64_MAGIC))
+                .putInt((int) Math.min(centralDirectoryOffset, ZIP64_MAGIC))
+                .putShort((short) 0)
+                .array());
+    }
+
+    private byte[] centralHeader(Entry entry) {
+        // Values that do not fit into the header are moved to the ZIP64 extra field in this order
+        List<Long> zip64Values = new ArrayList<>();
+        if (entry.size >= ZIP64_MAGIC) {
+            zip64Values.add(entry.size);
+        }
+        if (entry.compressedSize >= ZIP64_MAGIC) {
+            zip64Values.add(entry.compressedSize);
+        }
+        if (entry.offset >= ZIP64_MAGIC) {
+            zip64Values.add(entry.offset);
+        }
+        int extraLength = zip64Values.isEmpty() ? 0 : 4 + 8 * zip64Values.size();
+        int version = zip64Values.isEmpty() ? VERSION : VERSION_ZIP64;
+
+        ByteBuffer header = buffer(46 + entry.name.length + extraLength);
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort((short) version);
+        header.putShort((short) version);
+        header.putShort((short) (FLAG_DATA_DESCRIPTOR | FLAG_UTF8));
+        header.putShort((short) METHOD_DEFLATED);
+        header.putInt((int) dosTime);
+        header.putInt((int) entry.crc);
+        header.putInt((int) Math.min(entry.compressedSize, ZIP64_MAGIC));
+        header.putInt((int) Math.min(entry.size, ZIP64_MAGIC));
+        header.putShort((short) entry.name.length);
+        header.putShort((short) extraLength);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putInt(0);
+        header.putInt((int) Math.min(entry.offset, ZIP64_MAGIC));
+        header.put(entry.name);
+        if (!zip64Values.isEmpty()) {
+            header.putShort((short) ZIP64_EXTRA_ID);
+            header.putShort((short) (8 * zip64Values.size()));
+            zip64Values.forEach(header::putLong);
+        }
+
+        return header.array();
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Deflates one block of an entry. All but the last block end with a sync flush, so that the blocks can be
+     * concatenated to one deflate stream.
+     */
+    static byte[] deflate(byte[] block, byte[] dictionary, int level, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                int dictionaryLength = Math.min(dictionary.length, DICTIONARY_SIZE);
+                deflater.setDictionary(dictionary, dictionary.length - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(block);
+            if (last) {
+                deflater.finish();
+            }
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.length / 2 + 64);
+            byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+            while (true) {
+                int length = deflater.deflate(buffer, 0, buffer.length, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                compressed.write(buffer, 0, length);
+
+                // A sync flush is complete once the deflater does not fill the buffer anymore
+                if (last ? deflater.finished() : length < buffer.length) {
+                    return compressed.toByteArray();
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long toDosTime(LocalDateTime time) {
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+
+        return (long) (time.getYear() - 1980) << 25
+                | time.getMonthValue() << 21
+                | time.getDayOfMonth() << 16
+                | time.getHour() << 11
+                | time.getMinute() << 5
+                | time.getSecond() >> 1;
+    }
+
+    private static class Entry {
+        private final byte[] name;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private long offset;
+
+        Entry(byte[] name) {
+            this.name = name;
+        }
+    }
+
+    private enum PartType {
+        HEADER,
+        BLOCK,
+        DATA_DESCRIPTOR
+    }
+
+    private static class Part {
+        private final PartType type;
+        private final Entry entry;
+        private final Future<byte[]> block;
+
+        private Part(PartType type, Entry entry, Future<byte[]> block) {
+            this.type = type;
+            this.entry = entry;
+            this.block = block;
+        }
+
+        static Part header(Entry entry) {
+            return new Part(PartType.HEADER, entry, null);
+        }
+
+        static Part block(Entry entry, Future<byte[]> block) {
+            return new Part(PartType.BLOCK, entry, block);
+        }
+
+        static Part dataDescriptor(Entry entry) {
+            return new Part(PartType.DATA_DESCRIPTOR, entry, null);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mlaide.webserver.service.zip;
+
+import com.mlaide.webserver.model.ZipCompression;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.OutputStream;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Creates the writers for ZIP downloads. All writers share one pool of threads, so the downloads together do not use
+ * more than {@code compression-threads} cores for compression.
+ */
+@Component
+public class ParallelZipWriterFactory {
+    private final ExecutorService compressor;
+    private final int blockSize;
+    private final int blocksInFlight;
+    private final List<String> storedExtensions;
+    private final Clock clock;
+
+    @Autowired
+    public ParallelZipWriterFactory(@Value("${mlaide.zip.compression-threads}") int compressionThreads,
+                                    @Value("${mlaide.zip.block-size}") int blockSize,
+                                    @Value("${mlaide.zip.blocks-in-flight}") int blocksInFlight,
+                                    @Value("${mlaide.zip.stored-extensions}") List<String> storedExtensions,
+                                    Clock clock) {
+        int threads = compressionThreads > 0 ? compressionThreads : Runtime.getRuntime().availableProcessors();
+        this.compressor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("zip-compression-"));
+        this.blockSize = blockSize;
+        this.blocksInFlight = Math.max(blocksInFlight, 1);
+        this.storedExtensions = storedExtensions.stream()
+                .map(extension -> extension.trim().toLowerCase(Locale.ROOT))
+                .collect(toList());
+        this.clock = clock;
+    }
+
+    public ParallelZipWriter create(OutputStream outputStream) {
+        return new ParallelZipWriter(
+                outputStream, compressor, blockSize, blocksInFlight, Deflater.DEFAULT_COMPRESSION, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Decides whether a file is deflated or stored. With {@link ZipCompression#AUTO} files whose content is already
+     * compressed, like models or archives, are stored; deflating them costs CPU but hardly saves any bytes.
+     */
+    public boolean shouldCompress(String fileName, ZipCompression compression) {
+        switch (compression) {
+            case DEFLATED:
+                return true;
+            case STORED:
+                return false;
+            default:
+                String lowerCaseFileName = fileName.toLowerCase(Locale.ROOT);
+                return storedExtensions.stream().noneMatch(lowerCaseFileName::endsWith);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        compressor.shutdownNow();
+    }
+}
@@ -6,6 +6,7 @@ import com.mlaide.webserver.faker.FileHashFaker;
 import com.mlaide.webserver.faker.ProjectFaker;
 import com.mlaide.webserver.model.*;
 import com.mlaide.webserver.service.ArtifactService;
+import com.mlaide.webserver.service.ArtifactZip;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -14,7 +15,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
-import org.mockito.stubbing.VoidAnswer4;
 import org.mockito.stubbing.VoidAnswer5;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,8 +26,8 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-import static com.mlaide.webserver.controller.ArtifactControllerTest.ArtifactServiceDownloadHandler.simulateArtifactDownload;
 import static com.mlaide.webserver.controller.ArtifactControllerTest.ArtifactServiceDownloadHandler.simulateFileDownload;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -43,14 +43,36 @@ class ArtifactControllerTest {
     private String projectKey;
 
     private @Mock ArtifactService artifactService;
+    private @Mock NdjsonSupport ndjsonSupport;
 
     @BeforeEach
     void initialize() {
-        artifactController = new ArtifactController(artifactService);
+        artifactController = new ArtifactController(artifactService, ndjsonSupport);
 
         projectKey = ProjectFaker.newProject().getKey();
     }
 
+    @Nested
+    class StreamArtifactsTest {
+        @Test
+        void should_return_200_with_ndjson_body_of_artifacts_of_artifactService() {
+            // Arrange
+            Stream<Artifact> artifacts = Stream.of(ArtifactFaker.newArtifact());
+            StreamingResponseBody body = outputStream -> { };
+
+            when(artifactService.streamArtifacts(projectKey, null, true, null)).thenReturn(artifacts);
+            when(ndjsonSupport.stream(artifacts)).thenReturn(body);
+
+            // Act
+            ResponseEntity<StreamingResponseBody> result = artifactController.streamArtifacts(projectKey, true, null, null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getHeaders().getContentType()).hasToString("application/x-ndjson");
+            assertThat(result.getBody()).isSameAs(body);
+        }
+    }
+
     @Nested
     class GetArtifactsTest {
         ItemList<Artifact> artifacts = new ItemList<>();
@@ -59,10 +81,10 @@ class ArtifactControllerTest {
         void get_artifacts_by_run_keys_should_return_200_with_artifacts(){
             // Arrange
             List<Integer> runKeys = new ArrayList<>();
-            when(artifactService.getArtifactsByRunKeys(projectKey, runKeys)).thenReturn(artifacts);
+            when(artifactService.getArtifactsByRunKeys(projectKey, runKeys, null)).thenReturn(artifacts);
 
             // Act
-            ResponseEntity<ItemList<Artifact>> result = artifactController.getArtifacts(projectKey, false, runKeys);
+            ResponseEntity<ItemList<Artifact>> result = artifactController.getArtifacts(projectKey, false, runKeys, null, null);
 
             // Assert
             assertThat(result).isNotNull();
@@ -73,10 +95,10 @@ class ArtifactControllerTest {
         @Test
         void get_artifacts_with_is_model_true_should_return_200_with_artifacts(){
             // Arrange
-            when(artifactService.getModels(projectKey)).thenReturn(artifacts);
+            when(artifactService.getModels(projectKey, null)).thenReturn(artifacts);
 
             // Act
-            ResponseEntity<ItemList<Artifact>> result = artifactController.getArtifacts(projectKey, true, null);
+            ResponseEntity<ItemList<Artifact>> result = artifactController.getArtifacts(projectKey, true, null, null, null);
 
             // Assert
             assertThat(result).isNotNull();
@@ -84,13 +106,26 @@ class ArtifactControllerTest {
             assertThat(result.getBody()).isSameAs(artifacts);
         }
 
+        @Test
+        void get_artifacts_with_since_should_return_200_with_changed_artifacts(){
+            // Arrange
+            when(artifactService.getArtifactsChangedSince(projectKey, "42", null)).thenReturn(artifacts);
+
+            // Act
+            ResponseEntity<ItemList<Artifact>> result = artifactController.getArtifacts(projectKey, false, null, "42", null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(artifacts);
+        }
+
         @Test
         void get_artifacts_should_return_200_with_all_runs_of_project(){
             // Arrange
-            when(artifactService.getArtifacts(projectKey)).thenReturn(artifacts);
+            when(artifactService.getArtifacts(projectKey, null)).thenReturn(artifacts);
 
             // Act
-            ResponseEntity<ItemList<Artifact>> result = artifactController.getArtifacts(projectKey, false, null);
+            ResponseEntity<ItemList<Artifact>> result = artifactController.getArtifacts(projectKey, false, null, null, null);
 
             // Assert
             assertThat(result).isNotNull();
@@ -164,6 +199,26 @@ class ArtifactControllerTest {
         }
     }
 
+    @Nested
+    class GetDownstreamRunsTest {
+        @Test
+        void should_return_200_with_page_of_downstream_runs() {
+            // Arrange
+            Artifact artifact = ArtifactFaker.newArtifact();
+            ItemList<DownstreamRun> runs = new ItemList<>(List.of(new DownstreamRun()), "token");
+            when(artifactService.getDownstreamRuns(projectKey, artifact.getName(), artifact.getVersion(), 5, 10, "previous"))
+                    .thenReturn(runs);
+
+            // Act
+            ResponseEntity<ItemList<DownstreamRun>> result = artifactController.getDownstreamRuns(
+                    projectKey, artifact.getName(), artifact.getVersion(), 5, 10, "previous");
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(runs);
+        }
+    }
+
     @Nested
     class DownloadArtifactAsZipTest {
         @Test
@@ -174,12 +229,11 @@ class ArtifactControllerTest {
             artifact.setVersion(3);
 
             byte[] expectedBytes = FileFaker.randomBytes(4);
-            doAnswer(simulateArtifactDownload(expectedBytes))
-                    .when(artifactService)
-                    .downloadArtifact(eq(projectKey), eq(artifact.getName()), eq(artifact.getVersion()), any());
+            when(artifactService.getArtifactZip(projectKey, artifact.getName(), artifact.getVersion(), ZipCompression.AUTO))
+                    .thenReturn(new ArtifactZip(null, out -> out.write(expectedBytes)));
 
             // Act
-            ResponseEntity<StreamingResponseBody> response = artifactController.downloadArtifactAsZip(projectKey, artifact.getName(), artifact.getVersion());
+            ResponseEntity<StreamingResponseBody> response = artifactController.downloadArtifactAsZip(projectKey, artifact.getName(), artifact.getVersion(), null);
 
             // Assert
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -195,6 +249,21 @@ class ArtifactControllerTest {
             response.getBody().writeTo(resultBuffer);
 
             assertThat(resultBuffer.toByteArray()).containsExactly(expectedBytes);
+            assertThat(response.getHeaders().getContentLength()).isEqualTo(-1);
+        }
+
+        @Test
+        void zip_with_known_length_should_set_content_length_in_response_header() {
+            // Arrange
+            when(artifactService.getArtifactZip(projectKey, "my-artifact", 3, ZipCompression.STORED))
+                    .thenReturn(new ArtifactZip(1234L, out -> {}));
+
+            // Act
+            ResponseEntity<StreamingResponseBody> response = artifactController.downloadArtifactAsZip(
+                    projectKey, "my-artifact", 3, ZipCompression.STORED);
+
+            // Assert
+            assertThat(response.getHeaders().getContentLength()).isEqualTo(1234);
         }
     }
 
@@ -267,11 +336,77 @@ class ArtifactControllerTest {
 
             // Assert
             assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
-            verify(artifactService).uploadArtifactFile(eq(projectKey), eq(artifact.getName()), eq(artifact.getVersion()), streamArgumentCaptor.capture(), eq(file.getOriginalFilename()), eq(fileHash));
+            verify(artifactService).uploadArtifactFile(eq(projectKey), eq(artifact.getName()), eq(artifact.getVersion()), streamArgumentCaptor.capture(), eq(file.getOriginalFilename()), eq(fileHash), eq(file.getSize()));
             assertThat(streamArgumentCaptor.getValue()).hasSameContentAs(file.getInputStream());
         }
     }
 
+    @Nested
+    class PostFileContentTest {
+        @Test
+        void should_pass_request_body_to_upload_and_return_no_content() throws IOException {
+            // Arrange
+            Artifact artifact = ArtifactFaker.newArtifact();
+            InputStream content = new ByteArrayInputStream("some xml".getBytes());
+
+            // Act
+            ResponseEntity<Void> result = artifactController.postFileContent(
+                    projectKey, artifact.getName(), artifact.getVersion(), "fileHash", "data/filename.txt", 8L, content);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            verify(artifactService).uploadArtifactFile(
+                    projectKey, artifact.getName(), artifact.getVersion(), content, "data/filename.txt", "fileHash", 8);
+        }
+
+        @Test
+        void missing_content_length_should_upload_content_of_unknown_length() throws IOException {
+            // Arrange
+            Artifact artifact = ArtifactFaker.newArtifact();
+            InputStream content = new ByteArrayInputStream("some xml".getBytes());
+
+            // Act
+            artifactController.postFileContent(
+                    projectKey, artifact.getName(), artifact.getVersion(), "fileHash", "filename.txt", null, content);
+
+            // Assert
+            verify(artifactService).uploadArtifactFile(
+                    projectKey, artifact.getName(), artifact.getVersion(), content, "filename.txt", "fileHash", -1);
+        }
+
+        @Test
+        void content_that_is_not_read_by_upload_should_be_discarded() throws IOException {
+            // Arrange
+            Artifact artifact = ArtifactFaker.newArtifact();
+            InputStream content = new ByteArrayInputStream("some xml".getBytes());
+
+            // Act
+            artifactController.postFileContent(
+                    projectKey, artifact.getName(), artifact.getVersion(), "fileHash", "filename.txt", 8L, content);
+
+            // Assert
+            assertThat(content.available()).isZero();
+        }
+    }
+
+    @Nested
+    class PostFileRefsTest {
+        @Test
+        void should_add_files_and_return_204() {
+            // Arrange
+            Artifact artifact = ArtifactFaker.newArtifact();
+            List<FileHash> fileHashes = List.of(FileHashFaker.newFileHash());
+
+            // Act
+            ResponseEntity<Void> result = artifactController.postFileRefs(
+                    projectKey, artifact.getName(), artifact.getVersion(), fileHashes);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            verify(artifactService).addArtifactFiles(projectKey, artifact.getName(), artifact.getVersion(), fileHashes);
+        }
+    }
+
     @Nested
     class FindArtifactByFileHashesTest {
         @Test
@@ -294,7 +429,6 @@ class ArtifactControllerTest {
     }
 
     public static class ArtifactServiceDownloadHandler implements
-            VoidAnswer4<String, String, Integer, OutputStream>,
             VoidAnswer5<String, String, Integer, String, OutputStream> {
         private final byte[] bytes;
 
@@ -302,22 +436,12 @@ class ArtifactControllerTest {
             this.bytes = bytes;
         }
 
-        @Override
-        public void answer(String projectKey, String name, Integer version, OutputStream stream) throws Throwable {
-            ByteArrayInputStream in = new ByteArrayInputStream(bytes);
-            IOUtils.copy(in, stream);
-        }
-
         @Override
         public void answer(String projectKey, String name, Integer version, String fileId, OutputStream stream) throws Throwable {
             ByteArrayInputStream in = new ByteArrayInputStream(bytes);
             IOUtils.copy(in, stream);
         }
 
-        public static Answer<Void> simulateArtifactDownload(byte[] bytes) {
-            return answerVoid((VoidAnswer4<String, String, Integer, OutputStream>) new ArtifactServiceDownloadHandler(bytes));
-        }
-
         public static Answer<Void> simulateFileDownload(byte[] bytes) {
             return answerVoid((VoidAnswer5<String, String, Integer, String, OutputStream>) new ArtifactServiceDownloadHandler(bytes));
         }
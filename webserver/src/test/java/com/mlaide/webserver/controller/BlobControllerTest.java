@@ -0,0 +1,47 @@
+package com.mlaide.webserver.controller;
+
+import com.mlaide.webserver.model.ItemList;
+import com.mlaide.webserver.service.BlobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlobControllerTest {
+    private BlobController blobController;
+
+    private @Mock BlobService blobService;
+
+    @BeforeEach
+    void initialize() {
+        blobController = new BlobController(blobService);
+    }
+
+    @Nested
+    class FindExistingBlobsTest {
+        @Test
+        void should_return_200_with_existing_hashes() {
+            // Arrange
+            List<String> hashes = List.of("abc", "def");
+            when(blobService.findExistingBlobs("project", hashes)).thenReturn(Set.of("abc"));
+
+            // Act
+            ResponseEntity<ItemList<String>> result = blobController.findExistingBlobs("project", hashes);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody().getItems()).containsExactly("abc");
+        }
+    }
+}
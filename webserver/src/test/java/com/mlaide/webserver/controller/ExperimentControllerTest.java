@@ -15,9 +15,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.json.JsonMergePatch;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static javax.json.Json.createMergePatch;
 import static javax.json.Json.createValue;
@@ -34,33 +36,70 @@ public class ExperimentControllerTest {
     ExperimentService experimentService;
     private @Mock
     PatchSupport patchSupport;
+    private @Mock
+    NdjsonSupport ndjsonSupport;
 
     private Project project;
     private String projectKey;
 
     @BeforeEach
     void initialize() {
-        experimentController = new ExperimentController(experimentService, patchSupport);
+        experimentController = new ExperimentController(experimentService, patchSupport, ndjsonSupport);
         project = ProjectFaker.newProject();
         projectKey = project.getKey();
     }
 
+    @Nested
+    class streamExperiments {
+        @Test
+        void should_return_200_with_ndjson_body_of_experiments_of_experimentService() {
+            // Arrange
+            Stream<Experiment> experiments = Stream.of(ExperimentFaker.newExperiment());
+            StreamingResponseBody body = outputStream -> { };
+
+            when(experimentService.streamExperiments(projectKey, null)).thenReturn(experiments);
+            when(ndjsonSupport.stream(experiments)).thenReturn(body);
+
+            // Act
+            ResponseEntity<StreamingResponseBody> result = experimentController.streamExperiments(projectKey, null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getHeaders().getContentType()).hasToString("application/x-ndjson");
+            assertThat(result.getBody()).isSameAs(body);
+        }
+    }
+
     @Nested
     class getExperiments {
         @Test
         void get_experiments_by_project_key_should_return_all_experiments_of_project() {
             // Arrange
             ItemList<Experiment> experiments = new ItemList<>();
-            when(experimentService.getExperiments(projectKey)).thenReturn(experiments);
+            when(experimentService.getExperiments(projectKey, null)).thenReturn(experiments);
 
             // Act
-            ResponseEntity<ItemList<Experiment>> result = experimentController.getExperiments(projectKey);
+            ResponseEntity<ItemList<Experiment>> result = experimentController.getExperiments(projectKey, null, null);
 
             // Assert
             assertThat(result).isNotNull();
             assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
             assertThat(result.getBody()).isSameAs(experiments);
         }
+
+        @Test
+        void since_is_specified_should_return_changed_experiments_of_project() {
+            // Arrange
+            ItemList<Experiment> experiments = new ItemList<>();
+            when(experimentService.getExperimentsChangedSince(projectKey, "42", null)).thenReturn(experiments);
+
+            // Act
+            ResponseEntity<ItemList<Experiment>> result = experimentController.getExperiments(projectKey, "42", null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(experiments);
+        }
     }
 
     @Nested
@@ -0,0 +1,72 @@
+package com.mlaide.webserver.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mlaide.webserver.model.Experiment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonSupportImplTest {
+    private NdjsonSupportImpl ndjsonSupport;
+
+    @BeforeEach
+    void initialize() {
+        ndjsonSupport = new NdjsonSupportImpl(new ObjectMapper());
+    }
+
+    @Nested
+    class stream {
+        @Test
+        void should_write_every_item_as_single_line() throws IOException {
+            // Arrange
+            Experiment first = new Experiment();
+            first.setKey("first");
+            Experiment second = new Experiment();
+            second.setKey("second");
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            // Act
+            ndjsonSupport.stream(Stream.of(first, second)).writeTo(outputStream);
+
+            // Assert
+            String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n", -1);
+            assertThat(lines).hasSize(3);
+            assertThat(lines[0]).startsWith("{").contains("\"key\":\"first\"");
+            assertThat(lines[1]).startsWith("{").contains("\"key\":\"second\"");
+            assertThat(lines[2]).isEmpty();
+        }
+
+        @Test
+        void should_close_stream_of_items() throws IOException {
+            // Arrange
+            AtomicBoolean closed = new AtomicBoolean(false);
+            Stream<Experiment> items = Stream.of(new Experiment()).onClose(() -> closed.set(true));
+
+            // Act
+            ndjsonSupport.stream(items).writeTo(new ByteArrayOutputStream());
+
+            // Assert
+            assertThat(closed).isTrue();
+        }
+
+        @Test
+        void empty_stream_should_write_nothing() throws IOException {
+            // Arrange
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+            // Act
+            ndjsonSupport.stream(Stream.empty()).writeTo(outputStream);
+
+            // Assert
+            assertThat(outputStream.size()).isZero();
+        }
+    }
+}
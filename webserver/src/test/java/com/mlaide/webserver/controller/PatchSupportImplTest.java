@@ -2,10 +2,8 @@ package com.mlaide.webserver.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mlaide.webserver.faker.ExperimentFaker;
-import com.mlaide.webserver.faker.RunFaker;
 import com.mlaide.webserver.model.*;
 import com.mlaide.webserver.service.mapper.ExperimentMapper;
-import com.mlaide.webserver.service.mapper.RunMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -36,75 +34,17 @@ import static org.mockito.Mockito.*;
 public class PatchSupportImplTest {
     private PatchSupportImpl patchSupport;
 
-    private @Mock RunMapper runMapper;
     private @Mock ExperimentMapper experimentMapper;
     private @Mock ObjectMapper objectMapper;
     private @Mock Validator validator;
 
     @BeforeEach
     void initialize() {
-        patchSupport = new PatchSupportImpl(runMapper, experimentMapper, objectMapper, validator);
+        patchSupport = new PatchSupportImpl(experimentMapper, objectMapper, validator);
     }
 
     @Nested
     class patch {
-        @Test
-        void patch_run_should_merge_diff_into_run() {
-            // Arrange
-            JsonMergePatch diff = createMergePatch(createObjectBuilder().add("name", "new-name").build());
-
-            Run target = RunFaker.newRun();
-            RunPatch targetPatch = new RunPatch();
-            when(runMapper.mapRunToRunPatch(target)).thenReturn(targetPatch);
-
-            JsonObject targetJson = createObjectBuilder().add("name", "old-name").add("note", "any-note").build();
-            when(objectMapper.convertValue(targetPatch, JsonValue.class)).thenReturn(targetJson);
-
-            when(objectMapper.convertValue(any(), eq(RunPatch.class))).thenReturn(targetPatch);
-
-            when(validator.validate(target)).thenReturn(Collections.emptySet());
-            // Act
-            patchSupport.patch(target, diff);
-
-            // Assert
-            verify(runMapper).mapRunToRunPatch(target);
-            verify(runMapper).updateRun(target, targetPatch);
-
-            ArgumentCaptor<JsonValue> jsonValueArgumentCaptor = ArgumentCaptor.forClass(JsonValue.class);
-            verify(objectMapper).convertValue(jsonValueArgumentCaptor.capture(), eq(RunPatch.class));
-            assertThat(jsonValueArgumentCaptor.getValue().asJsonObject()).contains(
-                    entry("name", Json.createValue("new-name")),
-                    entry("note", Json.createValue("any-note")));
-
-            verify(validator).validate(target);
-        }
-
-        @Test
-        void patch_run_should_throw_ConstraintViolationException_on_invalid_merge_diff() {
-            // Arrange
-            JsonMergePatch diff = createMergePatch(createObjectBuilder().add("name", "new-name").build());
-
-            Run target = RunFaker.newRun();
-            RunPatch targetPatch = new RunPatch();
-            when(runMapper.mapRunToRunPatch(target)).thenReturn(targetPatch);
-
-            JsonObject targetJson = createObjectBuilder().add("name", "old-name").add("note", "any-note").build();
-            when(objectMapper.convertValue(targetPatch, JsonValue.class)).thenReturn(targetJson);
-
-            when(objectMapper.convertValue(any(), eq(RunPatch.class))).thenReturn(targetPatch);
-
-            when(validator.validate(target)).thenThrow(ConstraintViolationException.class);
-
-            // Act + Assert
-            assertThatThrownBy(() -> patchSupport.patch(target, diff))
-                    .isInstanceOf(ConstraintViolationException.class);
-            verify(runMapper).mapRunToRunPatch(target);
-            verify(runMapper).updateRun(target, targetPatch);
-            ArgumentCaptor<JsonValue> jsonValueArgumentCaptor = ArgumentCaptor.forClass(JsonValue.class);
-            verify(objectMapper).convertValue(jsonValueArgumentCaptor.capture(), eq(RunPatch.class));
-            verify(validator).validate(target);
-        }
-
         @Test
         void patch_experiment_should_merge_diff_into_experiment() {
             // Arrange
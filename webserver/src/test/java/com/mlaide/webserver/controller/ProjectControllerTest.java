@@ -6,6 +6,7 @@ import com.mlaide.webserver.model.ItemList;
 import com.mlaide.webserver.model.Project;
 import com.mlaide.webserver.model.ProjectMember;
 import com.mlaide.webserver.service.NotFoundException;
+import com.mlaide.webserver.service.ProjectEventService;
 import com.mlaide.webserver.service.ProjectService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -15,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,10 +36,12 @@ public class ProjectControllerTest {
 
     private @Mock
     ProjectService projectService;
+    private @Mock
+    ProjectEventService projectEventService;
 
     @BeforeEach
     void initialize() {
-        projectController = new ProjectController(projectService);
+        projectController = new ProjectController(projectService, projectEventService);
 
         project = ProjectFaker.newProject();
         projectKey = project.getKey();
@@ -61,6 +65,23 @@ public class ProjectControllerTest {
         }
     }
 
+    @Nested
+    class getProjectEvents {
+        @Test
+        void should_return_emitter_of_subscription() {
+            // Arrange
+            SseEmitter emitter = new SseEmitter();
+            List<Integer> runKeys = List.of(1, 2);
+            when(projectEventService.subscribe(projectKey, "exp", runKeys)).thenReturn(emitter);
+
+            // Act
+            SseEmitter result = projectController.getProjectEvents(projectKey, "exp", runKeys);
+
+            // Assert
+            assertThat(result).isSameAs(emitter);
+        }
+    }
+
     @Nested
     class getProject {
         @Test
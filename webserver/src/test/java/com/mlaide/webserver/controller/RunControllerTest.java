@@ -6,6 +6,8 @@ import com.mlaide.webserver.faker.ProjectFaker;
 import com.mlaide.webserver.faker.RunFaker;
 import com.mlaide.webserver.model.*;
 import com.mlaide.webserver.service.ExperimentService;
+import com.mlaide.webserver.service.InvalidInputException;
+import com.mlaide.webserver.service.MetricService;
 import com.mlaide.webserver.service.RandomGeneratorService;
 import com.mlaide.webserver.service.RunService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,18 +16,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.json.JsonMergePatch;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.*;
+import java.util.stream.Stream;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
-import static javax.json.Json.createMergePatch;
-import static javax.json.Json.createValue;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,13 +42,14 @@ class RunControllerTest {
 
     private @Mock ExperimentService experimentService;
     private @Mock RunService runService;
-    private @Mock PatchSupport patchSupport;
+    private @Mock MetricService metricService;
+    private @Mock NdjsonSupport ndjsonSupport;
 
     private String projectKey;
 
     @BeforeEach
     void initialize() {
-        runController = new RunController(experimentService, runService, patchSupport);
+        runController = new RunController(experimentService, runService, metricService, ndjsonSupport);
 
         projectKey = ProjectFaker.validProjectKey();
     }
@@ -52,10 +61,10 @@ class RunControllerTest {
             // Arrange
             ItemList<Run> runs = new ItemList<>();
 
-            when(runService.getRuns(projectKey)).thenReturn(runs);
+            when(runService.getRuns(projectKey, null)).thenReturn(runs);
 
             // Act
-            ResponseEntity<ItemList<Run>> result = runController.getRuns(projectKey, null, null);
+            ResponseEntity<ItemList<Run>> result = runController.getRuns(projectKey, null, null, null, null, null, null, null, null, null);
 
             // Assert
             assertThat(result).isNotNull();
@@ -69,10 +78,10 @@ class RunControllerTest {
             ItemList<Run> runs = new ItemList<>();
             List<Integer> runKeys = new ArrayList<>();
 
-            when(runService.getRunsByKeys(projectKey, runKeys)).thenReturn(runs);
+            when(runService.getRunsByKeys(projectKey, runKeys, null)).thenReturn(runs);
 
             // Act
-            ResponseEntity<ItemList<Run>> result = runController.getRuns(projectKey, runKeys, null);
+            ResponseEntity<ItemList<Run>> result = runController.getRuns(projectKey, runKeys, null, null, null, null, null, null, null, null);
 
             // Assert
             assertThat(result).isNotNull();
@@ -86,10 +95,10 @@ class RunControllerTest {
             ItemList<Run> runs = new ItemList<>();
             String experimentKey = UUID.randomUUID().toString();
 
-            when(runService.getRunsOfExperiment(projectKey, experimentKey)).thenReturn(runs);
+            when(runService.getRunsOfExperiment(projectKey, experimentKey, null)).thenReturn(runs);
 
             // Act
-            ResponseEntity<ItemList<Run>> result = runController.getRuns(projectKey, null, experimentKey);
+            ResponseEntity<ItemList<Run>> result = runController.getRuns(projectKey, null, experimentKey, null, null, null, null, null, null, null);
 
             // Assert
             assertThat(result).isNotNull();
@@ -98,6 +107,132 @@ class RunControllerTest {
         }
     }
 
+    @Nested
+    class getRuns_paginated {
+        @Test
+        void page_size_is_specified_should_return_page_of_runService() {
+            // Arrange
+            ItemList<Run> runs = new ItemList<>();
+            String experimentKey = UUID.randomUUID().toString();
+
+            when(runService.getRunPage(projectKey, experimentKey, null, "createdAt", Sort.Direction.ASC, 50, "token", null))
+                    .thenReturn(runs);
+
+            // Act
+            ResponseEntity<ItemList<Run>> result = runController.getRuns(
+                    projectKey, null, experimentKey, null, "createdAt", Sort.Direction.ASC, 50, "token", null, null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(runs);
+        }
+
+        @Test
+        void filter_is_specified_should_return_page_of_runService() {
+            // Arrange
+            ItemList<Run> runs = new ItemList<>();
+            String filter = "metrics.acc > 0.9";
+
+            when(runService.getRunPage(projectKey, null, filter, null, null, null, null, null)).thenReturn(runs);
+
+            // Act
+            ResponseEntity<ItemList<Run>> result = runController.getRuns(
+                    projectKey, null, null, filter, null, null, null, null, null, null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(runs);
+        }
+    }
+
+    @Nested
+    class getRuns_changedSince {
+        @Test
+        void since_is_specified_should_return_changed_runs_of_runService() {
+            // Arrange
+            ItemList<Run> runs = new ItemList<>();
+            when(runService.getRunsChangedSince(projectKey, "42", null)).thenReturn(runs);
+
+            // Act
+            ResponseEntity<ItemList<Run>> result = runController.getRuns(
+                    projectKey, null, null, null, null, null, null, null, "42", null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(runs);
+        }
+    }
+
+    @Nested
+    class streamRuns {
+        @Test
+        void should_return_200_with_ndjson_body_of_runs_of_runService() {
+            // Arrange
+            String experimentKey = UUID.randomUUID().toString();
+            Stream<Run> runs = Stream.of(RunFaker.newRun());
+            StreamingResponseBody body = outputStream -> { };
+
+            when(runService.streamRuns(projectKey, null, experimentKey, "metrics.acc > 0.5", "metrics.acc", Sort.Direction.ASC, null))
+                    .thenReturn(runs);
+            when(ndjsonSupport.stream(runs)).thenReturn(body);
+
+            // Act
+            ResponseEntity<StreamingResponseBody> result = runController.streamRuns(
+                    projectKey, null, experimentKey, "metrics.acc > 0.5", "metrics.acc", Sort.Direction.ASC, null, null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getHeaders().getContentType()).hasToString("application/x-ndjson");
+            assertThat(result.getBody()).isSameAs(body);
+        }
+
+        @Test
+        void sync_token_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runController.streamRuns(projectKey, null, null, null, null, null, "42", null))
+                    .isInstanceOf(InvalidInputException.class);
+            verifyNoInteractions(runService);
+        }
+    }
+
+    @Nested
+    class getRunComparison {
+        @Test
+        void should_return_200_with_comparison_of_runService() {
+            // Arrange
+            List<Integer> runKeys = asList(1, 2);
+            List<String> metricKeys = singletonList("acc");
+            RunComparison comparison = new RunComparison();
+
+            when(runService.compareRuns(projectKey, runKeys, metricKeys, null)).thenReturn(comparison);
+
+            // Act
+            ResponseEntity<RunComparison> result = runController.getRunComparison(projectKey, runKeys, metricKeys, null);
+
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(comparison);
+        }
+    }
+
+    @Nested
+    class postRuns {
+        @Test
+        void should_add_runs_of_batch_and_return_200_with_added_runs() {
+            // Arrange
+            RunBatch batch = new RunBatch();
+            batch.setRuns(List.of(RunFaker.newRun()));
+            List<Run> addedRuns = List.of(RunFaker.newRun());
+            when(runService.addRuns(projectKey, batch)).thenReturn(addedRuns);
+
+            // Act
+            ResponseEntity<ItemList<Run>> response = runController.postRuns(projectKey, batch);
+
+            // Assert
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().getItems()).isSameAs(addedRuns);
+        }
+    }
+
     @Nested
     class postRun {
         Run runToAdd;
@@ -169,39 +304,31 @@ class RunControllerTest {
     @Nested
     class patchRun {
         @Test
-        void specify_some_values_of_run_to_patch_should_merge_values_into_existing_run_and_update_run() {
+        void specify_some_values_of_run_to_patch_should_pass_patch_to_service_without_reading_run() {
             // Arrange
-            Run existingRun = RunFaker.newRun();
-
-            JsonMergePatch diff = createMergePatch(createValue("{\"name\":\"new-name\"}"));
-
-            when(runService.getRun(projectKey, existingRun.getKey())).thenReturn(existingRun);
+            Map<String, Object> diff = Map.of("name", "new-name");
 
             // Act
-            ResponseEntity<Void> result = runController.patchRun(projectKey, existingRun.getKey(), diff);
+            ResponseEntity<Void> result = runController.patchRun(projectKey, 1, diff);
 
             // Assert
             assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 
-            verify(patchSupport).patch(existingRun, diff);
-            verify(runService).updateRun(projectKey, existingRun);
+            verify(runService).patchRun(projectKey, 1, diff);
+            verify(runService, never()).getRun(any(), any());
         }
     }
 
     @Nested
     class patchRunParameters {
-
-
         @Test
-        void run_has_no_parameters_defined_yet_should_set_new_parameters_into_run() {
+        void default_should_merge_parameters_into_existing_run() {
             // Arrange
             Run existingRun = RunFaker.newRun();
-            existingRun.setParameters(null);
 
             Map<String, Object> newParams = new HashMap<>();
-            newParams.put("param1", "value1");
-
-            when(runService.getRun(projectKey, existingRun.getKey())).thenReturn(existingRun);
+            newParams.put("param1", "new-value");
+            newParams.put("new-param", "value");
 
             // Act
             ResponseEntity<Void> result = runController.patchRunParameters(projectKey, existingRun.getKey(), newParams);
@@ -209,94 +336,82 @@ class RunControllerTest {
             // Assert
             assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 
-            verify(runService).updateRun(projectKey, existingRun);
-
-            assertThat(existingRun.getParameters()).isSameAs(newParams);
+            verify(runService).mergeParameters(projectKey, existingRun.getKey(), newParams);
         }
+    }
 
+    @Nested
+    class patchRunMetrics {
         @Test
-        void run_has_already_parameters_defined_should_merge_parameters_into_existing() {
+        void default_should_merge_metrics_into_existing_run() {
             // Arrange
-            Map<String, Object> existingParams = new HashMap<>();
-            existingParams.put("param1", "value1");
-            existingParams.put("param2", "value2");
-
             Run existingRun = RunFaker.newRun();
-            existingRun.setParameters(existingParams);
-
-            Map<String, Object> newParams = new HashMap<>();
-            newParams.put("param1", "new-value");
-            newParams.put("new-param", "value");
 
-            when(runService.getRun(projectKey, existingRun.getKey())).thenReturn(existingRun);
+            Map<String, Object> newMetrics = new HashMap<>();
+            newMetrics.put("metric1", "new-value");
+            newMetrics.put("new-metric", "value");
 
             // Act
-            ResponseEntity<Void> result = runController.patchRunParameters(projectKey, existingRun.getKey(), newParams);
+            ResponseEntity<Void> result = runController.patchRunMetrics(projectKey, existingRun.getKey(), newMetrics);
 
             // Assert
             assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
 
-            verify(runService).updateRun(projectKey, existingRun);
-
-            assertThat(existingRun.getParameters()).contains(
-                    entry("param1", "new-value"),
-                    entry("param2", "value2"),
-                    entry("new-param", "value"));
+            verify(runService).mergeMetrics(projectKey, existingRun.getKey(), newMetrics);
         }
     }
 
     @Nested
-    class patchRunMetrics {
+    class postMetricPoints {
         @Test
-        void run_has_no_metrics_defined_yet_should_set_new_metrics_into_run() {
+        void default_should_append_points_and_return_204() {
             // Arrange
             Run existingRun = RunFaker.newRun();
-            existingRun.setMetrics(null);
-
-            Map<String, Object> newMetrics = new HashMap<>();
-            newMetrics.put("metric1", "value1");
-
-            when(runService.getRun(projectKey, existingRun.getKey())).thenReturn(existingRun);
+            List<MetricPoint> points = singletonList(new MetricPoint());
 
             // Act
-            ResponseEntity<Void> result = runController.patchRunMetrics(projectKey, existingRun.getKey(), newMetrics);
+            ResponseEntity<Void> result = runController.postMetricPoints(projectKey, existingRun.getKey(), "loss", points);
 
             // Assert
             assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            verify(metricService).appendMetricPoints(projectKey, existingRun.getKey(), "loss", points);
+        }
+    }
+
+    @Nested
+    class postMetricPointsOfRuns {
+        @Test
+        void default_should_ingest_points_and_return_204() throws Exception {
+            // Arrange
+            InputStream ndjson = new ByteArrayInputStream(new byte[0]);
 
-            verify(runService).updateRun(projectKey, existingRun);
+            // Act
+            ResponseEntity<Void> result = runController.postMetricPointsOfRuns(projectKey, ndjson);
 
-            assertThat(existingRun.getMetrics()).isSameAs(newMetrics);
+            // Assert
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            verify(metricService).ingestMetricPoints(projectKey, ndjson);
         }
+    }
 
+    @Nested
+    class getMetricPoints {
         @Test
-        void run_has_already_metrics_defined_should_merge_metrics_into_existing() {
+        void default_should_return_200_with_points_of_metricService() {
             // Arrange
-            Map<String, Object> existingMetrics = new HashMap<>();
-            existingMetrics.put("metric1", "value1");
-            existingMetrics.put("metric2", "value2");
-
             Run existingRun = RunFaker.newRun();
-            existingRun.setMetrics(existingMetrics);
-
-            Map<String, Object> newMetrics = new HashMap<>();
-            newMetrics.put("metric1", "new-value");
-            newMetrics.put("new-metric", "value");
+            ItemList<MetricPoint> points = new ItemList<>();
 
-            when(runService.getRun(projectKey, existingRun.getKey())).thenReturn(existingRun);
+            when(metricService.getMetricPoints(projectKey, existingRun.getKey(), "loss", 10L, 20L, 100, MetricSampling.MIN_MAX))
+                    .thenReturn(points);
 
             // Act
-            ResponseEntity<Void> result = runController.patchRunMetrics(projectKey, existingRun.getKey(), newMetrics);
+            ResponseEntity<ItemList<MetricPoint>> result = runController.getMetricPoints(
+                    projectKey, existingRun.getKey(), "loss", 10L, 20L, 100, MetricSampling.MIN_MAX);
 
             // Assert
-            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
-
-            verify(runService).updateRun(projectKey, existingRun);
-
-            assertThat(existingRun.getMetrics()).contains(
-                    entry("metric1", "new-value"),
-                    entry("metric2", "value2"),
-                    entry("new-metric", "value"));
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isSameAs(points);
         }
     }
 
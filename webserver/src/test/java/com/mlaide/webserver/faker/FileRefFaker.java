@@ -9,6 +9,7 @@ public class FileRefFaker {
     public static FileRefEntity newFileRefEntity() {
         var fileRefEntity = new FileRefEntity();
 
+        fileRefEntity.setFileId(faker.random().hex());
         fileRefEntity.setFileName(FakerUtils.randomFileName());
         fileRefEntity.setHash(faker.internet().uuid());
         fileRefEntity.setInternalFileName(FakerUtils.randomFileName());
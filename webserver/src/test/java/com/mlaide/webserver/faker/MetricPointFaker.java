@@ -0,0 +1,26 @@
+package com.mlaide.webserver.faker;
+
+import com.github.javafaker.Faker;
+import com.mlaide.webserver.model.MetricPoint;
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+
+public class MetricPointFaker {
+    private static final Faker faker = new Faker();
+
+    public static MetricPoint newMetricPoint() {
+        var metricPoint = new MetricPoint();
+        metricPoint.setStep((long) faker.random().nextInt(100000));
+        metricPoint.setTimestamp(FakerUtils.pastDate());
+        metricPoint.setValue(faker.random().nextDouble());
+
+        return metricPoint;
+    }
+
+    public static MetricPointEntity newMetricPointEntity(long step) {
+        return MetricPointEntity.builder()
+                .step(step)
+                .timestamp(FakerUtils.pastDate())
+                .value(faker.random().nextDouble())
+                .build();
+    }
+}
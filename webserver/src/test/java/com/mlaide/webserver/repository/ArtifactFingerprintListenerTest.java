@@ -0,0 +1,27 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.FileRefEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactFingerprintListenerTest {
+    private final ArtifactFingerprintListener listener = new ArtifactFingerprintListener();
+
+    @Test
+    void artifact_should_be_stamped_with_fingerprint_of_its_files() {
+        // Arrange
+        ArtifactEntity artifact = new ArtifactEntity();
+        artifact.setFiles(List.of(FileRefEntity.builder().fileName("model.pkl").hash("abc").build()));
+
+        // Act
+        listener.onBeforeConvert(new BeforeConvertEvent<>(artifact, "artifacts"));
+
+        // Assert
+        assertThat(artifact.getFingerprint()).isEqualTo(ArtifactFingerprint.ofFiles(artifact.getFiles()));
+    }
+}
@@ -0,0 +1,80 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.FileRefEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactFingerprintTest {
+    @Test
+    void same_files_in_other_order_and_case_should_have_same_fingerprint() {
+        // Arrange
+        List<FileRefEntity> files = List.of(
+                FileRefEntity.builder().fileName("model.pkl").hash("ABC").build(),
+                FileRefEntity.builder().fileName("data/train.csv").hash("def").build());
+        var fileHashes = List.of(
+                new SimpleImmutableEntry<>("Data/Train.csv", "DEF"),
+                new SimpleImmutableEntry<>("model.pkl", "abc"));
+
+        // Act + Assert
+        assertThat(ArtifactFingerprint.of(fileHashes)).isEqualTo(ArtifactFingerprint.ofFiles(files));
+    }
+
+    @Test
+    void other_hash_or_missing_file_should_change_fingerprint() {
+        // Arrange
+        var fileHashes = List.of(
+                new SimpleImmutableEntry<>("a", "1"),
+                new SimpleImmutableEntry<>("b", "2"));
+        var otherHash = List.of(
+                new SimpleImmutableEntry<>("a", "1"),
+                new SimpleImmutableEntry<>("b", "3"));
+        var missingFile = List.of(
+                new SimpleImmutableEntry<>("a", "1"));
+
+        // Act
+        String fingerprint = ArtifactFingerprint.of(fileHashes);
+
+        // Assert
+        assertThat(fingerprint).isNotEqualTo(ArtifactFingerprint.of(otherHash));
+        assertThat(fingerprint).isNotEqualTo(ArtifactFingerprint.of(missingFile));
+    }
+
+    @Test
+    void no_files_should_have_fingerprint_of_empty_list() {
+        // Act + Assert
+        assertThat(ArtifactFingerprint.ofFiles(null))
+                .isEqualTo(ArtifactFingerprint.of(emptyList()))
+                .hasSize(64);
+    }
+
+    @Test
+    void files_whose_names_differ_in_case_should_have_different_content_fingerprint() {
+        // Arrange
+        List<FileRefEntity> files = List.of(FileRefEntity.builder().fileName("Model.pkl").hash("abc").size(3L).build());
+        List<FileRefEntity> otherCase = List.of(FileRefEntity.builder().fileName("model.pkl").hash("ABC").size(3L).build());
+
+        // Act + Assert
+        assertThat(ArtifactFingerprint.ofFiles(files)).isEqualTo(ArtifactFingerprint.ofFiles(otherCase));
+        assertThat(ArtifactFingerprint.ofContent(files)).isNotEqualTo(ArtifactFingerprint.ofContent(otherCase));
+    }
+
+    @Test
+    void other_order_or_size_should_change_content_fingerprint() {
+        // Arrange
+        FileRefEntity a = FileRefEntity.builder().fileName("a").hash("1").size(1L).build();
+        FileRefEntity b = FileRefEntity.builder().fileName("b").hash("2").size(2L).build();
+        FileRefEntity resizedB = FileRefEntity.builder().fileName("b").hash("2").size(3L).build();
+
+        // Act
+        String fingerprint = ArtifactFingerprint.ofContent(List.of(a, b));
+
+        // Assert
+        assertThat(fingerprint).isNotEqualTo(ArtifactFingerprint.ofContent(List.of(b, a)));
+        assertThat(fingerprint).isNotEqualTo(ArtifactFingerprint.ofContent(List.of(a, resizedB)));
+    }
+}
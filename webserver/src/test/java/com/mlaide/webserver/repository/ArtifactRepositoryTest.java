@@ -7,6 +7,7 @@ import com.mlaide.webserver.faker.RunRefFaker;
 import com.mlaide.webserver.integration.MongoDB;
 import com.mlaide.webserver.model.Stage;
 import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
 import com.mlaide.webserver.repository.entity.ModelEntity;
 import com.mlaide.webserver.repository.entity.RunRefEntity;
 import org.bson.Document;
@@ -21,6 +22,7 @@ import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
 import java.util.List;
 
 import static java.util.Arrays.asList;
@@ -81,6 +83,45 @@ class ArtifactRepositoryTest {
         }
     }
 
+    @Nested
+    class findArtifactVersions {
+        @Test
+        void should_return_latest_versions_and_only_requested_versions_of_referenced_artifacts() {
+            // Arrange
+            String projectKey = ProjectFaker.newProject().getKey();
+            String anotherProjectKey = ProjectFaker.newProject().getKey();
+
+            mongo.insertAll(asList(
+                    createArtifactEntity(projectKey, "model", 1),
+                    createArtifactEntity(projectKey, "model", 2),
+                    createArtifactEntity(projectKey, "data", 1),
+                    createArtifactEntity(projectKey, "data", 2),
+                    createArtifactEntity(projectKey, "unrelated", 1),
+                    createArtifactEntity(anotherProjectKey, "model", 5)));
+            var target = new ExtendedArtifactQueriesImpl(
+                    mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)));
+
+            // Act
+            List<ArtifactVersions> result = target.findArtifactVersions(projectKey, asList(
+                    new ArtifactRefEntity("model", null),
+                    new ArtifactRefEntity("data", 1),
+                    new ArtifactRefEntity("data", 3),
+                    new ArtifactRefEntity("missing", null)));
+
+            // Assert
+            assertThat(result).hasSize(2);
+            assertThat(result).anySatisfy(versions -> {
+                assertThat(versions.getName()).isEqualTo("model");
+                assertThat(versions.getLatestVersion()).isEqualTo(2);
+                assertThat(versions.getVersions()).isEmpty();
+            });
+            assertThat(result).anySatisfy(versions -> {
+                assertThat(versions.getName()).isEqualTo("data");
+                assertThat(versions.getVersions()).containsExactly(1);
+            });
+        }
+    }
+
     @Nested
     class findFirstByProjectKeyAndNameAndModelStageOrderByVersionDesc {
         @Test
@@ -0,0 +1,72 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ExperimentEntity;
+import com.mlaide.webserver.repository.entity.ProjectEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeSequenceListenerTest {
+    private @Mock CounterRepository counterRepository;
+
+    private ChangeSequenceListener listener;
+
+    @BeforeEach
+    void initialize() {
+        listener = new ChangeSequenceListener(counterRepository);
+    }
+
+    @Test
+    void change_tracked_entity_should_be_stamped_with_next_change_sequence_of_project() {
+        // Arrange
+        ExperimentEntity experiment = new ExperimentEntity();
+        experiment.setProjectKey("project");
+        when(counterRepository.getNextChangeSequence("project")).thenReturn(new ChangeStamp("project", 7, 1));
+
+        // Act
+        listener.onBeforeConvert(new BeforeConvertEvent<>(experiment, "experiments"));
+
+        // Assert
+        assertThat(experiment.getChangeSequence()).isEqualTo(7);
+    }
+
+    @Test
+    void saved_change_tracked_entity_should_release_its_change_sequence() {
+        // Arrange
+        ExperimentEntity experiment = new ExperimentEntity();
+        experiment.setProjectKey("project");
+        experiment.setChangeSequence(7);
+
+        // Act
+        listener.onAfterSave(new AfterSaveEvent<>(experiment, new Document(), "experiments"));
+
+        // Assert
+        verify(counterRepository).releaseChangeSequences(
+                argThat(changeStamp -> changeStamp.getProjectKey().equals("project")
+                        && changeStamp.getSequence() == 7
+                        && changeStamp.getCount() == 1),
+                eq("experiments"));
+    }
+
+    @Test
+    void other_entity_should_not_be_stamped() {
+        // Act
+        listener.onBeforeConvert(new BeforeConvertEvent<>(new ProjectEntity(), "projects"));
+
+        // Assert
+        verifyNoInteractions(counterRepository);
+    }
+}
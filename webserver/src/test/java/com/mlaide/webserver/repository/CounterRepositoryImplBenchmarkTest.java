@@ -0,0 +1,87 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.integration.MongoDB;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the throughput of the counter under contention: many workers ask for keys of the same sequence, like
+ * during a sweep that creates a lot of runs in one project. The timings are only logged; the test fails only if a
+ * key is handed out twice.
+ */
+@SpringBootTest
+@Testcontainers
+class CounterRepositoryImplBenchmarkTest {
+    private static final int WORKERS = 64;
+    private static final int KEYS_PER_WORKER = 200;
+
+    private final Logger logger = LoggerFactory.getLogger(CounterRepositoryImplBenchmarkTest.class);
+
+    @Container
+    private static final MongoDB mongoDB = new MongoDB();
+
+    @DynamicPropertySource
+    public static void mongoDBProperties(DynamicPropertyRegistry registry) {
+        mongoDB.updateSpringProperties(registry);
+    }
+
+    @Autowired
+    public MongoTemplate mongo;
+
+    @Test
+    void increment_per_value_and_block_reservation_should_hand_out_unique_keys() throws InterruptedException {
+        long incrementPerValue = measure(new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)));
+        long blockReservation = measure(new CounterRepositoryImpl(mongo, 100, Duration.ofMinutes(1)));
+
+        logger.info("{} keys from {} workers: increment per value {} ms, block reservation {} ms",
+                WORKERS * KEYS_PER_WORKER, WORKERS, incrementPerValue, blockReservation);
+    }
+
+    private long measure(CounterRepository target) throws InterruptedException {
+        String sequenceName = UUID.randomUUID().toString();
+        Set<Integer> keys = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+
+        for (int i = 0; i < WORKERS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int k = 0; k < KEYS_PER_WORKER; k++) {
+                        keys.add(target.getNextSequenceValue(sequenceName));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        assertThat(keys).hasSize(WORKERS * KEYS_PER_WORKER);
+        return elapsed;
+    }
+}
@@ -0,0 +1,313 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.CounterEntity;
+import com.mlaide.webserver.repository.entity.CounterEntity.PendingChanges;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CounterRepositoryImplTest {
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+    private @Mock MongoTemplate mongoTemplate;
+
+    @Nested
+    class constructor {
+        @Test
+        void block_size_less_than_1_should_throw_IllegalArgumentException() {
+            assertThatThrownBy(() -> new CounterRepositoryImpl(mongoTemplate, 0, TIMEOUT))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void should_not_join_transaction_of_caller() {
+        Transactional transactional = CounterRepositoryImpl.class.getAnnotation(Transactional.class);
+
+        assertThat(transactional).isNotNull();
+        assertThat(transactional.propagation()).isEqualTo(Propagation.NOT_SUPPORTED);
+    }
+
+    @Nested
+    class getNextSequenceValue {
+        @Test
+        void block_size_1_should_increment_counter_for_every_value() {
+            // Arrange
+            AtomicInteger counter = new AtomicInteger();
+            simulateCounter(counter);
+            var target = new CounterRepositoryImpl(mongoTemplate, 1, TIMEOUT);
+
+            // Act
+            int first = target.getNextSequenceValue("seq");
+            int second = target.getNextSequenceValue("seq");
+
+            // Assert
+            assertThat(List.of(first, second)).containsExactly(1, 2);
+            verify(mongoTemplate, times(2))
+                    .findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(CounterEntity.class));
+        }
+
+        @Test
+        void block_size_greater_than_1_should_hand_out_values_of_reserved_block() {
+            // Arrange
+            AtomicInteger counter = new AtomicInteger();
+            simulateCounter(counter);
+            var target = new CounterRepositoryImpl(mongoTemplate, 3, TIMEOUT);
+
+            // Act
+            int first = target.getNextSequenceValue("seq");
+            int second = target.getNextSequenceValue("seq");
+            int third = target.getNextSequenceValue("seq");
+            // Another node reserves the next block
+            counter.addAndGet(3);
+            int fourth = target.getNextSequenceValue("seq");
+
+            // Assert
+            assertThat(List.of(first, second, third, fourth)).containsExactly(1, 2, 3, 7);
+            verify(mongoTemplate, times(2))
+                    .findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(CounterEntity.class));
+        }
+
+        @Test
+        void concurrent_calls_should_return_unique_values() throws InterruptedException {
+            // Arrange
+            AtomicInteger counter = new AtomicInteger();
+            simulateCounter(counter);
+            var target = new CounterRepositoryImpl(mongoTemplate, 10, TIMEOUT);
+            Set<Integer> values = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+
+            // Act
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(() -> values.add(target.getNextSequenceValue("seq")));
+            }
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            // Assert
+            assertThat(values).hasSize(1000);
+            assertThat(counter.get()).isEqualTo(1000);
+        }
+    }
+
+    @Nested
+    class reserveSequenceValues {
+        @Test
+        void should_reserve_range_with_one_increment_and_return_first_value() {
+            // Arrange
+            AtomicInteger counter = new AtomicInteger(5);
+            simulateCounter(counter);
+            var target = new CounterRepositoryImpl(mongoTemplate, 10, TIMEOUT);
+
+            // Act
+            int first = target.reserveSequenceValues("seq", 100);
+
+            // Assert
+            assertThat(first).isEqualTo(6);
+            assertThat(counter.get()).isEqualTo(105);
+        }
+    }
+
+    @Nested
+    class getNextChangeSequence {
+        @Test
+        void should_increment_counter_regardless_of_block_size() {
+            // Arrange
+            AtomicInteger counter = new AtomicInteger();
+            simulateCounter(counter);
+            var target = new CounterRepositoryImpl(mongoTemplate, 10, TIMEOUT);
+
+            // Act
+            target.getNextChangeSequence("project");
+            target.getNextChangeSequence("project");
+
+            // Assert
+            assertThat(counter.get()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class reserveChangeSequences {
+        @Test
+        void should_return_first_value_and_record_range_as_pending() {
+            // Arrange
+            AtomicInteger counter = new AtomicInteger(5);
+            simulateCounter(counter);
+            var target = new CounterRepositoryImpl(mongoTemplate, 10, TIMEOUT);
+
+            // Act
+            ChangeStamp stamp = target.reserveChangeSequences("project", 3);
+
+            // Assert
+            assertThat(stamp.getProjectKey()).isEqualTo("project");
+            assertThat(stamp.getSequence()).isEqualTo(6);
+            assertThat(stamp.getCount()).isEqualTo(3);
+            verify(mongoTemplate).findAndModify(
+                    any(Query.class),
+                    argThat(update -> setStage(update).containsKey("pendingChanges")),
+                    any(FindAndModifyOptions.class),
+                    eq(CounterEntity.class));
+        }
+    }
+
+    @Nested
+    class releaseChangeSequences {
+        @Test
+        void pending_reservation_should_be_removed() {
+            // Arrange
+            when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CounterEntity.class)))
+                    .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+            var target = new CounterRepositoryImpl(mongoTemplate, 1, TIMEOUT);
+
+            // Act
+            target.releaseChangeSequences(new ChangeStamp("project", 6, 3), "runs");
+
+            // Assert
+            verify(mongoTemplate).updateFirst(
+                    argThat(query -> query.getQueryObject().get("_id").equals("project.changes")),
+                    argThat(update -> update.getUpdateObject().get("$pull", Document.class)
+                            .get("pendingChanges", Document.class).getInteger("first") == 6),
+                    eq(CounterEntity.class));
+            verify(mongoTemplate, never()).updateMulti(any(Query.class), any(UpdateDefinition.class), anyString());
+        }
+
+        @Test
+        void expired_reservation_should_stamp_documents_with_new_values() {
+            // Arrange
+            when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(CounterEntity.class)))
+                    .thenReturn(UpdateResult.acknowledged(1, 0L, null))
+                    .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+            AtomicInteger counter = new AtomicInteger(20);
+            simulateCounter(counter);
+            var target = new CounterRepositoryImpl(mongoTemplate, 1, TIMEOUT);
+
+            // Act
+            target.releaseChangeSequences(new ChangeStamp("project", 6, 3), "runs");
+
+            // Assert
+            ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+            ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+            verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq("runs"));
+            assertThat(query.getValue().getQueryObject().get("changeSequence", Document.class))
+                    .containsEntry("$gte", 6)
+                    .containsEntry("$lt", 9);
+            // The documents are moved from 6..8 to the new range 21..23
+            assertThat(added(setStage(update.getValue()), "changeSequence")).containsExactly("$changeSequence", 15);
+            assertThat(counter.get()).isEqualTo(23);
+        }
+    }
+
+    @Nested
+    class getWrittenChangeSequence {
+        @Test
+        void no_pending_reservation_should_return_current_value() {
+            // Arrange
+            stubCounter(12);
+            var target = new CounterRepositoryImpl(mongoTemplate, 1, TIMEOUT);
+
+            // Act
+            int writtenChangeSequence = target.getWrittenChangeSequence("project");
+
+            // Assert
+            assertThat(writtenChangeSequence).isEqualTo(12);
+        }
+
+        @Test
+        void pending_reservations_should_return_value_before_first_pending_one() {
+            // Arrange
+            stubCounter(12, 10, 7);
+            var target = new CounterRepositoryImpl(mongoTemplate, 1, TIMEOUT);
+
+            // Act
+            int writtenChangeSequence = target.getWrittenChangeSequence("project");
+
+            // Assert
+            assertThat(writtenChangeSequence).isEqualTo(6);
+        }
+
+        @Test
+        void missing_counter_should_return_0() {
+            // Arrange
+            var target = new CounterRepositoryImpl(mongoTemplate, 1, TIMEOUT);
+
+            // Act
+            int writtenChangeSequence = target.getWrittenChangeSequence("project");
+
+            // Assert
+            assertThat(writtenChangeSequence).isZero();
+        }
+
+        private void stubCounter(int sequenceValue, int... pendingFirstValues) {
+            CounterEntity entity = new CounterEntity();
+            entity.setSequenceValue(sequenceValue);
+            entity.setPendingChanges(new ArrayList<>());
+            for (int first : pendingFirstValues) {
+                PendingChanges pendingChanges = new PendingChanges();
+                pendingChanges.setFirst(first);
+                pendingChanges.setLast(first);
+                entity.getPendingChanges().add(pendingChanges);
+            }
+
+            when(mongoTemplate.findAndModify(
+                    any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(CounterEntity.class)))
+                    .thenReturn(entity);
+        }
+    }
+
+    private void simulateCounter(AtomicInteger counter) {
+        when(mongoTemplate.findAndModify(
+                any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(CounterEntity.class)))
+                .thenAnswer(invocation -> {
+                    UpdateDefinition update = invocation.getArgument(1, UpdateDefinition.class);
+                    // The change sequences are reserved with an update pipeline that adds the count to the value
+                    int count = update instanceof AggregationUpdate
+                            ? (Integer) added(setStage(update), "sequenceValue").get(1)
+                            : update.getUpdateObject().get("$inc", Document.class).getInteger("sequenceValue");
+                    CounterEntity entity = new CounterEntity();
+                    entity.setSequenceValue(counter.addAndGet(count));
+                    return entity;
+                });
+    }
+
+    private static List<Object> added(Document setStage, String field) {
+        return setStage.get(field, Document.class).getList("$add", Object.class);
+    }
+
+    private static Document setStage(UpdateDefinition update) {
+        return ((AggregationUpdate) update).toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$set", Document.class);
+    }
+}
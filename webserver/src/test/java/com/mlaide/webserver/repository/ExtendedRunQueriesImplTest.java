@@ -2,25 +2,38 @@ package com.mlaide.webserver.repository;
 
 import com.mlaide.webserver.faker.RunFaker;
 import com.mlaide.webserver.integration.MongoDB;
-import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import com.mlaide.webserver.model.RunStatus;
 import com.mlaide.webserver.repository.entity.ExperimentRefEntity;
 import com.mlaide.webserver.repository.entity.RunEntity;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
-import java.util.Collection;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @SpringBootTest
 @Testcontainers
@@ -36,101 +49,8 @@ class ExtendedRunQueriesImplTest {
     @Autowired
     public MongoTemplate mongo;
 
-    @Test
-    void findAllPredecessorRuns() {
-        /*
-        We have defined the following runs (r) and the artifacts (a)
-        with their relationship to each other as shown below.
-
-        In the test case we will query all predecessors runs relative
-        to the artifacts "a3:1" and "a4:111"
-
-        As a result we expect the runs "r0", "r1", "r3" and "r4".
-
-        There may be also runs that belong to another project; these runs
-        should not be result of this query.
-        
-        +--------+   +--------+
-        |   r0   |---|  a0:1  |-------+
-        +--------+   +--------+       |   +--------+   +--------+
-                                      +---|   r3   |---|  a3:1  |
-                         +--------+   |   +--------+   +--------+
-                     +---| a1.0:1 |---+
-        +--------+   |   +--------+
-        |   r1   |---|
-        +--------+   |   +--------+   +--------+   +--------+
-                     +---| a1.1:1 |---|   r2   |---|  a2:1  |
-                         +--------+   +--------+   +--------+
-
-        +--------+   +--------+
-        |   r4   |---| a4:111 |
-        +--------+   +--------+
-         */
-
-        // Arrange
-        String projectKey = UUID.randomUUID().toString();
-        RunEntity r0 = createCustomRunEntityWithArtifactRefs(
-                0,
-                "r0",
-                projectKey,
-                singletonList(ArtifactRefEntity.builder().name("a0").version(1).build())
-        );
-        RunEntity r1 = createCustomRunEntityWithArtifactRefs(
-                1,
-                "r1",
-                projectKey,
-                asList(
-                    ArtifactRefEntity.builder().name("a1.0").version(1).build(),
-                    ArtifactRefEntity.builder().name("a1.1").version(1).build()
-                )
-        );
-        RunEntity r2 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(
-                2,
-                "r2", projectKey,
-                singletonList(ArtifactRefEntity.builder().name("a2").version(1).build()),
-                singletonList(ArtifactRefEntity.builder().name("a1.1").version(1).build())
-        );
-        RunEntity r3 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(
-                3,
-                "r3",
-                projectKey,
-                singletonList(ArtifactRefEntity.builder().name("a3").version(1).build()),
-                asList(
-                        ArtifactRefEntity.builder().name("a0").version(1).build(),
-                        ArtifactRefEntity.builder().name("a1.1").version(1).build()
-                )
-        );
-        RunEntity r4 = createCustomRunEntityWithArtifactRefs(
-                4,
-                "r4",
-                projectKey,
-                singletonList(ArtifactRefEntity.builder().name("a4").version(111).build())
-        );
-        RunEntity rAnotherProject = createCustomRunEntityWithArtifactRefs(
-                1,
-                "rAnotherProject",
-                "another-project-key",
-                singletonList(ArtifactRefEntity.builder().name("a0").version(1).build())
-        );
-
-        mongo.insertAll(asList(r0, r1, r3, r4, r2, rAnotherProject));
-
-        var usedArtifacts = asList(
-                ArtifactRefEntity.builder().name("a3").version(1).build(),
-                ArtifactRefEntity.builder().name("a4").version(111).build()
-        );
-        var target = new ExtendedRunQueriesImpl(mongo);
-
-        // Act
-        Collection<Integer> predecessorRunKeys = target.findAllPredecessorRunKeys(projectKey, usedArtifacts);
-
-        // Assert
-        assertThat(predecessorRunKeys).hasSize(4)
-                .anyMatch(key -> key.equals(r0.getKey()))
-                .anyMatch(key -> key.equals(r1.getKey()))
-                .anyMatch(key -> key.equals(r3.getKey()))
-                .anyMatch(key -> key.equals(r4.getKey()));
-    }
+    @Autowired
+    public Validator validator;
 
     @Test
     void assignExperimentRefs() {
@@ -147,7 +67,8 @@ class ExtendedRunQueriesImplTest {
         var runIds = asList(r1.getKey(), r2.getKey());
         var refs = asList(exp1, exp2);
 
-        var target = new ExtendedRunQueriesImpl(mongo);
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
 
         // act
         target.assignExperimentRefs(projectKey, runIds, refs);
@@ -173,34 +94,345 @@ class ExtendedRunQueriesImplTest {
                 .anyMatch(r -> r.getExperimentKey().equals(exp1.getExperimentKey()));
     }
 
-    private RunEntity createCustomRunEntityWithArtifactRefs(Integer key,
-                                                              String name,
-                                                              String projectKey,
-                                                              List<ArtifactRefEntity> artifactRefList) {
-        RunEntity runEntity = RunFaker.newRunEntity();
+    @Test
+    void mergeMetricsOfRunningRun_should_set_and_unset_metrics_of_running_run() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity run = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        run.setStatus(RunStatus.RUNNING.toString());
+        run.setMetrics(new HashMap<>(Map.of("acc", 0.5, "loss", 0.7)));
+        mongo.insert(run);
 
-        runEntity.setKey(key);
-        runEntity.setName(name);
-        runEntity.setProjectKey(projectKey);
-        runEntity.setArtifacts(artifactRefList);
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("acc", 0.9);
+        metrics.put("loss", null);
+        metrics.put("f1", 0.8);
 
-        return runEntity;
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        boolean updated = target.mergeMetricsOfRunningRun(projectKey, run.getKey(), metrics);
+
+        // Assert
+        assertThat(updated).isTrue();
+        RunEntity updatedRun = mongo.findById(run.getId(), RunEntity.class);
+        assertThat(updatedRun).isNotNull();
+        assertThat(updatedRun.getMetrics()).hasSize(2)
+                .containsEntry("acc", 0.9)
+                .containsEntry("f1", 0.8);
     }
 
-    private RunEntity createCustomRunEntityWithArtifactRefsAndUsedArtifacts(Integer key,
-                                                            String name,
-                                                            String projectKey,
-                                                            List<ArtifactRefEntity> artifactRefList,
-                                                            List<ArtifactRefEntity> usedArtifactRefList) {
-        RunEntity runEntity = RunFaker.newRunEntity();
+    @Test
+    void mergeMetricsOfRunningRun_run_is_completed_should_not_update_run() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity run = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        run.setStatus(RunStatus.COMPLETED.toString());
+        mongo.insert(run);
 
-        runEntity.setKey(key);
-        runEntity.setName(name);
-        runEntity.setProjectKey(projectKey);
-        runEntity.setArtifacts(artifactRefList);
-        runEntity.setUsedArtifacts(usedArtifactRefList);
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
 
-        return runEntity;
+        // Act
+        boolean updated = target.mergeMetricsOfRunningRun(projectKey, run.getKey(), Map.of("acc", 0.9));
+
+        // Assert
+        assertThat(updated).isFalse();
+        RunEntity updatedRun = mongo.findById(run.getId(), RunEntity.class);
+        assertThat(updatedRun).isNotNull();
+        assertThat(updatedRun.getMetrics()).isNull();
+    }
+
+    @Test
+    void patchRunningRun_should_change_only_patched_fields_and_merge_map_entries() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity run = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        run.setStatus(RunStatus.RUNNING.toString());
+        run.setNote("note");
+        run.setParameters(new HashMap<>(Map.of("lr", 0.1, "epochs", 10, "batch", 32)));
+        mongo.insert(run);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("lr", 0.2);
+        parameters.put("epochs", null);
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("name", "r2");
+        changes.put("parameters", parameters);
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        boolean updated = target.patchRunningRun(projectKey, run.getKey(), changes);
+
+        // Assert
+        assertThat(updated).isTrue();
+        RunEntity updatedRun = mongo.findById(run.getId(), RunEntity.class);
+        assertThat(updatedRun).isNotNull();
+        assertThat(updatedRun.getName()).isEqualTo("r2");
+        assertThat(updatedRun.getNote()).isEqualTo("note");
+        assertThat(updatedRun.getParameters()).hasSize(2)
+                .containsEntry("lr", 0.2)
+                .containsEntry("batch", 32);
+    }
+
+    @Test
+    void updateNote_should_update_note_regardless_of_status() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity run = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        run.setStatus(RunStatus.COMPLETED.toString());
+        mongo.insert(run);
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        boolean updated = target.updateNote(projectKey, run.getKey(), "the note");
+
+        // Assert
+        assertThat(updated).isTrue();
+        RunEntity updatedRun = mongo.findById(run.getId(), RunEntity.class);
+        assertThat(updatedRun).isNotNull();
+        assertThat(updatedRun.getNote()).isEqualTo("the note");
+    }
+
+    @Test
+    void findRunsChangedSince_should_return_runs_that_were_written_after_change_sequence() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r1 = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        RunEntity r2 = createCustomRunEntityWithExperimentRefs(2, "r2", projectKey);
+        RunEntity r3 = createCustomRunEntityWithExperimentRefs(3, "r3", projectKey);
+        mongo.insertAll(asList(r1, r2, r3));
+        int changeSequenceAfterInsert = mongo.findById(r3.getId(), RunEntity.class).getChangeSequence();
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+        target.updateNote(projectKey, r1.getKey(), "changed");
+
+        // Act
+        List<RunEntity> runs = target.findRunsChangedSince(projectKey, changeSequenceAfterInsert, 100, null);
+
+        // Assert
+        assertThat(runs).extracting(RunEntity::getKey).containsExactly(1);
+        assertThat(runs.get(0).getChangeSequence()).isGreaterThan(changeSequenceAfterInsert);
+    }
+
+    @Test
+    void findRunsChangedSince_should_not_return_runs_after_pending_change_sequence() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r1 = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        RunEntity r2 = createCustomRunEntityWithExperimentRefs(2, "r2", projectKey);
+        var counterRepository = new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1));
+        var target = new ExtendedRunQueriesImpl(
+                mongo, counterRepository, new LineageRepositoryImpl(mongo, 100), validator);
+
+        mongo.insert(r1);
+        // A write that is still in progress
+        ChangeStamp pending = counterRepository.getNextChangeSequence(projectKey);
+        mongo.insert(r2);
+
+        // Act
+        List<RunEntity> runsWhilePending = target.findRunsChangedSince(projectKey, 0, 100, null);
+        counterRepository.releaseChangeSequences(pending, "runs");
+        List<RunEntity> runsAfterRelease = target.findRunsChangedSince(projectKey, 0, 100, null);
+
+        // Assert
+        assertThat(runsWhilePending).extracting(RunEntity::getKey).containsExactly(1);
+        assertThat(runsAfterRelease).extracting(RunEntity::getKey).containsExactly(1, 2);
+    }
+
+    @Test
+    void releaseChangeSequences_of_expired_reservation_should_stamp_runs_with_new_change_sequence() throws Exception {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        var counterRepository = new CounterRepositoryImpl(mongo, 1, Duration.ofMillis(1));
+        ChangeStamp expired = counterRepository.getNextChangeSequence(projectKey);
+        RunEntity run = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        run.setChangeSequence(expired.getSequence());
+        Document document = new Document();
+        mongo.getConverter().write(run, document);
+        mongo.getCollection("runs").insertOne(document);
+        Thread.sleep(10);
+        // The sync passes the expired reservation
+        int writtenChangeSequence = counterRepository.getWrittenChangeSequence(projectKey);
+
+        // Act
+        counterRepository.releaseChangeSequences(expired, "runs");
+
+        // Assert
+        RunEntity restampedRun = mongo.findOne(query(where("projectKey").is(projectKey)), RunEntity.class);
+        assertThat(restampedRun).isNotNull();
+        assertThat(writtenChangeSequence).isEqualTo(expired.getSequence());
+        assertThat(restampedRun.getChangeSequence()).isGreaterThan(writtenChangeSequence);
+    }
+
+    @Test
+    void findRunPage_should_return_runs_page_by_page_sorted_by_metric() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r1 = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        r1.setMetrics(Map.of("acc", 0.5));
+        RunEntity r2 = createCustomRunEntityWithExperimentRefs(2, "r2", projectKey);
+        r2.setMetrics(Map.of("acc", 0.9));
+        RunEntity r3 = createCustomRunEntityWithExperimentRefs(3, "r3", projectKey);
+        RunEntity r4 = createCustomRunEntityWithExperimentRefs(4, "r4", projectKey);
+        r4.setMetrics(Map.of("acc", 0.5));
+        mongo.insertAll(asList(r1, r2, r3, r4));
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        List<RunEntity> firstPage = target.findRunPage(
+                projectKey, null, "metrics.acc", Sort.Direction.DESC, null, null, 2, null);
+        List<RunEntity> secondPage = target.findRunPage(
+                projectKey, null, "metrics.acc", Sort.Direction.DESC, 0.5, 4, 2, null);
+        List<RunEntity> thirdPage = target.findRunPage(
+                projectKey, null, "metrics.acc", Sort.Direction.DESC, null, 3, 2, null);
+
+        // Assert
+        assertThat(firstPage).extracting(RunEntity::getKey).containsExactly(2, 4);
+        assertThat(secondPage).extracting(RunEntity::getKey).containsExactly(1, 3);
+        assertThat(thirdPage).isEmpty();
+    }
+
+    @Test
+    void findRunPage_sorted_by_metric_should_return_runs_without_numeric_value_after_sorted_runs() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r1 = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        r1.setMetrics(Map.of("acc", "n/a"));
+        RunEntity r2 = createCustomRunEntityWithExperimentRefs(2, "r2", projectKey);
+        r2.setMetrics(Map.of("acc", 0.9));
+        RunEntity r3 = createCustomRunEntityWithExperimentRefs(3, "r3", projectKey);
+        RunEntity r4 = createCustomRunEntityWithExperimentRefs(4, "r4", projectKey);
+        r4.setMetrics(Map.of("acc", 1));
+        mongo.insertAll(asList(r1, r2, r3, r4));
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        List<RunEntity> firstPage = target.findRunPage(
+                projectKey, null, "metrics.acc", Sort.Direction.ASC, null, null, 3, null);
+        List<RunEntity> secondPage = target.findRunPage(
+                projectKey, null, "metrics.acc", Sort.Direction.ASC, null, 1, 3, null);
+
+        // Assert
+        assertThat(firstPage).extracting(RunEntity::getKey).containsExactly(2, 4, 1);
+        assertThat(secondPage).extracting(RunEntity::getKey).containsExactly(3);
+    }
+
+    @Test
+    void streamRuns_should_return_filtered_runs_in_order_of_pages() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r1 = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        r1.setMetrics(Map.of("acc", "n/a"));
+        RunEntity r2 = createCustomRunEntityWithExperimentRefs(2, "r2", projectKey);
+        r2.setMetrics(Map.of("acc", 0.9));
+        RunEntity r3 = createCustomRunEntityWithExperimentRefs(3, "r3", projectKey);
+        RunEntity r4 = createCustomRunEntityWithExperimentRefs(4, "r4", projectKey);
+        r4.setMetrics(Map.of("acc", 1));
+        mongo.insertAll(asList(r1, r2, r3, r4));
+
+        List<RunFilterCondition> conditions = singletonList(
+                new RunFilterCondition("key", RunFilterCondition.Operator.NE, 3));
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        List<RunEntity> runs;
+        try (Stream<RunEntity> stream = target.streamRuns(
+                projectKey, null, null, conditions, "metrics.acc", Sort.Direction.ASC, null)) {
+            runs = stream.collect(toList());
+        }
+
+        // Assert
+        assertThat(runs).extracting(RunEntity::getKey).containsExactly(2, 4, 1);
+    }
+
+    @Test
+    void findRunPageMatchingAll_should_return_runs_that_match_all_conditions() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r1 = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        r1.setParameters(Map.of("lr", 0.1, "optimizer", "adam"));
+        r1.setMetrics(Map.of("acc", 0.9));
+        RunEntity r2 = createCustomRunEntityWithExperimentRefs(2, "r2", projectKey);
+        r2.setParameters(Map.of("lr", 0.01, "optimizer", "adam"));
+        r2.setMetrics(Map.of("acc", 0.95));
+        RunEntity r3 = createCustomRunEntityWithExperimentRefs(3, "r3", projectKey);
+        r3.setParameters(Map.of("lr", 0.01, "optimizer", "sgd"));
+        r3.setMetrics(Map.of("acc", 0.97));
+        RunEntity r4 = createCustomRunEntityWithExperimentRefs(4, "r4", projectKey);
+        r4.setParameters(Map.of("lr", 0.05, "optimizer", "adam"));
+        r4.setMetrics(Map.of("acc", 0.5));
+        mongo.insertAll(asList(r1, r2, r3, r4));
+
+        List<RunFilterCondition> conditions = asList(
+                new RunFilterCondition("parameters.optimizer", RunFilterCondition.Operator.EQ, "adam"),
+                new RunFilterCondition("parameters.lr", RunFilterCondition.Operator.LTE, 0.05),
+                new RunFilterCondition("metrics.acc", RunFilterCondition.Operator.GT, 0.6));
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        List<RunEntity> runs = target.findRunPageMatchingAll(
+                projectKey, null, conditions, "key", Sort.Direction.ASC, null, null, 10, null);
+
+        // Assert
+        assertThat(runs).extracting(RunEntity::getKey).containsExactly(2);
+    }
+
+    @Test
+    void compareRuns_should_group_parameters_and_metrics_by_key() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r1 = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        r1.setParameters(Map.of("lr", 0.1, "optimizer", "adam"));
+        r1.setMetrics(Map.of("acc", 0.7));
+        RunEntity r2 = createCustomRunEntityWithExperimentRefs(2, "r2", projectKey);
+        r2.setParameters(Map.of("lr", 0.01, "optimizer", "adam"));
+        r2.setMetrics(Map.of("acc", 0.8, "loss", 0.3));
+        RunEntity r3 = createCustomRunEntityWithExperimentRefs(3, "r3", projectKey);
+        r3.setParameters(Map.of("lr", 0.5));
+        mongo.insertAll(asList(r1, r2, r3));
+
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act
+        RunComparisonResult result = target.compareRuns(projectKey, asList(1, 2), singletonList("acc"), null);
+
+        // Assert
+        assertThat(result.getRuns()).extracting(RunComparisonResult.RunKey::getKey).containsExactlyInAnyOrder(1, 2);
+        assertThat(result.getParameters())
+                .extracting(RunComparisonResult.KeyedValues::getKey, RunComparisonResult.KeyedValues::getDistinctValueCount)
+                .containsExactlyInAnyOrder(tuple("lr", 2), tuple("optimizer", 1));
+        assertThat(result.getMetrics()).extracting(RunComparisonResult.KeyedValues::getKey).containsExactly("acc");
+    }
+
+    @Test
+    void insertRuns_with_invalid_run_should_throw_ConstraintViolationException_and_insert_nothing() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity valid = createCustomRunEntityWithExperimentRefs(1, "r1", projectKey);
+        RunEntity invalid = createCustomRunEntityWithExperimentRefs(2, " ", projectKey);
+        var target = new ExtendedRunQueriesImpl(
+                mongo, new CounterRepositoryImpl(mongo, 1, Duration.ofMinutes(1)), new LineageRepositoryImpl(mongo, 100), validator);
+
+        // Act + Assert
+        assertThatThrownBy(() -> target.insertRuns(projectKey, asList(valid, invalid)))
+                .isInstanceOf(ConstraintViolationException.class);
+        assertThat(mongo.exists(query(where("projectKey").is(projectKey)), RunEntity.class)).isFalse();
     }
 
     private RunEntity createCustomRunEntityWithExperimentRefs(Integer key,
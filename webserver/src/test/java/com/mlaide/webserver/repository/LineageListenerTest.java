@@ -0,0 +1,77 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.LineageEdgeEntity;
+import com.mlaide.webserver.repository.entity.ProjectEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class LineageListenerTest {
+    private @Mock LineageRepository lineageRepository;
+
+    private LineageListener listener;
+
+    @BeforeEach
+    void initialize() {
+        listener = new LineageListener(lineageRepository);
+    }
+
+    @Test
+    void converted_run_should_be_flagged_with_version_of_edges() {
+        // Arrange
+        RunEntity run = new RunEntity();
+
+        // Act
+        listener.onBeforeConvert(new BeforeConvertEvent<>(run, "runs"));
+
+        // Assert
+        assertThat(run.getLineageVersion()).isEqualTo(LineageEdgeEntity.VERSION);
+    }
+
+    @Test
+    void saved_run_should_add_edges_of_run() {
+        // Arrange
+        RunEntity run = new RunEntity();
+
+        // Act
+        listener.onAfterSave(new AfterSaveEvent<>(run, new Document(), "runs"));
+
+        // Assert
+        verify(lineageRepository).addEdgesOfRuns(List.of(run));
+    }
+
+    @Test
+    void saved_artifact_should_add_edges_of_artifact() {
+        // Arrange
+        ArtifactEntity artifact = new ArtifactEntity();
+
+        // Act
+        listener.onAfterSave(new AfterSaveEvent<>(artifact, new Document(), "artifacts"));
+
+        // Assert
+        verify(lineageRepository).addEdgesOfArtifact(artifact);
+    }
+
+    @Test
+    void other_entity_should_not_add_edges() {
+        // Act
+        listener.onAfterSave(new AfterSaveEvent<>(new ProjectEntity(), new Document(), "projects"));
+
+        // Assert
+        verifyNoInteractions(lineageRepository);
+    }
+}
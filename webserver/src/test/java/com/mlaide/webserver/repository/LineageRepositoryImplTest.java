@@ -0,0 +1,274 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.faker.RunFaker;
+import com.mlaide.webserver.integration.MongoDB;
+import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Testcontainers
+class LineageRepositoryImplTest {
+    @Container
+    private static final MongoDB mongoDB = new MongoDB();
+
+    @DynamicPropertySource
+    public static void mongoDBProperties(DynamicPropertyRegistry registry) {
+        mongoDB.updateSpringProperties(registry);
+    }
+
+    @Autowired
+    public MongoTemplate mongo;
+
+    @Test
+    void findAllPredecessorRunKeys_should_return_all_runs_that_have_produced_the_artifacts_directly_or_indirectly() {
+        /*
+        We have defined the following runs (r) and the artifacts (a)
+        with their relationship to each other as shown below.
+
+        In the test case we will query all predecessors runs relative
+        to the artifacts "a3:1" and "a4:111"
+
+        As a result we expect the runs "r0", "r1", "r3" and "r4".
+
+        There may be also runs that belong to another project; these runs
+        should not be result of this query.
+        
+        +--------+   +--------+
+        |   r0   |---|  a0:1  |-------+
+        +--------+   +--------+       |   +--------+   +--------+
+                                      +---|   r3   |---|  a3:1  |
+                         +--------+   |   +--------+   +--------+
+                     +---| a1.0:1 |---+
+        +--------+   |   +--------+
+        |   r1   |---|
+        +--------+   |   +--------+   +--------+   +--------+
+                     +---| a1.1:1 |---|   r2   |---|  a2:1  |
+                         +--------+   +--------+   +--------+
+
+        +--------+   +--------+
+        |   r4   |---| a4:111 |
+        +--------+   +--------+
+         */
+
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        RunEntity r0 = createCustomRunEntityWithArtifactRefs(
+                0,
+                "r0",
+                projectKey,
+                singletonList(ArtifactRefEntity.builder().name("a0").version(1).build())
+        );
+        RunEntity r1 = createCustomRunEntityWithArtifactRefs(
+                1,
+                "r1",
+                projectKey,
+                asList(
+                    ArtifactRefEntity.builder().name("a1.0").version(1).build(),
+                    ArtifactRefEntity.builder().name("a1.1").version(1).build()
+                )
+        );
+        RunEntity r2 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(
+                2,
+                "r2", projectKey,
+                singletonList(ArtifactRefEntity.builder().name("a2").version(1).build()),
+                singletonList(ArtifactRefEntity.builder().name("a1.1").version(1).build())
+        );
+        RunEntity r3 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(
+                3,
+                "r3",
+                projectKey,
+                singletonList(ArtifactRefEntity.builder().name("a3").version(1).build()),
+                asList(
+                        ArtifactRefEntity.builder().name("a0").version(1).build(),
+                        ArtifactRefEntity.builder().name("a1.1").version(1).build()
+                )
+        );
+        RunEntity r4 = createCustomRunEntityWithArtifactRefs(
+                4,
+                "r4",
+                projectKey,
+                singletonList(ArtifactRefEntity.builder().name("a4").version(111).build())
+        );
+        RunEntity rAnotherProject = createCustomRunEntityWithArtifactRefs(
+                1,
+                "rAnotherProject",
+                "another-project-key",
+                singletonList(ArtifactRefEntity.builder().name("a0").version(1).build())
+        );
+
+        mongo.insertAll(asList(r0, r1, r3, r4, r2, rAnotherProject));
+
+        var usedArtifacts = asList(
+                ArtifactRefEntity.builder().name("a3").version(1).build(),
+                ArtifactRefEntity.builder().name("a4").version(111).build()
+        );
+        // The edges have been added by the LineageListener when the runs were inserted
+        var target = new LineageRepositoryImpl(mongo, 100);
+
+        // Act
+        Collection<Integer> predecessorRunKeys = target.findAllPredecessorRunKeys(projectKey, usedArtifacts);
+
+        // Assert
+        assertThat(predecessorRunKeys).hasSize(4)
+                .anyMatch(key -> key.equals(r0.getKey()))
+                .anyMatch(key -> key.equals(r1.getKey()))
+                .anyMatch(key -> key.equals(r3.getKey()))
+                .anyMatch(key -> key.equals(r4.getKey()));
+    }
+
+    @Test
+    void findAllPredecessorRunKeys_with_cyclic_refs_should_terminate() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        ArtifactRefEntity a1 = ArtifactRefEntity.builder().name("a1").version(1).build();
+        ArtifactRefEntity a2 = ArtifactRefEntity.builder().name("a2").version(1).build();
+        RunEntity r1 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(1, "r1", projectKey, singletonList(a1), singletonList(a2));
+        RunEntity r2 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(2, "r2", projectKey, singletonList(a2), singletonList(a1));
+        mongo.insertAll(asList(r1, r2));
+
+        var target = new LineageRepositoryImpl(mongo, 100);
+
+        // Act
+        Collection<Integer> predecessorRunKeys = target.findAllPredecessorRunKeys(projectKey, singletonList(a1));
+
+        // Assert
+        assertThat(predecessorRunKeys).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void findSuccessors_should_return_all_runs_that_have_used_the_artifact_directly_or_indirectly() {
+        // Arrange
+        // d1 -> r1 -> m1 -> r2 -> m2 -> r3; r4 uses d1 and m1
+        String projectKey = UUID.randomUUID().toString();
+        ArtifactRefEntity d1 = ArtifactRefEntity.builder().name("d1").version(1).build();
+        ArtifactRefEntity m1 = ArtifactRefEntity.builder().name("m1").version(1).build();
+        ArtifactRefEntity m2 = ArtifactRefEntity.builder().name("m2").version(1).build();
+        RunEntity r1 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(1, "r1", projectKey, singletonList(m1), singletonList(d1));
+        RunEntity r2 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(2, "r2", projectKey, singletonList(m2), singletonList(m1));
+        RunEntity r3 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(3, "r3", projectKey, emptyList(), singletonList(m2));
+        RunEntity r4 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(4, "r4", projectKey, emptyList(), asList(d1, m1));
+        mongo.insertAll(asList(r1, r2, r3, r4));
+
+        var target = new LineageRepositoryImpl(mongo, 100);
+
+        // Act
+        List<LineageSuccessor> successors = target.findSuccessors(projectKey, d1, 10, null, null, 10);
+
+        // Assert
+        assertThat(successors).extracting(LineageSuccessor::getRunKey, LineageSuccessor::getDepth)
+                .containsExactly(tuple(1, 1), tuple(4, 1), tuple(2, 2), tuple(3, 3));
+        assertThat(successors.get(0).getOutputs()).extracting(ArtifactRefEntity::getName).containsExactly("m1");
+    }
+
+    @Test
+    void findSuccessors_should_return_runs_after_position_up_to_max_depth_and_limit() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        ArtifactRefEntity d1 = ArtifactRefEntity.builder().name("d1").version(1).build();
+        ArtifactRefEntity m1 = ArtifactRefEntity.builder().name("m1").version(1).build();
+        ArtifactRefEntity m2 = ArtifactRefEntity.builder().name("m2").version(1).build();
+        RunEntity r1 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(1, "r1", projectKey, singletonList(m1), singletonList(d1));
+        RunEntity r2 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(2, "r2", projectKey, emptyList(), singletonList(d1));
+        RunEntity r3 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(3, "r3", projectKey, singletonList(m2), singletonList(m1));
+        RunEntity r4 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(4, "r4", projectKey, emptyList(), singletonList(m2));
+        mongo.insertAll(asList(r1, r2, r3, r4));
+
+        var target = new LineageRepositoryImpl(mongo, 100);
+
+        // Act
+        List<LineageSuccessor> successors = target.findSuccessors(projectKey, d1, 2, 1, 1, 1);
+
+        // Assert
+        assertThat(successors).extracting(LineageSuccessor::getRunKey).containsExactly(2);
+        assertThat(target.findSuccessors(projectKey, d1, 2, 1, 2, 10))
+                .extracting(LineageSuccessor::getRunKey).containsExactly(3);
+    }
+
+    @Test
+    void findSuccessors_with_cyclic_refs_should_terminate() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        ArtifactRefEntity a1 = ArtifactRefEntity.builder().name("a1").version(1).build();
+        ArtifactRefEntity a2 = ArtifactRefEntity.builder().name("a2").version(1).build();
+        RunEntity r1 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(1, "r1", projectKey, singletonList(a2), singletonList(a1));
+        RunEntity r2 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(2, "r2", projectKey, singletonList(a1), singletonList(a2));
+        mongo.insertAll(asList(r1, r2));
+
+        var target = new LineageRepositoryImpl(mongo, 100);
+
+        // Act
+        List<LineageSuccessor> successors = target.findSuccessors(projectKey, a1, 100, null, null, 100);
+
+        // Assert
+        assertThat(successors).extracting(LineageSuccessor::getRunKey).containsExactly(1, 2);
+    }
+
+    @Test
+    void removeEdgesOfRuns_should_remove_runs_from_lineage() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        ArtifactRefEntity d1 = ArtifactRefEntity.builder().name("d1").version(1).build();
+        ArtifactRefEntity m1 = ArtifactRefEntity.builder().name("m1").version(1).build();
+        RunEntity r1 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(1, "r1", projectKey, singletonList(m1), singletonList(d1));
+        RunEntity r2 = createCustomRunEntityWithArtifactRefsAndUsedArtifacts(2, "r2", projectKey, emptyList(), singletonList(d1));
+        mongo.insertAll(asList(r1, r2));
+
+        var target = new LineageRepositoryImpl(mongo, 100);
+
+        // Act
+        target.removeEdgesOfRuns(projectKey, singletonList(1));
+
+        // Assert
+        assertThat(target.findSuccessors(projectKey, d1, 10, null, null, 10))
+                .extracting(LineageSuccessor::getRunKey).containsExactly(2);
+        assertThat(target.findAllPredecessorRunKeys(projectKey, singletonList(m1))).isEmpty();
+    }
+
+    private RunEntity createCustomRunEntityWithArtifactRefs(Integer key,
+                                                              String name,
+                                                              String projectKey,
+                                                              List<ArtifactRefEntity> artifactRefList) {
+        RunEntity runEntity = RunFaker.newRunEntity();
+
+        runEntity.setKey(key);
+        runEntity.setName(name);
+        runEntity.setProjectKey(projectKey);
+        runEntity.setArtifacts(artifactRefList);
+
+        return runEntity;
+    }
+
+    private RunEntity createCustomRunEntityWithArtifactRefsAndUsedArtifacts(Integer key,
+                                                            String name,
+                                                            String projectKey,
+                                                            List<ArtifactRefEntity> artifactRefList,
+                                                            List<ArtifactRefEntity> usedArtifactRefList) {
+        RunEntity runEntity = RunFaker.newRunEntity();
+
+        runEntity.setKey(key);
+        runEntity.setName(name);
+        runEntity.setProjectKey(projectKey);
+        runEntity.setArtifacts(artifactRefList);
+        runEntity.setUsedArtifacts(usedArtifactRefList);
+
+        return runEntity;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mlaide.webserver.repository;
+
+import com.mlaide.webserver.faker.MetricPointFaker;
+import com.mlaide.webserver.integration.MongoDB;
+import com.mlaide.webserver.repository.entity.MetricBucketEntity;
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@SpringBootTest
+@Testcontainers
+class MetricBucketRepositoryImplTest {
+    @Container
+    private static final MongoDB mongoDB = new MongoDB();
+
+    @DynamicPropertySource
+    public static void mongoDBProperties(DynamicPropertyRegistry registry) {
+        mongoDB.updateSpringProperties(registry);
+    }
+
+    @Autowired
+    public MongoTemplate mongo;
+
+    @Test
+    void appendMetricPoints_should_store_points_in_buckets_of_step_ranges() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        var target = new MetricBucketRepositoryImpl(mongo, 10);
+
+        // Act
+        target.appendMetricPoints(projectKey, 1, "loss", asList(
+                MetricPointFaker.newMetricPointEntity(0),
+                MetricPointFaker.newMetricPointEntity(9),
+                MetricPointFaker.newMetricPointEntity(10)));
+        target.appendMetricPoints(projectKey, 1, "loss", asList(
+                MetricPointFaker.newMetricPointEntity(5),
+                MetricPointFaker.newMetricPointEntity(25)));
+
+        // Assert
+        List<MetricBucketEntity> buckets =
+                mongo.find(query(where("projectKey").is(projectKey)), MetricBucketEntity.class);
+
+        assertThat(buckets).hasSize(3)
+                .anyMatch(b -> b.getFirstStep() == 0 && b.getLastStep() == 9 && b.getCount() == 3)
+                .anyMatch(b -> b.getFirstStep() == 10 && b.getLastStep() == 10 && b.getCount() == 1)
+                .anyMatch(b -> b.getFirstStep() == 20 && b.getLastStep() == 25 && b.getCount() == 1);
+    }
+
+    @Test
+    void streamMetricPoints_should_return_points_of_range_ordered_by_step() {
+        // Arrange
+        String projectKey = UUID.randomUUID().toString();
+        var target = new MetricBucketRepositoryImpl(mongo, 10);
+
+        target.appendMetricPoints(projectKey, 1, "loss", asList(
+                MetricPointFaker.newMetricPointEntity(12),
+                MetricPointFaker.newMetricPointEntity(3),
+                MetricPointFaker.newMetricPointEntity(31)));
+        target.appendMetricPoints(projectKey, 1, "loss", asList(
+                MetricPointFaker.newMetricPointEntity(7),
+                MetricPointFaker.newMetricPointEntity(2)));
+        target.appendMetricPoints(projectKey, 1, "accuracy", asList(
+                MetricPointFaker.newMetricPointEntity(4)));
+        target.appendMetricPoints(projectKey, 2, "loss", asList(
+                MetricPointFaker.newMetricPointEntity(5)));
+
+        // Act
+        List<Long> steps;
+        try (Stream<MetricPointEntity> points = target.streamMetricPoints(projectKey, 1, "loss", 3L, 12L)) {
+            steps = points.map(MetricPointEntity::getStep).collect(toList());
+        }
+
+        // Assert
+        assertThat(steps).containsExactly(3L, 7L, 12L);
+    }
+}
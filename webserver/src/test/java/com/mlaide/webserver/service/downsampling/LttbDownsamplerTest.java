@@ -0,0 +1,85 @@
+package com.mlaide.webserver.service.downsampling;
+
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LttbDownsamplerTest {
+    @Nested
+    class constructor {
+        @Test
+        void less_than_3_points_should_throw_IllegalArgumentException() {
+            assertThatThrownBy(() -> new LttbDownsampler(2, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class getResult {
+        @Test
+        void no_points_added_should_return_empty_list() {
+            // Arrange
+            LttbDownsampler downsampler = new LttbDownsampler(3, 0, 10);
+
+            // Act + Assert
+            assertThat(downsampler.getResult()).isEmpty();
+        }
+
+        @Test
+        void one_point_added_should_return_this_point() {
+            // Arrange
+            LttbDownsampler downsampler = new LttbDownsampler(3, 5, 5);
+            MetricPointEntity point = point(5, 1.0);
+
+            // Act
+            downsampler.add(point);
+
+            // Assert
+            assertThat(downsampler.getResult()).containsExactly(point);
+        }
+
+        @Test
+        void many_points_added_should_keep_first_and_last_point_and_return_maxPoints() {
+            // Arrange
+            LttbDownsampler downsampler = new LttbDownsampler(10, 0, 999);
+            List<MetricPointEntity> points = LongStream.range(0, 1000)
+                    .mapToObj(step -> point(step, Math.sin(step / 10.0)))
+                    .collect(toList());
+
+            // Act
+            points.forEach(downsampler::add);
+            List<MetricPointEntity> result = downsampler.getResult();
+
+            // Assert
+            assertThat(result).hasSize(10);
+            assertThat(result.get(0)).isSameAs(points.get(0));
+            assertThat(result.get(9)).isSameAs(points.get(999));
+            assertThat(result).isSortedAccordingTo((a, b) -> Long.compare(a.getStep(), b.getStep()));
+        }
+
+        @Test
+        void bucket_contains_spike_should_select_spike() {
+            // Arrange
+            LttbDownsampler downsampler = new LttbDownsampler(3, 0, 10);
+            MetricPointEntity spike = point(5, 100.0);
+
+            // Act
+            LongStream.rangeClosed(0, 10)
+                    .mapToObj(step -> step == 5 ? spike : point(step, 0.0))
+                    .forEach(downsampler::add);
+
+            // Assert
+            assertThat(downsampler.getResult()).hasSize(3).contains(spike);
+        }
+    }
+
+    private MetricPointEntity point(long step, double value) {
+        return new MetricPointEntity(step, null, value);
+    }
+}
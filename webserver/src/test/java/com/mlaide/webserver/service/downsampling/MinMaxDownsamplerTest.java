@@ -0,0 +1,70 @@
+package com.mlaide.webserver.service.downsampling;
+
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MinMaxDownsamplerTest {
+    @Nested
+    class constructor {
+        @Test
+        void less_than_2_points_should_throw_IllegalArgumentException() {
+            assertThatThrownBy(() -> new MinMaxDownsampler(1, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    class getResult {
+        @Test
+        void no_points_added_should_return_empty_list() {
+            // Arrange
+            MinMaxDownsampler downsampler = new MinMaxDownsampler(4, 0, 10);
+
+            // Act + Assert
+            assertThat(downsampler.getResult()).isEmpty();
+        }
+
+        @Test
+        void many_points_added_should_return_min_and_max_of_every_bucket_in_step_order() {
+            // Arrange
+            MinMaxDownsampler downsampler = new MinMaxDownsampler(4, 0, 9);
+            List<MetricPointEntity> points = LongStream.range(0, 10)
+                    .mapToObj(step -> point(step, step % 2 == 0 ? -step : step))
+                    .collect(toList());
+
+            // Act
+            points.forEach(downsampler::add);
+
+            // Assert
+            assertThat(downsampler.getResult()).containsExactly(
+                    points.get(3), points.get(4),
+                    points.get(8), points.get(9));
+        }
+
+        @Test
+        void bucket_contains_only_one_point_should_return_this_point_once() {
+            // Arrange
+            MinMaxDownsampler downsampler = new MinMaxDownsampler(4, 0, 9);
+            MetricPointEntity first = point(0, 1.0);
+            MetricPointEntity last = point(9, 2.0);
+
+            // Act
+            downsampler.add(first);
+            downsampler.add(last);
+
+            // Assert
+            assertThat(downsampler.getResult()).containsExactly(first, last);
+        }
+    }
+
+    private MetricPointEntity point(long step, double value) {
+        return new MetricPointEntity(step, null, value);
+    }
+}
@@ -1,17 +1,21 @@
 package com.mlaide.webserver.service.impl;
 
 import com.amazonaws.ClientConfiguration;
+import com.amazonaws.SdkClientException;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.mlaide.webserver.integration.S3;
 import com.mlaide.webserver.faker.FileFaker;
 import com.mlaide.webserver.service.FileUploadResult;
+import com.mlaide.webserver.service.InvalidInputException;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -23,10 +27,13 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @Testcontainers
@@ -42,7 +49,7 @@ class AmazonS3StorageServiceTest {
     void createStorageService() {
         this.s3 = spy(amazonS3());
 
-        this.storageService = new AmazonS3StorageService(s3, bufferSize);
+        this.storageService = new AmazonS3StorageService(s3, bufferSize, 4, 4 * bufferSize, "SHA-256", 2, bufferSize);
     }
 
     @Nested
@@ -134,6 +141,110 @@ class AmazonS3StorageServiceTest {
             assertThatCompleteMultipartUploadWasInvokedCorrectly(bucketName, fileName, 2);
         }
 
+        @Test
+        void uploading_file_with_many_parts_should_upload_parts_in_order_of_content() throws IOException {
+            // Arrange
+            var bytes = FileFaker.randomBytes(6 * bufferSize + 1000);
+            var inputStream = new ByteArrayInputStream(bytes);
+            var bucketName = randomBucketName();
+            var fileName = FileFaker.randomFileName();
+            storageService.createBucket(bucketName);
+
+            // Act
+            storageService.upload(bucketName, fileName, inputStream, bytes.length, null);
+
+            // Assert
+            assertThatCompleteMultipartUploadWasInvokedCorrectly(bucketName, fileName, 7);
+            InputStream download = storageService.download(bucketName, fileName);
+            assertThat(IOUtils.toByteArray(download)).containsExactly(bytes);
+        }
+
+        @Test
+        void uploading_file_should_return_hash_and_size_of_content() throws IOException {
+            // Arrange
+            var bytes = FileFaker.randomBytes(bufferSize + 1000);
+            var inputStream = new ByteArrayInputStream(bytes);
+            var bucketName = randomBucketName();
+            var fileName = FileFaker.randomFileName();
+            storageService.createBucket(bucketName);
+
+            // Act
+            FileUploadResult result = storageService.upload(
+                    bucketName, fileName, inputStream, bytes.length, DigestUtils.sha256Hex(bytes).toUpperCase());
+
+            // Assert
+            assertThat(result.getContentHash()).isEqualTo(DigestUtils.sha256Hex(bytes));
+            assertThat(result.getSize()).isEqualTo(bytes.length);
+        }
+
+        @Test
+        void content_that_does_not_match_hash_should_abort_upload() {
+            // Arrange
+            var bytes = FileFaker.randomBytes(bufferSize + 1000);
+            var inputStream = new ByteArrayInputStream(bytes);
+            var bucketName = randomBucketName();
+            var fileName = FileFaker.randomFileName();
+            storageService.createBucket(bucketName);
+
+            // Act + Assert
+            assertThatThrownBy(() -> storageService.upload(
+                    bucketName, fileName, inputStream, bytes.length, DigestUtils.sha256Hex("other content")))
+                    .isInstanceOf(InvalidInputException.class);
+            verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+            verify(s3, never()).completeMultipartUpload(any());
+        }
+
+        @Test
+        void content_that_does_not_match_length_should_abort_upload() {
+            // Arrange
+            var bytes = FileFaker.randomBytes(1000);
+            var inputStream = new ByteArrayInputStream(bytes);
+            var bucketName = randomBucketName();
+            var fileName = FileFaker.randomFileName();
+            storageService.createBucket(bucketName);
+
+            // Act + Assert
+            assertThatThrownBy(() -> storageService.upload(bucketName, fileName, inputStream, 2000, null))
+                    .isInstanceOf(InvalidInputException.class);
+            verify(s3, never()).completeMultipartUpload(any());
+        }
+
+        @Test
+        void upload_buffer_smaller_than_part_should_upload_one_part_after_the_other() throws IOException {
+            // Arrange
+            var target = new AmazonS3StorageService(s3, bufferSize, 4, bufferSize / 2, "SHA-256", 2, bufferSize);
+            var bytes = FileFaker.randomBytes(3 * bufferSize + 1000);
+            var bucketName = randomBucketName();
+            var fileName = FileFaker.randomFileName();
+            target.createBucket(bucketName);
+
+            // Act
+            target.upload(bucketName, fileName, new ByteArrayInputStream(bytes));
+
+            // Assert
+            assertThatCompleteMultipartUploadWasInvokedCorrectly(bucketName, fileName, 4);
+            InputStream download = target.download(bucketName, fileName);
+            assertThat(IOUtils.toByteArray(download)).containsExactly(bytes);
+            target.shutdown();
+        }
+
+        @Test
+        void failing_part_should_abort_upload() {
+            // Arrange
+            var bytes = FileFaker.randomBytes(2 * bufferSize);
+            var inputStream = new ByteArrayInputStream(bytes);
+            var bucketName = randomBucketName();
+            var fileName = FileFaker.randomFileName();
+            storageService.createBucket(bucketName);
+            doThrow(new SdkClientException("connection reset")).when(s3).uploadPart(any());
+
+            // Act + Assert
+            assertThatThrownBy(() -> storageService.upload(bucketName, fileName, inputStream))
+                    .isInstanceOf(IOException.class);
+            verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+            verify(s3, never()).completeMultipartUpload(any());
+        }
+
         private void assertThatCompleteMultipartUploadWasInvokedCorrectly(String bucketName, String fileName, int expectedPartNumbers) {
             var completeArgumentCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
             verify(s3).completeMultipartUpload(completeArgumentCaptor.capture());
@@ -149,7 +260,9 @@ class AmazonS3StorageServiceTest {
             var uploadArgumentCaptor = ArgumentCaptor.forClass(UploadPartRequest.class);
             verify(s3, times(expectedPartNumbers)).uploadPart(uploadArgumentCaptor.capture());
 
-            List<UploadPartRequest> uploadPartRequests = uploadArgumentCaptor.getAllValues();
+            // The parts are uploaded in parallel, so they can be uploaded in any order
+            List<UploadPartRequest> uploadPartRequests = new ArrayList<>(uploadArgumentCaptor.getAllValues());
+            uploadPartRequests.sort(Comparator.comparing(UploadPartRequest::getPartNumber));
             assertThat(uploadPartRequests).hasSize(expectedPartNumbers);
 
             for (int i = 0; i < expectedPartNumbers; i++) {
@@ -221,6 +334,98 @@ class AmazonS3StorageServiceTest {
             // Assert
             assertThat(IOUtils.toByteArray(download)).containsExactly(bytes1);
         }
+
+        @Test
+        void downloading_several_files_should_pass_files_to_consumer_in_order() throws IOException {
+            // Arrange
+            var bucketName = randomBucketName();
+            storageService.createBucket(bucketName);
+
+            // The last file does not fit into the download buffer
+            List<String> fileNames = new ArrayList<>();
+            List<byte[]> contents = new ArrayList<>();
+            for (int size : new int[] {10, 0, 1000, 20, bufferSize + 1}) {
+                var fileName = FileFaker.randomFileName();
+                var bytes = FileFaker.randomBytes(size);
+                storageService.upload(bucketName, fileName, new ByteArrayInputStream(bytes));
+                fileNames.add(fileName);
+                contents.add(bytes);
+            }
+
+            // Act
+            List<byte[]> downloads = new ArrayList<>();
+            storageService.download(bucketName, fileNames, (index, content) -> {
+                assertThat(index).isEqualTo(downloads.size());
+                downloads.add(IOUtils.toByteArray(content));
+            });
+
+            // Assert
+            assertThat(downloads).containsExactlyElementsOf(contents);
+        }
+
+        @Test
+        void file_that_does_not_fit_into_buffer_should_not_be_opened_before_its_turn() throws IOException {
+            // Arrange
+            var bucketName = randomBucketName();
+            storageService.createBucket(bucketName);
+            var smallFile = FileFaker.randomFileName();
+            var largeFile = FileFaker.randomFileName();
+            storageService.upload(bucketName, smallFile, new ByteArrayInputStream(FileFaker.randomBytes(10)));
+            storageService.upload(bucketName, largeFile, new ByteArrayInputStream(FileFaker.randomBytes(bufferSize + 1)));
+
+            // Act
+            storageService.download(bucketName, List.of(smallFile, largeFile), (index, content) -> {
+                if (index == 0) {
+                    // The large file has been looked at, but it is only opened once the consumer gets to it
+                    verify(s3, timeout(5000)).getObjectMetadata(bucketName, largeFile);
+                    verify(s3, never()).getObject(bucketName, largeFile);
+                }
+                content.readAllBytes();
+            });
+
+            // Assert
+            verify(s3).getObject(bucketName, largeFile);
+        }
+
+        @Test
+        void failing_consumer_should_stop_download() throws IOException {
+            // Arrange
+            var bucketName = randomBucketName();
+            storageService.createBucket(bucketName);
+            List<String> fileNames = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                var fileName = FileFaker.randomFileName();
+                storageService.upload(bucketName, fileName, new ByteArrayInputStream(FileFaker.randomBytes(10)));
+                fileNames.add(fileName);
+            }
+
+            // Act + Assert
+            assertThatThrownBy(() -> storageService.download(bucketName, fileNames, (index, content) -> {
+                throw new IOException("client has gone away");
+            })).isInstanceOf(IOException.class);
+            verify(s3, never()).getObject(bucketName, fileNames.get(4));
+        }
+    }
+
+    @Nested
+    class PartSize {
+        @Test
+        void unknown_content_length_should_double_part_size_every_thousand_parts() {
+            assertThat(storageService.partSize(1, -1)).isEqualTo(bufferSize);
+            assertThat(storageService.partSize(1000, -1)).isEqualTo(bufferSize);
+            assertThat(storageService.partSize(1001, -1)).isEqualTo(2 * bufferSize);
+            assertThat(storageService.partSize(10000, -1)).isEqualTo(AmazonS3StorageService.MAX_PART_SIZE);
+        }
+
+        @Test
+        void known_content_length_should_fit_into_max_parts() {
+            long contentLength = 200L * 1024 * 1024 * 1024;
+
+            int partSize = storageService.partSize(1, contentLength);
+
+            assertThat((long) partSize * AmazonS3StorageService.MAX_PARTS).isGreaterThanOrEqualTo(contentLength);
+            assertThat(storageService.partSize(1, 1000)).isEqualTo(bufferSize);
+        }
     }
 
     private String randomBucketName() {
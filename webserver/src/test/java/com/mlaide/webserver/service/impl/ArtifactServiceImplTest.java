@@ -1,17 +1,26 @@
 package com.mlaide.webserver.service.impl;
 
 import com.github.javafaker.Faker;
+import com.mlaide.webserver.configuration.properties.SyncProperties;
 import com.mlaide.webserver.faker.*;
 import com.mlaide.webserver.model.*;
 import com.mlaide.webserver.repository.entity.ArtifactEntity;
+import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
+import com.mlaide.webserver.repository.entity.BlobEntity;
+import com.mlaide.webserver.repository.entity.BundleEntity;
 import com.mlaide.webserver.repository.entity.FileRefEntity;
 import com.mlaide.webserver.repository.entity.ModelEntity;
 import com.mlaide.webserver.repository.entity.UserRef;
 import com.mlaide.webserver.service.*;
+import com.mlaide.webserver.repository.ArtifactFingerprint;
 import com.mlaide.webserver.repository.ArtifactRepository;
 import com.mlaide.webserver.repository.CounterRepository;
+import com.mlaide.webserver.repository.LineageRepository;
+import com.mlaide.webserver.repository.LineageSuccessor;
 import com.mlaide.webserver.service.mapper.ArtifactMapper;
+import com.mlaide.webserver.service.zip.ParallelZipWriterFactory;
 import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -28,6 +37,7 @@ import java.time.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -47,10 +57,14 @@ class ArtifactServiceImplTest {
     private @Mock ArtifactMapper artifactMapper;
     private @Mock ArtifactRepository artifactRepository;
     private @Mock CounterRepository counterRepository;
+    private @Mock LineageRepository lineageRepository;
     private @Mock PermissionService permissionService;
     private @Mock RunService runService;
+    private @Mock BlobService blobService;
     private @Mock StorageService storageService;
     private @Mock UserService userService;
+    private @Mock BundleService bundleService;
+    private ParallelZipWriterFactory zipWriterFactory;
 
     private final Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
     private final Random random = new Random();
@@ -59,10 +73,18 @@ class ArtifactServiceImplTest {
 
     @BeforeEach
     public void initializeArtifactService() {
+        zipWriterFactory = new ParallelZipWriterFactory(2, 1024, 4, List.of(".zip"), clock);
+        SyncProperties syncProperties = new SyncProperties();
+        syncProperties.setPageSize(1000);
         artifactService = new ArtifactServiceImpl(
                 artifactMapper, artifactRepository, counterRepository,
-                clock, permissionService, runService,
-                storageService, userService);
+                lineageRepository, clock, permissionService, runService,
+                blobService, storageService, userService, bundleService, zipWriterFactory, syncProperties);
+    }
+
+    @AfterEach
+    public void shutdownZipWriterFactory() {
+        zipWriterFactory.shutdown();
     }
 
     @Nested
@@ -159,6 +181,7 @@ class ArtifactServiceImplTest {
 
             // Assert
             verify(artifactRepository).deleteById(expectedArtifactToSave.getId());
+            verify(lineageRepository).removeEdgesOfArtifact(expectedArtifactToSave);
         }
 
         @Test
@@ -192,6 +215,7 @@ class ArtifactServiceImplTest {
         private InputStream artifactStream;
         private String artifactFileName;
         private String fileHash;
+        private BlobEntity blob;
 
         @BeforeEach
         void initializeCommonDefaultVariables() {
@@ -200,10 +224,11 @@ class ArtifactServiceImplTest {
             artifact = ArtifactFaker.newArtifactEntity();
             artifactStream = FileFaker.randomInputStream();
             artifactFileName = FileFaker.randomFileName();
-        }
-
-        private String buildExpectedInternalFileName() {
-            return artifact.getType() + "/" + artifact.getName() + "/" + artifact.getVersion() + "/" + artifactFileName;
+            blob = new BlobEntity();
+            blob.setHash(fileHash.toLowerCase());
+            blob.setKey("blobs/" + fileHash);
+            blob.setObjectVersionId(faker.random().hex());
+            blob.setSize(42L);
         }
 
         @Test
@@ -217,16 +242,15 @@ class ArtifactServiceImplTest {
 
             // Act + Assert
             assertThatThrownBy(() -> artifactService.uploadArtifactFile(
-                    projectKey, artifactName, artifactVersion, artifactStream, artifactFileName, null))
+                    projectKey, artifactName, artifactVersion, artifactStream, artifactFileName, null, 42))
                     .isInstanceOf(NotFoundException.class);
         }
 
         @Test
         void should_not_upload_file_if_it_already_exists() throws IOException {
             // Arrange
-            var fileName= buildExpectedInternalFileName();
             var fileRefEntity = new FileRefEntity();
-            fileRefEntity.setInternalFileName(fileName);
+            fileRefEntity.setFileName(artifactFileName);
             fileRefEntity.setHash(fileHash);
             var fileRefEntities = new ArrayList<FileRefEntity>();
             fileRefEntities.add(fileRefEntity);
@@ -236,41 +260,35 @@ class ArtifactServiceImplTest {
 
             // Act
             artifactService.uploadArtifactFile(
-                    project.getKey(), artifact.getName(), artifact.getVersion(), artifactStream, artifactFileName, fileHash);
+                    project.getKey(), artifact.getName(), artifact.getVersion(), artifactStream, artifactFileName, fileHash, 42);
 
             // Assert
-            verify(storageService, never()).upload(project.getKey(), fileName, artifactStream);
+            verifyNoInteractions(blobService);
             verify(artifactRepository, never()).save(artifact);
         }
 
         @Test
-        void should_upload_file_to_storage_service() throws IOException {
+        void should_store_file_as_blob() throws IOException {
             // Arrange
             when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
                     .thenReturn(artifact);
-            when(storageService.upload(any(), any(), any())).thenReturn(new FileUploadResult(null, null));
+            when(blobService.storeBlob(any(), any(), any(), anyLong())).thenReturn(blob);
 
             // Act
             artifactService.uploadArtifactFile(
-                    project.getKey(), artifact.getName(), artifact.getVersion(), artifactStream, artifactFileName, fileHash);
+                    project.getKey(), artifact.getName(), artifact.getVersion(), artifactStream, artifactFileName, fileHash, 42);
 
             // Assert
-            String expectedInternalFileName = buildExpectedInternalFileName();
-            verify(storageService).upload(project.getKey(), expectedInternalFileName, artifactStream);
+            verify(blobService).storeBlob(project.getKey(), fileHash, artifactStream, 42);
         }
 
-
-
         @Test
         void upload_first_file_to_artifact_should_add_first_file_ref_to_artifact() throws IOException {
             // Arrange
-            var objectVersionId = faker.random().hex();
-            var fileUploadResult = new FileUploadResult(fileHash, objectVersionId);
-
             when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
                     .thenReturn(artifact);
-            when(storageService.upload(any(), any(), any()))
-                    .thenReturn(fileUploadResult);
+            when(blobService.storeBlob(any(), any(), any(), anyLong()))
+                    .thenReturn(blob);
 
             // Act
             artifactService.uploadArtifactFile(
@@ -279,16 +297,17 @@ class ArtifactServiceImplTest {
                     artifact.getVersion(),
                     artifactStream,
                     artifactFileName,
-                    fileHash);
+                    fileHash,
+                    42);
 
             // Assert
             assertThat(artifact.getFiles()).hasSize(1);
             var fileRef = artifact.getFiles().get(0);
-            String expectedInternalFileName = buildExpectedInternalFileName();
-            assertThat(fileRef.getInternalFileName()).isEqualTo(expectedInternalFileName);
+            assertThat(fileRef.getInternalFileName()).isEqualTo(blob.getKey());
             assertThat(fileRef.getFileName()).isEqualTo(artifactFileName);
-            assertThat(fileRef.getHash()).isEqualTo(fileHash);
-            assertThat(fileRef.getS3ObjectVersionId()).isEqualTo(objectVersionId);
+            assertThat(fileRef.getHash()).isEqualTo(blob.getHash());
+            assertThat(fileRef.getS3ObjectVersionId()).isEqualTo(blob.getObjectVersionId());
+            assertThat(fileRef.getSize()).isEqualTo(42L);
 
             verify(artifactRepository).save(artifact);
         }
@@ -301,13 +320,10 @@ class ArtifactServiceImplTest {
             files.add(existingFileRef);
             artifact.setFiles(files);
 
-            var objectVersionId = faker.random().hex();
-            var fileUploadResult = new FileUploadResult(fileHash, objectVersionId);
-
             when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
                     .thenReturn(artifact);
-            when(storageService.upload(any(), any(), any()))
-                    .thenReturn(fileUploadResult);
+            when(blobService.storeBlob(any(), any(), any(), anyLong()))
+                    .thenReturn(blob);
 
             // Act
             artifactService.uploadArtifactFile(
@@ -316,7 +332,8 @@ class ArtifactServiceImplTest {
                     artifact.getVersion(),
                     artifactStream,
                     artifactFileName,
-                    fileHash);
+                    fileHash,
+                    42);
 
             // Assert
             assertThat(artifact.getFiles()).hasSize(2);
@@ -324,16 +341,93 @@ class ArtifactServiceImplTest {
             assertThat(artifact.getFiles().get(0)).isSameAs(existingFileRef);
 
             var fileRef = artifact.getFiles().get(1);
-            String expectedInternalFileName = buildExpectedInternalFileName();
-            assertThat(fileRef.getInternalFileName()).isEqualTo(expectedInternalFileName);
+            assertThat(fileRef.getInternalFileName()).isEqualTo(blob.getKey());
             assertThat(fileRef.getFileName()).isEqualTo(artifactFileName);
-            assertThat(fileRef.getHash()).isEqualTo(fileHash);
-            assertThat(fileRef.getS3ObjectVersionId()).isEqualTo(objectVersionId);
+            assertThat(fileRef.getHash()).isEqualTo(blob.getHash());
+            assertThat(fileRef.getS3ObjectVersionId()).isEqualTo(blob.getObjectVersionId());
+            assertThat(fileRef.getSize()).isEqualTo(42L);
 
             verify(artifactRepository).save(artifact);
         }
     }
 
+    @Nested
+    class AddArtifactFilesTest {
+        @Test
+        void should_add_refs_to_existing_blobs_and_ignore_existing_files() {
+            // Arrange
+            ArtifactEntity artifact = ArtifactFaker.newArtifactEntity();
+            String projectKey = artifact.getProjectKey();
+            FileHash existingFile = FileHashFaker.newFileHash();
+            FileHash newFile = FileHashFaker.newFileHash();
+            List<FileRefEntity> files = new ArrayList<>();
+            files.add(FileRefEntity.builder().fileName(existingFile.getFileName()).hash(existingFile.getFileHash()).build());
+            artifact.setFiles(files);
+            BlobEntity blob = new BlobEntity();
+            blob.setHash(newFile.getFileHash());
+            blob.setKey("blobs/" + newFile.getFileHash());
+            blob.setObjectVersionId("v1");
+            blob.setSize(7L);
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifact.getName(), artifact.getVersion()))
+                    .thenReturn(artifact);
+            when(blobService.referenceBlob(projectKey, newFile.getFileHash())).thenReturn(blob);
+
+            // Act
+            artifactService.addArtifactFiles(projectKey, artifact.getName(), artifact.getVersion(), asList(existingFile, newFile));
+
+            // Assert
+            assertThat(artifact.getFiles()).hasSize(2);
+            assertThat(artifact.getFiles().get(1).getFileName()).isEqualTo(newFile.getFileName());
+            assertThat(artifact.getFiles().get(1).getInternalFileName()).isEqualTo(blob.getKey());
+            assertThat(artifact.getFiles().get(1).getS3ObjectVersionId()).isEqualTo("v1");
+            assertThat(artifact.getFiles().get(1).getHash()).isEqualTo(newFile.getFileHash());
+            assertThat(artifact.getFiles().get(1).getSize()).isEqualTo(7L);
+            verify(blobService, never()).referenceBlob(projectKey, existingFile.getFileHash());
+            verify(artifactRepository).save(artifact);
+        }
+
+        @Test
+        void files_with_same_content_should_get_different_file_ids() {
+            // Arrange
+            ArtifactEntity artifact = ArtifactFaker.newArtifactEntity();
+            String projectKey = artifact.getProjectKey();
+            FileHash file = FileHashFaker.newFileHash();
+            FileHash copy = new FileHash();
+            copy.setFileName("copy-of-" + file.getFileName());
+            copy.setFileHash(file.getFileHash());
+            BlobEntity blob = new BlobEntity();
+            blob.setHash(file.getFileHash());
+            blob.setKey("blobs/" + file.getFileHash());
+            blob.setObjectVersionId("v1");
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifact.getName(), artifact.getVersion()))
+                    .thenReturn(artifact);
+            when(blobService.referenceBlob(projectKey, file.getFileHash())).thenReturn(blob);
+
+            // Act
+            artifactService.addArtifactFiles(projectKey, artifact.getName(), artifact.getVersion(), asList(file, copy));
+
+            // Assert
+            assertThat(artifact.getFiles()).extracting(FileRefEntity::getS3ObjectVersionId).containsExactly("v1", "v1");
+            assertThat(artifact.getFiles()).extracting(FileRefEntity::getFileId).doesNotContainNull().doesNotHaveDuplicates();
+        }
+
+        @Test
+        void blob_does_not_exist_should_throw_NotFoundException_and_not_save_artifact() {
+            // Arrange
+            ArtifactEntity artifact = ArtifactFaker.newArtifactEntity();
+            String projectKey = artifact.getProjectKey();
+            FileHash file = FileHashFaker.newFileHash();
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifact.getName(), artifact.getVersion()))
+                    .thenReturn(artifact);
+            when(blobService.referenceBlob(projectKey, file.getFileHash())).thenThrow(new NotFoundException());
+
+            // Act + Assert
+            assertThatThrownBy(() -> artifactService.addArtifactFiles(projectKey, artifact.getName(), artifact.getVersion(), List.of(file)))
+                    .isInstanceOf(NotFoundException.class);
+            verify(artifactRepository, never()).save(any());
+        }
+    }
+
     @Nested
     class CreateOrUpdateModelTest {
         private Project project;
@@ -464,12 +558,32 @@ class ArtifactServiceImplTest {
                     .thenReturn(expectedArtifacts);
 
             // Act
-            ItemList<Artifact> artifacts = artifactService.getArtifacts(project.getKey());
+            ItemList<Artifact> artifacts = artifactService.getArtifacts(project.getKey(), null);
 
             // Assert
             assertThat(artifacts).isNotNull();
             assertThat(artifacts.getItems()).isSameAs(expectedArtifacts);
         }
+
+        @Test
+        void fields_are_specified_should_load_requested_fields_and_name_and_version_from_repository() {
+            // Arrange
+            var project = ProjectFaker.newProject();
+            List<ArtifactEntity> artifactEntities = new ArrayList<>();
+            List<Artifact> expectedArtifacts = new ArrayList<>();
+
+            when(artifactRepository.findArtifacts(project.getKey(), null, false,
+                    Sort.by(Sort.Direction.ASC, "name", "version"), Set.of("name", "version", "type", "createdAt")))
+                    .thenReturn(artifactEntities);
+            when(artifactMapper.fromEntity(artifactEntities))
+                    .thenReturn(expectedArtifacts);
+
+            // Act
+            ItemList<Artifact> artifacts = artifactService.getArtifacts(project.getKey(), asList("type", "createdAt"));
+
+            // Assert
+            assertThat(artifacts.getItems()).isSameAs(expectedArtifacts);
+        }
     }
 
     @Nested
@@ -487,7 +601,7 @@ class ArtifactServiceImplTest {
                     .thenReturn(expectedArtifacts);
 
             // Act
-            ItemList<Artifact> artifacts = artifactService.getModels(project.getKey());
+            ItemList<Artifact> artifacts = artifactService.getModels(project.getKey(), null);
 
             // Assert
             assertThat(artifacts).isNotNull();
@@ -516,7 +630,7 @@ class ArtifactServiceImplTest {
                     .thenReturn(expectedArtifacts);
 
             // Act
-            ItemList<Artifact> artifacts = artifactService.getArtifactsByRunKeys(project.getKey(), runKeys);
+            ItemList<Artifact> artifacts = artifactService.getArtifactsByRunKeys(project.getKey(), runKeys, null);
 
             // Assert
             assertThat(artifacts).isNotNull();
@@ -623,111 +737,143 @@ class ArtifactServiceImplTest {
     }
 
     @Nested
-    class GetArtifactByHashesTest {
-        private Project project;
-        private Artifact artifact;
+    class GetDownstreamRunsTest {
+        private String projectKey;
         private ArtifactEntity artifactEntity;
-        private List<ArtifactEntity> artifactsEntities;
-        private List<FileHash> fileHashes;
-        private InputStream artifactStream;
-        private String artifactFileName;
 
         @BeforeEach
-        void initializeCommonDefaultVariables() {
-            project = ProjectFaker.newProject();
-            artifact = ArtifactFaker.newArtifact();
+        void initializeArtifact() {
+            projectKey = ProjectFaker.newProject().getKey();
             artifactEntity = ArtifactFaker.newArtifactEntity();
-            fileHashes = new ArrayList<FileHash>();
-            fileHashes.add(FileHashFaker.newFileHash());
-            artifactsEntities = new ArrayList<ArtifactEntity>();
-            artifactsEntities.add(artifactEntity);
         }
 
         @Test
         void specified_artifact_does_not_exist_should_throw_NotFoundException() {
             // Arrange
-            when(artifactRepository.findAllByProjectKeyAndNameOrderByVersionDesc(project.getKey(), artifactEntity.getName()))
-                    .thenReturn(emptyList());
+            String artifactName = artifactEntity.getName();
+            Integer artifactVersion = artifactEntity.getVersion();
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifactName, artifactVersion))
+                    .thenReturn(null);
 
             // Act + Assert
-            assertThatThrownBy(() -> artifactService.getArtifactByFileHashes(project.getKey(), artifactEntity.getName(), fileHashes))
+            assertThatThrownBy(() -> artifactService.getDownstreamRuns(projectKey, artifactName, artifactVersion, null, null, null))
                     .isInstanceOf(NotFoundException.class);
         }
 
-        @ParameterizedTest
-        @MethodSource("com.mlaide.webserver.service.impl.ArtifactServiceImplTest#provideParametersForArtifactsWithNoFileRefsAndNoFileHashes")
-        void specified_artifact_has_no_files_and_no_file_hashes_should_return_artifact(List<FileRefEntity> fileRefEntities, List<FileHash> fileHashes) {
-            // Assert
-            artifactsEntities.get(0).setFiles(fileRefEntities);
-            when(artifactRepository.findAllByProjectKeyAndNameOrderByVersionDesc(project.getKey(), artifactEntity.getName()))
-                    .thenReturn(artifactsEntities);
-            when(artifactMapper.fromEntity(artifactEntity))
-                    .thenReturn(artifact);
+        @Test
+        void should_return_page_of_runs_with_their_outputs_and_token_of_next_page() {
+            // Arrange
+            ArtifactRefEntity model = new ArtifactRefEntity("model", 1);
+            ArtifactEntity modelEntity = new ArtifactEntity();
+            modelEntity.setName("model");
+            modelEntity.setVersion(1);
+            Artifact modelArtifact = new Artifact();
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifactEntity.getName(), artifactEntity.getVersion()))
+                    .thenReturn(artifactEntity);
+            when(lineageRepository.findSuccessors(eq(projectKey), any(), eq(3), isNull(), isNull(), eq(2)))
+                    .thenReturn(asList(new LineageSuccessor(7, 1, List.of(model)), new LineageSuccessor(9, 2, emptyList())));
+            when(artifactRepository.findArtifactsByRefs(eq(projectKey), eq(List.of(model)), any()))
+                    .thenReturn(List.of(modelEntity));
+            when(artifactMapper.fromEntity(modelEntity)).thenReturn(modelArtifact);
 
             // Act
-            var result = artifactService.getArtifactByFileHashes(project.getKey(), artifactEntity.getName(), fileHashes);
-
-            // Arrange
-            assertThat(result).isSameAs(artifact);
-        }
+            ItemList<DownstreamRun> runs = artifactService.getDownstreamRuns(
+                    projectKey, artifactEntity.getName(), artifactEntity.getVersion(), 3, 1, null);
 
-        @ParameterizedTest
-        @MethodSource("com.mlaide.webserver.service.impl.ArtifactServiceImplTest#provideParametersForArtifactsWithFileRefsOrFileHashesEqualNull")
-        void specified_artifact_has_no_matches_should_throw_NotFoundException(List<FileRefEntity> fileRefEntities, List<FileHash> fileHashes) {
             // Assert
-            artifactsEntities.get(0).setFiles(fileRefEntities);
-            when(artifactRepository.findAllByProjectKeyAndNameOrderByVersionDesc(project.getKey(), artifactEntity.getName()))
-                    .thenReturn(artifactsEntities);
+            assertThat(runs.getItems()).hasSize(1);
+            assertThat(runs.getItems().get(0).getKey()).isEqualTo(7);
+            assertThat(runs.getItems().get(0).getDepth()).isEqualTo(1);
+            assertThat(runs.getItems().get(0).getArtifacts()).containsExactly(modelArtifact);
+            assertThat(runs.getNextPageToken()).isNotNull();
 
-            // Act + Assert
-            assertThatThrownBy(() -> artifactService.getArtifactByFileHashes(project.getKey(), artifactEntity.getName(), fileHashes))
-                    .isInstanceOf(NotFoundException.class);
+            // Act
+            when(lineageRepository.findSuccessors(eq(projectKey), any(), eq(3), eq(1), eq(7), eq(2)))
+                    .thenReturn(List.of(new LineageSuccessor(9, 2, emptyList())));
+            ItemList<DownstreamRun> nextRuns = artifactService.getDownstreamRuns(
+                    projectKey, artifactEntity.getName(), artifactEntity.getVersion(), 3, 1, runs.getNextPageToken());
+
+            // Assert
+            assertThat(nextRuns.getItems()).hasSize(1);
+            assertThat(nextRuns.getItems().get(0).getKey()).isEqualTo(9);
+            assertThat(nextRuns.getNextPageToken()).isNull();
         }
 
         @Test
-        void specified_artifact_files_size_does_not_match_file_hashes_size_should_throw_NotFoundException() {
+        void page_token_of_other_list_should_throw_InvalidInputException() {
             // Arrange
-            artifactsEntities.get(0).setFiles(emptyList());
-            when(artifactRepository.findAllByProjectKeyAndNameOrderByVersionDesc(project.getKey(), artifactEntity.getName()))
-                    .thenReturn(artifactsEntities);
+            String artifactName = artifactEntity.getName();
+            Integer artifactVersion = artifactEntity.getVersion();
+            String pageToken = new PageToken("key", Sort.Direction.DESC, 7, 7).encode();
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(projectKey, artifactName, artifactVersion))
+                    .thenReturn(artifactEntity);
 
             // Act + Assert
-            assertThatThrownBy(() -> artifactService.getArtifactByFileHashes(project.getKey(), artifactEntity.getName(), fileHashes))
-                    .isInstanceOf(NotFoundException.class);
+            assertThatThrownBy(() -> artifactService.getDownstreamRuns(projectKey, artifactName, artifactVersion, null, null, pageToken))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+    }
+
+    @Nested
+    class GetArtifactByHashesTest {
+        private Project project;
+        private Artifact artifact;
+        private ArtifactEntity artifactEntity;
+
+        @BeforeEach
+        void initializeCommonDefaultVariables() {
+            project = ProjectFaker.newProject();
+            artifact = ArtifactFaker.newArtifact();
+            artifactEntity = ArtifactFaker.newArtifactEntity();
         }
 
         @Test
-        void specified_artifact_all_files_matches_should_return_artifact() {
+        void artifact_with_same_fingerprint_exists_should_return_artifact() {
             // Arrange
-            var fileRefs = asList(FileRefFaker.newFileRefEntity(),FileRefFaker.newFileRefEntity());
-            var fileHashes = asList(FileHashFaker.newFileHash(),FileHashFaker.newFileHash());
-            fileRefs.get(0).setFileName(fileHashes.get(0).getFileName());
-            fileRefs.get(0).setHash(fileHashes.get(0).getFileHash());
-            fileRefs.get(1).setFileName(fileHashes.get(1).getFileName());
-            fileRefs.get(1).setHash(fileHashes.get(1).getFileHash());
-            artifactsEntities.get(0).setFiles(fileRefs);
-            when(artifactRepository.findAllByProjectKeyAndNameOrderByVersionDesc(project.getKey(), artifactEntity.getName()))
-                    .thenReturn(artifactsEntities);
+            var fileRefs = asList(FileRefFaker.newFileRefEntity(), FileRefFaker.newFileRefEntity());
+            var fileHashes = asList(FileHashFaker.newFileHash(), FileHashFaker.newFileHash());
+            fileRefs.get(0).setFileName(fileHashes.get(1).getFileName());
+            fileRefs.get(0).setHash(fileHashes.get(1).getFileHash().toUpperCase());
+            fileRefs.get(1).setFileName(fileHashes.get(0).getFileName());
+            fileRefs.get(1).setHash(fileHashes.get(0).getFileHash());
+            String fingerprint = ArtifactFingerprint.ofFiles(fileRefs);
+            when(artifactRepository.findFirstByProjectKeyAndNameAndFingerprintOrderByVersionDesc(
+                    project.getKey(), artifactEntity.getName(), fingerprint))
+                    .thenReturn(artifactEntity);
             when(artifactMapper.fromEntity(artifactEntity))
                     .thenReturn(artifact);
 
             // Act
             var result = artifactService.getArtifactByFileHashes(project.getKey(), artifactEntity.getName(), fileHashes);
 
+            // Assert
+            assertThat(result).isSameAs(artifact);
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.mlaide.webserver.service.impl.ArtifactServiceImplTest#provideParametersForNoFileHashes")
+        void no_file_hashes_should_look_up_artifact_without_files(List<FileHash> fileHashes) {
             // Arrange
+            when(artifactRepository.findFirstByProjectKeyAndNameAndFingerprintOrderByVersionDesc(
+                    project.getKey(), artifactEntity.getName(), ArtifactFingerprint.ofFiles(null)))
+                    .thenReturn(artifactEntity);
+            when(artifactMapper.fromEntity(artifactEntity))
+                    .thenReturn(artifact);
+
+            // Act
+            var result = artifactService.getArtifactByFileHashes(project.getKey(), artifactEntity.getName(), fileHashes);
+
+            // Assert
             assertThat(result).isSameAs(artifact);
         }
 
         @Test
-        void specified_artifact_not_all_files_matches_should_throw_NotFoundException() {
+        void no_artifact_with_same_fingerprint_exists_should_throw_NotFoundException() {
             // Arrange
-            var fileRefs = asList(FileRefFaker.newFileRefEntity(),FileRefFaker.newFileRefEntity());
-            var fileHashes = asList(FileHashFaker.newFileHash(),FileHashFaker.newFileHash());
-            fileRefs.get(0).setFileName(fileHashes.get(0).getFileName());
-            fileRefs.get(0).setHash(fileHashes.get(0).getFileHash());
-            artifactsEntities.get(0).setFiles(fileRefs);
-            when(artifactRepository.findAllByProjectKeyAndNameOrderByVersionDesc(project.getKey(), artifactEntity.getName()))
-                    .thenReturn(artifactsEntities);
+            var fileHashes = List.of(FileHashFaker.newFileHash());
+            when(artifactRepository.findFirstByProjectKeyAndNameAndFingerprintOrderByVersionDesc(
+                    eq(project.getKey()), eq(artifactEntity.getName()), any()))
+                    .thenReturn(null);
 
             // Act + Assert
             assertThatThrownBy(() -> artifactService.getArtifactByFileHashes(project.getKey(), artifactEntity.getName(), fileHashes))
@@ -735,19 +881,10 @@ class ArtifactServiceImplTest {
         }
     }
 
-    private static Stream<Arguments> provideParametersForArtifactsWithNoFileRefsAndNoFileHashes() {
-        return Stream.of(
-                Arguments.of(null, null),
-                Arguments.of(null, emptyList()),
-                Arguments.of(emptyList(), null),
-                Arguments.of(emptyList(), emptyList())
-        );
-    }
-
-    private static Stream<Arguments> provideParametersForArtifactsWithFileRefsOrFileHashesEqualNull() {
+    private static Stream<Arguments> provideParametersForNoFileHashes() {
         return Stream.of(
-                Arguments.of(null, asList(FileHashFaker.newFileHash())),
-                Arguments.of(asList(FileRefFaker.newFileRefEntity()), null)
+                Arguments.of((Object) null),
+                Arguments.of(emptyList())
         );
     }
 
@@ -797,9 +934,9 @@ class ArtifactServiceImplTest {
             var project = ProjectFaker.newProject();
             ArtifactEntity artifactEntity = ArtifactFaker.newArtifactEntity();
             ArrayList<FileRefEntity> files = new ArrayList<>();
-            files.add(FileRefEntity.builder().s3ObjectVersionId(faker.random().hex()).build());
-            files.add(FileRefEntity.builder().s3ObjectVersionId("existing id").build());
-            files.add(FileRefEntity.builder().s3ObjectVersionId(faker.random().hex()).build());
+            files.add(FileRefEntity.builder().fileId(faker.random().hex()).s3ObjectVersionId("v1").build());
+            files.add(FileRefEntity.builder().fileId("existing id").s3ObjectVersionId("v1").build());
+            files.add(FileRefEntity.builder().fileId(faker.random().hex()).s3ObjectVersionId("v1").build());
             artifactEntity.setFiles(files);
 
             when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifactEntity.getName(), artifactEntity.getVersion()))
@@ -817,7 +954,7 @@ class ArtifactServiceImplTest {
     }
 
     @Nested
-    class DownloadArtifactTest {
+    class GetArtifactZipTest {
         @Test
         void specified_artifact_does_not_exist_should_throw_NotFoundException() {
             // Arrange
@@ -833,7 +970,7 @@ class ArtifactServiceImplTest {
 
             // Act + Assert
             assertThatThrownBy(
-                    () -> artifactService.downloadArtifact(projectKey, artifactName, artifactVersion, null))
+                    () -> artifactService.getArtifactZip(projectKey, artifactName, artifactVersion, ZipCompression.AUTO))
                     .isInstanceOf(NotFoundException.class);
         }
 
@@ -855,17 +992,27 @@ class ArtifactServiceImplTest {
             artifact.setFiles(files);
 
             var project = ProjectFaker.newProject();
+            var run = RunFaker.newRun();
+            run.setStatus(RunStatus.RUNNING);
 
             when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
                     .thenReturn(artifact);
-            when(storageService.download(project.getKey(), file1.getInternalFileName()))
-                    .thenReturn(file1Stream);
-            when(storageService.download(project.getKey(), file2.getInternalFileName()))
-                    .thenReturn(file2Stream);
+            when(runService.getRun(project.getKey(), artifact.getRuns().get(0).getKey())).thenReturn(run);
+            doAnswer(invocation -> {
+                StorageService.ObjectConsumer consumer = invocation.getArgument(2);
+                consumer.accept(0, file1Stream);
+                consumer.accept(1, file2Stream);
+                return null;
+            }).when(storageService).download(
+                    eq(project.getKey()),
+                    eq(List.of(file1.getInternalFileName(), file2.getInternalFileName())),
+                    any(StorageService.ObjectConsumer.class));
 
             // Act
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            artifactService.downloadArtifact(project.getKey(), artifact.getName(), artifact.getVersion(), outputStream);
+            ArtifactZip zip = artifactService.getArtifactZip(
+                    project.getKey(), artifact.getName(), artifact.getVersion(), ZipCompression.AUTO);
+            zip.writeTo(outputStream);
 
             // Assert
             InputStream zipInput = new ByteArrayInputStream(outputStream.toByteArray());
@@ -883,6 +1030,78 @@ class ArtifactServiceImplTest {
 
             assertThat(actualFile1).isEqualTo(file1Bytes);
             assertThat(actualFile2).isEqualTo(file2Bytes);
+            assertThat(zip.getContentLength()).isNull();
+        }
+
+        @Test
+        void cached_bundle_exists_should_stream_bundle_with_its_size() throws IOException {
+            // Arrange
+            var artifact = ArtifactFaker.newArtifactEntity();
+            artifact.setFiles(List.of(FileRefFaker.newFileRefEntity()));
+            var project = ProjectFaker.newProject();
+            var bundle = new BundleEntity();
+            bundle.setSize(1234);
+
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
+                    .thenReturn(artifact);
+            when(bundleService.findBundle(project.getKey(), ArtifactFingerprint.ofContent(artifact.getFiles()), ZipCompression.AUTO)).thenReturn(bundle);
+
+            // Act
+            ArtifactZip zip = artifactService.getArtifactZip(
+                    project.getKey(), artifact.getName(), artifact.getVersion(), ZipCompression.AUTO);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            zip.writeTo(outputStream);
+
+            // Assert
+            assertThat(zip.getContentLength()).isEqualTo(1234);
+            verify(bundleService).downloadBundle(project.getKey(), bundle, outputStream);
+            verify(bundleService, never()).buildBundle(any(), any(), any(), any());
+            verifyNoInteractions(storageService);
+        }
+
+        @Test
+        void no_cached_bundle_and_all_runs_finished_should_build_bundle() {
+            // Arrange
+            var artifact = ArtifactFaker.newArtifactEntity();
+            artifact.setFiles(List.of(FileRefFaker.newFileRefEntity()));
+            var project = ProjectFaker.newProject();
+            var run = RunFaker.newRun();
+            run.setStatus(RunStatus.COMPLETED);
+
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
+                    .thenReturn(artifact);
+            when(runService.getRun(project.getKey(), artifact.getRuns().get(0).getKey())).thenReturn(run);
+
+            // Act
+            ArtifactZip zip = artifactService.getArtifactZip(
+                    project.getKey(), artifact.getName(), artifact.getVersion(), ZipCompression.STORED);
+
+            // Assert
+            assertThat(zip.getContentLength()).isNull();
+            verify(bundleService).buildBundle(
+                    eq(project.getKey()), eq(ArtifactFingerprint.ofContent(artifact.getFiles())), eq(ZipCompression.STORED), any());
+        }
+
+        @Test
+        void no_cached_bundle_and_run_still_running_should_not_build_bundle() {
+            // Arrange
+            var artifact = ArtifactFaker.newArtifactEntity();
+            artifact.setFiles(List.of(FileRefFaker.newFileRefEntity()));
+            var project = ProjectFaker.newProject();
+            var run = RunFaker.newRun();
+            run.setStatus(RunStatus.RUNNING);
+
+            when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
+                    .thenReturn(artifact);
+            when(runService.getRun(project.getKey(), artifact.getRuns().get(0).getKey())).thenReturn(run);
+
+            // Act
+            ArtifactZip zip = artifactService.getArtifactZip(
+                    project.getKey(), artifact.getName(), artifact.getVersion(), ZipCompression.AUTO);
+
+            // Assert
+            assertThat(zip.getContentLength()).isNull();
+            verify(bundleService, never()).buildBundle(any(), any(), any(), any());
         }
 
         private byte[] readCurrentFileFromZip(ZipInputStream zipInputStream) throws IOException {
@@ -919,9 +1138,10 @@ class ArtifactServiceImplTest {
             var fileId = faker.random().hex();
             var existingFileBytes = FileFaker.randomBytes(1000);
             FileRefEntity file = new FileRefEntity();
+            file.setFileId(fileId);
             file.setFileName("file.txt");
             file.setInternalFileName("file.txt");
-            file.setS3ObjectVersionId(fileId);
+            file.setS3ObjectVersionId("v1");
 
             List<FileRefEntity> files = new ArrayList<>();
             files.add(file);
@@ -933,7 +1153,7 @@ class ArtifactServiceImplTest {
 
             when(artifactRepository.findOneByProjectKeyAndNameAndVersion(project.getKey(), artifact.getName(), artifact.getVersion()))
                     .thenReturn(artifact);
-            when(storageService.download(project.getKey(), file.getInternalFileName(), fileId))
+            when(storageService.download(project.getKey(), file.getInternalFileName(), "v1"))
                     .thenReturn(new ByteArrayInputStream(existingFileBytes));
 
             // Act
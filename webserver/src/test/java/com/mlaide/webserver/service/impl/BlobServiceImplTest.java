@@ -0,0 +1,136 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.repository.BlobRepository;
+import com.mlaide.webserver.repository.entity.BlobEntity;
+import com.mlaide.webserver.service.FileUploadResult;
+import com.mlaide.webserver.service.InvalidInputException;
+import com.mlaide.webserver.service.NotFoundException;
+import com.mlaide.webserver.service.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlobServiceImplTest {
+    private BlobServiceImpl blobService;
+
+    private @Mock BlobRepository blobRepository;
+    private @Mock StorageService storageService;
+
+    @BeforeEach
+    void initialize() {
+        blobService = new BlobServiceImpl(blobRepository, storageService);
+    }
+
+    @Nested
+    class FindExistingBlobsTest {
+        @Test
+        void should_return_existing_hashes_as_requested() {
+            // Arrange
+            when(blobRepository.findExistingHashes("project", Set.of("abc", "def"))).thenReturn(Set.of("abc"));
+
+            // Act
+            Set<String> existingHashes = blobService.findExistingBlobs("project", List.of("ABC", "def"));
+
+            // Assert
+            assertThat(existingHashes).containsExactly("ABC");
+        }
+
+        @Test
+        void empty_hash_should_throw_InvalidInputException() {
+            // Act + Assert
+            assertThatThrownBy(() -> blobService.findExistingBlobs("project", List.of(" ")))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+    }
+
+    @Nested
+    class StoreBlobTest {
+        private final InputStream content = new ByteArrayInputStream(new byte[] {1, 2, 3});
+
+        @Test
+        void existing_blob_should_be_referenced_without_upload() throws IOException {
+            // Arrange
+            BlobEntity blob = new BlobEntity();
+            when(blobRepository.addReference("project", "abc")).thenReturn(blob);
+
+            // Act
+            BlobEntity result = blobService.storeBlob("project", "ABC", content, 3);
+
+            // Assert
+            assertThat(result).isSameAs(blob);
+            verifyNoInteractions(storageService);
+        }
+
+        @Test
+        void new_blob_should_be_uploaded_and_registered() throws IOException {
+            // Arrange
+            BlobEntity blob = new BlobEntity();
+            when(blobRepository.addReference("project", "abc")).thenReturn(null);
+            when(storageService.upload("project", "blobs/abc", content, 3, "abc"))
+                    .thenReturn(new FileUploadResult("etag", "v1", "abc", 3));
+            when(blobRepository.addBlob("project", "abc", "blobs/abc", "v1", 3)).thenReturn(blob);
+
+            // Act
+            BlobEntity result = blobService.storeBlob("project", "abc", content, 3);
+
+            // Assert
+            assertThat(result).isSameAs(blob);
+        }
+
+        @Test
+        void content_that_does_not_match_hash_should_not_be_registered() throws IOException {
+            // Arrange
+            when(blobRepository.addReference("project", "abc")).thenReturn(null);
+            when(storageService.upload("project", "blobs/abc", content, 3, "abc"))
+                    .thenThrow(new InvalidInputException("The file hash does not match the content of the file."));
+
+            // Act + Assert
+            assertThatThrownBy(() -> blobService.storeBlob("project", "abc", content, 3))
+                    .isInstanceOf(InvalidInputException.class);
+            verify(blobRepository, never()).addBlob(any(), any(), any(), any(), anyLong());
+        }
+    }
+
+    @Nested
+    class ReferenceBlobTest {
+        @Test
+        void blob_does_not_exist_should_throw_NotFoundException() {
+            // Arrange
+            when(blobRepository.addReference("project", "abc")).thenReturn(null);
+
+            // Act + Assert
+            assertThatThrownBy(() -> blobService.referenceBlob("project", "abc"))
+                    .isInstanceOf(NotFoundException.class);
+        }
+
+        @Test
+        void blob_exists_should_return_referenced_blob() {
+            // Arrange
+            BlobEntity blob = new BlobEntity();
+            when(blobRepository.addReference("project", "abc")).thenReturn(blob);
+
+            // Act
+            BlobEntity result = blobService.referenceBlob("project", "abc");
+
+            // Assert
+            assertThat(result).isSameAs(blob);
+            verify(blobRepository, never()).addBlob(any(), any(), any(), any(), anyLong());
+        }
+    }
+}
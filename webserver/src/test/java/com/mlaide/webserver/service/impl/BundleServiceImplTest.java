@@ -0,0 +1,128 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.model.ZipCompression;
+import com.mlaide.webserver.repository.BundleRepository;
+import com.mlaide.webserver.repository.entity.BundleEntity;
+import com.mlaide.webserver.service.FileUploadResult;
+import com.mlaide.webserver.service.StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BundleServiceImplTest {
+    private static final String BUNDLE_KEY = "bundles/fingerprint/auto.zip";
+    private BundleServiceImpl bundleService;
+
+    private @Mock BundleRepository bundleRepository;
+    private @Mock StorageService storageService;
+
+    @BeforeEach
+    void initialize() {
+        bundleService = new BundleServiceImpl(bundleRepository, storageService);
+    }
+
+    @AfterEach
+    void shutdown() {
+        bundleService.shutdown();
+    }
+
+    @Nested
+    class FindBundleTest {
+        @Test
+        void should_return_bundle_of_repository() {
+            // Arrange
+            BundleEntity bundle = new BundleEntity();
+            when(bundleRepository.findBundle("project", "fingerprint", ZipCompression.AUTO)).thenReturn(bundle);
+
+            // Act
+            BundleEntity result = bundleService.findBundle("project", "fingerprint", ZipCompression.AUTO);
+
+            // Assert
+            assertThat(result).isSameAs(bundle);
+        }
+    }
+
+    @Nested
+    class BuildBundleTest {
+        @Test
+        void should_upload_content_and_register_bundle() throws IOException {
+            // Arrange
+            AtomicReference<byte[]> uploadedContent = new AtomicReference<>();
+            when(storageService.upload(eq("project"), eq(BUNDLE_KEY), any(InputStream.class), eq(-1L), isNull()))
+                    .thenAnswer(invocation -> {
+                        InputStream content = invocation.getArgument(2);
+                        uploadedContent.set(content.readAllBytes());
+                        return new FileUploadResult("etag", "v1", "hash", uploadedContent.get().length);
+                    });
+
+            // Act
+            bundleService.buildBundle("project", "fingerprint", ZipCompression.AUTO,
+                    outputStream -> outputStream.write("zip".getBytes(UTF_8)));
+
+            // Assert
+            verify(bundleRepository, timeout(5000))
+                    .addBundle("project", "fingerprint", ZipCompression.AUTO, BUNDLE_KEY, "v1", 3);
+            assertThat(uploadedContent.get()).isEqualTo("zip".getBytes(UTF_8));
+        }
+
+        @Test
+        void failing_content_should_not_register_bundle() throws IOException {
+            // Arrange
+            when(storageService.upload(eq("project"), eq(BUNDLE_KEY), any(InputStream.class), eq(-1L), isNull()))
+                    .thenAnswer(invocation -> {
+                        InputStream content = invocation.getArgument(2);
+                        content.readAllBytes();
+                        return new FileUploadResult("etag", "v1", "hash", 0);
+                    });
+
+            // Act
+            bundleService.buildBundle("project", "fingerprint", ZipCompression.AUTO, outputStream -> {
+                throw new IOException("connection reset");
+            });
+
+            // Assert
+            verify(storageService, timeout(5000)).upload(any(), any(), any(InputStream.class), anyLong(), any());
+            bundleService.shutdown();
+            verify(bundleRepository, after(200).never()).addBundle(any(), any(), any(), any(), any(), anyLong());
+        }
+    }
+
+    @Nested
+    class DownloadBundleTest {
+        @Test
+        void should_write_object_of_bundle_to_output_stream() throws IOException {
+            // Arrange
+            BundleEntity bundle = new BundleEntity();
+            bundle.setKey(BUNDLE_KEY);
+            bundle.setObjectVersionId("v1");
+            when(storageService.download("project", BUNDLE_KEY, "v1"))
+                    .thenReturn(new ByteArrayInputStream("zip".getBytes(UTF_8)));
+
+            // Act
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            bundleService.downloadBundle("project", bundle, outputStream);
+
+            // Assert
+            assertThat(outputStream.toByteArray()).isEqualTo("zip".getBytes(UTF_8));
+        }
+    }
+}
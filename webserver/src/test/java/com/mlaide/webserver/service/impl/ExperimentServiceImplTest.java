@@ -1,6 +1,7 @@
 package com.mlaide.webserver.service.impl;
 
 import com.github.javafaker.Faker;
+import com.mlaide.webserver.configuration.properties.SyncProperties;
 import com.mlaide.webserver.faker.ExperimentFaker;
 import com.mlaide.webserver.faker.ProjectFaker;
 import com.mlaide.webserver.model.Experiment;
@@ -30,6 +31,7 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static java.util.stream.Stream.of;
@@ -53,12 +55,15 @@ class ExperimentServiceImplTest {
 
     @BeforeEach
     public void initializeArtifactService() {
+        SyncProperties syncProperties = new SyncProperties();
+        syncProperties.setPageSize(1000);
         experimentService = new ExperimentServiceImpl(
                 experimentRepository,
                 experimentMapper,
                 permissionService,
                 clock,
-                counterRepository);
+                counterRepository,
+                syncProperties);
     }
 
     @Nested
@@ -93,12 +98,29 @@ class ExperimentServiceImplTest {
             when(experimentMapper.fromEntity(experiments)).thenReturn(expectedResult);
 
             // Act
-            ItemList<Experiment> actualExperiments = experimentService.getExperiments(project.getKey());
+            ItemList<Experiment> actualExperiments = experimentService.getExperiments(project.getKey(), null);
 
             // Assert
             assertThat(actualExperiments).isNotNull();
             assertThat(actualExperiments.getItems()).isSameAs(expectedResult);
         }
+
+        @Test
+        void fields_are_specified_should_load_requested_fields_and_key() {
+            // Arrange
+            var project = ProjectFaker.newProject();
+            List<ExperimentEntity> experiments = new ArrayList<>();
+            List<Experiment> expectedResult = new ArrayList<>();
+
+            when(experimentRepository.findExperiments(project.getKey(), Set.of("key", "name"))).thenReturn(experiments);
+            when(experimentMapper.fromEntity(experiments)).thenReturn(expectedResult);
+
+            // Act
+            ItemList<Experiment> actualExperiments = experimentService.getExperiments(project.getKey(), List.of("name"));
+
+            // Assert
+            assertThat(actualExperiments.getItems()).isSameAs(expectedResult);
+        }
     }
 
     @Nested
@@ -0,0 +1,364 @@
+package com.mlaide.webserver.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mlaide.webserver.faker.MetricPointFaker;
+import com.mlaide.webserver.faker.ProjectFaker;
+import com.mlaide.webserver.faker.RunFaker;
+import com.mlaide.webserver.model.ItemList;
+import com.mlaide.webserver.model.MetricPoint;
+import com.mlaide.webserver.model.MetricSampling;
+import com.mlaide.webserver.model.RunStatus;
+import com.mlaide.webserver.repository.MetricBucketRepository;
+import com.mlaide.webserver.repository.MetricSeriesStatistics;
+import com.mlaide.webserver.repository.RunRepository;
+import com.mlaide.webserver.repository.entity.MetricPointEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import com.mlaide.webserver.service.ConflictException;
+import com.mlaide.webserver.service.InvalidInputException;
+import com.mlaide.webserver.service.NotFoundException;
+import com.mlaide.webserver.service.mapper.MetricMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MetricServiceImplTest {
+    private MetricServiceImpl metricService;
+
+    private @Mock MetricBucketRepository metricBucketRepository;
+    private @Mock RunRepository runRepository;
+    private @Mock MetricMapper metricMapper;
+    private @Mock ApplicationEventPublisher eventPublisher;
+
+    private final Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private String projectKey;
+    private RunEntity runEntity;
+
+    @BeforeEach
+    void initialize() {
+        metricService = new MetricServiceImpl(
+                metricBucketRepository, runRepository, metricMapper, objectMapper, clock, 2, eventPublisher);
+
+        projectKey = ProjectFaker.validProjectKey();
+        runEntity = RunFaker.newRunEntity();
+    }
+
+    @Nested
+    class appendMetricPoints {
+        @Test
+        void points_are_empty_should_do_nothing() {
+            // Act
+            metricService.appendMetricPoints(projectKey, runEntity.getKey(), "loss", emptyList());
+
+            // Assert
+            verify(metricBucketRepository, never()).appendMetricPoints(anyString(), anyInt(), anyString(), any());
+        }
+
+        @Test
+        void point_without_value_should_throw_InvalidInputException() {
+            // Arrange
+            MetricPoint point = MetricPointFaker.newMetricPoint();
+            point.setValue(null);
+
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.appendMetricPoints(projectKey, runEntity.getKey(), "loss", singletonList(point)))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void specified_run_does_not_exist_should_throw_NotFoundException() {
+            // Arrange
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(null);
+            List<MetricPoint> points = singletonList(MetricPointFaker.newMetricPoint());
+
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.appendMetricPoints(projectKey, runEntity.getKey(), "loss", points))
+                    .isInstanceOf(NotFoundException.class);
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = RunStatus.class, names = {"COMPLETED", "FAILED"})
+        void specified_run_is_not_in_running_state_should_throw_ConflictException(RunStatus runStatus) {
+            // Arrange
+            runEntity.setStatus(runStatus.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+            List<MetricPoint> points = singletonList(MetricPointFaker.newMetricPoint());
+
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.appendMetricPoints(projectKey, runEntity.getKey(), "loss", points))
+                    .isInstanceOf(ConflictException.class);
+        }
+
+        @Test
+        void specified_run_is_running_should_append_points_and_set_missing_timestamps() {
+            // Arrange
+            runEntity.setStatus(RunStatus.RUNNING.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+
+            List<MetricPoint> points = asList(MetricPointFaker.newMetricPoint(), MetricPointFaker.newMetricPoint());
+            MetricPointEntity pointWithTimestamp = MetricPointFaker.newMetricPointEntity(1);
+            OffsetDateTime existingTimestamp = pointWithTimestamp.getTimestamp();
+            MetricPointEntity pointWithoutTimestamp = MetricPointFaker.newMetricPointEntity(2);
+            pointWithoutTimestamp.setTimestamp(null);
+            List<MetricPointEntity> pointEntities = asList(pointWithTimestamp, pointWithoutTimestamp);
+            when(metricMapper.toEntity(points)).thenReturn(pointEntities);
+
+            // Act
+            metricService.appendMetricPoints(projectKey, runEntity.getKey(), "loss", points);
+
+            // Assert
+            verify(metricBucketRepository).appendMetricPoints(projectKey, runEntity.getKey(), "loss", pointEntities);
+            assertThat(pointWithTimestamp.getTimestamp()).isEqualTo(existingTimestamp);
+            assertThat(pointWithoutTimestamp.getTimestamp()).isEqualTo(OffsetDateTime.now(clock));
+        }
+    }
+
+    @Nested
+    class ingestMetricPoints {
+        private InputStream ndjson(String... lines) {
+            return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void points_of_several_runs_should_be_written_with_one_bulk_write_per_run_and_batch() throws Exception {
+            // Arrange
+            RunEntity run1 = RunFaker.newRunEntity();
+            run1.setKey(1);
+            run1.setStatus(RunStatus.RUNNING.toString());
+            RunEntity run2 = RunFaker.newRunEntity();
+            run2.setKey(2);
+            run2.setStatus(RunStatus.RUNNING.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, 1)).thenReturn(run1);
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, 2)).thenReturn(run2);
+
+            InputStream body = ndjson(
+                    "{\"runKey\": 1, \"metricName\": \"loss\", \"step\": 1, \"value\": 0.9}",
+                    "{\"runKey\": 1, \"metricName\": \"acc\", \"step\": 1, \"value\": 0.1}",
+                    "{\"runKey\": 2, \"metricName\": \"loss\", \"step\": 1, \"value\": 0.8}");
+
+            // Act
+            long result = metricService.ingestMetricPoints(projectKey, body);
+
+            // Assert
+            assertThat(result).isEqualTo(3);
+            // batch size is 2: first batch contains run 1 (two metrics), second batch contains run 2
+            verify(metricBucketRepository).appendMetricPoints(eq(projectKey), eq(1), anyMap());
+            verify(metricBucketRepository).appendMetricPoints(eq(projectKey), eq(2), anyMap());
+            verify(runRepository, times(1)).findOneByProjectKeyAndKey(projectKey, 1);
+        }
+
+        @Test
+        void point_without_timestamp_should_get_current_time() throws Exception {
+            // Arrange
+            runEntity.setStatus(RunStatus.RUNNING.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+
+            InputStream body = ndjson(
+                    "{\"runKey\": " + runEntity.getKey() + ", \"metricName\": \"loss\", \"step\": 3, \"value\": 0.5}");
+
+            // Act
+            metricService.ingestMetricPoints(projectKey, body);
+
+            // Assert
+            ArgumentCaptor<Map<String, List<MetricPointEntity>>> captor = ArgumentCaptor.forClass(Map.class);
+            verify(metricBucketRepository).appendMetricPoints(eq(projectKey), eq(runEntity.getKey()), captor.capture());
+            MetricPointEntity point = captor.getValue().get("loss").get(0);
+            assertThat(point.getStep()).isEqualTo(3L);
+            assertThat(point.getValue()).isEqualTo(0.5);
+            assertThat(point.getTimestamp()).isEqualTo(OffsetDateTime.now(clock));
+        }
+
+        @Test
+        void point_without_runKey_should_throw_InvalidInputException() {
+            // Arrange
+            InputStream body = ndjson("{\"metricName\": \"loss\", \"step\": 3, \"value\": 0.5}");
+
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.ingestMetricPoints(projectKey, body))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void malformed_line_should_throw_InvalidInputException() {
+            // Arrange
+            InputStream body = ndjson("{\"runKey\": 1, \"metricName\": ");
+
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.ingestMetricPoints(projectKey, body))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void run_is_not_running_should_throw_ConflictException() {
+            // Arrange
+            runEntity.setStatus(RunStatus.COMPLETED.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+
+            InputStream body = ndjson(
+                    "{\"runKey\": " + runEntity.getKey() + ", \"metricName\": \"loss\", \"step\": 3, \"value\": 0.5}");
+
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.ingestMetricPoints(projectKey, body))
+                    .isInstanceOf(ConflictException.class);
+        }
+    }
+
+    @Nested
+    class getMetricPoints {
+        @Test
+        void specified_run_does_not_exist_should_throw_NotFoundException() {
+            // Arrange
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(null);
+
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.getMetricPoints(projectKey, runEntity.getKey(), "loss", null, null))
+                    .isInstanceOf(NotFoundException.class);
+        }
+
+        @Test
+        void specified_run_exists_should_return_points_and_close_stream() {
+            // Arrange
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+
+            List<MetricPointEntity> pointEntities = new ArrayList<>();
+            pointEntities.add(MetricPointFaker.newMetricPointEntity(1));
+            pointEntities.add(MetricPointFaker.newMetricPointEntity(2));
+            AtomicBoolean closed = new AtomicBoolean(false);
+            Stream<MetricPointEntity> stream = pointEntities.stream().onClose(() -> closed.set(true));
+            when(metricBucketRepository.streamMetricPoints(projectKey, runEntity.getKey(), "loss", 1L, 2L))
+                    .thenReturn(stream);
+
+            List<MetricPoint> points = new ArrayList<>();
+            when(metricMapper.fromEntity(pointEntities)).thenReturn(points);
+
+            // Act
+            ItemList<MetricPoint> result = metricService.getMetricPoints(projectKey, runEntity.getKey(), "loss", 1L, 2L);
+
+            // Assert
+            assertThat(result.getItems()).isSameAs(points);
+            assertThat(closed).isTrue();
+        }
+    }
+
+    @Nested
+    class getMetricPoints_with_maxPoints {
+        @Test
+        void maxPoints_is_too_small_should_throw_InvalidInputException() {
+            // Act + Assert
+            assertThatThrownBy(() -> metricService.getMetricPoints(
+                    projectKey, runEntity.getKey(), "loss", null, null, 2, MetricSampling.LTTB))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void series_has_no_more_points_than_maxPoints_should_return_all_points() {
+            // Arrange
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+            when(metricBucketRepository.getMetricSeriesStatistics(projectKey, runEntity.getKey(), "loss", null, null))
+                    .thenReturn(statistics(3, 1, 3));
+
+            List<MetricPointEntity> pointEntities = List.of(
+                    MetricPointFaker.newMetricPointEntity(1),
+                    MetricPointFaker.newMetricPointEntity(2),
+                    MetricPointFaker.newMetricPointEntity(3));
+            when(metricBucketRepository.streamMetricPoints(projectKey, runEntity.getKey(), "loss", null, null))
+                    .thenReturn(pointEntities.stream());
+
+            List<MetricPoint> points = new ArrayList<>();
+            when(metricMapper.fromEntity(pointEntities)).thenReturn(points);
+
+            // Act
+            ItemList<MetricPoint> result = metricService.getMetricPoints(
+                    projectKey, runEntity.getKey(), "loss", null, null, 3, null);
+
+            // Assert
+            assertThat(result.getItems()).isSameAs(points);
+        }
+
+        @Test
+        void series_has_no_points_should_return_empty_list() {
+            // Arrange
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+            when(metricBucketRepository.getMetricSeriesStatistics(projectKey, runEntity.getKey(), "loss", 5L, 10L))
+                    .thenReturn(null);
+
+            // Act
+            ItemList<MetricPoint> result = metricService.getMetricPoints(
+                    projectKey, runEntity.getKey(), "loss", 5L, 10L, 10, MetricSampling.LTTB);
+
+            // Assert
+            assertThat(result.getItems()).isEmpty();
+            verify(metricBucketRepository, never()).streamMetricPoints(any(), any(), any(), any(), any());
+        }
+
+        @Test
+        void series_has_more_points_than_maxPoints_should_downsample_and_close_stream() {
+            // Arrange
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, runEntity.getKey())).thenReturn(runEntity);
+            when(metricBucketRepository.getMetricSeriesStatistics(projectKey, runEntity.getKey(), "loss", null, null))
+                    .thenReturn(statistics(100, 0, 99));
+
+            AtomicBoolean closed = new AtomicBoolean(false);
+            Stream<MetricPointEntity> stream = LongStream.range(0, 100)
+                    .mapToObj(MetricPointFaker::newMetricPointEntity)
+                    .onClose(() -> closed.set(true));
+            when(metricBucketRepository.streamMetricPoints(projectKey, runEntity.getKey(), "loss", null, null))
+                    .thenReturn(stream);
+
+            ArgumentCaptor<List<MetricPointEntity>> pointEntities = ArgumentCaptor.forClass(List.class);
+            when(metricMapper.fromEntity(pointEntities.capture())).thenReturn(new ArrayList<>());
+
+            // Act
+            metricService.getMetricPoints(projectKey, runEntity.getKey(), "loss", null, null, 10, MetricSampling.MIN_MAX);
+
+            // Assert
+            assertThat(pointEntities.getValue().size()).isLessThanOrEqualTo(10);
+            assertThat(closed).isTrue();
+        }
+
+        private MetricSeriesStatistics statistics(long count, long minStep, long maxStep) {
+            MetricSeriesStatistics statistics = new MetricSeriesStatistics();
+            statistics.setCount(count);
+            statistics.setMinStep(minStep);
+            statistics.setMaxStep(maxStep);
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.model.ArtifactRef;
+import com.mlaide.webserver.model.Run;
+import com.mlaide.webserver.service.InvalidInputException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParameterGridTest {
+    @Test
+    void grid_should_expand_to_one_run_per_combination_with_merged_parameters() {
+        // Arrange
+        Run template = new Run();
+        template.setName("sweep");
+        template.setParameters(Map.of("epochs", 10, "lr", 1));
+        Map<String, List<Object>> grid = new LinkedHashMap<>();
+        grid.put("lr", List.of(0.1, 0.01));
+        grid.put("optimizer", List.of("adam", "sgd"));
+
+        // Act
+        List<Run> runs = ParameterGrid.expand(template, grid, 100);
+
+        // Assert
+        assertThat(runs).hasSize(4);
+        assertThat(runs).extracting(Run::getName).containsOnly("sweep");
+        assertThat(runs).extracting(Run::getParameters).containsExactly(
+                Map.of("epochs", 10, "lr", 0.1, "optimizer", "adam"),
+                Map.of("epochs", 10, "lr", 0.1, "optimizer", "sgd"),
+                Map.of("epochs", 10, "lr", 0.01, "optimizer", "adam"),
+                Map.of("epochs", 10, "lr", 0.01, "optimizer", "sgd"));
+    }
+
+    @Test
+    void used_artifacts_should_be_copied_for_every_run() {
+        // Arrange
+        ArtifactRef artifactRef = new ArtifactRef();
+        artifactRef.setName("data");
+        Run template = new Run();
+        template.setUsedArtifacts(List.of(artifactRef));
+
+        // Act
+        List<Run> runs = ParameterGrid.expand(template, Map.of("lr", List.of(0.1, 0.01)), 100);
+
+        // Assert
+        assertThat(runs.get(0).getUsedArtifacts().get(0)).isNotSameAs(artifactRef);
+        assertThat(runs.get(0).getUsedArtifacts().get(0).getName()).isEqualTo("data");
+        assertThat(runs.get(0).getUsedArtifacts().get(0)).isNotSameAs(runs.get(1).getUsedArtifacts().get(0));
+    }
+
+    @Test
+    void grid_with_more_combinations_than_max_runs_should_throw_InvalidInputException() {
+        Map<String, List<Object>> grid = Map.of("a", List.of(1, 2, 3), "b", List.of(1, 2, 3));
+
+        assertThatThrownBy(() -> ParameterGrid.expand(new Run(), grid, 8))
+                .isInstanceOf(InvalidInputException.class);
+    }
+
+    @Test
+    void parameter_without_values_should_throw_InvalidInputException() {
+        Map<String, List<Object>> grid = Map.of("a", List.of());
+
+        assertThatThrownBy(() -> ParameterGrid.expand(new Run(), grid, 8))
+                .isInstanceOf(InvalidInputException.class);
+    }
+}
@@ -1,5 +1,6 @@
 package com.mlaide.webserver.service.impl;
 
+import com.mlaide.webserver.acl.BulkMutableAclService;
 import com.mlaide.webserver.faker.ExperimentFaker;
 import com.mlaide.webserver.faker.ProjectFaker;
 import com.mlaide.webserver.faker.UserFaker;
@@ -8,6 +9,7 @@ import com.mlaide.webserver.model.User;
 import com.mlaide.webserver.repository.entity.ExperimentEntity;
 import com.mlaide.webserver.repository.entity.MlAidePermission;
 import com.mlaide.webserver.repository.entity.ProjectEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
 import com.mlaide.webserver.service.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -21,11 +23,12 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.acls.domain.*;
 import org.springframework.security.acls.model.AccessControlEntry;
 import org.springframework.security.acls.model.MutableAcl;
-import org.springframework.security.acls.model.MutableAclService;
 import org.springframework.security.acls.model.ObjectIdentity;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.mlaide.webserver.faker.SecurityContextFaker.setupUserInSecurityContext;
@@ -34,13 +37,14 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class PermissionServiceImplTest {
-    private @Mock MutableAclService aclService;
+    private @Mock BulkMutableAclService aclService;
     private @Mock AclAuthorizationStrategy aclAuthorizationStrategy;
     private @Mock AuditLogger auditLogger;
     private PermissionServiceImpl permissionService;
@@ -103,6 +107,48 @@ class PermissionServiceImplTest {
         }
     }
 
+    @Nested
+    class GrantPermissionsBasedOnProject {
+        @Test
+        void grant_permission_on_runs_should_create_inheriting_acls_with_project_as_parent() {
+            // Arrange
+            var project = ProjectFaker.newProjectEntity();
+            var parentAcl = createAcl(ProjectEntity.class, project.getKey());
+            when(aclService.readAclById(withObjectIdentity(project))).thenReturn(parentAcl);
+
+            // Act
+            permissionService.grantPermissionsBasedOnProject(project.getKey(), List.of("run1", "run2"), RunEntity.class);
+
+            // Assert
+            ArgumentCaptor<ObjectIdentity> parentCaptor = ArgumentCaptor.forClass(ObjectIdentity.class);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Collection<ObjectIdentity>> objectIdentitiesCaptor = ArgumentCaptor.forClass(Collection.class);
+            verify(aclService).createInheritingAcls(parentCaptor.capture(), objectIdentitiesCaptor.capture());
+            assertThat(parentCaptor.getValue().getIdentifier()).isEqualTo(project.getKey());
+            assertThat(objectIdentitiesCaptor.getValue())
+                    .extracting(ObjectIdentity::getIdentifier, ObjectIdentity::getType)
+                    .containsExactly(
+                            tuple("run1", RunEntity.class.getName()),
+                            tuple("run2", RunEntity.class.getName()));
+        }
+
+        @Test
+        void grant_permission_where_project_does_not_exist_should_throw_NotFoundException() {
+            // Arrange
+            var project = ProjectFaker.newProjectEntity();
+            when(aclService.readAclById(any())).thenThrow(org.springframework.security.acls.model.NotFoundException.class);
+
+            String projectKey = project.getKey();
+            List<String> runIds = List.of("run1");
+
+            // Act + Assert
+            assertThatThrownBy(
+                    () -> permissionService.grantPermissionsBasedOnProject(projectKey, runIds, RunEntity.class))
+                    .isInstanceOf(NotFoundException.class);
+            verify(aclService, never()).createInheritingAcls(any(), any());
+        }
+    }
+
     @Nested
     class GrantPermissionToNewProject {
         @Test
@@ -0,0 +1,124 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.faker.ProjectFaker;
+import com.mlaide.webserver.model.ProjectEvent;
+import com.mlaide.webserver.model.ProjectEventType;
+import com.mlaide.webserver.repository.ProjectRepository;
+import com.mlaide.webserver.repository.RunRepository;
+import com.mlaide.webserver.repository.entity.ProjectEntity;
+import com.mlaide.webserver.repository.entity.RunEntity;
+import com.mlaide.webserver.service.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectEventServiceImplTest {
+    private @Mock ProjectRepository projectRepository;
+    private @Mock RunRepository runRepository;
+    private ProjectEventServiceImpl projectEventService;
+
+    private ProjectEntity project;
+    private String projectKey;
+
+    @BeforeEach
+    void initialize() {
+        projectEventService = new ProjectEventServiceImpl(projectRepository, runRepository, 4, Duration.ofMinutes(1));
+
+        project = ProjectFaker.newProjectEntity();
+        projectKey = project.getKey();
+    }
+
+    @AfterEach
+    void shutdown() {
+        projectEventService.shutdown();
+    }
+
+    @Nested
+    class subscribe {
+        @Test
+        void project_does_not_exist_should_throw_NotFoundException() {
+            // Arrange
+            when(projectRepository.findByKey(projectKey)).thenReturn(null);
+
+            // Act + Assert
+            assertThatThrownBy(() -> projectEventService.subscribe(projectKey, null, null))
+                    .isInstanceOf(NotFoundException.class);
+        }
+
+        @Test
+        void without_experiment_should_return_emitter_without_loading_runs() {
+            // Arrange
+            when(projectRepository.findByKey(projectKey)).thenReturn(project);
+
+            // Act
+            SseEmitter result = projectEventService.subscribe(projectKey, null, null);
+
+            // Assert
+            assertThat(result).isNotNull();
+            verify(runRepository, never()).findRuns(anyString(), any(), any(), any());
+        }
+
+        @Test
+        void with_experiment_should_load_keys_of_runs_in_experiment() {
+            // Arrange
+            when(projectRepository.findByKey(projectKey)).thenReturn(project);
+            RunEntity run = new RunEntity();
+            run.setKey(3);
+            when(runRepository.findRuns(projectKey, null, "exp", Set.of("key"))).thenReturn(List.of(run));
+
+            // Act
+            SseEmitter result = projectEventService.subscribe(projectKey, "exp", null);
+
+            // Assert
+            assertThat(result).isNotNull();
+        }
+    }
+
+    @Nested
+    class publish {
+        @Test
+        void without_subscribers_should_do_nothing() {
+            // Arrange
+            ProjectEvent event = ProjectEvent.builder()
+                    .type(ProjectEventType.RUN_UPDATED).projectKey(projectKey).runKey(1).build();
+
+            // Act + Assert
+            assertThatCode(() -> projectEventService.publish(event)).doesNotThrowAnyException();
+        }
+
+        @Test
+        void more_events_than_buffer_size_should_not_block_publisher() {
+            // Arrange
+            when(projectRepository.findByKey(projectKey)).thenReturn(project);
+            projectEventService.subscribe(projectKey, null, List.of(1));
+            ProjectEvent event = ProjectEvent.builder()
+                    .type(ProjectEventType.RUN_UPDATED).projectKey(projectKey).runKey(1).build();
+
+            // Act + Assert
+            assertThatCode(() -> {
+                for (int i = 0; i < 100; i++) {
+                    projectEventService.publish(event);
+                }
+            }).doesNotThrowAnyException();
+        }
+    }
+}
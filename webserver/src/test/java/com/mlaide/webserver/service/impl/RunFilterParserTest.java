@@ -0,0 +1,63 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.repository.RunFilterCondition;
+import com.mlaide.webserver.repository.RunFilterCondition.Operator;
+import com.mlaide.webserver.service.InvalidInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RunFilterParserTest {
+    @Test
+    void conditions_combined_with_and_should_return_all_conditions() {
+        // Act
+        List<RunFilterCondition> conditions = RunFilterParser.parse(
+                "params.lr < 0.01 AND metrics.accuracy>=0.9 and parameters.optimizer = 'adam'");
+
+        // Assert
+        assertThat(conditions)
+                .extracting(RunFilterCondition::getField, RunFilterCondition::getOperator, RunFilterCondition::getValue)
+                .containsExactly(
+                        tuple("parameters.lr", Operator.LT, 0.01),
+                        tuple("metrics.accuracy", Operator.GTE, 0.9),
+                        tuple("parameters.optimizer", Operator.EQ, "adam"));
+    }
+
+    @Test
+    void values_of_all_types_should_be_converted() {
+        // Act
+        List<RunFilterCondition> conditions = RunFilterParser.parse(
+                "params.a != \"x y\" and params.b = true and params.c = false and params.d = null and params.e > -3");
+
+        // Assert
+        assertThat(conditions)
+                .extracting(RunFilterCondition::getOperator, RunFilterCondition::getValue)
+                .containsExactly(
+                        tuple(Operator.NE, "x y"),
+                        tuple(Operator.EQ, true),
+                        tuple(Operator.EQ, false),
+                        tuple(Operator.EQ, null),
+                        tuple(Operator.GT, -3.0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "lr < 0.01",
+            "params.lr",
+            "params.lr < ",
+            "params.lr < abc",
+            "params.lr < 0.01 or metrics.acc > 0.9",
+            "params.lr < 0.01 and",
+            "params.$where = 1",
+            "params.a.b = 1"})
+    void invalid_expression_should_throw_InvalidInputException(String expression) {
+        assertThatThrownBy(() -> RunFilterParser.parse(expression)).isInstanceOf(InvalidInputException.class);
+    }
+}
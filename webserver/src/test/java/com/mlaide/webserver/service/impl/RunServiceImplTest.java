@@ -1,10 +1,14 @@
 package com.mlaide.webserver.service.impl;
 
 import com.github.javafaker.Faker;
+import com.mlaide.webserver.configuration.properties.SyncProperties;
 import com.mlaide.webserver.faker.*;
 import com.mlaide.webserver.model.*;
 import com.mlaide.webserver.repository.ArtifactRepository;
 import com.mlaide.webserver.repository.CounterRepository;
+import com.mlaide.webserver.repository.LineageRepository;
+import com.mlaide.webserver.repository.RunComparisonResult;
+import com.mlaide.webserver.repository.RunFilterCondition;
 import com.mlaide.webserver.repository.RunRepository;
 import com.mlaide.webserver.repository.entity.*;
 import com.mlaide.webserver.service.*;
@@ -18,8 +22,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 
 import java.security.KeyPair;
 import java.time.Clock;
@@ -27,14 +34,21 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,16 +66,20 @@ class RunServiceImplTest {
     private @Mock UserService userService;
     private @Mock GitDiffService gitDiffService;
     private @Mock ArtifactRepository artifactRepository;
+    private @Mock LineageRepository lineageRepository;
+    private @Mock ApplicationEventPublisher eventPublisher;
 
     private Project project;
     private String projectKey;
     private final Clock clock = Clock.fixed(Instant.now(), ZoneId.systemDefault());
     private final Faker faker = new Faker();
+    private final SyncProperties syncProperties = new SyncProperties();
 
     @BeforeEach
     void initialize() {
         project = ProjectFaker.newProject();
         projectKey = project.getKey();
+        syncProperties.setPageSize(2);
 
         runService = new RunServiceImpl(
                 runRepository,
@@ -74,7 +92,10 @@ class RunServiceImplTest {
                 validationService,
                 clock,
                 gitDiffService,
-                artifactRepository);
+                artifactRepository,
+                lineageRepository,
+                eventPublisher,
+                syncProperties);
     }
 
     @Nested
@@ -90,7 +111,7 @@ class RunServiceImplTest {
             when(runMapper.fromEntity(runEntities)).thenReturn(runs);
 
             // Act
-            ItemList<Run> result = runService.getRuns(project.getKey());
+            ItemList<Run> result = runService.getRuns(project.getKey(), null);
 
             // Assert
             assertThat(result.getItems()).isSameAs(runs);
@@ -106,11 +127,41 @@ class RunServiceImplTest {
             when(runMapper.fromEntity(runEntities)).thenReturn(runs);
 
             // Act
-            ItemList<Run> result = runService.getRuns(project.getKey());
+            ItemList<Run> result = runService.getRuns(project.getKey(), null);
 
             // Assert
             assertThat(result.getItems()).isSameAs(runs);
         }
+
+        @Test
+        void fields_are_specified_should_load_requested_fields_and_key_from_repository() {
+            // Arrange
+            List<RunEntity> runEntities = new ArrayList<>();
+            when(runRepository.findRuns(project.getKey(), null, null, Set.of("key", "name", "metrics.acc")))
+                    .thenReturn(runEntities);
+
+            List<Run> runs = new ArrayList<>();
+            when(runMapper.fromEntity(runEntities)).thenReturn(runs);
+
+            // Act
+            ItemList<Run> result = runService.getRuns(project.getKey(), asList("name", "metrics.acc"));
+
+            // Assert
+            assertThat(result.getItems()).isSameAs(runs);
+            verify(runRepository, never()).findAllByProjectKey(any());
+        }
+
+        @Test
+        void field_is_unknown_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runService.getRuns(project.getKey(), asList("name", "projectKey")))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void field_selects_nested_map_entry_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runService.getRuns(project.getKey(), singletonList("metrics.a.b")))
+                    .isInstanceOf(InvalidInputException.class);
+        }
     }
 
     @Nested
@@ -127,7 +178,7 @@ class RunServiceImplTest {
             when(runMapper.fromEntity(runEntities)).thenReturn(runs);
 
             // Act
-            ItemList<Run> result = runService.getRunsByKeys(project.getKey(), runKeys);
+            ItemList<Run> result = runService.getRunsByKeys(project.getKey(), runKeys, null);
 
             // Assert
             assertThat(result.getItems()).isSameAs(runs);
@@ -144,10 +195,387 @@ class RunServiceImplTest {
             when(runMapper.fromEntity(runEntities)).thenReturn(runs);
 
             // Act
-            ItemList<Run> result = runService.getRunsByKeys(project.getKey(), runKeys);
+            ItemList<Run> result = runService.getRunsByKeys(project.getKey(), runKeys, null);
+
+            // Assert
+            assertThat(result.getItems()).isSameAs(runs);
+        }
+    }
+
+    @Nested
+    class getRunsChangedSince {
+        @Test
+        void runs_have_changed_should_return_runs_and_change_sequence_of_last_run_as_sync_token() {
+            // Arrange
+            RunEntity first = RunFaker.newRunEntity();
+            first.setChangeSequence(43);
+            RunEntity last = RunFaker.newRunEntity();
+            last.setChangeSequence(47);
+            List<RunEntity> runEntities = asList(first, last);
+            when(runRepository.findRunsChangedSince(project.getKey(), 42, 3, null)).thenReturn(runEntities);
+            List<Run> runs = new ArrayList<>();
+            when(runMapper.fromEntity(runEntities)).thenReturn(runs);
+
+            // Act
+            ItemList<Run> result = runService.getRunsChangedSince(project.getKey(), "42", null);
+
+            // Assert
+            assertThat(result.getItems()).isSameAs(runs);
+            assertThat(result.getSyncToken()).isEqualTo("47");
+            assertThat(result.getNextPageToken()).isNull();
+        }
+
+        @Test
+        void more_runs_than_page_size_have_changed_should_return_first_page_and_next_page_token() {
+            // Arrange
+            RunEntity first = RunFaker.newRunEntity();
+            first.setChangeSequence(43);
+            RunEntity second = RunFaker.newRunEntity();
+            second.setChangeSequence(44);
+            RunEntity third = RunFaker.newRunEntity();
+            third.setChangeSequence(45);
+            when(runRepository.findRunsChangedSince(project.getKey(), 42, 3, null))
+                    .thenReturn(asList(first, second, third));
+            List<Run> runs = new ArrayList<>();
+            when(runMapper.fromEntity(asList(first, second))).thenReturn(runs);
+
+            // Act
+            ItemList<Run> result = runService.getRunsChangedSince(project.getKey(), "42", null);
 
             // Assert
             assertThat(result.getItems()).isSameAs(runs);
+            assertThat(result.getSyncToken()).isEqualTo("44");
+            assertThat(result.getNextPageToken()).isEqualTo("44");
+        }
+
+        @Test
+        void nothing_has_changed_should_return_same_sync_token() {
+            // Arrange
+            when(runRepository.findRunsChangedSince(project.getKey(), 42, 3, null)).thenReturn(emptyList());
+
+            // Act
+            ItemList<Run> result = runService.getRunsChangedSince(project.getKey(), "42", null);
+
+            // Assert
+            assertThat(result.getSyncToken()).isEqualTo("42");
+        }
+
+        @Test
+        void fields_are_specified_should_load_change_sequence() {
+            // Arrange
+            when(runRepository.findRunsChangedSince(
+                    project.getKey(), 0, 3, Set.of("key", "status", "changeSequence")))
+                    .thenReturn(emptyList());
+
+            // Act
+            ItemList<Run> result = runService.getRunsChangedSince(project.getKey(), "0", singletonList("status"));
+
+            // Assert
+            assertThat(result.getSyncToken()).isEqualTo("0");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"", "abc", "-1"})
+        void sync_token_is_invalid_should_throw_InvalidInputException(String since) {
+            assertThatThrownBy(() -> runService.getRunsChangedSince(project.getKey(), since, null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+    }
+
+    @Nested
+    class streamRuns {
+        @Test
+        void should_map_runs_of_repository_one_by_one() {
+            // Arrange
+            RunEntity runEntity = RunFaker.newRunEntity();
+            Run run = RunFaker.newRun();
+            when(runRepository.streamRuns(project.getKey(), null, "exp", emptyList(), null, null, Set.of("key", "name")))
+                    .thenReturn(Stream.of(runEntity));
+            when(runMapper.fromEntity(runEntity)).thenReturn(run);
+
+            // Act
+            Stream<Run> result = runService.streamRuns(
+                    project.getKey(), null, "exp", null, null, null, singletonList("name"));
+
+            // Assert
+            assertThat(result).containsExactly(run);
+        }
+
+        @Test
+        void filter_and_sort_should_be_passed_to_repository() {
+            // Arrange
+            when(runRepository.streamRuns(eq(project.getKey()), isNull(), isNull(), anyList(),
+                    eq("metrics.acc"), eq(Sort.Direction.DESC), isNull()))
+                    .thenReturn(Stream.empty());
+
+            // Act
+            runService.streamRuns(project.getKey(), null, null, "metrics.acc > 0.5", "metrics.acc", null, null);
+
+            // Assert
+            verify(runRepository).streamRuns(eq(project.getKey()), isNull(), isNull(),
+                    argThat(conditions -> conditions.size() == 1
+                            && conditions.get(0).getField().equals("metrics.acc")
+                            && conditions.get(0).getOperator() == RunFilterCondition.Operator.GT),
+                    eq("metrics.acc"), eq(Sort.Direction.DESC), isNull());
+        }
+
+        @Test
+        void invalid_sort_field_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runService.streamRuns(project.getKey(), null, null, null, "name", null, null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+    }
+
+    @Nested
+    class getRunPage {
+        @Test
+        void more_runs_than_page_size_should_return_page_with_next_page_token() {
+            // Arrange
+            List<RunEntity> runEntities = new ArrayList<>(asList(
+                    RunFaker.newRunEntity(), RunFaker.newRunEntity(), RunFaker.newRunEntity()));
+            when(runRepository.findRunPage(project.getKey(), null, "key", Sort.Direction.DESC, null, null, 3, null))
+                    .thenReturn(runEntities);
+
+            List<Run> runs = new ArrayList<>();
+            when(runMapper.fromEntity(runEntities.subList(0, 2))).thenReturn(runs);
+
+            // Act
+            ItemList<Run> result = runService.getRunPage(project.getKey(), null, null, null, null, 2, null, null);
+
+            // Assert
+            assertThat(result.getItems()).isSameAs(runs);
+            assertThat(result.getNextPageToken()).isNotNull();
+        }
+
+        @Test
+        void last_page_should_return_page_without_next_page_token() {
+            // Arrange
+            List<RunEntity> runEntities = new ArrayList<>(singletonList(RunFaker.newRunEntity()));
+            when(runRepository.findRunPage(project.getKey(), "exp", "key", Sort.Direction.ASC, null, null, 3, null))
+                    .thenReturn(runEntities);
+            when(runMapper.fromEntity(runEntities)).thenReturn(new ArrayList<>());
+
+            // Act
+            ItemList<Run> result = runService.getRunPage(project.getKey(), "exp", null, "key", Sort.Direction.ASC, 2, null, null);
+
+            // Assert
+            assertThat(result.getNextPageToken()).isNull();
+        }
+
+        @Test
+        void next_page_token_is_passed_should_continue_after_last_run_of_previous_page() {
+            // Arrange
+            RunEntity lastRunOfFirstPage = RunFaker.newRunEntity();
+            lastRunOfFirstPage.setMetrics(Map.of("acc", 0.75));
+            List<RunEntity> firstPage = new ArrayList<>(asList(lastRunOfFirstPage, RunFaker.newRunEntity()));
+            when(runRepository.findRunPage(project.getKey(), null, "metrics.acc", Sort.Direction.DESC, null, null, 2, null))
+                    .thenReturn(firstPage);
+            when(runRepository.findRunPage(
+                    project.getKey(), null, "metrics.acc", Sort.Direction.DESC, 0.75, lastRunOfFirstPage.getKey(), 2, null))
+                    .thenReturn(new ArrayList<>());
+
+            String nextPageToken = runService
+                    .getRunPage(project.getKey(), null, null, "metrics.acc", null, 1, null, null)
+                    .getNextPageToken();
+
+            // Act
+            ItemList<Run> result = runService.getRunPage(project.getKey(), null, null, "metrics.acc", null, 1, nextPageToken, null);
+
+            // Assert
+            assertThat(result.getNextPageToken()).isNull();
+        }
+
+        @Test
+        void last_run_has_non_numeric_metric_should_continue_in_tail_of_runs_without_sort_value() {
+            // Arrange
+            RunEntity lastRunOfFirstPage = RunFaker.newRunEntity();
+            lastRunOfFirstPage.setMetrics(Map.of("acc", "n/a"));
+            List<RunEntity> firstPage = new ArrayList<>(asList(lastRunOfFirstPage, RunFaker.newRunEntity()));
+            when(runRepository.findRunPage(project.getKey(), null, "metrics.acc", Sort.Direction.DESC, null, null, 2, null))
+                    .thenReturn(firstPage);
+
+            String nextPageToken = runService
+                    .getRunPage(project.getKey(), null, null, "metrics.acc", null, 1, null, null)
+                    .getNextPageToken();
+
+            // Act
+            runService.getRunPage(project.getKey(), null, null, "metrics.acc", null, 1, nextPageToken, null);
+
+            // Assert
+            verify(runRepository).findRunPage(project.getKey(), null, "metrics.acc", Sort.Direction.DESC,
+                    null, lastRunOfFirstPage.getKey(), 2, null);
+        }
+
+        @Test
+        void page_token_of_metric_sort_with_non_numeric_value_should_throw_InvalidInputException() {
+            // Arrange
+            String pageToken = new PageToken("metrics.acc", Sort.Direction.DESC, 3, "n/a").encode();
+
+            // Act + Assert
+            assertThatThrownBy(() -> runService.getRunPage(
+                    project.getKey(), null, null, "metrics.acc", null, 1, pageToken, null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void sorted_by_metric_of_selected_map_should_not_select_metric_separately() {
+            // Arrange
+            when(runRepository.findRunPage(project.getKey(), null, "metrics.acc", Sort.Direction.DESC, null, null, 2,
+                    Set.of("key", "metrics")))
+                    .thenReturn(new ArrayList<>());
+
+            // Act
+            ItemList<Run> result = runService.getRunPage(
+                    project.getKey(), null, null, "metrics.acc", null, 1, null, List.of("metrics"));
+
+            // Assert
+            assertThat(result.getNextPageToken()).isNull();
+        }
+
+        @Test
+        void sorted_by_createdAt_should_pass_createdAt_of_last_run_to_repository() {
+            // Arrange
+            RunEntity lastRunOfFirstPage = RunFaker.newRunEntity();
+            List<RunEntity> firstPage = new ArrayList<>(asList(lastRunOfFirstPage, RunFaker.newRunEntity()));
+            when(runRepository.findRunPage(project.getKey(), null, "createdAt", Sort.Direction.DESC, null, null, 2, null))
+                    .thenReturn(firstPage);
+
+            String nextPageToken = runService
+                    .getRunPage(project.getKey(), null, null, "createdAt", null, 1, null, null)
+                    .getNextPageToken();
+
+            // Act
+            runService.getRunPage(project.getKey(), null, null, "createdAt", null, 1, nextPageToken, null);
+
+            // Assert
+            verify(runRepository).findRunPage(project.getKey(), null, "createdAt", Sort.Direction.DESC,
+                    lastRunOfFirstPage.getCreatedAt(), lastRunOfFirstPage.getKey(), 2, null);
+        }
+
+        @Test
+        void page_token_of_other_sort_order_should_throw_InvalidInputException() {
+            // Arrange
+            List<RunEntity> firstPage = new ArrayList<>(asList(RunFaker.newRunEntity(), RunFaker.newRunEntity()));
+            when(runRepository.findRunPage(project.getKey(), null, "key", Sort.Direction.DESC, null, null, 2, null))
+                    .thenReturn(firstPage);
+
+            String nextPageToken = runService.getRunPage(project.getKey(), null, null, null, null, 1, null, null).getNextPageToken();
+
+            // Act + Assert
+            assertThatThrownBy(() -> runService.getRunPage(
+                    project.getKey(), null, null, null, Sort.Direction.ASC, 1, nextPageToken, null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void page_token_is_invalid_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runService.getRunPage(project.getKey(), null, null, null, null, 1, "not-a-token", null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void sort_field_is_invalid_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runService.getRunPage(project.getKey(), null, null, "parameters.lr", null, 1, null, null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void filter_is_specified_should_return_runs_that_match_all_conditions() {
+            // Arrange
+            List<RunEntity> runEntities = new ArrayList<>(singletonList(RunFaker.newRunEntity()));
+            when(runRepository.findRunPageMatchingAll(eq(project.getKey()), isNull(), any(), eq("key"),
+                    eq(Sort.Direction.DESC), isNull(), isNull(), eq(3), isNull()))
+                    .thenReturn(runEntities);
+            List<Run> runs = new ArrayList<>();
+            when(runMapper.fromEntity(runEntities)).thenReturn(runs);
+
+            // Act
+            ItemList<Run> result = runService.getRunPage(
+                    project.getKey(), null, "params.lr < 0.01 and metrics.acc >= 0.9", null, null, 2, null, null);
+
+            // Assert
+            assertThat(result.getItems()).isSameAs(runs);
+        }
+
+        @Test
+        void filter_is_invalid_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runService.getRunPage(project.getKey(), null, "lr < 0.01", null, null, 1, null, null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+    }
+
+    @Nested
+    class compareRuns {
+        @Test
+        void no_run_keys_should_throw_InvalidInputException() {
+            assertThatThrownBy(() -> runService.compareRuns(project.getKey(), emptyList(), null, null))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void should_return_differing_parameters_and_all_metrics_aligned_with_run_keys() {
+            // Arrange
+            List<Integer> runKeys = asList(3, 1, 2, 4);
+            List<String> metricKeys = singletonList("acc");
+
+            RunComparisonResult result = new RunComparisonResult();
+            result.setRuns(asList(runKey(1), runKey(2), runKey(3)));
+            result.setParameters(asList(
+                    keyedValues("lr", asList(1, 2, 3), asList(0.1, 0.01, 0.1), 2),
+                    keyedValues("optimizer", asList(1, 2, 3), asList("adam", "adam", "adam"), 1),
+                    keyedValues("dropout", asList(2, 3), asList(0.5, 0.5), 1)));
+            result.setMetrics(singletonList(
+                    keyedValues("acc", asList(1, 2, 3), asList(0.7, 0.8, 0.9), 3)));
+            when(runRepository.compareRuns(project.getKey(), runKeys, metricKeys, null)).thenReturn(result);
+
+            // Act
+            RunComparison comparison = runService.compareRuns(project.getKey(), runKeys, metricKeys, null);
+
+            // Assert
+            assertThat(comparison.getRunKeys()).containsExactly(3, 1, 2);
+            assertThat(comparison.getParameters()).containsOnlyKeys("lr", "dropout");
+            assertThat(comparison.getParameters().get("lr")).containsExactly(0.1, 0.1, 0.01);
+            assertThat(comparison.getParameters().get("dropout")).containsExactly(0.5, null, 0.5);
+            assertThat(comparison.getMetrics()).containsOnlyKeys("acc");
+            assertThat(comparison.getMetrics().get("acc")).containsExactly(0.9, 0.7, 0.8);
+        }
+
+        @Test
+        void should_keep_order_of_requested_run_keys_instead_of_sorting_by_key() {
+            // Arrange
+            List<Integer> runKeys = asList(5, 2, 9, 2);
+
+            RunComparisonResult result = new RunComparisonResult();
+            result.setRuns(asList(runKey(2), runKey(5), runKey(9)));
+            result.setParameters(emptyList());
+            result.setMetrics(singletonList(
+                    keyedValues("acc", asList(2, 5, 9), asList(0.2, 0.5, 0.9), 3)));
+            when(runRepository.compareRuns(project.getKey(), runKeys, null, null)).thenReturn(result);
+
+            // Act
+            RunComparison comparison = runService.compareRuns(project.getKey(), runKeys, null, null);
+
+            // Assert
+            assertThat(comparison.getRunKeys()).containsExactly(5, 2, 9);
+            assertThat(comparison.getMetrics().get("acc")).containsExactly(0.5, 0.2, 0.9);
+        }
+
+        private RunComparisonResult.RunKey runKey(Integer key) {
+            RunComparisonResult.RunKey runKey = new RunComparisonResult.RunKey();
+            runKey.setKey(key);
+            return runKey;
+        }
+
+        private RunComparisonResult.KeyedValues keyedValues(String key,
+                                                            List<Integer> runKeys,
+                                                            List<Object> values,
+                                                            int distinctValueCount) {
+            RunComparisonResult.KeyedValues keyedValues = new RunComparisonResult.KeyedValues();
+            keyedValues.setKey(key);
+            keyedValues.setRunKeys(runKeys);
+            keyedValues.setValues(values);
+            keyedValues.setDistinctValueCount(distinctValueCount);
+            return keyedValues;
         }
     }
 
@@ -165,7 +593,7 @@ class RunServiceImplTest {
             when(runMapper.fromEntity(runEntities)).thenReturn(runs);
 
             // Act
-            ItemList<Run> result = runService.getRunsOfExperiment(project.getKey(), experimentKey);
+            ItemList<Run> result = runService.getRunsOfExperiment(project.getKey(), experimentKey, null);
 
             // Assert
             assertThat(result.getItems()).isSameAs(runs);
@@ -182,7 +610,7 @@ class RunServiceImplTest {
             when(runMapper.fromEntity(runEntities)).thenReturn(runs);
 
             // Act
-            ItemList<Run> result = runService.getRunsOfExperiment(project.getKey(), experimentKey);
+            ItemList<Run> result = runService.getRunsOfExperiment(project.getKey(), experimentKey, null);
 
             // Assert
             assertThat(result.getItems()).isSameAs(runs);
@@ -227,61 +655,12 @@ class RunServiceImplTest {
             runToAdd.setUsedArtifacts(new ArrayList<>());
             when(experimentService.checkAllExperimentsExist(eq(project.getKey()), any()))
                     .thenReturn(true);
-            when(validationService.checkAllArtifactsExist(project.getKey(), runToAdd.getUsedArtifacts())).thenReturn(false);
+            when(validationService.resolveArtifactRefs(project.getKey(), runToAdd.getUsedArtifacts())).thenReturn(false);
 
             // Act + Assert
             assertThatThrownBy(() -> runService.addRun(projectKey, runToAdd)).isInstanceOf(InvalidInputException.class);
         }
 
-        @Test
-        void artifact_version_is_null_should_set_latest_artifact_version() throws InvalidInputException {
-            // Arrange
-            var artifactRef = new ArtifactRef();
-            artifactRef.setName("test");
-            runToAdd.setUsedArtifacts(asList(artifactRef));
-            runToAdd.setExperimentRefs(experimentRefs("ref1", "ref2"));
-
-            var artifactEntity = ArtifactFaker.newArtifactEntity();
-            when(experimentService.checkAllExperimentsExist(eq(project.getKey()), any()))
-                    .thenReturn(true);
-
-            when(validationService.checkAllArtifactsExist(project.getKey(), runToAdd.getUsedArtifacts()))
-                    .thenReturn(true);
-
-            when(artifactRepository.findFirstByProjectKeyAndNameOrderByVersionDesc(projectKey, runToAdd.getUsedArtifacts().get(0).getName()))
-                    .thenReturn(artifactEntity);
-
-            var savedRunEntity = new RunEntity();
-            when(runMapper.toEntity(runToAdd)).thenReturn(savedRunEntity);
-
-            var runEntityThatWasReturnedFromRepository = new RunEntity();
-            when(runRepository.save(savedRunEntity)).thenReturn(runEntityThatWasReturnedFromRepository);
-
-            var runThatWasReturnedFromRepository = new Run();
-            when(runMapper.fromEntity(runEntityThatWasReturnedFromRepository)).thenReturn(runThatWasReturnedFromRepository);
-
-            // Act
-            runService.addRun(project.getKey(), runToAdd);
-
-            // Assert
-            assertThat(runToAdd.getUsedArtifacts().get(0).getVersion()).isEqualTo(artifactEntity.getVersion());
-        }
-
-        @Test
-        void artifact_without_version_does_not_exist_should_throw_InvalidInputException() throws InvalidInputException {
-            // Arrange
-            var artifactRef = new ArtifactRef();
-            artifactRef.setName("test");
-            runToAdd.setUsedArtifacts(asList(artifactRef));
-
-            when(artifactRepository.findFirstByProjectKeyAndNameOrderByVersionDesc(projectKey, runToAdd.getUsedArtifacts().get(0).getName()))
-                    .thenReturn(null);
-
-            // Act + Assert
-            assertThatThrownBy(() -> runService.addRun(project.getKey(), runToAdd))
-                    .isInstanceOf(InvalidInputException.class);
-        }
-
         @Nested
         class allInputsAreValid {
             private int expectedRunKey;
@@ -298,7 +677,7 @@ class RunServiceImplTest {
                         .thenReturn(true);
 
                 runToAdd.setUsedArtifacts(new ArrayList<>());
-                when(validationService.checkAllArtifactsExist(project.getKey(), runToAdd.getUsedArtifacts()))
+                when(validationService.resolveArtifactRefs(project.getKey(), runToAdd.getUsedArtifacts()))
                         .thenReturn(true);
 
                 currentUser = UserFaker.newUserRef();
@@ -388,6 +767,100 @@ class RunServiceImplTest {
         }
     }
 
+    @Nested
+    class addRuns {
+        private ExperimentRef experimentRef;
+
+        @BeforeEach
+        void initialize() {
+            experimentRef = new ExperimentRef();
+            experimentRef.setExperimentKey("exp");
+        }
+
+        @Test
+        void batch_without_runs_and_template_should_throw_InvalidInputException() {
+            RunBatch batch = new RunBatch();
+
+            assertThatThrownBy(() -> runService.addRuns(projectKey, batch)).isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void batch_with_runs_and_template_should_throw_InvalidInputException() {
+            RunBatch batch = new RunBatch();
+            batch.setRuns(List.of(new Run()));
+            batch.setTemplate(new Run());
+            batch.setParameterGrid(Map.of("lr", List.of(0.1)));
+
+            assertThatThrownBy(() -> runService.addRuns(projectKey, batch)).isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void run_without_experimentRefs_should_throw_InvalidInputException() {
+            RunBatch batch = new RunBatch();
+            batch.setRuns(List.of(new Run()));
+
+            assertThatThrownBy(() -> runService.addRuns(projectKey, batch)).isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void parameter_grid_should_insert_one_run_per_combination_with_contiguous_keys_and_grant_permissions_once() {
+            // Arrange
+            Run template = new Run();
+            template.setExperimentRefs(List.of(experimentRef));
+            RunBatch batch = new RunBatch();
+            batch.setTemplate(template);
+            batch.setParameterGrid(Map.of("lr", List.of(0.1, 0.01, 0.001)));
+
+            when(experimentService.checkAllExperimentsExist(eq(projectKey), any())).thenReturn(true);
+            when(validationService.resolveArtifactRefs(eq(projectKey), any())).thenReturn(true);
+            when(randomGeneratorService.randomRunName()).thenReturn("random-name");
+            UserRef currentUser = UserFaker.newUserRef();
+            when(userService.getCurrentUserRef()).thenReturn(currentUser);
+            List<RunEntity> runEntities = List.of(new RunEntity(), new RunEntity(), new RunEntity());
+            when(runMapper.toEntity(anyList())).thenReturn(runEntities);
+            when(counterRepository.reserveSequenceValues(projectKey + ".run", 3)).thenReturn(11);
+            List<Run> mappedRuns = List.of(new Run(), new Run(), new Run());
+            when(runMapper.fromEntity(runEntities)).thenReturn(mappedRuns);
+
+            // Act
+            List<Run> result = runService.addRuns(projectKey, batch);
+
+            // Assert
+            assertThat(result).isSameAs(mappedRuns);
+            assertThat(runEntities).extracting(RunEntity::getKey).containsExactly(11, 12, 13);
+            assertThat(runEntities).allSatisfy(runEntity -> {
+                assertThat(runEntity.getProjectKey()).isEqualTo(projectKey);
+                assertThat(runEntity.getCreatedBy()).isSameAs(currentUser);
+                assertThat(runEntity.getCreatedAt()).isEqualTo(OffsetDateTime.now(clock));
+            });
+            verify(runRepository).insertRuns(projectKey, runEntities);
+            verify(permissionService).grantPermissionsBasedOnProject(eq(projectKey), anyList(), eq(RunEntity.class));
+            verify(experimentService).checkAllExperimentsExist(eq(projectKey), anyList());
+        }
+
+        @Test
+        void granting_permissions_fails_should_delete_inserted_runs() {
+            // Arrange
+            Run run = new Run();
+            run.setName("run");
+            run.setExperimentRefs(List.of(experimentRef));
+            RunBatch batch = new RunBatch();
+            batch.setRuns(List.of(run));
+
+            when(experimentService.checkAllExperimentsExist(eq(projectKey), any())).thenReturn(true);
+            when(validationService.resolveArtifactRefs(eq(projectKey), any())).thenReturn(true);
+            List<RunEntity> runEntities = List.of(new RunEntity());
+            when(runMapper.toEntity(anyList())).thenReturn(runEntities);
+            doThrow(new NotFoundException())
+                    .when(permissionService).grantPermissionsBasedOnProject(eq(projectKey), anyList(), eq(RunEntity.class));
+
+            // Act + Assert
+            assertThatThrownBy(() -> runService.addRuns(projectKey, batch)).isInstanceOf(NotFoundException.class);
+            verify(runRepository).deleteAll(runEntities);
+            verify(lineageRepository).removeEdgesOfRuns(projectKey, List.of(runEntities.get(0).getKey()));
+        }
+    }
+
     @Nested
     class getRun {
         @Test
@@ -423,77 +896,185 @@ class RunServiceImplTest {
     }
 
     @Nested
-    class updateRun {
+    class patchRun {
         @Test
         void specified_run_does_not_exist_should_throw_NotFoundException() {
             // Arrange
-            Run run = RunFaker.newRun();
-
-            when(runRepository.findOneByProjectKeyAndKey(project.getKey(), run.getKey())).thenReturn(null);
+            Map<String, Object> patch = Map.of("name", "new name");
+            when(runRepository.patchRunningRun(projectKey, 1, Map.of("name", "new name"))).thenReturn(false);
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, 1)).thenReturn(null);
 
             // Act + Assert
-            assertThatThrownBy(() -> runService.updateRun(projectKey, run)).isInstanceOf(NotFoundException.class);
+            assertThatThrownBy(() -> runService.patchRun(projectKey, 1, patch)).isInstanceOf(NotFoundException.class);
         }
 
         @Test
         void specified_run_is_not_in_running_state_should_throw_ConflictException() {
             // Arrange
-            Run run = RunFaker.newRun();
+            Map<String, Object> patch = Map.of("name", "new name");
+            when(runRepository.patchRunningRun(projectKey, 1, Map.of("name", "new name"))).thenReturn(false);
 
             RunEntity existingRunEntity = new RunEntity();
             existingRunEntity.setStatus(RunStatus.COMPLETED.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, 1)).thenReturn(existingRunEntity);
 
-            when(runRepository.findOneByProjectKeyAndKey(projectKey, run.getKey())).thenReturn(existingRunEntity);
+            // Act + Assert
+            assertThatThrownBy(() -> runService.patchRun(projectKey, 1, patch)).isInstanceOf(ConflictException.class);
+        }
+
+        @Test
+        void name_is_blank_should_throw_InvalidInputException() {
+            // Arrange
+            Map<String, Object> patch = Map.of("name", " ");
 
             // Act + Assert
-            assertThatThrownBy(() -> runService.updateRun(projectKey, run)).isInstanceOf(ConflictException.class);
+            assertThatThrownBy(() -> runService.patchRun(projectKey, 1, patch)).isInstanceOf(InvalidInputException.class);
+            verify(runRepository, never()).patchRunningRun(any(), any(), any());
         }
 
         @Test
-        void specified_run_is_valid_should_update_run() {
+        void patch_contains_field_that_can_not_be_patched_should_throw_InvalidInputException() {
             // Arrange
-            Run run = RunFaker.newRun();
-            run.setStatus(RunStatus.RUNNING);
+            Map<String, Object> patch = Map.of("name", "new name", "experimentRefs", List.of());
 
-            RunEntity existingRunEntity = new RunEntity();
-            existingRunEntity.setStatus(RunStatus.RUNNING.toString());
-            existingRunEntity.setId(ObjectId.get());
+            // Act + Assert
+            assertThatThrownBy(() -> runService.patchRun(projectKey, 1, patch))
+                    .isInstanceOf(InvalidInputException.class)
+                    .hasMessageContaining("experimentRefs");
+            verify(runRepository, never()).patchRunningRun(any(), any(), any());
+        }
 
-            when(runRepository.findOneByProjectKeyAndKey(project.getKey(), run.getKey())).thenReturn(existingRunEntity);
+        @Test
+        void unknown_status_should_throw_InvalidInputException() {
+            // Arrange
+            Map<String, Object> patch = Map.of("status", "PAUSED");
 
-            RunEntity runEntityToUpdate = new RunEntity();
-            when(runMapper.toEntity(run)).thenReturn(runEntityToUpdate);
+            // Act + Assert
+            assertThatThrownBy(() -> runService.patchRun(projectKey, 1, patch)).isInstanceOf(InvalidInputException.class);
+        }
+
+        @Test
+        void specified_patch_is_valid_should_pass_only_patched_fields_to_single_conditional_update() {
+            // Arrange
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("lr", 0.1);
+            parameters.put("epochs", null);
+            Map<String, Object> patch = new HashMap<>();
+            patch.put("note", null);
+            patch.put("parameters", parameters);
+            when(runRepository.patchRunningRun(eq(projectKey), eq(1), any())).thenReturn(true);
 
             // Act
-            runService.updateRun(project.getKey(), run);
+            runService.patchRun(projectKey, 1, patch);
 
             // Assert
-            verify(runRepository).save(runEntityToUpdate);
-            assertThat(runEntityToUpdate.getProjectKey()).isEqualTo(project.getKey());
-            assertThat(runEntityToUpdate.getId()).isEqualTo(existingRunEntity.getId());
-            assertThat(runEntityToUpdate.getEndTime()).isNull();
+            Map<String, Object> expectedChanges = new HashMap<>();
+            expectedChanges.put("note", null);
+            expectedChanges.put("parameters", parameters);
+            verify(runRepository).patchRunningRun(projectKey, 1, expectedChanges);
+            verify(runRepository, never()).findOneByProjectKeyAndKey(any(), any());
+            verify(runRepository, never()).save(any());
         }
 
         @ParameterizedTest
         @EnumSource(value = RunStatus.class, names = {"COMPLETED", "FAILED"})
         void new_run_status_is_not_RUNNING_should_set_end_time(RunStatus runStatus) {
             // Arrange
-            Run run = RunFaker.newRun();
-            run.setStatus(runStatus);
+            Map<String, Object> patch = Map.of("status", runStatus.toString());
+            when(runRepository.patchRunningRun(eq(projectKey), eq(1), any())).thenReturn(true);
+
+            // Act
+            runService.patchRun(projectKey, 1, patch);
+
+            // Assert
+            verify(runRepository).patchRunningRun(projectKey, 1, Map.of(
+                    "status", runStatus.toString(),
+                    "endTime", OffsetDateTime.now(clock)));
+        }
+    }
+
+    @Nested
+    class mergeMetrics {
+        @Test
+        void run_is_running_should_merge_metrics_with_single_conditional_update() {
+            // Arrange
+            Map<String, Object> metrics = Map.of("acc", 0.9);
+            when(runRepository.mergeMetricsOfRunningRun(projectKey, 1, metrics)).thenReturn(true);
+
+            // Act
+            runService.mergeMetrics(projectKey, 1, metrics);
+
+            // Assert
+            verify(runRepository).mergeMetricsOfRunningRun(projectKey, 1, metrics);
+            verify(runRepository, never()).findOneByProjectKeyAndKey(any(), any());
+        }
+
+        @Test
+        void run_is_not_running_should_throw_ConflictException() {
+            // Arrange
+            Map<String, Object> metrics = Map.of("acc", 0.9);
+            when(runRepository.mergeMetricsOfRunningRun(projectKey, 1, metrics)).thenReturn(false);
 
             RunEntity existingRunEntity = new RunEntity();
-            existingRunEntity.setStatus(RunStatus.RUNNING.toString());
+            existingRunEntity.setStatus(RunStatus.FAILED.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, 1)).thenReturn(existingRunEntity);
 
-            when(runRepository.findOneByProjectKeyAndKey(project.getKey(), run.getKey())).thenReturn(existingRunEntity);
+            // Act + Assert
+            assertThatThrownBy(() -> runService.mergeMetrics(projectKey, 1, metrics))
+                    .isInstanceOf(ConflictException.class);
+        }
+
+        @Test
+        void run_does_not_exist_should_throw_NotFoundException() {
+            // Arrange
+            Map<String, Object> metrics = Map.of("acc", 0.9);
+            when(runRepository.mergeMetricsOfRunningRun(projectKey, 1, metrics)).thenReturn(false);
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, 1)).thenReturn(null);
+
+            // Act + Assert
+            assertThatThrownBy(() -> runService.mergeMetrics(projectKey, 1, metrics))
+                    .isInstanceOf(NotFoundException.class);
+        }
+
+        @Test
+        void metric_key_contains_dot_should_throw_InvalidInputException() {
+            // Arrange
+            Map<String, Object> metrics = Map.of("a.b", 0.9);
+
+            // Act + Assert
+            assertThatThrownBy(() -> runService.mergeMetrics(projectKey, 1, metrics))
+                    .isInstanceOf(InvalidInputException.class);
+        }
+    }
 
-            RunEntity runEntityToUpdate = new RunEntity();
-            when(runMapper.toEntity(run)).thenReturn(runEntityToUpdate);
+    @Nested
+    class mergeParameters {
+        @Test
+        void run_is_running_should_merge_parameters_with_single_conditional_update() {
+            // Arrange
+            Map<String, Object> parameters = Map.of("lr", 0.01);
+            when(runRepository.mergeParametersOfRunningRun(projectKey, 1, parameters)).thenReturn(true);
 
             // Act
-            runService.updateRun(project.getKey(), run);
+            runService.mergeParameters(projectKey, 1, parameters);
 
             // Assert
-            assertThat(runEntityToUpdate.getEndTime()).isEqualTo(OffsetDateTime.now(clock));
+            verify(runRepository).mergeParametersOfRunningRun(projectKey, 1, parameters);
+        }
+
+        @Test
+        void run_is_not_running_should_throw_ConflictException() {
+            // Arrange
+            Map<String, Object> parameters = Map.of("lr", 0.01);
+            when(runRepository.mergeParametersOfRunningRun(projectKey, 1, parameters)).thenReturn(false);
+
+            RunEntity existingRunEntity = new RunEntity();
+            existingRunEntity.setStatus(RunStatus.COMPLETED.toString());
+            when(runRepository.findOneByProjectKeyAndKey(projectKey, 1)).thenReturn(existingRunEntity);
+
+            // Act + Assert
+            assertThatThrownBy(() -> runService.mergeParameters(projectKey, 1, parameters))
+                    .isInstanceOf(ConflictException.class);
         }
     }
 
@@ -505,7 +1086,7 @@ class RunServiceImplTest {
             Run run = RunFaker.newRun();
             Integer runKey = run.getKey();
 
-            when(runRepository.findOneByProjectKeyAndKey(projectKey, runKey)).thenReturn(null);
+            when(runRepository.updateNote(projectKey, runKey, "the note")).thenReturn(false);
 
             // Act + Assert
             assertThatThrownBy(() -> runService.createOrUpdateNote(projectKey, runKey, "the note"))
@@ -516,24 +1097,17 @@ class RunServiceImplTest {
         void specified_run_exists_should_update_note() {
             // Arrange
             Run run = RunFaker.newRun();
-
-            RunEntity existingRun = new RunEntity();
-            when(runRepository.findOneByProjectKeyAndKey(project.getKey(), run.getKey())).thenReturn(existingRun);
-
-            RunEntity savedRun = new RunEntity();
-            savedRun.setNote(faker.lorem().sentence());
-            when(runRepository.save(existingRun)).thenReturn(savedRun);
-
             String note = faker.lorem().sentence();
 
+            when(runRepository.updateNote(project.getKey(), run.getKey(), note)).thenReturn(true);
+
             // Act
             String result = runService.createOrUpdateNote(project.getKey(), run.getKey(), note);
 
             // Assert
-            verify(runRepository).save(existingRun);
-            assertThat(existingRun.getNote()).isEqualTo(note);
+            verify(runRepository).updateNote(project.getKey(), run.getKey(), note);
             assertThat(result).isNotEmpty()
-                    .isEqualTo(savedRun.getNote());
+                    .isEqualTo(note);
         }
     }
 
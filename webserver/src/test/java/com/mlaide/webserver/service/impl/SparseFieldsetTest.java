@@ -0,0 +1,49 @@
+package com.mlaide.webserver.service.impl;
+
+import com.mlaide.webserver.service.InvalidInputException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SparseFieldsetTest {
+    private final SparseFieldset fieldset = new SparseFieldset(
+            Set.of("key", "name", "metrics"), Set.of("metrics"), "key");
+
+    @Test
+    void no_fields_requested_should_return_null() {
+        assertThat(fieldset.select(null)).isNull();
+        assertThat(fieldset.select(List.of())).isNull();
+    }
+
+    @Test
+    void fields_requested_should_return_required_and_requested_fields() {
+        // Act
+        Set<String> fields = fieldset.select(List.of(" name", "metrics.acc"));
+
+        // Assert
+        assertThat(fields).containsExactly("key", "name", "metrics.acc");
+    }
+
+    @Test
+    void map_and_its_entries_requested_should_return_only_map() {
+        // Act
+        Set<String> entryFirst = fieldset.select(List.of("metrics.acc", "metrics", "metrics.loss"));
+        Set<String> mapFirst = fieldset.select(List.of("metrics", "metrics.acc"));
+
+        // Assert
+        assertThat(entryFirst).containsExactly("key", "metrics");
+        assertThat(mapFirst).containsExactly("key", "metrics");
+    }
+
+    @Test
+    void unknown_field_requested_should_throw_InvalidInputException() {
+        assertThatThrownBy(() -> fieldset.select(List.of("metrics.a.b")))
+                .isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> fieldset.select(List.of("password")))
+                .isInstanceOf(InvalidInputException.class);
+    }
+}
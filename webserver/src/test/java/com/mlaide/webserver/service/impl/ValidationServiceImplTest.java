@@ -1,10 +1,10 @@
 package com.mlaide.webserver.service.impl;
 
-import com.github.javafaker.Faker;
 import com.mlaide.webserver.faker.ProjectFaker;
 import com.mlaide.webserver.model.ArtifactRef;
 import com.mlaide.webserver.model.Project;
 import com.mlaide.webserver.repository.ArtifactRepository;
+import com.mlaide.webserver.repository.ArtifactVersions;
 import com.mlaide.webserver.repository.entity.ArtifactRefEntity;
 import com.mlaide.webserver.service.mapper.ArtifactMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
@@ -27,47 +28,94 @@ class ValidationServiceImplTest {
     private @Mock ArtifactMapper artifactMapper;
     private @Mock ArtifactRepository artifactRepository;
 
-    private final Faker faker = new Faker();
+    private String projectKey;
+    private List<ArtifactRefEntity> artifactRefEntities;
 
     @BeforeEach
     void initialize() {
         validationService = new ValidationServiceImpl(artifactMapper, artifactRepository);
+
+        Project project = ProjectFaker.newProject();
+        projectKey = project.getKey();
+        artifactRefEntities = new ArrayList<>();
     }
 
     @Nested
-    class checkAllArtifactsExist {
+    class resolveArtifactRefs {
         @Test
         void artifactRefs_is_null_should_return_true() {
-            boolean result = validationService.checkAllArtifactsExist("any-key", null);
+            boolean result = validationService.resolveArtifactRefs("any-key", null);
 
             assertThat(result).isTrue();
         }
 
         @Test
         void artifactRefs_is_empty_should_return_true() {
-            boolean result = validationService.checkAllArtifactsExist("any-key", new ArrayList<>());
+            boolean result = validationService.resolveArtifactRefs("any-key", new ArrayList<>());
 
             assertThat(result).isTrue();
         }
 
         @Test
-        void artifactRefs_is_not_empty_should_invoke_repository_and_return_result_from_repository() {
+        void all_artifacts_exist_should_set_latest_version_of_refs_without_version_and_return_true() {
             // Arrange
-            Project project = ProjectFaker.newProject();
-            List<ArtifactRef> artifactRefs = new ArrayList<>();
-            artifactRefs.add(new ArtifactRef());
+            List<ArtifactRef> artifactRefs = asList(artifactRef("model", null), artifactRef("data", 2));
+            when(artifactMapper.toRefEntity(artifactRefs)).thenReturn(artifactRefEntities);
+            when(artifactRepository.findArtifactVersions(projectKey, artifactRefEntities)).thenReturn(asList(
+                    artifactVersions("model", 3, 1, 2, 3),
+                    artifactVersions("data", 2, 2)));
+
+            // Act
+            boolean result = validationService.resolveArtifactRefs(projectKey, artifactRefs);
 
-            List<ArtifactRefEntity> artifactRefEntities = new ArrayList<>();
+            // Assert
+            assertThat(result).isTrue();
+            assertThat(artifactRefs.get(0).getVersion()).isEqualTo(3);
+            assertThat(artifactRefs.get(1).getVersion()).isEqualTo(2);
+        }
+
+        @Test
+        void artifact_without_version_does_not_exist_should_return_false() {
+            // Arrange
+            List<ArtifactRef> artifactRefs = asList(artifactRef("model", null));
             when(artifactMapper.toRefEntity(artifactRefs)).thenReturn(artifactRefEntities);
+            when(artifactRepository.findArtifactVersions(projectKey, artifactRefEntities)).thenReturn(new ArrayList<>());
+
+            // Act
+            boolean result = validationService.resolveArtifactRefs(projectKey, artifactRefs);
 
-            boolean expectedResult = faker.bool().bool();
-            when(artifactRepository.checkAllArtifactsExist(project.getKey(), artifactRefEntities)).thenReturn(expectedResult);
+            // Assert
+            assertThat(result).isFalse();
+        }
+
+        @Test
+        void version_of_artifact_does_not_exist_should_return_false() {
+            // Arrange
+            List<ArtifactRef> artifactRefs = asList(artifactRef("model", 4));
+            when(artifactMapper.toRefEntity(artifactRefs)).thenReturn(artifactRefEntities);
+            when(artifactRepository.findArtifactVersions(projectKey, artifactRefEntities))
+                    .thenReturn(asList(artifactVersions("model", 3, 3)));
 
             // Act
-            boolean result = validationService.checkAllArtifactsExist(project.getKey(), artifactRefs);
+            boolean result = validationService.resolveArtifactRefs(projectKey, artifactRefs);
 
             // Assert
-            assertThat(result).isEqualTo(expectedResult);
+            assertThat(result).isFalse();
         }
     }
-}
\ No newline at end of file
+
+    private ArtifactRef artifactRef(String name, Integer version) {
+        ArtifactRef artifactRef = new ArtifactRef();
+        artifactRef.setName(name);
+        artifactRef.setVersion(version);
+        return artifactRef;
+    }
+
+    private ArtifactVersions artifactVersions(String name, Integer latestVersion, Integer... versions) {
+        ArtifactVersions artifactVersions = new ArtifactVersions();
+        artifactVersions.setName(name);
+        artifactVersions.setLatestVersion(latestVersion);
+        artifactVersions.setVersions(asList(versions));
+        return artifactVersions;
+    }
+}
@@ -0,0 +1,41 @@
+package com.mlaide.webserver.service.zip;
+
+import com.mlaide.webserver.model.ZipCompression;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelZipWriterFactoryTest {
+    private final ParallelZipWriterFactory factory =
+            new ParallelZipWriterFactory(1, 1024, 2, List.of(".zip", " .PT"), Clock.systemUTC());
+
+    @AfterEach
+    void shutdown() {
+        factory.shutdown();
+    }
+
+    @Nested
+    class shouldCompress {
+        @Test
+        void auto_should_store_files_with_stored_extensions() {
+            assertThat(factory.shouldCompress("model.pt", ZipCompression.AUTO)).isFalse();
+            assertThat(factory.shouldCompress("data/ARCHIVE.ZIP", ZipCompression.AUTO)).isFalse();
+            assertThat(factory.shouldCompress("data.csv", ZipCompression.AUTO)).isTrue();
+        }
+
+        @Test
+        void deflated_should_compress_all_files() {
+            assertThat(factory.shouldCompress("model.pt", ZipCompression.DEFLATED)).isTrue();
+        }
+
+        @Test
+        void stored_should_compress_no_files() {
+            assertThat(factory.shouldCompress("data.csv", ZipCompression.STORED)).isFalse();
+        }
+    }
+}
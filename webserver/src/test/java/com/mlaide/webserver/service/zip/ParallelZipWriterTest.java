@@ -0,0 +1,236 @@
+package com.mlaide.webserver.service.zip;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelZipWriterTest {
+    private static final int BLOCK_SIZE = 1000;
+    private final ExecutorService compressor = Executors.newFixedThreadPool(4);
+    private final LocalDateTime now = LocalDateTime.of(2021, 3, 4, 5, 6, 8);
+    private final Random random = new Random(42);
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void shutdown() {
+        compressor.shutdownNow();
+    }
+
+    @Nested
+    class writeEntry {
+        @Test
+        void entries_should_be_readable_as_stream_and_as_file() throws IOException {
+            // Arrange
+            Map<String, byte[]> files = new LinkedHashMap<>();
+            files.put("empty.txt", new byte[0]);
+            files.put("small.txt", "hello".getBytes(UTF_8));
+            files.put("aligned.bin", randomBytes(2 * BLOCK_SIZE));
+            files.put("directory/compressible.txt", compressibleBytes(10 * BLOCK_SIZE + 17));
+            files.put("directory/random.bin", randomBytes(5 * BLOCK_SIZE + 1));
+            files.put("ümlaut.txt", "ä".getBytes(UTF_8));
+
+            // Act
+            byte[] zip = writeZip(files, true);
+
+            // Assert
+            assertThat(encode(readZipStream(zip))).isEqualTo(encode(files));
+            assertThat(readZipStream(zip).keySet()).containsExactlyElementsOf(files.keySet());
+            assertThat(encode(readZipFile(zip))).isEqualTo(encode(files));
+        }
+
+        @Test
+        void compressible_content_should_be_compressed() throws IOException {
+            // Arrange
+            byte[] content = compressibleBytes(100 * BLOCK_SIZE);
+
+            // Act
+            byte[] zip = writeZip(Map.of("file.txt", content), true);
+
+            // Assert
+            assertThat(zip.length).isLessThan(content.length / 3);
+        }
+
+        @Test
+        void stored_content_should_not_be_compressed() throws IOException {
+            // Arrange
+            byte[] content = compressibleBytes(100 * BLOCK_SIZE);
+
+            // Act
+            byte[] zip = writeZip(Map.of("file.txt", content), false);
+
+            // Assert
+            assertThat(zip.length).isGreaterThan(content.length);
+            assertThat(readZipStream(zip).get("file.txt")).isEqualTo(content);
+        }
+
+        @Test
+        void many_entries_should_be_written_as_zip64() throws IOException {
+            // Arrange
+            Map<String, byte[]> files = new LinkedHashMap<>();
+            for (int i = 0; i < 70_000; i++) {
+                files.put("file" + i, new byte[0]);
+            }
+
+            // Act
+            byte[] zip = writeZip(files, true);
+
+            // Assert
+            Path file = Files.write(tempDir.resolve("archive.zip"), zip);
+            try (ZipFile zipFile = new ZipFile(file.toFile())) {
+                assertThat(zipFile.size()).isEqualTo(70_000);
+                assertThat(zipFile.getEntry("file69999")).isNotNull();
+            }
+        }
+
+        @Test
+        void finished_writer_should_throw_IOException() throws IOException {
+            // Arrange
+            ParallelZipWriter writer = newWriter(new ByteArrayOutputStream());
+            writer.finish();
+
+            // Act + Assert
+            assertThatThrownBy(() -> writer.writeEntry("file.txt", new ByteArrayInputStream(new byte[0]), true))
+                    .isInstanceOf(IOException.class);
+        }
+
+        @Test
+        void failing_content_should_leave_archive_incomplete() throws IOException {
+            // Arrange
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            InputStream failingContent = new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("connection reset");
+                }
+            };
+
+            // Act
+            try (ParallelZipWriter writer = newWriter(out)) {
+                writer.writeEntry("file.txt", new ByteArrayInputStream(randomBytes(10)), true);
+                assertThatThrownBy(() -> writer.writeEntry("broken.txt", failingContent, true))
+                        .isInstanceOf(IOException.class);
+            }
+
+            // Assert
+            Path file = Files.write(tempDir.resolve("archive.zip"), out.toByteArray());
+            assertThatThrownBy(() -> new ZipFile(file.toFile()).close()).isInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    class deflate {
+        @Test
+        void blocks_should_form_one_deflate_stream() throws Exception {
+            // Arrange
+            byte[] first = compressibleBytes(BLOCK_SIZE);
+            byte[] second = compressibleBytes(BLOCK_SIZE / 2);
+
+            // Act
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            compressed.write(ParallelZipWriter.deflate(first, null, Deflater.DEFAULT_COMPRESSION, false));
+            compressed.write(ParallelZipWriter.deflate(second, first, Deflater.DEFAULT_COMPRESSION, true));
+
+            // Assert
+            Inflater inflater = new Inflater(true);
+            inflater.setInput(compressed.toByteArray());
+            byte[] inflated = new byte[first.length + second.length];
+            assertThat(inflater.inflate(inflated)).isEqualTo(inflated.length);
+            assertThat(inflater.finished()).isTrue();
+            assertThat(inflated).startsWith(first).endsWith(second);
+        }
+    }
+
+    private ParallelZipWriter newWriter(ByteArrayOutputStream out) {
+        return new ParallelZipWriter(out, compressor, BLOCK_SIZE, 3, Deflater.DEFAULT_COMPRESSION, now);
+    }
+
+    private byte[] writeZip(Map<String, byte[]> files, boolean compress) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelZipWriter writer = newWriter(out)) {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                writer.writeEntry(file.getKey(), new ByteArrayInputStream(file.getValue()), compress);
+            }
+            writer.finish();
+        }
+
+        return out.toByteArray();
+    }
+
+    private Map<String, byte[]> readZipStream(byte[] zip) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                files.put(entry.getName(), IOUtils.toByteArray(zipInputStream));
+            }
+        }
+
+        return files;
+    }
+
+    private Map<String, byte[]> readZipFile(byte[] zip) throws IOException {
+        Path file = Files.write(tempDir.resolve("archive.zip"), zip);
+
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                assertThat(entry.getTimeLocal()).isEqualTo(now);
+                files.put(entry.getName(), IOUtils.toByteArray(zipFile.getInputStream(entry)));
+            }
+        }
+
+        return files;
+    }
+
+    private Map<String, String> encode(Map<String, byte[]> files) {
+        // Arrays are compared by identity in maps
+        Map<String, String> encodedFiles = new LinkedHashMap<>();
+        files.forEach((name, content) -> encodedFiles.put(name, Base64.getEncoder().encodeToString(content)));
+
+        return encodedFiles;
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+
+    private byte[] compressibleBytes(int length) {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            text.append("line ").append(random.nextInt(10)).append('\n');
+        }
+
+        return text.substring(0, length).getBytes(UTF_8);
+    }
+}